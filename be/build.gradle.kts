@@ -3,6 +3,7 @@ plugins {
     id("org.springframework.boot") version "3.5.4"
     id("io.spring.dependency-management") version "1.1.7"
     id("org.asciidoctor.jvm.convert") version "3.3.2"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "com.mailstorm"
@@ -26,6 +27,15 @@ repositories {
 
 extra["snippetsDir"] = file("build/generated-snippets")
 
+// 부하 하네스 (src/loadtest/java): 앱 전체를 임베디드 PostgreSQL + 인프로세스 SMTP 싱크로 띄워 실행
+val loadtest: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output
+    runtimeClasspath += sourceSets.main.get().output
+}
+
+configurations[loadtest.implementationConfigurationName].extendsFrom(configurations.implementation.get())
+configurations[loadtest.runtimeOnlyConfigurationName].extendsFrom(configurations.runtimeOnly.get())
+
 dependencyManagement {
     imports {
         mavenBom("org.junit:junit-bom:5.10.2")
@@ -40,6 +50,8 @@ dependencies {
     implementation("org.springframework.boot:spring-boot-starter-actuator")
     implementation("org.springframework.boot:spring-boot-starter-mail")
     implementation("org.springframework.boot:spring-boot-starter-jdbc")
+    implementation("org.flywaydb:flyway-core")
+    implementation("org.flywaydb:flyway-database-postgresql")
 
     // 기타
     implementation("org.apache.commons:commons-csv:1.10.0")
@@ -70,6 +82,11 @@ dependencies {
     testRuntimeOnly("org.junit.jupiter:junit-jupiter-engine:5.10.2")
     testRuntimeOnly("org.junit.platform:junit-platform-launcher")
 
+    // Load test harness
+    "loadtestImplementation"("io.zonky.test:embedded-postgres:2.1.0")
+    "loadtestImplementation"(enforcedPlatform("io.zonky.test.postgres:embedded-postgres-binaries-bom:16.4.0"))
+    "loadtestImplementation"("org.hdrhistogram:HdrHistogram:2.2.2")
+
     // 선택: RestDocs (MockMvc 또는 WebTestClient 중 하나만 사용)
     testImplementation("org.springframework.restdocs:spring-restdocs-mockmvc:3.0.0")
     // testImplementation("org.springframework.restdocs:spring-restdocs-webtestclient") // 사용 시 위 줄과 교체
@@ -83,6 +100,38 @@ tasks.test {
     outputs.dir(project.extra["snippetsDir"]!!)
 }
 
+// 마이크로 벤치마크 (src/jmh/java): ./gradlew jmh [-PjmhIncludes=HtmlRender]
+// 결과는 build/reports/jmh/results.json, gc 프로파일러로 op 당 할당량(gc.alloc.rate.norm) 함께 기록
+jmh {
+    jmhVersion = "1.37"
+    resultFormat = "JSON"
+    resultsFile = layout.buildDirectory.file("reports/jmh/results.json")
+    profilers = listOf("gc")
+    fork = 1
+    warmupIterations = 3
+    iterations = 5
+    findProperty("jmhIncludes")?.let { includes = listOf(it.toString()) }
+}
+
+// ./gradlew sendLoadTest -PloadtestArgs="--recipients=20000 --scenario=ab --latency-ms=2 --temp-fail=0.01"
+tasks.register<JavaExec>("sendLoadTest") {
+    group = "verification"
+    description = "Runs the end-to-end send throughput harness against an in-process SMTP sink"
+    classpath = loadtest.runtimeClasspath
+    mainClass = "com.mailstorm.be.loadtest.SendLoadHarness"
+    jvmArgs("-Xmx1g", "-XX:+UseG1GC")
+    args(findProperty("loadtestArgs")?.toString()?.split(" ")?.filter { it.isNotBlank() } ?: emptyList<String>())
+}
+
+// ./gradlew trackerLoadTest -PloadtestArgs="--target=http://localhost:8080 --secret=... --rate=2000 --concurrency=512"
+tasks.register<JavaExec>("trackerLoadTest") {
+    group = "verification"
+    description = "Fires open/click/unsubscribe traffic at a running instance and reports an HDR latency histogram"
+    classpath = loadtest.runtimeClasspath
+    mainClass = "com.mailstorm.be.loadtest.TrackerLoadGenerator"
+    args(findProperty("loadtestArgs")?.toString()?.split(" ")?.filter { it.isNotBlank() } ?: emptyList<String>())
+}
+
 tasks.asciidoctor {
     inputs.dir(project.extra["snippetsDir"]!!)
     dependsOn(tasks.test)
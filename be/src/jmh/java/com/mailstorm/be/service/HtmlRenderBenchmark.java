@@ -0,0 +1,62 @@
+package com.mailstorm.be.service;
+
+import com.mailstorm.be.global.TrackerJwtProperties;
+import com.mailstorm.be.global.TrackerJwtUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTML 트래킹 변환
+ * - processHtml: 수신자마다 변환 + 토큰 생성 (예전 발송 경로)
+ * - compile: 캠페인당 1회 변환 / render: 컴파일된 템플릿에 토큰만 끼워 넣기
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class HtmlRenderBenchmark {
+
+    private static final String RECEIVE_URL = "https://mail.example.com";
+
+    @Param({"10", "50", "200"})
+    public int blocks;
+
+    private HtmlTrackingProcessor processor;
+    private MailerService.MailGroup footer;
+    private String html;
+    private HtmlTrackingProcessor.CompiledHtml compiled;
+    private String token;
+
+    @Setup
+    public void setup() {
+        TrackerJwtUtil jwtUtil = new TrackerJwtUtil(
+                new TrackerJwtProperties("benchmark-secret-benchmark-secret-0123456789", 86_400_000L));
+        processor = new HtmlTrackingProcessor(jwtUtil);
+        footer = new MailerService.MailGroup("MailStorm", "no-reply@example.com", "서울시 어딘가 123", "02-000-0000");
+        html = NewsletterHtml.of(blocks);
+        compiled = processor.compile(html, footer, RECEIVE_URL);
+        token = processor.trackingToken(1L, 1L, 1L);
+    }
+
+    @Benchmark
+    public String processHtml() {
+        return processor.processHtml(html, 1L, 1L, 42L, footer, RECEIVE_URL);
+    }
+
+    @Benchmark
+    public HtmlTrackingProcessor.CompiledHtml compile() {
+        return processor.compile(html, footer, RECEIVE_URL);
+    }
+
+    @Benchmark
+    public String render() {
+        return compiled.render(token);
+    }
+}
@@ -0,0 +1,109 @@
+package com.mailstorm.be.service;
+
+import com.mailstorm.be.global.TrackerJwtProperties;
+import com.mailstorm.be.global.TrackerJwtUtil;
+import jakarta.mail.Message;
+import jakarta.mail.Session;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeBodyPart;
+import jakarta.mail.internet.MimeMessage;
+import jakarta.mail.internet.MimeMultipart;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.OutputStream;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 수신자별 MIME 메시지 생성 + DATA 스트림 쓰기
+ * - writerCreate: 캠페인(변형)당 1회 사전 인코딩
+ * - writerMessage: 사전 인코딩된 바이트에 수신자 헤더/토큰만 써 넣기 (현재 발송 경로)
+ * - javaMailMessage: MimeMultipart 로 매번 조립/인코딩 (비교 기준)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MimeBuildBenchmark {
+
+    @Param({"10", "50", "200"})
+    public int blocks;
+
+    private Session session;
+    private HtmlTrackingProcessor.CompiledHtml compiled;
+    private CampaignMessageWriter writer;
+    private String token;
+    private long recipientId;
+
+    @Setup
+    public void setup() {
+        TrackerJwtUtil jwtUtil = new TrackerJwtUtil(
+                new TrackerJwtProperties("benchmark-secret-benchmark-secret-0123456789", 86_400_000L));
+        HtmlTrackingProcessor processor = new HtmlTrackingProcessor(jwtUtil);
+        session = Session.getInstance(new Properties());
+        compiled = processor.compile(NewsletterHtml.of(blocks),
+                new MailerService.MailGroup("MailStorm", "no-reply@example.com", "서울시 어딘가 123", "02-000-0000"),
+                "https://mail.example.com");
+        writer = writerCreate();
+        token = processor.trackingToken(1L, 1L, 42L);
+    }
+
+    @Benchmark
+    public CampaignMessageWriter writerCreate() {
+        return CampaignMessageWriter.create("news@example.com", "MailStorm 뉴스레터", "이번 주 업데이트 소식",
+                "원격 지원 제품군의 새로운 기능을 소개합니다", compiled, 1L, 1L, null, null);
+    }
+
+    @Benchmark
+    public long writerMessage() throws Exception {
+        long id = ++recipientId;
+        MimeMessage message = writer.message(session, id, "user" + id + "@example.com", token);
+        CountingStream out = new CountingStream();
+        message.writeTo(out);
+        return out.count;
+    }
+
+    @Benchmark
+    public long javaMailMessage() throws Exception {
+        long id = ++recipientId;
+        MimeMessage message = new MimeMessage(session);
+        message.setFrom(new InternetAddress("news@example.com", "MailStorm 뉴스레터", "UTF-8"));
+        message.setRecipient(Message.RecipientType.TO, new InternetAddress("user" + id + "@example.com"));
+        message.setSubject("이번 주 업데이트 소식", "UTF-8");
+
+        MimeBodyPart text = new MimeBodyPart();
+        text.setText("원격 지원 제품군의 새로운 기능을 소개합니다", "UTF-8");
+        MimeBodyPart html = new MimeBodyPart();
+        html.setContent(compiled.render(token), "text/html; charset=UTF-8");
+        MimeMultipart alternative = new MimeMultipart("alternative");
+        alternative.addBodyPart(text);
+        alternative.addBodyPart(html);
+        message.setContent(alternative);
+        message.saveChanges();
+
+        CountingStream out = new CountingStream();
+        message.writeTo(out);
+        return out.count;
+    }
+
+    // 쓴 바이트 수만 세는 출력 (네트워크 비용 제외, 결과는 반환값으로 소비)
+    private static final class CountingStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
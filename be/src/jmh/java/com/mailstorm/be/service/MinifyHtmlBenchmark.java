@@ -0,0 +1,36 @@
+package com.mailstorm.be.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 콘텐츠 저장 시 HTML 압축 (MailContentService.minifyHtml)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MinifyHtmlBenchmark {
+
+    @Param({"10", "50", "200"})
+    public int blocks;
+
+    private String html;
+
+    @Setup
+    public void setup() {
+        html = NewsletterHtml.of(blocks);
+    }
+
+    @Benchmark
+    public String minifyHtml() {
+        return MailContentService.minifyHtml(html);
+    }
+}
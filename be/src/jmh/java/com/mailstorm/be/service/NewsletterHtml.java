@@ -0,0 +1,54 @@
+package com.mailstorm.be.service;
+
+/**
+ * 벤치마크용 뉴스레터 HTML (에디터 출력과 비슷하게 테이블 레이아웃 + 이미지 + 링크 + 들여쓰기/줄바꿈)
+ * 기사 블록 1개가 약 1.2KB 라 blocks 로 크기를 맞춘다 (10 ≈ 12KB, 50 ≈ 60KB, 200 ≈ 240KB).
+ */
+final class NewsletterHtml {
+
+    private NewsletterHtml() {
+    }
+
+    static String of(int blocks) {
+        StringBuilder sb = new StringBuilder(blocks * 1300 + 2048);
+        sb.append("""
+                <!DOCTYPE html>
+                <html lang="ko">
+                <head>
+                  <meta charset="UTF-8" />
+                  <meta name="viewport" content="width=device-width, initial-scale=1.0" />
+                  <title>MailStorm 뉴스레터</title>
+                </head>
+                <body style="margin:0;padding:0;background:#f4f4f4;">
+                  <table role="presentation" width="100%" cellpadding="0" cellspacing="0" border="0">
+                    <tr>
+                      <td align="center">
+                        <img src="https://cdn.example.com/newsletter/header.png" width="600" alt="header">
+                      </td>
+                    </tr>
+                """);
+        for (int i = 0; i < blocks; i++) {
+            sb.append("""
+                        <tr>
+                          <td style="padding:24px 32px;background:#ffffff;">
+                            <img src="https://cdn.example.com/newsletter/article-%1$d.jpg" width="536" style="border:0;display:inline;" alt="기사 %1$d">
+                            <h2 style="font-size:20px;color:#222222;margin:16px 0 8px;">이번 주 업데이트 소식 %1$d</h2>
+                            <p style="font-size:14px;line-height:1.6;color:#555555;">
+                              원격 지원 제품군의 새로운 기능과 개선 사항을 소개합니다. 보안 강화, 성능 개선,
+                              그리고 고객 여러분의 의견을 반영한 사용성 업데이트가 포함되어 있습니다.
+                            </p>
+                            <a href="https://www.example.com/news/%1$d?utm_source=mail&amp;utm_campaign=weekly" style="color:#007aff;">자세히 보기</a>
+                            &nbsp;|&nbsp;
+                            <a href="https://www.example.com/share/%1$d" style="color:#007aff;">공유하기</a>
+                          </td>
+                        </tr>
+                    """.formatted(i));
+        }
+        sb.append("""
+                  </table>
+                </body>
+                </html>
+                """);
+        return sb.toString();
+    }
+}
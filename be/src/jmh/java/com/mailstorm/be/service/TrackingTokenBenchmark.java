@@ -0,0 +1,43 @@
+package com.mailstorm.be.service;
+
+import com.mailstorm.be.global.TrackerJwtProperties;
+import com.mailstorm.be.global.TrackerJwtUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 트래킹 토큰 생성(발송 시 수신자마다) / 검증(트래커 요청마다)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TrackingTokenBenchmark {
+
+    private TrackerJwtUtil jwtUtil;
+    private String token;
+    private long recipientId;
+
+    @Setup
+    public void setup() {
+        jwtUtil = new TrackerJwtUtil(
+                new TrackerJwtProperties("benchmark-secret-benchmark-secret-0123456789", 86_400_000L));
+        token = jwtUtil.generateTrackingToken(1L, 1L, 42L);
+    }
+
+    @Benchmark
+    public String generate() {
+        return jwtUtil.generateTrackingToken(1L, 1L, ++recipientId);
+    }
+
+    @Benchmark
+    public TrackerJwtUtil.TrackingInfo verify() {
+        return jwtUtil.verifyTrackingToken(token);
+    }
+}
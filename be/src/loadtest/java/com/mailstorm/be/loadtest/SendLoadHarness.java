@@ -0,0 +1,339 @@
+package com.mailstorm.be.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.mailstorm.be.MailStormBeApplication;
+import com.mailstorm.be.service.MailerService;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 발송 경로 종단 부하 하네스 (./gradlew sendLoadTest -PloadtestArgs="--recipients=20000 --scenario=ab")
+ * 임베디드 PostgreSQL + 인프로세스 SMTP 싱크로 앱을 띄우고 수신자 N 명을 시드한 뒤
+ * MailerService.sendByCampaignId (ab 면 테스트 샷 → runAbFollowup) 를 실행해
+ * 단계별 처리량, 메일당 SMTP p50/p99, 힙 최대치/GC, 장애 주입 대비 실패 집계를 보고한다.
+ * 결과는 콘솔과 build/reports/loadtest/send-*.json 에 남는다. 네트워크 없이 노트북/CI 에서 돈다.
+ *
+ * 옵션 (--key=value)
+ *   scenario       send | untracked | ab (기본 send)
+ *   recipients     수신자 수 (기본 10000)
+ *   domains        수신 도메인 수 (기본 20)
+ *   blocks         본문 기사 블록 수, 1 블록 ≈ 1.2KB (기본 20)
+ *   test-ratio     ab 테스트 샷 비율 % (기본 20)
+ *   latency-ms     SMTP 명령당 지연 (기본 0)
+ *   temp-fail      RCPT 451 확률 (기본 0)
+ *   perm-fail      RCPT 550 확률 (기본 0)
+ *   drop           DATA 후 연결 끊김 확률 (기본 0)
+ *   max-concurrency 릴레이 AIMD 최대 동시 전송 수 (기본 64)
+ *   jdbc-url       지정하면 임베디드 DB 대신 사용 (user/password: jdbc-user, jdbc-password)
+ *   report-dir     결과 JSON 디렉터리 (기본 build/reports/loadtest)
+ */
+public final class SendLoadHarness {
+
+    private SendLoadHarness() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opts = parse(args);
+        String scenario = opts.getOrDefault("scenario", "send");
+        int recipients = Integer.parseInt(opts.getOrDefault("recipients", "10000"));
+        int domains = Integer.parseInt(opts.getOrDefault("domains", "20"));
+        int blocks = Integer.parseInt(opts.getOrDefault("blocks", "20"));
+        int testRatio = Integer.parseInt(opts.getOrDefault("test-ratio", "20"));
+        SmtpSink.Faults faults = new SmtpSink.Faults(
+                Long.parseLong(opts.getOrDefault("latency-ms", "0")),
+                Double.parseDouble(opts.getOrDefault("temp-fail", "0")),
+                Double.parseDouble(opts.getOrDefault("perm-fail", "0")),
+                Double.parseDouble(opts.getOrDefault("drop", "0")));
+
+        EmbeddedPostgres postgres = null;
+        int exit = 0;
+        try (SmtpSink sink = SmtpSink.start(faults)) {
+            String jdbcUrl = opts.get("jdbc-url");
+            if (jdbcUrl == null) {
+                postgres = EmbeddedPostgres.builder().start();
+                jdbcUrl = postgres.getJdbcUrl("postgres", "postgres");
+            }
+
+            Map<String, Object> props = new HashMap<>();
+            props.put("spring.datasource.url", jdbcUrl);
+            props.put("spring.datasource.username", opts.getOrDefault("jdbc-user", "postgres"));
+            props.put("spring.datasource.password", opts.getOrDefault("jdbc-password", "postgres"));
+            props.put("spring.datasource.hikari.maximum-pool-size", "20");
+            props.put("spring.jpa.hibernate.ddl-auto", "none");
+            props.put("server.port", "0");
+            props.put("jwt.secret", "loadtest-jwt-secret-loadtest-jwt-secret-0123456789");
+            props.put("google.client-id", "loadtest");
+            props.put("google.client-secret", "loadtest");
+            props.put("google.redirect-uri", "http://localhost/auth");
+            props.put("google.front-redirect-uri", "http://localhost/");
+            props.put("google.error-redirect-uri", "http://localhost/error");
+            props.put("cors.allowed-origins", "http://localhost");
+            props.put("tracker.jwt-secret", "loadtest-tracker-secret-loadtest-tracker-secret-0123");
+            props.put("tracker.jws-expire-ms", "604800000");
+            props.put("app.receive-url", "http://localhost");
+            props.put("app.smtp.host", "127.0.0.1");
+            props.put("app.smtp.port", String.valueOf(sink.port()));
+            props.put("app.smtp.username", "");
+            props.put("app.smtp.password", "");
+            props.put("app.smtp.concurrency.max", opts.getOrDefault("max-concurrency", "64"));
+            // 주입한 실패마다 스택 트레이스가 찍히면 측정이 로그 I/O 에 묶인다
+            props.put("logging.level.com.mailstorm.be.service.MailerService", "OFF");
+            props.put("logging.level.com.mailstorm.be.service.SmtpRelayPool", "ERROR");
+
+            try (ConfigurableApplicationContext ctx = new SpringApplicationBuilder(MailStormBeApplication.class, HarnessConfig.class)
+                    .properties(props)
+                    .run()) {
+                JdbcTemplate jdbc = ctx.getBean(JdbcTemplate.class);
+                MailerService mailer = ctx.getBean(MailerService.class);
+                MeterRegistry registry = ctx.getBean(MeterRegistry.class);
+
+                long campaignId = seed(jdbc, scenario, recipients, domains, blocks, testRatio);
+                System.out.printf("Seeded campaign %d: %d recipients over %d domains (%s)%n",
+                        campaignId, recipients, domains, scenario);
+
+                List<Map<String, Object>> phases = new ArrayList<>();
+                phases.add(runPhase("send", sink, registry, () -> mailer.sendByCampaignId(campaignId)));
+                if ("ab".equals(scenario)) {
+                    // 운영에서는 MTA 로그 수집이 채우는 mail_logs 를 싱크 수신 기록으로 대신 채운다
+                    ingestLogs(jdbc, sink.drainDeliveries());
+                    phases.add(runPhase("winner", sink, registry, () -> {
+                        mailer.runAbFollowup(campaignId);
+                        return Map.of();
+                    }));
+                }
+
+                Map<String, Object> report = new LinkedHashMap<>();
+                report.put("scenario", scenario);
+                report.put("recipients", recipients);
+                report.put("domains", domains);
+                report.put("blocks", blocks);
+                report.put("faults", faults);
+                report.put("phases", phases);
+                report.put("sink", sink.stats());
+                write(report, opts.getOrDefault("report-dir", "build/reports/loadtest"), scenario);
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            exit = 1;
+        } finally {
+            if (postgres != null) postgres.close();
+        }
+        System.exit(exit);
+    }
+
+    private interface Phase {
+        Map<String, Object> run() throws Exception;
+    }
+
+    private static Map<String, Object> runPhase(String name, SmtpSink sink, MeterRegistry registry, Phase phase) throws Exception {
+        SmtpSink.Stats before = sink.stats();
+        registry.find("mailstorm.send.smtp").timers().forEach(registry::remove);
+        System.gc();
+        ManagementFactory.getMemoryPoolMXBeans().forEach(MemoryPoolMXBean::resetPeakUsage);
+        long gcCount = gcCount();
+        long gcMillis = gcMillis();
+
+        long start = System.nanoTime();
+        Map<String, Object> result = phase.run();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        SmtpSink.Stats after = sink.stats();
+        long accepted = after.accepted() - before.accepted();
+        long injected = (after.tempFailed() - before.tempFailed()) + (after.permFailed() - before.permFailed())
+                + (after.dropped() - before.dropped());
+
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("phase", name);
+        out.put("result", result);
+        out.put("seconds", round(seconds));
+        out.put("acceptedBySink", accepted);
+        out.put("messagesPerSecond", round(accepted / Math.max(seconds, 1e-9)));
+        out.put("injectedFailures", injected);
+        out.put("smtp", smtpTimers(registry));
+        out.put("heapPeakMb", heapPeakBytes() / (1024 * 1024));
+        out.put("gcCount", gcCount() - gcCount);
+        out.put("gcMillis", gcMillis() - gcMillis);
+
+        System.out.printf("[%s] %.2fs, %d accepted, %.1f msg/s, injected failures=%d, result=%s%n",
+                name, seconds, accepted, accepted / Math.max(seconds, 1e-9), injected, result);
+        return out;
+    }
+
+    // mailstorm.send.smtp 타이머 (outcome/relay 별 건수와 p50/p99, ms)
+    private static List<Map<String, Object>> smtpTimers(MeterRegistry registry) {
+        List<Map<String, Object>> timers = new ArrayList<>();
+        for (Timer t : registry.find("mailstorm.send.smtp").timers()) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("phase", t.getId().getTag("phase"));
+            row.put("relay", t.getId().getTag("relay"));
+            row.put("outcome", t.getId().getTag("outcome"));
+            row.put("count", t.count());
+            row.put("meanMs", round(t.mean(TimeUnit.MILLISECONDS)));
+            for (ValueAtPercentile p : t.takeSnapshot().percentileValues()) {
+                row.put("p" + Math.round(p.percentile() * 100) + "Ms", round(p.value(TimeUnit.MILLISECONDS)));
+            }
+            row.put("maxMs", round(t.max(TimeUnit.MILLISECONDS)));
+            timers.add(row);
+        }
+        return timers;
+    }
+
+    private static long seed(JdbcTemplate jdbc, String scenario, int recipients, int domains, int blocks, int testRatio) {
+        Long userId = jdbc.queryForObject("""
+                    INSERT INTO users (email, name, provider, role, created_at, updated_at)
+                    VALUES ('loadtest-' || gen_random_uuid() || '@example.com', 'loadtest', 'local', 'USER', now(), now())
+                    RETURNING id
+                """, Long.class);
+        Long groupId = jdbc.queryForObject("""
+                    INSERT INTO mail_groups (user_id, name, footer_company, footer_from_mail, footer_address, footer_tel,
+                                             created_at, updated_at)
+                    VALUES (?, 'loadtest', 'MailStorm', 'no-reply@example.com', '서울시 어딘가 123', '02-000-0000', now(), now())
+                    RETURNING id
+                """, Long.class, userId);
+        jdbc.update("""
+                    INSERT INTO mail_recipients (group_id, email, name, receive, created_at, updated_at)
+                    SELECT ?, 'user' || g || '@d' || (g % ?) || '.example.com', 'user' || g, true, now(), now()
+                    FROM generate_series(1, ?) g
+                """, groupId, Math.max(1, domains), recipients);
+        Long campaignId = jdbc.queryForObject("""
+                    INSERT INTO mail_campaigns (name, group_id, user_id, created_at, status)
+                    VALUES ('loadtest', ?, ?, now(), 'draft')
+                    RETURNING id
+                """, Long.class, groupId, userId);
+        jdbc.update("""
+                    INSERT INTO mail_contents (campaign_id, html, htmlb, created_at, updated_at)
+                    VALUES (?, ?, ?, now(), now())
+                """, campaignId, newsletter(blocks, "A"), newsletter(blocks, "B"));
+        boolean ab = "ab".equals(scenario);
+        jdbc.update("""
+                    INSERT INTO mail_sendinfo (campaign_id, ab_test, ab_type, daily_unit, daily_value, test_ratio,
+                                               subject, subjectb, sender_name, sender_email, preview_text,
+                                               untracked, created_at, updated_at)
+                    VALUES (?, ?, ?, 'H', 1, ?, '부하 테스트 A', '부하 테스트 B', 'MailStorm', 'news@example.com',
+                            '부하 테스트 미리보기', ?, now(), now())
+                """, campaignId, ab, ab ? 1L : null, ab ? (long) testRatio : null, "untracked".equals(scenario));
+        return campaignId;
+    }
+
+    private static void ingestLogs(JdbcTemplate jdbc, List<SmtpSink.Delivery> deliveries) {
+        List<Object[]> rows = new ArrayList<>(deliveries.size());
+        for (SmtpSink.Delivery d : deliveries) {
+            if (d.recipientId() == null) continue;
+            rows.add(new Object[]{d.campaignId(), d.recipientId(), d.variant(), d.email()});
+        }
+        jdbc.batchUpdate("""
+                    INSERT INTO mail_logs (campaign_id, recipient_id, ab_variant, mail_to, status, created_at, updated_at)
+                    VALUES (?, ?, ?, ?, 'SENT', now(), now())
+                """, rows);
+        System.out.printf("Ingested %d delivery logs%n", rows.size());
+    }
+
+    // 테이블 레이아웃 + 이미지 + 링크 2개짜리 기사 블록 반복
+    private static String newsletter(int blocks, String variant) {
+        StringBuilder sb = new StringBuilder(blocks * 1300 + 1024);
+        sb.append("<!DOCTYPE html><html lang=\"ko\"><head><meta charset=\"UTF-8\" /><title>뉴스레터 ")
+                .append(variant).append("</title></head><body style=\"margin:0;background:#f4f4f4;\">")
+                .append("<table role=\"presentation\" width=\"100%\" cellpadding=\"0\" cellspacing=\"0\" border=\"0\">");
+        for (int i = 0; i < blocks; i++) {
+            sb.append("""
+                    <tr><td style="padding:24px 32px;background:#ffffff;">
+                      <img src="https://cdn.example.com/newsletter/article-%1$d.jpg" width="536" alt="기사 %1$d">
+                      <h2 style="font-size:20px;color:#222222;">이번 주 업데이트 소식 %1$d</h2>
+                      <p style="font-size:14px;line-height:1.6;color:#555555;">원격 지원 제품군의 새로운 기능과 개선 사항을 소개합니다.
+                      보안 강화, 성능 개선, 그리고 고객 여러분의 의견을 반영한 사용성 업데이트가 포함되어 있습니다.</p>
+                      <a href="https://www.example.com/news/%1$d?utm_source=mail" style="color:#007aff;">자세히 보기</a>
+                      <a href="https://www.example.com/share/%1$d" style="color:#007aff;">공유하기</a>
+                    </td></tr>
+                    """.formatted(i));
+        }
+        return sb.append("</table></body></html>").toString();
+    }
+
+    private static long heapPeakBytes() {
+        return ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(p -> p.getType() == MemoryType.HEAP)
+                .mapToLong(p -> p.getPeakUsage().getUsed())
+                .sum();
+    }
+
+    private static long gcCount() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream().mapToLong(GarbageCollectorMXBean::getCollectionCount).sum();
+    }
+
+    private static long gcMillis() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream().mapToLong(GarbageCollectorMXBean::getCollectionTime).sum();
+    }
+
+    private static void write(Map<String, Object> report, String dir, String scenario) throws Exception {
+        Path path = Path.of(dir).resolve("send-" + scenario + "-"
+                + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json");
+        Files.createDirectories(path.getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(path.toFile(), report);
+        System.out.println("Report written to " + path.toAbsolutePath());
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> opts = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) continue;
+            int eq = arg.indexOf('=');
+            if (eq > 2) opts.put(arg.substring(2, eq), arg.substring(eq + 1));
+            else opts.put(arg.substring(2), "true");
+        }
+        return opts;
+    }
+
+    private static double round(double v) {
+        return Math.round(v * 100) / 100.0;
+    }
+
+    /**
+     * 하네스 전용 설정: 발송 타이머에 실행 전체 구간 p50/p99 를 켠다 (운영 설정은 히스토그램 버킷만)
+     */
+    @Configuration
+    static class HarnessConfig {
+
+        @Bean
+        MeterFilter sendPercentiles() {
+            return new MeterFilter() {
+                @Override
+                public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                    if (!id.getName().startsWith("mailstorm.send.")) return config;
+                    return DistributionStatisticConfig.builder()
+                            .percentiles(0.5, 0.99)
+                            .expiry(Duration.ofHours(6))
+                            .bufferLength(1)
+                            .build()
+                            .merge(config);
+                }
+            };
+        }
+    }
+}
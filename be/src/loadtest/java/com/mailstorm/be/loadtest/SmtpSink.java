@@ -0,0 +1,228 @@
+package com.mailstorm.be.loadtest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 부하 테스트용 인프로세스 SMTP 서버 (메일은 저장하지 않고 세기만 한다)
+ * - 명령마다 latencyMs 지연
+ * - RCPT 에서 tempFailRate 확률로 451, permFailRate 확률로 550 응답
+ * - DATA 종료 시점에 dropRate 확률로 응답 없이 연결 끊기
+ * 받은 메시지는 X-Campaign-ID / X-Recipient-ID / X-AB-Variant 헤더로 Delivery 를 남겨
+ * 하네스가 MTA 로그 수집(mail_logs)을 흉내 낼 수 있게 한다.
+ */
+public final class SmtpSink implements AutoCloseable {
+
+    public record Faults(long latencyMs, double tempFailRate, double permFailRate, double dropRate) {
+    }
+
+    public record Delivery(long campaignId, Long recipientId, String variant, String email) {
+    }
+
+    public record Stats(long sessions, long accepted, long tempFailed, long permFailed, long dropped,
+                        long bytes, long duplicates) {
+    }
+
+    private final ServerSocket server;
+    private final Faults faults;
+    private final ExecutorService connections = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final LongAdder sessions = new LongAdder();
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder tempFailed = new LongAdder();
+    private final LongAdder permFailed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    // 수신 주소별 수락 횟수 (2 이상이면 중복 발송)
+    private final Map<String, Integer> perRecipient = new ConcurrentHashMap<>();
+    private final Queue<Delivery> deliveries = new ConcurrentLinkedQueue<>();
+
+    private SmtpSink(ServerSocket server, Faults faults) {
+        this.server = server;
+        this.faults = faults;
+    }
+
+    public static SmtpSink start(Faults faults) throws IOException {
+        SmtpSink sink = new SmtpSink(new ServerSocket(0, 1024, InetAddress.getLoopbackAddress()), faults);
+        Thread.ofPlatform().daemon().name("smtp-sink-accept").start(sink::acceptLoop);
+        return sink;
+    }
+
+    public int port() {
+        return server.getLocalPort();
+    }
+
+    public Stats stats() {
+        long duplicates = perRecipient.values().stream().mapToLong(n -> n - 1).sum();
+        return new Stats(sessions.sum(), accepted.sum(), tempFailed.sum(), permFailed.sum(), dropped.sum(),
+                bytes.sum(), duplicates);
+    }
+
+    // 지금까지 받은 메시지를 꺼내 간다 (꺼낸 것은 다시 나오지 않음)
+    public List<Delivery> drainDeliveries() {
+        List<Delivery> drained = new ArrayList<>();
+        for (Delivery d; (d = deliveries.poll()) != null; ) {
+            drained.add(d);
+        }
+        return drained;
+    }
+
+    private void acceptLoop() {
+        while (!server.isClosed()) {
+            try {
+                Socket socket = server.accept();
+                connections.execute(() -> serve(socket));
+            } catch (IOException e) {
+                if (!server.isClosed()) {
+                    System.err.println("SMTP sink accept failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        sessions.increment();
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.ISO_8859_1));
+             OutputStream out = socket.getOutputStream()) {
+            reply(out, "220 smtp-sink ESMTP");
+            List<String> rcpts = new ArrayList<>();
+            String line;
+            while ((line = in.readLine()) != null) {
+                pause();
+                String cmd = line.length() >= 4 ? line.substring(0, 4).toUpperCase(Locale.ROOT) : line.toUpperCase(Locale.ROOT);
+                switch (cmd) {
+                    case "EHLO" -> reply(out, "250-smtp-sink\r\n250-8BITMIME\r\n250 SIZE 52428800");
+                    case "HELO", "NOOP" -> reply(out, "250 OK");
+                    case "MAIL", "RSET" -> {
+                        rcpts.clear();
+                        reply(out, "250 OK");
+                    }
+                    case "RCPT" -> {
+                        double roll = ThreadLocalRandom.current().nextDouble();
+                        if (roll < faults.tempFailRate()) {
+                            tempFailed.increment();
+                            reply(out, "451 4.3.0 Temporary failure (injected)");
+                        } else if (roll < faults.tempFailRate() + faults.permFailRate()) {
+                            permFailed.increment();
+                            reply(out, "550 5.1.1 Mailbox unavailable (injected)");
+                        } else {
+                            rcpts.add(address(line));
+                            reply(out, "250 OK");
+                        }
+                    }
+                    case "DATA" -> {
+                        if (rcpts.isEmpty()) {
+                            reply(out, "503 5.5.1 No valid recipients");
+                            continue;
+                        }
+                        reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                        Map<String, String> headers = readData(in);
+                        if (ThreadLocalRandom.current().nextDouble() < faults.dropRate()) {
+                            dropped.increment();
+                            return; // 250 없이 끊김 → 클라이언트는 전송 실패로 본다
+                        }
+                        accept(headers, rcpts);
+                        rcpts.clear();
+                        reply(out, "250 2.0.0 Queued");
+                    }
+                    case "QUIT" -> {
+                        reply(out, "221 Bye");
+                        return;
+                    }
+                    default -> reply(out, "502 5.5.2 Command not recognized");
+                }
+            }
+        } catch (SocketException e) {
+            // 클라이언트가 먼저 끊은 경우
+        } catch (IOException e) {
+            System.err.println("SMTP sink session failed: " + e.getMessage());
+        }
+    }
+
+    // 헤더 영역의 X-* 만 모으고 본문은 바이트 수만 센다
+    private Map<String, String> readData(BufferedReader in) throws IOException {
+        Map<String, String> headers = new HashMap<>();
+        boolean inHeaders = true;
+        long size = 0;
+        String line;
+        while ((line = in.readLine()) != null && !line.equals(".")) {
+            size += line.length() + 2;
+            if (inHeaders) {
+                if (line.isEmpty()) {
+                    inHeaders = false;
+                } else if (line.startsWith("X-")) {
+                    int colon = line.indexOf(':');
+                    if (colon > 0) headers.put(line.substring(0, colon), line.substring(colon + 1).trim());
+                }
+            }
+        }
+        bytes.add(size);
+        return headers;
+    }
+
+    private void accept(Map<String, String> headers, List<String> rcpts) {
+        long campaignId = parseLong(headers.get("X-Campaign-ID"), 0L);
+        Long recipientId = rcpts.size() == 1 ? parseLong(headers.get("X-Recipient-ID"), null) : null;
+        String variant = headers.get("X-AB-Variant");
+        for (String rcpt : rcpts) {
+            accepted.increment();
+            perRecipient.merge(rcpt, 1, Integer::sum);
+            deliveries.add(new Delivery(campaignId, recipientId, variant, rcpt));
+        }
+    }
+
+    private void pause() {
+        if (faults.latencyMs() <= 0) return;
+        try {
+            Thread.sleep(faults.latencyMs());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void reply(OutputStream out, String text) throws IOException {
+        out.write((text + "\r\n").getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+    }
+
+    private static String address(String rcptLine) {
+        int lt = rcptLine.indexOf('<');
+        int gt = rcptLine.indexOf('>', lt + 1);
+        return (lt >= 0 && gt > lt ? rcptLine.substring(lt + 1, gt) : rcptLine.substring(8)).toLowerCase(Locale.ROOT);
+    }
+
+    private static Long parseLong(String value, Long fallback) {
+        if (value == null) return fallback;
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.close();
+        connections.shutdownNow();
+    }
+}
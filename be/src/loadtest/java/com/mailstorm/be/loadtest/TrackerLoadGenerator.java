@@ -0,0 +1,267 @@
+package com.mailstorm.be.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.mailstorm.be.global.TrackerJwtProperties;
+import com.mailstorm.be.global.TrackerJwtUtil;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 실행 중인 인스턴스의 /tracker/* 에 오픈/클릭/수신거부 요청을 일정 도착률로 보내는 부하 생성기
+ * (./gradlew trackerLoadTest -PloadtestArgs="--target=http://localhost:8080 --secret=... --rate=2000")
+ * - 토큰은 TrackerJwtUtil 로 직접 만들므로 대상 인스턴스의 tracker.jwt-secret 과 같은 값을 넘겨야 한다
+ * - 열린 루프(open loop): 응답을 기다리지 않고 예정 시각마다 요청을 보내고, 지연은 예정 시각부터 잰다
+ *   (동시 요청이 concurrency 에 걸려 밀린 시간도 지연에 포함 → coordinated omission 보정)
+ * - repeat 비율만큼 이미 보낸 수신자를 다시 골라 중복 오픈/클릭(touch 경로)을 만든다
+ * 결과: 콘솔 요약, build/reports/loadtest/tracker-*.json (요약), tracker-*.hgrm (HDR 백분위 분포)
+ *
+ * 옵션 (--key=value)
+ *   target       대상 URL (기본 http://localhost:8080)
+ *   secret       트래커 토큰 서명 키 (없으면 TRACKER_JWT_SECRET 환경 변수)
+ *   campaign-id  / group-id / first-recipient-id (기본 1 / 1 / 1), recipients 수신자 수 (기본 10000)
+ *   rate         초당 요청 수 (기본 500), concurrency 동시 요청 한도 (기본 256)
+ *   duration-s   측정 시간 (기본 60), warmup-s 측정 전 예열 (기본 10)
+ *   mix          유형별 비중 (기본 open:80,click:18,unsubscribe:2)
+ *   repeat       이미 보낸 수신자를 다시 고를 확률 (기본 0.3)
+ *   report-dir   결과 디렉터리 (기본 build/reports/loadtest)
+ */
+public final class TrackerLoadGenerator {
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private TrackerLoadGenerator() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opts = parse(args);
+        String target = opts.getOrDefault("target", "http://localhost:8080").replaceAll("/+$", "");
+        String secret = opts.getOrDefault("secret", System.getenv("TRACKER_JWT_SECRET"));
+        if (secret == null || secret.isBlank()) {
+            System.err.println("--secret (or TRACKER_JWT_SECRET) must match the target's tracker.jwt-secret");
+            System.exit(2);
+        }
+        long campaignId = Long.parseLong(opts.getOrDefault("campaign-id", "1"));
+        long groupId = Long.parseLong(opts.getOrDefault("group-id", "1"));
+        long firstRecipientId = Long.parseLong(opts.getOrDefault("first-recipient-id", "1"));
+        int recipients = Integer.parseInt(opts.getOrDefault("recipients", "10000"));
+        double rate = Double.parseDouble(opts.getOrDefault("rate", "500"));
+        int concurrency = Integer.parseInt(opts.getOrDefault("concurrency", "256"));
+        long durationS = Long.parseLong(opts.getOrDefault("duration-s", "60"));
+        long warmupS = Long.parseLong(opts.getOrDefault("warmup-s", "10"));
+        Mix mix = Mix.parse(opts.getOrDefault("mix", "open:80,click:18,unsubscribe:2"));
+        double repeat = Double.parseDouble(opts.getOrDefault("repeat", "0.3"));
+
+        // 수신자별 토큰은 미리 만들어 둔다 (부하 생성기 CPU 가 측정에 섞이지 않게)
+        TrackerJwtUtil jwtUtil = new TrackerJwtUtil(new TrackerJwtProperties(secret, TimeUnit.DAYS.toMillis(7)));
+        String[] tokens = new String[recipients];
+        for (int i = 0; i < recipients; i++) {
+            tokens[i] = jwtUtil.generateTrackingToken(campaignId, groupId, firstRecipientId + i);
+        }
+        System.out.printf("Minted %d tracking tokens for campaign %d%n", recipients, campaignId);
+
+        Map<String, Recorder> recorders = new ConcurrentHashMap<>();
+        Map<String, LongAdder> sent = new ConcurrentHashMap<>();
+        Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+        for (String type : mix.types()) {
+            recorders.put(type, new Recorder(HIGHEST_TRACKABLE_NANOS, 3));
+            sent.put(type, new LongAdder());
+            errors.put(type, new LongAdder());
+        }
+
+        Semaphore inflight = new Semaphore(concurrency);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient client = HttpClient.newBuilder()
+                    .executor(executor)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .followRedirects(HttpClient.Redirect.NEVER)
+                    .build();
+
+            long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+            long start = System.nanoTime();
+            long measureFrom = start + TimeUnit.SECONDS.toNanos(warmupS);
+            long end = measureFrom + TimeUnit.SECONDS.toNanos(durationS);
+            int[] seen = new int[recipients];
+            int seenCount = 0;
+            boolean[] marked = new boolean[recipients];
+
+            for (long next = start; next < end; next += intervalNanos) {
+                long wait = next - System.nanoTime();
+                if (wait > 0) LockSupport.parkNanos(wait);
+
+                ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                String type = mix.pick(rnd);
+                int index;
+                if (seenCount > 0 && rnd.nextDouble() < repeat) {
+                    index = seen[rnd.nextInt(seenCount)];
+                } else {
+                    index = rnd.nextInt(recipients);
+                    if (!marked[index]) {
+                        marked[index] = true;
+                        seen[seenCount++] = index;
+                    }
+                }
+                HttpRequest request = HttpRequest.newBuilder(uri(target, type, tokens[index], index))
+                        .timeout(Duration.ofSeconds(30))
+                        .GET()
+                        .build();
+
+                long intended = next;
+                boolean measured = intended >= measureFrom;
+                inflight.acquire();
+                client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+                    long latency = System.nanoTime() - intended;
+                    inflight.release();
+                    if (!measured) return;
+                    recorders.get(type).recordValue(Math.min(latency, HIGHEST_TRACKABLE_NANOS));
+                    sent.get(type).increment();
+                    // 클릭은 302 리다이렉트가 정상
+                    if (error != null || response.statusCode() >= 400) {
+                        errors.get(type).increment();
+                    }
+                });
+            }
+            inflight.acquire(concurrency); // 남은 요청 완료 대기
+        }
+
+        report(opts.getOrDefault("report-dir", "build/reports/loadtest"), rate, concurrency, durationS, mix,
+                recorders, sent, errors);
+    }
+
+    private static URI uri(String target, String type, String token, int index) {
+        String query = "token=" + token;
+        if ("click".equals(type)) {
+            query += "&url=" + URLEncoder.encode("https://www.example.com/news/" + (index % 20), StandardCharsets.UTF_8);
+        }
+        return URI.create(target + "/tracker/" + type + "?" + query);
+    }
+
+    private static void report(String dir, double rate, int concurrency, long durationS, Mix mix,
+                               Map<String, Recorder> recorders, Map<String, LongAdder> sent,
+                               Map<String, LongAdder> errors) throws Exception {
+        Histogram total = new Histogram(HIGHEST_TRACKABLE_NANOS, 3);
+        Map<String, Object> byType = new LinkedHashMap<>();
+        long requests = 0;
+        long failed = 0;
+        for (String type : mix.types()) {
+            Histogram h = recorders.get(type).getIntervalHistogram();
+            total.add(h);
+            long n = sent.get(type).sum();
+            long e = errors.get(type).sum();
+            requests += n;
+            failed += e;
+            byType.put(type, summary(h, n, e));
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("targetRate", rate);
+        report.put("achievedRate", Math.round(requests / (double) Math.max(1, durationS) * 10) / 10.0);
+        report.put("concurrency", concurrency);
+        report.put("durationSeconds", durationS);
+        report.put("mix", mix.weights());
+        report.put("total", summary(total, requests, failed));
+        report.put("byType", byType);
+
+        String stamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        Path json = Path.of(dir).resolve("tracker-" + stamp + ".json");
+        Path hgrm = Path.of(dir).resolve("tracker-" + stamp + ".hgrm");
+        Files.createDirectories(json.getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(json.toFile(), report);
+        try (PrintStream out = new PrintStream(Files.newOutputStream(hgrm), true, StandardCharsets.UTF_8)) {
+            total.outputPercentileDistribution(out, 1_000_000.0); // ms 단위
+        }
+
+        System.out.printf("requests=%d (%.1f/s), errors=%d (%.3f%%)%n", requests, requests / (double) Math.max(1, durationS),
+                failed, requests == 0 ? 0 : failed * 100.0 / requests);
+        System.out.printf("latency ms: p50=%.2f p90=%.2f p99=%.2f p99.9=%.2f max=%.2f%n",
+                ms(total.getValueAtPercentile(50)), ms(total.getValueAtPercentile(90)),
+                ms(total.getValueAtPercentile(99)), ms(total.getValueAtPercentile(99.9)), ms(total.getMaxValue()));
+        System.out.println("Report written to " + json.toAbsolutePath() + " and " + hgrm.getFileName());
+    }
+
+    private static Map<String, Object> summary(Histogram h, long requests, long errors) {
+        Map<String, Object> s = new LinkedHashMap<>();
+        s.put("requests", requests);
+        s.put("errors", errors);
+        s.put("errorRate", requests == 0 ? 0.0 : errors / (double) requests);
+        s.put("p50Ms", ms(h.getValueAtPercentile(50)));
+        s.put("p90Ms", ms(h.getValueAtPercentile(90)));
+        s.put("p99Ms", ms(h.getValueAtPercentile(99)));
+        s.put("p999Ms", ms(h.getValueAtPercentile(99.9)));
+        s.put("maxMs", ms(h.getMaxValue()));
+        return s;
+    }
+
+    private static double ms(long nanos) {
+        return Math.round(nanos / 10_000.0) / 100.0;
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> opts = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) continue;
+            int eq = arg.indexOf('=');
+            if (eq > 2) opts.put(arg.substring(2, eq), arg.substring(eq + 1));
+            else opts.put(arg.substring(2), "true");
+        }
+        return opts;
+    }
+
+    // 요청 유형 비중 (open:80,click:18,unsubscribe:2)
+    private record Mix(List<String> types, int[] cumulative, Map<String, Integer> weights) {
+
+        static Mix parse(String spec) {
+            Map<String, Integer> weights = new LinkedHashMap<>();
+            for (String part : spec.split(",")) {
+                String[] kv = part.trim().split(":");
+                String type = kv[0].trim();
+                if (!List.of("open", "click", "unsubscribe").contains(type)) {
+                    throw new IllegalArgumentException("Unknown tracker type in mix: " + type);
+                }
+                weights.put(type, kv.length > 1 ? Integer.parseInt(kv[1].trim()) : 1);
+            }
+            List<String> types = List.copyOf(weights.keySet());
+            int[] cumulative = new int[types.size()];
+            int sum = 0;
+            for (int i = 0; i < types.size(); i++) {
+                sum += Math.max(0, weights.get(types.get(i)));
+                cumulative[i] = sum;
+            }
+            if (sum == 0) throw new IllegalArgumentException("Mix weights must not all be zero: " + spec);
+            return new Mix(types, cumulative, weights);
+        }
+
+        String pick(ThreadLocalRandom rnd) {
+            int r = rnd.nextInt(cumulative[cumulative.length - 1]);
+            for (int i = 0; i < cumulative.length; i++) {
+                if (r < cumulative[i]) return types.get(i);
+            }
+            return types.get(types.size() - 1);
+        }
+    }
+}
@@ -1,16 +1,21 @@
 package com.mailstorm.be.batch;
 
 import com.mailstorm.be.service.MailerService;
+import com.mailstorm.be.service.SendJobService;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @Component
 @RequiredArgsConstructor
@@ -20,8 +25,16 @@ public class AbFollowupScheduler {
     private final JdbcTemplate jdbcTemplate;
     private final MailerService mailerService;
 
+    // 캠페인별 단계는 각자 가상 스레드에서 실행 → 동시에 도래한 캠페인은 SendScheduler 가 번갈아 발송
+    private final ExecutorService runners = Executors.newVirtualThreadPerTaskExecutor();
+    private final Set<Long> running = ConcurrentHashMap.newKeySet();
+
+    @PreDestroy
+    public void shutdown() {
+        runners.shutdownNow();
+    }
+
     @Scheduled(fixedDelay = 60_000)
-    @Transactional
     public void pollAndRun() {
         LocalDateTime now = LocalDateTime.now();
 
@@ -43,19 +56,31 @@ public class AbFollowupScheduler {
         );
 
         for (FollowRow row : rows) {
-            try {
-                switch (row.type()) {
-                    case "S" -> handleTypeS(row, now); // 일반 흐름(이미 테스트 발송됨) → 후속만
-                    case "B" -> handleTypeB(row, now); // 예약 흐름(테스트/본발송 모두 이 배치에서)
-                    default -> log.warn("Unknown type: {} (campaignId={})", row.type(), row.campaignId());
+            // 이전 폴링에서 시작한 단계가 아직 진행 중이면 건너뜀 (상태 선점 UPDATE 로도 중복은 막힘)
+            if (!running.add(row.campaignId())) continue;
+            runners.execute(() -> {
+                try {
+                    runStep(row, now);
+                } finally {
+                    running.remove(row.campaignId());
                 }
-            } catch (Exception ex) {
-                log.error("Batch step failed. campaignId={}", row.campaignId(), ex);
-                jdbcTemplate.update(
-                        "UPDATE mail_ab_follow SET status='FAILED', updated_at=now() WHERE campaign_id=?",
-                        row.campaignId()
-                );
+            });
+        }
+    }
+
+    private void runStep(FollowRow row, LocalDateTime now) {
+        try {
+            switch (row.type()) {
+                case "S" -> handleTypeS(row, now); // 일반 흐름(이미 테스트 발송됨) → 후속만
+                case "B" -> handleTypeB(row, now); // 예약 흐름(테스트/본발송 모두 이 배치에서)
+                default -> log.warn("Unknown type: {} (campaignId={})", row.type(), row.campaignId());
             }
+        } catch (Exception ex) {
+            log.error("Batch step failed. campaignId={}", row.campaignId(), ex);
+            jdbcTemplate.update(
+                    "UPDATE mail_ab_follow SET status='FAILED', updated_at=now() WHERE campaign_id=?",
+                    row.campaignId()
+            );
         }
     }
 
@@ -75,12 +100,9 @@ public class AbFollowupScheduler {
             if (claimed == 0) return;
 
             log.info("[S] Winner follow-up run. campaignId={}", row.campaignId());
-            mailerService.runAbFollowup(row.campaignId());
+            SendJobService.State state = mailerService.runAbFollowup(row.campaignId());
 
-            jdbcTemplate.update(
-                    "UPDATE mail_ab_follow SET status='DONE', updated_at=now() WHERE campaign_id=?",
-                    row.campaignId()
-            );
+            finishStep(row.campaignId(), state, MailerService.AB_FOLLOW_DONE);
         }
     }
 
@@ -97,12 +119,9 @@ public class AbFollowupScheduler {
                 if (claimed == 0) return;
 
                 log.info("[B/ab0] Scheduled bulk send. campaignId={}", row.campaignId());
-                mailerService.sendBatchMail(row.campaignId());
+                SendJobService.State state = mailerService.sendBatchMail(row.campaignId());
 
-                jdbcTemplate.update(
-                        "UPDATE mail_ab_follow SET status='DONE', updated_at=now() WHERE campaign_id=?",
-                        row.campaignId()
-                );
+                finishStep(row.campaignId(), state, MailerService.AB_FOLLOW_DONE);
             }
             return;
         }
@@ -119,12 +138,9 @@ public class AbFollowupScheduler {
                 if (claimed == 0) return;
 
                 log.info("[B/ab3] Send A at execute_at. campaignId={}", row.campaignId());
-                mailerService.runAbBatch(row.campaignId(), false); // A
+                SendJobService.State state = mailerService.runAbBatch(row.campaignId(), false); // A
 
-                jdbcTemplate.update(
-                        "UPDATE mail_ab_follow SET status='PARTIAL', updated_at=now() WHERE campaign_id=?",
-                        row.campaignId()
-                );
+                finishStep(row.campaignId(), state, MailerService.AB_FOLLOW_PARTIAL);
             }
             // B: execute2_at
             if (isDue(row.execute2At(), now) && ("PENDING".equals(row.status()) || "PARTIAL".equals(row.status()))) {
@@ -136,12 +152,9 @@ public class AbFollowupScheduler {
                 if (claimed == 0) return;
 
                 log.info("[B/ab3] Send B at execute2_at. campaignId={}", row.campaignId());
-                mailerService.runAbBatch(row.campaignId(), true); // B
+                SendJobService.State state = mailerService.runAbBatch(row.campaignId(), true); // B
 
-                jdbcTemplate.update(
-                        "UPDATE mail_ab_follow SET status='DONE', updated_at=now() WHERE campaign_id=?",
-                        row.campaignId()
-                );
+                finishStep(row.campaignId(), state, MailerService.AB_FOLLOW_DONE);
             }
             return;
         }
@@ -158,12 +171,9 @@ public class AbFollowupScheduler {
 
             log.info("[B/ab{}] Initial test send (50:50). campaignId={}", row.abType(), row.campaignId());
             // 이 메서드는 테스트 그룹만 보내도록 구현(전체 X)
-            mailerService.runAbInitialTest(row.campaignId());
+            SendJobService.State state = mailerService.runAbInitialTest(row.campaignId());
 
-            jdbcTemplate.update(
-                    "UPDATE mail_ab_follow SET status='PARTIAL', updated_at=now() WHERE campaign_id=?",
-                    row.campaignId()
-            );
+            finishStep(row.campaignId(), state, MailerService.AB_FOLLOW_PARTIAL);
         }
 
         // 2) 승자 본발송: execute2_at
@@ -176,15 +186,24 @@ public class AbFollowupScheduler {
             if (claimed == 0) return;
 
             log.info("[B/ab{}] Winner follow-up. campaignId={}", row.abType(), row.campaignId());
-            mailerService.runAbFollowup(row.campaignId());
+            SendJobService.State state = mailerService.runAbFollowup(row.campaignId());
 
-            jdbcTemplate.update(
-                    "UPDATE mail_ab_follow SET status='DONE', updated_at=now() WHERE campaign_id=?",
-                    row.campaignId()
-            );
+            finishStep(row.campaignId(), state, MailerService.AB_FOLLOW_DONE);
         }
     }
 
+    // 단계가 일시정지/취소로 끝났으면 다음 상태 대신 PAUSED/CANCELLED (PAUSED 는 resumeSend 가 재개 후 갱신)
+    private void finishStep(Long campaignId, SendJobService.State state, String next) {
+        String status = MailerService.abFollowStatus(state, next);
+        if (!status.equals(next)) {
+            log.info("Batch step stopped. campaignId={}, state={}", campaignId, state);
+        }
+        jdbcTemplate.update(
+                "UPDATE mail_ab_follow SET status=?, updated_at=now() WHERE campaign_id=?",
+                status, campaignId
+        );
+    }
+
     private static boolean isDue(LocalDateTime when, LocalDateTime now) {
         return when != null && (now.isAfter(when) || now.isEqual(when));
     }
@@ -0,0 +1,55 @@
+package com.mailstorm.be.batch;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+
+/**
+ * 참여 시계열 버킷 롤업 (V9 mail_engagement_buckets)
+ * - hourly-retention-days 가 지난 1시간(H) 버킷을 하루 단위로 합쳐 1일(D) 버킷에 더하고 지운다
+ * - 하루 경계 기준이라 같은 날의 H 버킷이 일부만 남지 않는다. DELETE ... RETURNING 과 upsert 가 한 문장이라 중간 실패 시 그대로 남는다
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class EngagementRollupJob {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // 0 이하: 롤업하지 않음 (H 버킷 계속 보관)
+    @Value("${app.engagement.hourly-retention-days:30}")
+    private int hourlyRetentionDays;
+
+    @Scheduled(cron = "${app.engagement.rollup-cron:0 45 3 * * *}")
+    public void rollup() {
+        if (hourlyRetentionDays <= 0) return;
+        LocalDate cutoff = LocalDate.now().minusDays(hourlyRetentionDays);
+        try {
+            int merged = jdbcTemplate.update("""
+                    WITH moved AS (
+                        DELETE FROM mail_engagement_buckets
+                         WHERE granularity = 'H' AND bucket_start < ?
+                     RETURNING campaign_id, bucket_start, type, variant, link_id, events, uniques
+                    )
+                    INSERT INTO mail_engagement_buckets AS b
+                           (campaign_id, granularity, bucket_start, type, variant, link_id, events, uniques)
+                    SELECT campaign_id, 'D', date_trunc('day', bucket_start), type, variant, link_id,
+                           SUM(events), SUM(uniques)
+                      FROM moved
+                     GROUP BY campaign_id, date_trunc('day', bucket_start), type, variant, link_id
+                    ON CONFLICT (campaign_id, granularity, bucket_start, type, variant, link_id)
+                    DO UPDATE SET events = b.events + EXCLUDED.events,
+                                  uniques = b.uniques + EXCLUDED.uniques
+                    """, Timestamp.valueOf(cutoff.atStartOfDay()));
+            log.info("Engagement buckets rolled up. before={}, dailyRows={}", cutoff, merged);
+        } catch (Exception e) {
+            log.error("Engagement rollup failed. before={}", cutoff, e);
+        }
+    }
+}
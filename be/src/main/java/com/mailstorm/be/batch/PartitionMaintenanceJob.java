@@ -0,0 +1,224 @@
+package com.mailstorm.be.batch;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * mail_tracker / mail_logs 월 파티션 관리 (V4 마이그레이션 이후)
+ * - 앞으로 premake-months 개월치 파티션을 미리 생성
+ * - retention-months 가 지난 파티션은 DETACH 후 DROP (대량 DELETE 없음)
+ * - 보관 기준일에 걸쳐 있는 파티션(legacy 등)은 purge-chunk-size 단위로 잘게 삭제
+ * - 월 파티션이 없는 구간의 행은 DEFAULT 파티션(<table>_p_default, V10)에 쌓이고 WARN 으로 보고.
+ *   해당 월 파티션을 만들 때 DEFAULT 의 구간 행을 옮긴다
+ * 트래킹 중복 방지 키(touch_uq)는 파티션별이라 서로 다른 파티션에 걸친 중복은 막지 못한다 (V4 참고).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PartitionMaintenanceJob {
+
+    private static final List<String> PARTITIONED_TABLES = List.of("mail_tracker", "mail_logs");
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final String DEFAULT_SUFFIX = "_p_default";
+    private static final Pattern BOUND_FROM = Pattern.compile("FROM \\('([^']+)'\\)");
+    private static final Pattern BOUND_TO = Pattern.compile("TO \\('([^']+)'\\)");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.partition.premake-months:3}")
+    private int premakeMonths;
+
+    // 0 이하: 보관기간 무제한 (삭제하지 않음)
+    @Value("${app.partition.retention-months:0}")
+    private int retentionMonths;
+
+    @Value("${app.partition.purge-chunk-size:5000}")
+    private int purgeChunkSize;
+
+    @Value("${app.partition.purge-pause-ms:200}")
+    private long purgePauseMs;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        maintain();
+    }
+
+    @Scheduled(cron = "${app.partition.cron:0 30 3 * * *}")
+    public void maintain() {
+        for (String table : PARTITIONED_TABLES) {
+            try {
+                if (!isPartitioned(table)) {
+                    log.debug("{} is not partitioned - skip partition maintenance", table);
+                    continue;
+                }
+                ensureFuturePartitions(table);
+                warnDefaultRows(table);
+                applyRetention(table);
+            } catch (Exception e) {
+                log.error("Partition maintenance failed. table={}", table, e);
+            }
+        }
+    }
+
+    private void ensureFuturePartitions(String table) {
+        LocalDate coveredUntil = listPartitions(table).stream()
+                .map(Partition::upper)
+                .filter(u -> u != null)
+                .max(LocalDateTime::compareTo)
+                .map(LocalDateTime::toLocalDate)
+                .orElse(LocalDate.now().withDayOfMonth(1));
+
+        LocalDate target = LocalDate.now().withDayOfMonth(1).plusMonths(premakeMonths + 1L);
+        for (LocalDate from = coveredUntil.withDayOfMonth(1); from.isBefore(target); from = from.plusMonths(1)) {
+            createMonthlyPartition(table, from);
+        }
+    }
+
+    private void createMonthlyPartition(String table, LocalDate from) {
+        String name = table + "_p" + from.format(SUFFIX);
+        LocalDate to = from.plusMonths(1);
+        String defaultPartition = table + DEFAULT_SUFFIX;
+        long stranded = exists(defaultPartition) ? countRange(defaultPartition, from, to) : 0;
+        if (stranded == 0) {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + name + " PARTITION OF " + table +
+                    " FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+        } else {
+            // DEFAULT 에 이 구간 행이 있으면 PARTITION OF 가 실패한다 → DEFAULT 를 떼고 옮긴 뒤 다시 붙인다.
+            // DO 블록 한 문장이라 한 트랜잭션 (그동안 부모 테이블 쓰기는 대기)
+            jdbcTemplate.execute("""
+                    DO $$ BEGIN
+                      ALTER TABLE %1$s DETACH PARTITION %2$s;
+                      CREATE TABLE %3$s PARTITION OF %1$s FOR VALUES FROM ('%4$s') TO ('%5$s');
+                      INSERT INTO %3$s SELECT * FROM %2$s WHERE created_at >= '%4$s' AND created_at < '%5$s';
+                      DELETE FROM %2$s WHERE created_at >= '%4$s' AND created_at < '%5$s';
+                      ALTER TABLE %1$s ATTACH PARTITION %2$s DEFAULT;
+                    END $$""".formatted(table, defaultPartition, name, from, to));
+            log.warn("Moved {} rows from {} into {} - partition premake was behind", stranded, defaultPartition, name);
+        }
+
+        // 파티션 로컬 PK / 트래킹 중복 방지 키 (V4 주석 참고)
+        jdbcTemplate.execute("""
+                DO $$ BEGIN
+                  IF NOT EXISTS (SELECT 1 FROM pg_index WHERE indrelid = '%1$s'::regclass AND indisprimary) THEN
+                    ALTER TABLE %1$s ADD PRIMARY KEY (id);
+                  END IF;
+                END $$""".formatted(name));
+        if ("mail_tracker".equals(table)) {
+            jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS " + name + "_touch_uq ON " + name +
+                    " (type, campaign_id, group_id, recipient_id, (COALESCE(url, '')))");
+        }
+        log.info("Partition ready: {} [{} ~ {})", name, from, to);
+    }
+
+    // premake 범위 밖(먼 미래 등) 시각의 행: 월 파티션을 만들 때까지 DEFAULT 에 남는다
+    private void warnDefaultRows(String table) {
+        String defaultPartition = table + DEFAULT_SUFFIX;
+        if (!exists(defaultPartition)) {
+            log.warn("{} has no default partition - inserts outside premade months will fail (V10)", table);
+            return;
+        }
+        Long rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + defaultPartition, Long.class);
+        if (rows != null && rows > 0) {
+            log.warn("{} rows in {} - created_at outside premade partitions", rows, defaultPartition);
+        }
+    }
+
+    private long countRange(String relation, LocalDate from, LocalDate to) {
+        Long cnt = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM " + relation + " WHERE created_at >= ? AND created_at < ?",
+                Long.class, Timestamp.valueOf(from.atStartOfDay()), Timestamp.valueOf(to.atStartOfDay()));
+        return cnt != null ? cnt : 0;
+    }
+
+    private boolean exists(String relation) {
+        Boolean found = jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, relation);
+        return Boolean.TRUE.equals(found);
+    }
+
+    private void applyRetention(String table) {
+        if (retentionMonths <= 0) return;
+
+        LocalDateTime cutoff = LocalDate.now().withDayOfMonth(1).minusMonths(retentionMonths).atStartOfDay();
+        for (Partition p : listPartitions(table)) {
+            if (p.upper() != null && !p.upper().isAfter(cutoff)) {
+                // 파티션 전체가 보관기간 밖 → 메타데이터 작업으로 제거
+                jdbcTemplate.execute("ALTER TABLE " + table + " DETACH PARTITION " + p.name());
+                jdbcTemplate.execute("DROP TABLE " + p.name());
+                log.info("Dropped expired partition {} (upper={}, cutoff={})", p.name(), p.upper(), cutoff);
+            } else if (p.lower() == null || p.lower().isBefore(cutoff)) {
+                purgeInChunks(p.name(), cutoff);
+            }
+        }
+    }
+
+    // 기준일에 걸친 파티션: 짧은 트랜잭션으로 나눠 삭제해 락/WAL/vacuum 부담을 분산
+    private void purgeInChunks(String partition, LocalDateTime cutoff) {
+        long total = 0;
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update(
+                    "DELETE FROM " + partition + " WHERE ctid = ANY (ARRAY(" +
+                            "SELECT ctid FROM " + partition + " WHERE created_at < ? LIMIT ?))",
+                    Timestamp.valueOf(cutoff), purgeChunkSize);
+            total += deleted;
+            if (deleted > 0) pause();
+        } while (deleted >= purgeChunkSize);
+
+        if (total > 0) {
+            log.info("Purged {} rows older than {} from {}", total, cutoff, partition);
+        }
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(purgePauseMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean isPartitioned(String table) {
+        Integer cnt = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM pg_partitioned_table WHERE partrelid = to_regclass(?)",
+                Integer.class, table);
+        return cnt != null && cnt > 0;
+    }
+
+    private List<Partition> listPartitions(String table) {
+        return jdbcTemplate.query("""
+                SELECT c.relname, pg_get_expr(c.relpartbound, c.oid) AS bound
+                  FROM pg_inherits i
+                  JOIN pg_class c ON c.oid = i.inhrelid
+                 WHERE i.inhparent = to_regclass(?)
+                """,
+                (rs, i) -> {
+                    String bound = rs.getString("bound");
+                    return new Partition(rs.getString("relname"), parseBound(BOUND_FROM, bound), parseBound(BOUND_TO, bound));
+                },
+                table);
+    }
+
+    // MINVALUE/MAXVALUE 는 null
+    private static LocalDateTime parseBound(Pattern pattern, String bound) {
+        if (bound == null) return null;
+        Matcher m = pattern.matcher(bound);
+        if (!m.find()) return null;
+        return Timestamp.valueOf(m.group(1)).toLocalDateTime();
+    }
+
+    record Partition(String name, LocalDateTime lower, LocalDateTime upper) {}
+}
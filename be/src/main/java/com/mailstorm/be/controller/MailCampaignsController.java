@@ -4,13 +4,19 @@ import com.mailstorm.be.domain.MailCampaign;
 import com.mailstorm.be.dto.CreateMailCampaignDto;
 import com.mailstorm.be.dto.PatchGroupIdDto;
 import com.mailstorm.be.repository.MailCampaignRepository;
+import com.mailstorm.be.service.CampaignProgressHub;
+import com.mailstorm.be.service.EngagementCounters;
 import com.mailstorm.be.service.MailCampaignService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 
@@ -21,6 +27,8 @@ public class MailCampaignsController {
 
     private final MailCampaignService service;
     private final MailCampaignRepository repo;
+    private final CampaignProgressHub progressHub;
+    private final EngagementCounters engagementCounters;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
@@ -34,6 +42,17 @@ public class MailCampaignsController {
         return repo.findByUserIdOrderByCreatedAtDesc(userId);
     }
 
+    // 목록 화면용 집계: GET /mail-campaigns/stats?ids=1,2,3 (캠페인마다 /status/{id} 를 부르지 않게 한 번에)
+    @GetMapping("/stats")
+    public ResponseEntity<List<Map<String, Object>>> getStatsBatch(@RequestParam List<Long> ids,
+                                                                   @AuthenticationPrincipal Long userId) {
+        var page = service.getStatsBatch(ids, userId);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .eTag(page.etag())
+                .body(page.items());
+    }
+
     @GetMapping("/{id}")
     public MailCampaign findOne(@PathVariable Long id) {
         return repo.findById(id).orElse(null);
@@ -76,6 +95,44 @@ public class MailCampaignsController {
         if (data == null) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "존재하지 않는 캠페인입니다."));
         }
-        return ResponseEntity.ok(data);
+        // If-None-Match 가 같으면 본문 없이 304 (ETag = 집계 버전 + 콘텐츠 버전)
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .eTag(data.etag())
+                .body(data.body());
+    }
+
+    // 콘텐츠 HTML 은 별도 리소스: 콘텐츠 수정 시각이 ETag/Last-Modified, 바뀌지 않았으면 304
+    @GetMapping(value = "/status/{id}/content", produces = MediaType.TEXT_HTML_VALUE)
+    public ResponseEntity<String> getStatusContent(@PathVariable Long id) {
+        var content = service.getStatusContent(id);
+        if (content == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (content.html() == null) {
+            return ResponseEntity.noContent().build();
+        }
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(new MediaType(MediaType.TEXT_HTML, StandardCharsets.UTF_8))
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .eTag(content.etag());
+        if (content.lastModified() != null) {
+            builder.lastModified(content.lastModified());
+        }
+        return builder.body(content.html());
+    }
+
+    // 발송/오픈/클릭/수신거부 증분을 SSE 로 (snapshot 1회 후 delta, 초당 몇 번으로 묶어서 전송)
+    @GetMapping(value = "/status/{id}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamStatus(@PathVariable Long id) {
+        return progressHub.subscribe(id);
+    }
+
+    // 오픈/클릭/수신거부 시계열 (발송 후 72시간은 1시간, 이후 1일 버킷). by=variant|link 로 나눠 볼 수 있다
+    @GetMapping("/status/{id}/timeline")
+    public EngagementCounters.Timeline getTimeline(@PathVariable Long id,
+                                                   @RequestParam(required = false) String type,
+                                                   @RequestParam(required = false) String by) {
+        return engagementCounters.timeline(id, type, by);
     }
 }
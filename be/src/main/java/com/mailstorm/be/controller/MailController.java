@@ -3,6 +3,9 @@ package com.mailstorm.be.controller;
 import com.mailstorm.be.domain.MailLog;
 import com.mailstorm.be.dto.MailSendRequest;
 import com.mailstorm.be.service.MailerService;
+import com.mailstorm.be.service.SendJobService;
+import com.mailstorm.be.service.SendScheduler;
+import com.mailstorm.be.service.SmtpRelayPool;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -13,6 +16,9 @@ import java.time.OffsetDateTime;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/mail")
@@ -20,32 +26,60 @@ import java.time.format.DateTimeParseException;
 public class MailController {
 
     private final MailerService mailerService;
+    private final SmtpRelayPool smtpRelayPool;
+    private final SendScheduler sendScheduler;
+    private final SendJobService sendJobService;
 
+    /**
+     * Idempotency-Key 헤더가 있으면 같은 키의 재요청(재시도/더블클릭)은 다시 발송하지 않고
+     * 처리 중이면 진행 중 작업 집계, 끝났으면 저장된 결과를 돌려준다.
+     */
     @PostMapping("/send")
-    public ResponseEntity<?> sendMail(@RequestBody MailSendRequest req) {
+    public ResponseEntity<?> sendMail(@RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                                      @RequestBody MailSendRequest req) {
         if (req.getCampaignId() == null) {
             return ResponseEntity.badRequest().body("campaignId가 필요합니다.");
         }
 
+        Optional<Map<String, Object>> previous = sendJobService.claimRequest(idempotencyKey, req.getCampaignId());
+        if (previous.isPresent()) {
+            return ResponseEntity.ok(previous.get());
+        }
+
         try {
             LocalDateTime execAt = parseToKstLocalDateTime(req.getExecuteAt());
             LocalDateTime exec2At = parseToKstLocalDateTime(req.getExecute2At());
 
+            Map<String, Object> result;
             if (req.getType().equals("S")) {
-                return ResponseEntity.ok(
-                        mailerService.sendByCampaignId(req.getCampaignId())
-                );
+                result = mailerService.sendByCampaignId(req.getCampaignId());
             } else {
-                return ResponseEntity.ok(
-                        mailerService.sendByCampaignIdBacth(req.getCampaignId(), execAt, exec2At)
-                );
+                result = mailerService.sendByCampaignIdBacth(req.getCampaignId(), execAt, exec2At);
             }
+            sendJobService.completeRequest(idempotencyKey, result);
+            return ResponseEntity.ok(result);
 
         } catch (IllegalArgumentException e) {
+            sendJobService.releaseRequest(idempotencyKey);
             return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (RuntimeException e) {
+            sendJobService.releaseRequest(idempotencyKey);
+            throw e;
         }
     }
 
+    // 릴레이별 최근 오류율/지연시간/유효 가중치
+    @GetMapping("/relays")
+    public List<SmtpRelayPool.RelayHealth> relayHealth() {
+        return smtpRelayPool.health();
+    }
+
+    // 우선순위 등급/테넌트별 진행 중 발송과 대기 청크
+    @GetMapping("/scheduler")
+    public SendScheduler.Status schedulerStatus() {
+        return sendScheduler.status();
+    }
+
     private LocalDateTime parseToKstLocalDateTime(String s) {
         if (s == null || s.isBlank()) return null;
 
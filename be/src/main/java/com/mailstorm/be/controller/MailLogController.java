@@ -23,6 +23,12 @@ public class MailLogController {
         return service.create(dto);
     }
 
+    @PostMapping("/bulk")
+    @ResponseStatus(HttpStatus.CREATED)
+    public List<MailLog> createMany(@RequestBody List<MailLog> dtos) {
+        return service.createMany(dtos);
+    }
+
     @GetMapping
     public List<MailLog> findAll() {
         return service.findAll();
@@ -4,11 +4,9 @@ import com.mailstorm.be.domain.MailSendInfo;
 import com.mailstorm.be.repository.MailSendInfoRepository;
 import com.mailstorm.be.service.MailSendInfoService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.BeanUtils;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 
-import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -22,7 +20,7 @@ public class MailSendInfoController {
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
     public MailSendInfo create(@RequestBody MailSendInfo dto) {
-        return repo.save(dto);
+        return service.create(dto);
     }
 
     @GetMapping
@@ -44,25 +42,13 @@ public class MailSendInfoController {
 
     @PatchMapping("/{id}")
     public MailSendInfo update(@PathVariable Long id, @RequestBody MailSendInfo dto) {
-        MailSendInfo existing = findOne(id);
-        existing.updateFrom(dto);
-        return repo.save(existing);
+        findOne(id);
+        return service.update(id, dto);
     }
 
     @PatchMapping("/by-campaign/{campaignId}")
     public MailSendInfo patch(@PathVariable Long campaignId, @RequestBody MailSendInfo patch) {
-        return repo.findByCampaignId(campaignId)
-                .map(existing -> {
-                    patch.setCampaignId(campaignId);               // 경로 우선
-                    BeanUtils.copyProperties(patch, existing, MailSendInfoService.nullProps(patch)); // null은 복사 제외
-                    existing.setUpdatedAt(LocalDateTime.now());
-                    return repo.save(existing);
-                })
-                .orElseGet(() -> {
-                    patch.setCampaignId(campaignId);
-                    patch.setUpdatedAt(LocalDateTime.now());
-                    return repo.save(patch); // 최초 생성
-                });
+        return service.patchByCampaignId(campaignId, patch);
     }
 
     @DeleteMapping("/{id}")
@@ -2,11 +2,15 @@ package com.mailstorm.be.controller;
 
 import com.mailstorm.be.service.HtmlTrackingProcessor;
 import com.mailstorm.be.service.MailTrackerService;
+import com.mailstorm.be.service.TrackerMetrics;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.util.HtmlUtils;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -26,6 +30,7 @@ public class MailTrackerController {
     private final MailTrackerService mailTrackerService;
     private final TrackerJwtUtil trackerJwtUtil;
     private final HtmlTrackingProcessor htmlTrackingProcessor;
+    private final TrackerMetrics trackerMetrics;
 
     @GetMapping
     public List<Map<String, Object>> findDetailStats(
@@ -36,29 +41,43 @@ public class MailTrackerController {
 
     @GetMapping("/open")
     public ResponseEntity<String> open(@RequestParam String token) {
+        Timer.Sample received = trackerMetrics.start();
+        var decoded = verify(token);
+        if (decoded == null) {
+            trackerMetrics.request("open", "invalid_token");
+            return ResponseEntity.badRequest().body("Invalid token");
+        }
         try {
-            var decoded = trackerJwtUtil.verifyTrackingToken(sanitizeToken(token));
-            mailTrackerService.logEvent("open", decoded.cid(), decoded.gid(), decoded.rid(), null);
+            mailTrackerService.logEvent("open", decoded.cid(), decoded.gid(), decoded.rid(), decoded.variant(), null);
+            trackerMetrics.ingested(received, "open");
             log.info("Open tracked: {}", decoded);
             return ResponseEntity.ok("OK");
         } catch (Exception e) {
-            log.error("JWT 검증 에러", e);
+            trackerMetrics.request("open", "error");
+            log.error("OPEN 기록 에러", e);
             return ResponseEntity.badRequest().body("Invalid token");
         }
     }
 
     @GetMapping("/click")
     public ResponseEntity<?> click(@RequestParam String token, @RequestParam String url, HttpServletResponse res) throws IOException {
+        Timer.Sample received = trackerMetrics.start();
+        var decoded = verify(token);
+        if (decoded == null) {
+            trackerMetrics.request("click", "invalid_token");
+            return ResponseEntity.badRequest().body("Invalid token");
+        }
+        if (!url.matches("^https?://.*")) {
+            trackerMetrics.request("click", "bad_url");
+            return ResponseEntity.badRequest().body("잘못된 URL입니다.");
+        }
         try {
-            var decoded = trackerJwtUtil.verifyTrackingToken(sanitizeToken(token));
-            if (!url.matches("^https?://.*")) {
-                return ResponseEntity.badRequest().body("잘못된 URL입니다.");
-            }
-
-            mailTrackerService.logEvent("click", decoded.cid(), decoded.gid(), decoded.rid(), URLDecoder.decode(url, "UTF-8"));
+            mailTrackerService.logEvent("click", decoded.cid(), decoded.gid(), decoded.rid(), decoded.variant(), URLDecoder.decode(url, "UTF-8"));
+            trackerMetrics.ingested(received, "click");
             res.sendRedirect(url);
             return null; // handled by redirect
         } catch (Exception e) {
+            trackerMetrics.request("click", "error");
             log.error("CLICK 예외", e);
             return ResponseEntity.badRequest().body("Invalid token");
         }
@@ -66,9 +85,16 @@ public class MailTrackerController {
 
     @GetMapping("/unsubscribe")
     public void unsubscribe(@RequestParam String token, HttpServletResponse res) throws IOException {
+        Timer.Sample received = trackerMetrics.start();
+        var decoded = verify(token);
+        if (decoded == null) {
+            trackerMetrics.request("unsubscribe", "invalid_token");
+            invalidToken(res);
+            return;
+        }
         try {
-            var decoded = trackerJwtUtil.verifyTrackingToken(sanitizeToken(token));
-            mailTrackerService.logEvent("unsubscribe", decoded.cid(), decoded.gid(), decoded.rid(), null);
+            mailTrackerService.logEvent("unsubscribe", decoded.cid(), decoded.gid(), decoded.rid(), decoded.variant(), null);
+            trackerMetrics.ingested(received, "unsubscribe");
 
             String html = unsubscribeHtml();
 
@@ -76,9 +102,99 @@ public class MailTrackerController {
             res.setCharacterEncoding("UTF-8"); // 👈 이거 추가
             res.getWriter().write(html);
         } catch (Exception e) {
-            res.setStatus(400);
-            res.setCharacterEncoding("UTF-8"); // 👈 이거 추가
-            res.getWriter().write("Invalid token");
+            trackerMetrics.request("unsubscribe", "error");
+            log.error("UNSUBSCRIBE 기록 에러", e);
+            invalidToken(res);
+        }
+    }
+
+    // RFC 8058 원클릭 수신거부: 메일 클라이언트가 List-Unsubscribe URL 로 POST (본문 List-Unsubscribe=One-Click)
+    @PostMapping("/unsubscribe")
+    public ResponseEntity<String> unsubscribeOneClick(@RequestParam String token) {
+        Timer.Sample received = trackerMetrics.start();
+        var decoded = verify(token);
+        if (decoded == null) {
+            trackerMetrics.request("unsubscribe", "invalid_token");
+            return ResponseEntity.badRequest().body("Invalid token");
+        }
+        try {
+            mailTrackerService.logEvent("unsubscribe", decoded.cid(), decoded.gid(), decoded.rid(), decoded.variant(), null);
+            trackerMetrics.ingested(received, "unsubscribe");
+            return ResponseEntity.ok("OK");
+        } catch (Exception e) {
+            trackerMetrics.request("unsubscribe", "error");
+            log.error("UNSUBSCRIBE 기록 에러", e);
+            return ResponseEntity.badRequest().body("Invalid token");
+        }
+    }
+
+    // 대량 발송 메일의 목록 수신거부: 수신자 토큰이 없으므로 주소를 입력받는다
+    @GetMapping("/unsubscribe/list")
+    public void unsubscribeListForm(@RequestParam String token, HttpServletResponse res) throws IOException {
+        if (verifyList(token) == null) {
+            trackerMetrics.request("unsubscribe", "invalid_token");
+            invalidToken(res);
+            return;
+        }
+        writeHtml(res, unsubscribeFormHtml(sanitizeToken(token)));
+    }
+
+    @PostMapping("/unsubscribe/list")
+    public void unsubscribeList(@RequestParam String token, @RequestParam String email, HttpServletResponse res) throws IOException {
+        Timer.Sample received = trackerMetrics.start();
+        var decoded = verifyList(token);
+        if (decoded == null) {
+            trackerMetrics.request("unsubscribe", "invalid_token");
+            invalidToken(res);
+            return;
+        }
+        try {
+            mailTrackerService.unsubscribeByEmail(decoded.cid(), decoded.gid(), email);
+            trackerMetrics.ingested(received, "unsubscribe");
+            writeHtml(res, unsubscribeHtml());
+        } catch (Exception e) {
+            trackerMetrics.request("unsubscribe", "error");
+            log.error("UNSUBSCRIBE 기록 에러", e);
+            invalidToken(res);
+        }
+    }
+
+    private void writeHtml(HttpServletResponse res, String html) throws IOException {
+        res.setContentType("text/html");
+        res.setCharacterEncoding("UTF-8");
+        res.getWriter().write(html);
+    }
+
+    private void invalidToken(HttpServletResponse res) throws IOException {
+        res.setStatus(400);
+        res.setCharacterEncoding("UTF-8"); // 👈 이거 추가
+        res.getWriter().write("Invalid token");
+    }
+
+    // 서명/만료/클레임 검증. 실패하면 null (검증 시간과 실패 수는 메트릭으로)
+    private TrackerJwtUtil.TrackingInfo verify(String token) {
+        Timer.Sample sample = trackerMetrics.start();
+        try {
+            TrackerJwtUtil.TrackingInfo info = trackerJwtUtil.verifyTrackingToken(sanitizeToken(token));
+            trackerMetrics.verified(sample, true);
+            return info;
+        } catch (RuntimeException e) {
+            trackerMetrics.verified(sample, false);
+            log.warn("JWT 검증 에러: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private TrackerJwtUtil.ListInfo verifyList(String token) {
+        Timer.Sample sample = trackerMetrics.start();
+        try {
+            TrackerJwtUtil.ListInfo info = trackerJwtUtil.verifyListToken(sanitizeToken(token));
+            trackerMetrics.verified(sample, true);
+            return info;
+        } catch (RuntimeException e) {
+            trackerMetrics.verified(sample, false);
+            log.warn("JWT 검증 에러: {}", e.getMessage());
+            return null;
         }
     }
 
@@ -87,6 +203,35 @@ public class MailTrackerController {
         return token.replaceAll("[\\r\\n=]", "");
     }
 
+    private String unsubscribeFormHtml(String token) {
+        return """
+                <!DOCTYPE html>
+                <html lang="ko">
+                <head>
+                  <meta charset="UTF-8" />
+                  <title>수신거부</title>
+                  <style>
+                    body { font-family:'Pretendard','sans-serif'; background:#f9f9f9; }
+                    .wrap { max-width:430px; margin:60px auto 0; background:#fff; border-radius:14px; box-shadow:0 4px 16px #0001; padding:48px 36px 54px 36px; text-align:center;}
+                    input { width:100%%; box-sizing:border-box; padding:10px; font-size:1rem; border:1px solid #ccc; border-radius:5px; margin:14px 0; }
+                    button { background:#e44; color:#fff; border:none; border-radius:5px; font-size:1.1rem; padding:10px 32px; cursor:pointer; }
+                  </style>
+                </head>
+                <body>
+                  <div class="wrap">
+                    <h2>이메일 수신거부</h2>
+                    <p>수신거부할 이메일 주소를 입력해 주세요.</p>
+                    <form method="post" action="list">
+                      <input type="hidden" name="token" value="%s" />
+                      <input type="email" name="email" required placeholder="email@example.com" />
+                      <button type="submit">수신거부</button>
+                    </form>
+                  </div>
+                </body>
+                </html>
+                """.formatted(HtmlUtils.htmlEscape(token));
+    }
+
     private String unsubscribeHtml(){
         String html = "<!DOCTYPE html>\n" +
                 "        <html lang=\"ko\">\n" +
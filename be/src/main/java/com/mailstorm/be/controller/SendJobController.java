@@ -0,0 +1,91 @@
+package com.mailstorm.be.controller;
+
+import com.mailstorm.be.dto.SendRateDto;
+import com.mailstorm.be.service.MailerService;
+import com.mailstorm.be.service.SendJobService;
+import com.mailstorm.be.service.SendPacer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 진행 중인 캠페인 발송 제어 (일시정지/재개/취소)
+ * 중지는 다음 청크 경계에서 반영되므로 응답 직후에도 진행 중인 청크는 잠시 더 전송될 수 있다.
+ */
+@RestController
+@RequestMapping("/mail/jobs")
+@RequiredArgsConstructor
+public class SendJobController {
+
+    private final SendJobService sendJobService;
+    private final MailerService mailerService;
+    private final SendPacer sendPacer;
+
+    // RUNNING/PAUSED 작업 목록
+    @GetMapping
+    public List<SendJobService.SendJob> findActive() {
+        return sendJobService.findActive();
+    }
+
+    @GetMapping("/{campaignId}")
+    public List<SendJobService.SendJob> findByCampaign(@PathVariable Long campaignId) {
+        return sendJobService.findByCampaign(campaignId);
+    }
+
+    @PostMapping("/{campaignId}/pause")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public SendJobService.SendJob pause(@PathVariable Long campaignId) {
+        return sendJobService.pause(campaignId);
+    }
+
+    @PostMapping("/{campaignId}/resume")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public SendJobService.SendJob resume(@PathVariable Long campaignId) {
+        return mailerService.resumeSend(campaignId);
+    }
+
+    // 실패 상태(app.resend.statuses, 기본 BOUNCED) 로그만 있는 수신자만 재발송 (로그가 없는 수신자는 제외, 백그라운드 청크 발송, RESEND 단계)
+    @PostMapping("/{campaignId}/resend-failed")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public Map<String, Object> resendFailed(@PathVariable Long campaignId) {
+        return mailerService.resendFailed(campaignId);
+    }
+
+    @PostMapping("/{campaignId}/cancel")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public SendJobService.SendJob cancel(@PathVariable Long campaignId) {
+        return mailerService.cancelSend(campaignId);
+    }
+
+    // 분산 발송 중인 캠페인의 현재 속도/진행/남은 시간
+    @GetMapping("/rates")
+    public List<SendPacer.RateStatus> rates() {
+        return sendPacer.statusAll();
+    }
+
+    @GetMapping("/{campaignId}/rate")
+    public SendPacer.RateStatus rate(@PathVariable Long campaignId) {
+        return sendPacer.status(campaignId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No paced send for campaign " + campaignId));
+    }
+
+    // 발송 중 속도 조정 (분당 건수)
+    @PutMapping("/{campaignId}/rate")
+    public SendPacer.RateStatus adjustRate(@PathVariable Long campaignId, @RequestBody SendRateDto dto) {
+        if (dto.getRatePerMinute() == null || dto.getRatePerMinute() <= 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "ratePerMinute 는 0보다 커야 합니다.");
+        }
+        return sendPacer.adjust(campaignId, dto.getRatePerMinute());
+    }
+
+    // 장애 시 SMTP 부하를 빠르게 내리기 위한 전체 일시정지 (이 인스턴스 기준)
+    @PostMapping("/pause-all")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public List<SendJobService.SendJob> pauseAll() {
+        return sendJobService.pauseAll();
+    }
+}
@@ -63,6 +63,14 @@ public class MailSendInfo {
     @Column(length = 255)
     private String previewText;
 
+    @Column
+    @Comment("true: 트래킹 없는 대량 발송 (도메인별 다중 RCPT)")
+    private Boolean untracked;
+
+    @Column
+    @Comment("발송 분산 시간(분). NULL/0 이면 최대 속도")
+    private Integer sendWindowMinutes;
+
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
 
@@ -96,6 +104,8 @@ public class MailSendInfo {
         this.dailyValue = dto.getDailyValue();
         this.dailyUnitB = dto.getDailyUnitB();
         this.dailyValueB = dto.getDailyValueB();
+        this.untracked = dto.getUntracked();
+        this.sendWindowMinutes = dto.getSendWindowMinutes();
     }
 
 }
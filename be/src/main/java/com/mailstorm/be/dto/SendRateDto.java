@@ -0,0 +1,10 @@
+package com.mailstorm.be.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class SendRateDto {
+    private Double ratePerMinute;
+}
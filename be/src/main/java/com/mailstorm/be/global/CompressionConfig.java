@@ -0,0 +1,29 @@
+package com.mailstorm.be.global;
+
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.web.server.Compression;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.boot.web.servlet.server.ConfigurableServletWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * 응답 gzip 압축 기본 활성화
+ * - server.compression.enabled 를 명시하지 않았으면 켠다 (mime-types/min-response-size 등 나머지는 server.compression.* 그대로)
+ * - 기본 mime 목록에 JSON/HTML 이 들어 있고 text/event-stream 은 없어 진행 스트림(SSE)은 압축/버퍼링되지 않는다
+ */
+@Configuration
+public class CompressionConfig {
+
+    @Bean
+    public WebServerFactoryCustomizer<ConfigurableServletWebServerFactory> compressionCustomizer(
+            ServerProperties serverProperties, Environment environment) {
+        return factory -> {
+            if (environment.containsProperty("server.compression.enabled")) return;
+            Compression compression = serverProperties.getCompression();
+            compression.setEnabled(true);
+            factory.setCompression(compression);
+        };
+    }
+}
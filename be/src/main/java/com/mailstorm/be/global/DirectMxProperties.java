@@ -0,0 +1,40 @@
+package com.mailstorm.be.global;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * MX 직접 전달 설정 (app.smtp.mx) - app.smtp.delivery-mode=direct-mx 일 때 사용
+ */
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "app.smtp.mx")
+public class DirectMxProperties {
+
+    // dns: 실제 MX 조회, static: staticHosts/defaultHost 고정 (로컬/테스트용)
+    private String resolver = "dns";
+    private Map<String, String> staticHosts = new LinkedHashMap<>();
+    private String defaultHost;
+
+    private int port = 25;
+    private long cacheTtlMs = 300_000;
+
+    // 도메인 큐별 동시 전송 수 / 전체 동시 연결 상한
+    private int perDomainConcurrency = 2;
+    private int maxConnections = 200;
+    private int idleConnectionsPerHost = 2;
+
+    // 4xx/연결 실패 시 도메인 단위 지수 백오프 후 재시도
+    private int maxAttempts = 3;
+    private long backoffInitialMs = 1_000;
+    private long backoffMaxMs = 300_000;
+
+    // 도메인별 재시도 큐에 쌓아 둘 유예 메일 상한 (넘으면 실패 처리)
+    private int maxQueuedPerDomain = 10_000;
+}
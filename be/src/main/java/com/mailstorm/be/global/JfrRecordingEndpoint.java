@@ -0,0 +1,192 @@
+package com.mailstorm.be.global;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * JFR 녹화 제어 (/actuator/jfr)
+ * - GET: 현재 녹화 상태
+ * - POST /actuator/jfr/start {"settings":"default|profile","maxAgeMinutes":30}: 녹화 시작 (이미 진행 중이면 그대로)
+ * - POST /actuator/jfr/dump: 지금까지의 녹화를 dump-dir 에 .jfr 파일로 저장 (녹화는 계속)
+ * - POST /actuator/jfr/stop 또는 DELETE: 녹화 중지
+ * - GET /actuator/jfr/{파일명}: 저장한 덤프 다운로드
+ * mailstorm.* 이벤트(SMTP 전송/HTML 렌더/트래커 기록)는 스택 트레이스 없이 event-threshold-ms 이상만 기록한다.
+ */
+@Component
+@Endpoint(id = "jfr")
+@Slf4j
+public class JfrRecordingEndpoint {
+
+    private static final String RECORDING_NAME = "mailstorm";
+    private static final List<String> APP_EVENTS = List.of(
+            "mailstorm.SmtpSend", "mailstorm.HtmlRender", "mailstorm.TrackerWrite");
+    // 기동 시 환경변수/시스템 프로퍼티 전체를 담는 이벤트 (비밀번호, 토큰 시크릿 등이 덤프로 새지 않게 끈다)
+    private static final List<String> SECRET_EVENTS = List.of(
+            "jdk.InitialEnvironmentVariable", "jdk.InitialSystemProperty");
+    private static final Pattern DUMP_FILE = Pattern.compile("mailstorm-\\d{8}-\\d{6}\\.jfr");
+    private static final DateTimeFormatter DUMP_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    @Value("${app.jfr.dump-dir:${java.io.tmpdir}}")
+    private String dumpDir;
+
+    @Value("${app.jfr.max-age-minutes:30}")
+    private long defaultMaxAgeMinutes;
+
+    @Value("${app.jfr.max-size-mb:256}")
+    private long maxSizeMb;
+
+    @Value("${app.jfr.event-threshold-ms:0}")
+    private long eventThresholdMs;
+
+    // 기동 시 default 설정으로 상시 녹화 (오버헤드 1% 안팎)
+    @Value("${app.jfr.start-on-boot:false}")
+    private boolean startOnBoot;
+
+    private Recording recording;
+    private String settings;
+    private Path lastDump;
+
+    @PostConstruct
+    public void startOnBoot() {
+        if (startOnBoot) {
+            start("default", null);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+
+    @ReadOperation
+    public synchronized RecordingStatus status() {
+        if (recording == null) {
+            return new RecordingStatus(RecordingState.CLOSED.name(), null, null, null, 0, dumpName());
+        }
+        return new RecordingStatus(recording.getState().name(), settings, recording.getStartTime(),
+                recording.getMaxAge(), recording.getSize(), dumpName());
+    }
+
+    @WriteOperation
+    public synchronized WebEndpointResponse<RecordingStatus> action(@Selector String action,
+                                                                    @Nullable String settings,
+                                                                    @Nullable Long maxAgeMinutes) {
+        try {
+            switch (action) {
+                case "start" -> start(settings != null ? settings : "default", maxAgeMinutes);
+                case "stop" -> stop();
+                case "dump" -> dump();
+                default -> {
+                    return new WebEndpointResponse<>(WebEndpointResponse.STATUS_BAD_REQUEST);
+                }
+            }
+            return new WebEndpointResponse<>(status());
+        } catch (IllegalStateException e) {
+            log.warn("JFR {} rejected: {}", action, e.getMessage());
+            return new WebEndpointResponse<>(status(), 409);
+        } catch (IllegalArgumentException e) {
+            log.warn("JFR {} rejected: {}", action, e.getMessage());
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_BAD_REQUEST);
+        } catch (IOException e) {
+            log.error("JFR {} failed", action, e);
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @DeleteOperation
+    public synchronized RecordingStatus delete() {
+        stop();
+        return status();
+    }
+
+    @ReadOperation(produces = "application/octet-stream")
+    public WebEndpointResponse<Resource> download(@Selector String file) {
+        if (!DUMP_FILE.matcher(file).matches()) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+        Path path = Path.of(dumpDir).resolve(file);
+        if (!Files.isRegularFile(path)) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        return new WebEndpointResponse<>(new FileSystemResource(path));
+    }
+
+    private synchronized void start(String settingsName, Long maxAgeMinutes) {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) return;
+        try {
+            if (recording != null) recording.close();
+            Recording r = new Recording(Configuration.getConfiguration(settingsName));
+            r.setName(RECORDING_NAME);
+            r.setToDisk(true);
+            r.setMaxAge(Duration.ofMinutes(maxAgeMinutes != null && maxAgeMinutes > 0 ? maxAgeMinutes : defaultMaxAgeMinutes));
+            r.setMaxSize(maxSizeMb * 1024 * 1024);
+            SECRET_EVENTS.forEach(r::disable);
+            for (String event : APP_EVENTS) {
+                r.enable(event).withThreshold(Duration.ofMillis(eventThresholdMs)).withoutStackTrace();
+            }
+            r.start();
+            recording = r;
+            settings = settingsName;
+            log.info("JFR recording started. settings={}, maxAge={}", settingsName, r.getMaxAge());
+        } catch (IOException | ParseException e) {
+            throw new IllegalArgumentException("Unknown JFR settings: " + settingsName, e);
+        }
+    }
+
+    private void stop() {
+        if (recording == null) return;
+        if (recording.getState() == RecordingState.RUNNING) {
+            recording.stop();
+            log.info("JFR recording stopped");
+        }
+    }
+
+    private void dump() throws IOException {
+        if (recording == null || recording.getState() == RecordingState.NEW) {
+            throw new IllegalStateException("No recording to dump");
+        }
+        Path dir = Path.of(dumpDir);
+        Files.createDirectories(dir);
+        Path target = dir.resolve("mailstorm-" + LocalDateTime.now().format(DUMP_TIME) + ".jfr");
+        recording.dump(target);
+        lastDump = target;
+        log.info("JFR recording dumped to {} ({} bytes)", target, Files.size(target));
+    }
+
+    private String dumpName() {
+        return lastDump != null ? lastDump.getFileName().toString() : null;
+    }
+
+    public record RecordingStatus(String state, String settings, Instant startTime, Duration maxAge,
+                                  long sizeBytes, String lastDump) {
+    }
+}
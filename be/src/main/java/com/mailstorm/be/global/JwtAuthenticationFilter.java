@@ -5,6 +5,8 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.filter.OncePerRequestFilter;
 
@@ -39,8 +41,11 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         if (token != null && tokenProvider.validateToken(token)) {
             String userId = tokenProvider.getUserId(token);
+            // 역할은 ROLE_ 권한으로 (hasRole("ADMIN") 등)
+            String role = tokenProvider.getRole(token);
+            List<GrantedAuthority> authorities = role != null ? List.of(new SimpleGrantedAuthority("ROLE_" + role)) : List.of();
             UsernamePasswordAuthenticationToken auth =
-                    new UsernamePasswordAuthenticationToken(Long.valueOf(userId), null, List.of());
+                    new UsernamePasswordAuthenticationToken(Long.valueOf(userId), null, authorities);
             SecurityContextHolder.getContext().setAuthentication(auth);
         }
 
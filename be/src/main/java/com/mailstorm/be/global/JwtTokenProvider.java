@@ -34,6 +34,7 @@ public class JwtTokenProvider {
                 .claim("email", user.getEmail())
                 .claim("name", user.getName())
                 .claim("provider", user.getProvider())
+                .claim("role", user.getRole())
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + expireMs))
                 .signWith(signingKey, SignatureAlgorithm.HS256)
@@ -62,4 +63,14 @@ public class JwtTokenProvider {
                 .getBody()
                 .getSubject();
     }
+
+    // 역할 (MEMBER/MANAGER/ADMIN), role 클레임이 없는 이전 토큰이면 null
+    public String getRole(String token) {
+        return Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build()
+                .parseClaimsJws(token)
+                .getBody()
+                .get("role", String.class);
+    }
 }
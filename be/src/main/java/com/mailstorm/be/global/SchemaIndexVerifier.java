@@ -0,0 +1,85 @@
+package com.mailstorm.be.global;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 기동 시 핫패스 인덱스 존재 여부 점검.
+ * 마이그레이션이 실패했거나 수동으로 지워진 경우 시퀀셜 스캔으로 운영되지 않도록 경고를 남긴다.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SchemaIndexVerifier {
+
+    // 인덱스명 → 용도 (db/migration 의 인덱스명과 일치해야 함)
+    static final Map<String, String> REQUIRED_INDEXES = new LinkedHashMap<>();
+    static {
+        REQUIRED_INDEXES.put("mail_logs_campaign_status_idx", "mail_logs (campaign_id, status)");
+        REQUIRED_INDEXES.put("mail_logs_campaign_variant_idx", "mail_logs (campaign_id, ab_variant)");
+        REQUIRED_INDEXES.put("mail_tracker_campaign_type_idx", "mail_tracker (campaign_id, type)");
+        REQUIRED_INDEXES.put("mail_recipients_group_receive_idx", "mail_recipients (group_id) WHERE receive");
+        REQUIRED_INDEXES.put("mail_recipients_group_created_idx", "mail_recipients (group_id, created_at)");
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void verify() {
+        try {
+            // indisvalid=false 는 CONCURRENTLY 생성이 중간에 실패한 인덱스 → 없는 것으로 취급
+            List<String> present = jdbcTemplate.queryForList("""
+                    SELECT c.relname
+                      FROM pg_index i
+                      JOIN pg_class c ON c.oid = i.indexrelid
+                      JOIN pg_namespace n ON n.oid = c.relnamespace
+                     WHERE n.nspname = current_schema()
+                       AND i.indisvalid
+                    """, String.class);
+
+            Set<String> presentSet = new HashSet<>(present);
+            List<String> missing = new ArrayList<>(REQUIRED_INDEXES.keySet().stream()
+                    .filter(name -> !presentSet.contains(name))
+                    .toList());
+
+            // logEvent 중복 방지 키는 파티션별 로컬 유니크 인덱스 (<relation>_touch_uq, V4 참고)
+            trackerRelations().stream()
+                    .map(rel -> rel + "_touch_uq")
+                    .filter(name -> !presentSet.contains(name))
+                    .forEach(missing::add);
+
+            if (missing.isEmpty()) {
+                log.info("Schema index check passed");
+                return;
+            }
+            for (String name : missing) {
+                log.warn("Missing or invalid index: {} on {} - hot queries will fall back to sequential scans",
+                        name, REQUIRED_INDEXES.getOrDefault(name, "mail_tracker touch key (unique)"));
+            }
+        } catch (Exception e) {
+            log.warn("Schema index check skipped: {}", e.getMessage());
+        }
+    }
+
+    // 파티션 테이블이면 각 파티션, 아니면 mail_tracker 자신
+    private List<String> trackerRelations() {
+        List<String> partitions = jdbcTemplate.queryForList("""
+                SELECT c.relname
+                  FROM pg_inherits i
+                  JOIN pg_class c ON c.oid = i.inhrelid
+                 WHERE i.inhparent = to_regclass('mail_tracker')
+                """, String.class);
+        return partitions.isEmpty() ? List.of("mail_tracker") : partitions;
+    }
+}
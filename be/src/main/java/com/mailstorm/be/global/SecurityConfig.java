@@ -1,5 +1,6 @@
 package com.mailstorm.be.global;
 
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
@@ -37,6 +38,10 @@ public class SecurityConfig {
                 .cors(Customizer.withDefaults())
                 .sessionManagement(sm -> sm.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
+                        // SSE(진행 스트림) 종료 시 async 재디스패치에는 JWT 필터가 다시 돌지 않으므로 허용 (최초 요청에서 이미 인증)
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                        // JFR 녹화 제어/덤프 다운로드는 관리자만 (덤프에 힙/스레드 정보가 담긴다, 나머지 actuator 는 공개)
+                        .requestMatchers("/actuator/jfr", "/actuator/jfr/**").hasRole("ADMIN")
                         .requestMatchers("/auth/**", "/api/auth/**", "/actuator/**",
                                 "/tracker/**", "/actuator/prometheus", "/docs/**", "/v3/**", "/swagger-ui/**").permitAll()
                         .anyRequest().authenticated()
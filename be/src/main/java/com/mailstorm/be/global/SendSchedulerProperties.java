@@ -0,0 +1,34 @@
+package com.mailstorm.be.global;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 캠페인 간 공정 발송 스케줄러 설정 (app.send-scheduler)
+ */
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "app.send-scheduler")
+public class SendSchedulerProperties {
+
+    // 스케줄링 단위(청크)당 수신자 수 / 동시에 진행 가능한 청크 수
+    private int chunkSize = 500;
+    private int maxInflightChunks = 8;
+
+    // 우선순위 등급별 보장 몫 (가중치 비율). 대기 중인 등급끼리만 나눠 가지므로 남는 몫은 다른 등급이 사용
+    private int testWeight = 6;
+    private int transactionalWeight = 3;
+    private int bulkWeight = 1;
+
+    // 수신자 수가 이 값 이상이거나 트래킹 없는 발송이면 BULK 등급
+    private int bulkThreshold = 10_000;
+
+    // 테넌트별 가중치 (키: dept-{부서ID} 또는 부서 없는 사용자는 user-{사용자ID}), 없으면 1
+    private Map<String, Integer> tenantWeights = new LinkedHashMap<>();
+}
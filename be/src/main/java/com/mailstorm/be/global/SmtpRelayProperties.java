@@ -0,0 +1,43 @@
+package com.mailstorm.be.global;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SMTP 릴레이 풀 설정 (app.smtp.relays)
+ * 비어 있으면 기존 단일 설정(app.smtp.host/port/username/password)을 릴레이 1개로 사용한다.
+ */
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "app.smtp")
+public class SmtpRelayProperties {
+
+    private List<Relay> relays = new ArrayList<>();
+
+    // 최근 오류율(EWMA)이 이 값 이상이면 eject-ms 동안 라우팅 제외
+    private double ejectErrorRate = 0.5;
+    private long ejectMs = 30_000;
+
+    // EWMA 지연시간이 이 값을 넘으면 비례해서 가중치 감소
+    private long slowLatencyMs = 2_000;
+
+    // EWMA 평활 계수 (최근 결과 반영 비율)
+    private double healthAlpha = 0.1;
+
+    @Getter
+    @Setter
+    public static class Relay {
+        private String name;
+        private String host;
+        private int port = 25;
+        private String username;
+        private String password;
+        private int weight = 1;
+    }
+}
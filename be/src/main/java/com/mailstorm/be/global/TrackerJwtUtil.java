@@ -1,6 +1,7 @@
 package com.mailstorm.be.global;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtBuilder;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import lombok.RequiredArgsConstructor;
@@ -13,16 +14,40 @@ import java.util.Date;
 @RequiredArgsConstructor
 public class TrackerJwtUtil {
 
+    private static final String LIST_SCOPE = "list";
+
     private final TrackerJwtProperties props;
 
     public String generateTrackingToken(Long cid, Long gid, Long rid) {
+        return generateTrackingToken(cid, gid, rid, null);
+    }
+
+    // variant: A/B 테스트 셀 ("A"/"B") 또는 승자 본발송 ("W"), 일반 발송이면 null (클레임 생략)
+    public String generateTrackingToken(Long cid, Long gid, Long rid, String variant) {
+        Date now = new Date();
+        Date expiry = new Date(now.getTime() + props.getJwsExpireMs());
+
+        JwtBuilder builder = Jwts.builder()
+                .claim("cid", cid)
+                .claim("gid", gid)
+                .claim("rid", rid);
+        if (variant != null) builder.claim("v", variant);
+        return builder
+                .setIssuedAt(now)
+                .setExpiration(expiry)
+                .signWith(SignatureAlgorithm.HS256, props.getJwtSecret().getBytes(StandardCharsets.UTF_8))
+                .compact();
+    }
+
+    // 대량(트래킹 없는) 발송의 목록 수신거부 링크용: 수신자 없이 캠페인/주소록만 담는다
+    public String generateListToken(Long cid, Long gid) {
         Date now = new Date();
         Date expiry = new Date(now.getTime() + props.getJwsExpireMs());
 
         return Jwts.builder()
                 .claim("cid", cid)
                 .claim("gid", gid)
-                .claim("rid", rid)
+                .claim("scope", LIST_SCOPE)
                 .setIssuedAt(now)
                 .setExpiration(expiry)
                 .signWith(SignatureAlgorithm.HS256, props.getJwtSecret().getBytes(StandardCharsets.UTF_8))
@@ -30,17 +55,36 @@ public class TrackerJwtUtil {
     }
 
     public TrackingInfo verifyTrackingToken(String token) {
-        Claims claims = Jwts.parser()
-                .setSigningKey(props.getJwtSecret().getBytes(StandardCharsets.UTF_8))
-                .parseClaimsJws(token)
-                .getBody();
+        Claims claims = parse(token);
+        if (claims.get("rid") == null) {
+            throw new IllegalArgumentException("Not a recipient token");
+        }
 
         return new TrackingInfo(
                 ((Number) claims.get("cid")).longValue(),
                 ((Number) claims.get("gid")).longValue(),
-                ((Number) claims.get("rid")).longValue()
+                ((Number) claims.get("rid")).longValue(),
+                claims.get("v", String.class)
         );
     }
 
-    public record TrackingInfo(Long cid, Long gid, Long rid) {}
+    public ListInfo verifyListToken(String token) {
+        Claims claims = parse(token);
+        if (!LIST_SCOPE.equals(claims.get("scope", String.class))) {
+            throw new IllegalArgumentException("Not a list token");
+        }
+        return new ListInfo(((Number) claims.get("cid")).longValue(), ((Number) claims.get("gid")).longValue());
+    }
+
+    private Claims parse(String token) {
+        return Jwts.parser()
+                .setSigningKey(props.getJwtSecret().getBytes(StandardCharsets.UTF_8))
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    // variant 는 A/B 발송 토큰에만 있다 (이전 토큰/일반 발송은 null)
+    public record TrackingInfo(Long cid, Long gid, Long rid, String variant) {}
+
+    public record ListInfo(Long cid, Long gid) {}
 }
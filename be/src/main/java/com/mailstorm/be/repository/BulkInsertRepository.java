@@ -0,0 +1,136 @@
+package com.mailstorm.be.repository;
+
+import com.mailstorm.be.domain.MailLog;
+import com.mailstorm.be.domain.MailRecipient;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * IDENTITY 전략 엔티티(mail_recipients, mail_logs)의 대량 저장소.
+ * JPA save() 는 IDENTITY 때문에 insert 배치가 불가능하므로,
+ * batch-size 단위로 multi-row INSERT ... RETURNING id 를 실행해 배치당 1회 왕복으로 저장하고 생성된 id를 엔티티에 채운다.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BulkInsertRepository {
+
+    // PostgreSQL 확장 프로토콜의 문장당 바인드 파라미터 상한 (부호 없는 16비트)
+    private static final int MAX_BIND_PARAMETERS = 65535;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // 행 수 기준. 행당 컬럼 수 × 배치 크기가 MAX_BIND_PARAMETERS 를 넘지 않게 줄여 쓴다 (mail_logs 14컬럼이면 최대 4681)
+    @Value("${app.jdbc.bulk-batch-size:500}")
+    private int batchSize;
+
+    public List<MailRecipient> insertRecipients(List<MailRecipient> recipients) {
+        Instant now = Instant.now();
+        recipients.forEach(r -> {
+            r.setCreatedAt(now);
+            r.setUpdatedAt(now);
+        });
+
+        insertChunked(
+                "INSERT INTO mail_recipients (group_id, email, name, metadata, receive, created_at, updated_at) VALUES ",
+                "(?, ?, ?, ?::jsonb, ?, ?, ?)",
+                recipients,
+                (ps, idx, r) -> {
+                    ps.setObject(idx++, r.getGroupId(), Types.BIGINT);
+                    ps.setString(idx++, r.getEmail());
+                    ps.setString(idx++, r.getName());
+                    ps.setString(idx++, r.getMetadata() != null ? r.getMetadata().toString() : null);
+                    ps.setObject(idx++, r.getReceive(), Types.BOOLEAN);
+                    ps.setTimestamp(idx++, Timestamp.from(r.getCreatedAt()));
+                    ps.setTimestamp(idx++, Timestamp.from(r.getUpdatedAt()));
+                    return idx;
+                },
+                MailRecipient::setId
+        );
+        return recipients;
+    }
+
+    public List<MailLog> insertLogs(List<MailLog> logs) {
+        LocalDateTime now = LocalDateTime.now();
+        logs.forEach(l -> {
+            l.setCreatedAt(now);
+            l.setUpdatedAt(now);
+        });
+
+        insertChunked(
+                "INSERT INTO mail_logs (campaign_id, group_id, recipient_id, queue_id, message_id, status, bounce_code, " +
+                        "bounce_reason, mail_from, mail_to, ab_variant, attempt, created_at, updated_at) VALUES ",
+                "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                logs,
+                (ps, idx, l) -> {
+                    ps.setObject(idx++, l.getCampaignId(), Types.BIGINT);
+                    ps.setObject(idx++, l.getGroupId(), Types.BIGINT);
+                    ps.setObject(idx++, l.getRecipientId(), Types.BIGINT);
+                    ps.setString(idx++, l.getQueueId());
+                    ps.setString(idx++, l.getMessageId());
+                    ps.setString(idx++, l.getStatus());
+                    ps.setString(idx++, l.getBounceCode());
+                    ps.setString(idx++, l.getBounceReason());
+                    ps.setString(idx++, l.getMailFrom());
+                    ps.setString(idx++, l.getMailTo());
+                    ps.setString(idx++, l.getAbVariant());
+                    ps.setInt(idx++, l.getAttempt());
+                    ps.setTimestamp(idx++, Timestamp.valueOf(l.getCreatedAt()));
+                    ps.setTimestamp(idx++, Timestamp.valueOf(l.getUpdatedAt()));
+                    return idx;
+                },
+                MailLog::setId
+        );
+        return logs;
+    }
+
+    private <T> void insertChunked(String head, String rowPlaceholder, List<T> rows,
+                                   RowBinder<T> binder, BiConsumer<T, Long> idSetter) {
+        int size = batchRows(batchSize, columns(rowPlaceholder));
+        for (int from = 0; from < rows.size(); from += size) {
+            List<T> chunk = rows.subList(from, Math.min(rows.size(), from + size));
+            String sql = head + String.join(", ", Collections.nCopies(chunk.size(), rowPlaceholder)) + " RETURNING id";
+
+            // 가정: 단일 INSERT ... VALUES 의 RETURNING 은 입력 행 순서대로 돌아온다.
+            // PostgreSQL 이 문서로 보장하지는 않지만 VALUES 를 순서대로 한 행씩 넣고 바로 돌려주는 현재 실행 방식에서 성립한다.
+            // 행 수가 어긋나면 id 를 잘못 채우지 않도록 실패시킨다.
+            List<Long> ids = jdbcTemplate.query(sql, ps -> {
+                int idx = 1;
+                for (T row : chunk) {
+                    idx = binder.bind(ps, idx, row);
+                }
+            }, (rs, i) -> rs.getLong(1));
+
+            if (ids.size() != chunk.size()) {
+                throw new IllegalStateException("RETURNING gave " + ids.size() + " ids for " + chunk.size() + " rows");
+            }
+            for (int i = 0; i < chunk.size(); i++) {
+                idSetter.accept(chunk.get(i), ids.get(i));
+            }
+        }
+    }
+
+    private static int batchRows(int configured, int columns) {
+        return Math.max(1, Math.min(configured, MAX_BIND_PARAMETERS / Math.max(1, columns)));
+    }
+
+    private static int columns(String rowPlaceholder) {
+        return (int) rowPlaceholder.chars().filter(ch -> ch == '?').count();
+    }
+
+    @FunctionalInterface
+    private interface RowBinder<T> {
+        int bind(PreparedStatement ps, int startIndex, T row) throws SQLException;
+    }
+}
@@ -0,0 +1,28 @@
+package com.mailstorm.be.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 트랜잭션 안이면 커밋 뒤에, 밖이면 바로 실행.
+ * 캐시 무효화가 커밋 전에 일어나면 동시 조회가 이전 값을 다시 읽어 캐시에 넣기 때문에 커밋 뒤로 미룬다.
+ * (롤백되면 실행하지 않는다: DB 가 그대로라 캐시도 그대로 유효)
+ */
+final class AfterCommit {
+
+    private AfterCommit() {
+    }
+
+    static void run(Runnable task) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            task.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                task.run();
+            }
+        });
+    }
+}
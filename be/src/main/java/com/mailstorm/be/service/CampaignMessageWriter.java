@@ -0,0 +1,309 @@
+package com.mailstorm.be.service;
+
+import jakarta.mail.Address;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import jakarta.mail.internet.MimeUtility;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 캠페인(변형) 단위로 헤더/본문을 미리 인코딩해 두고 수신자별 메일을 SMTP DATA 스트림에 바로 쓰는 작성기
+ * - From/Subject/Content-Type/X-Campaign-* 헤더와 text 파트는 한 번만 인코딩
+ * - HTML 은 토큰 위치로 나눈 세그먼트를 각각 quoted-printable 로 인코딩 (세그먼트 끝은 soft line break)
+ * - 수신자별로는 Date/To/Message-ID/X-Recipient-ID/List-Unsubscribe 와 토큰만 써 넣는다
+ * MimeMultipart/BodyPart/DataHandler 를 만들지 않으므로 메일당 본문 재인코딩이 없다.
+ * 인스턴스는 불변이라 여러 발송 스레드가 공유해도 된다.
+ */
+public final class CampaignMessageWriter {
+
+    private static final byte[] CRLF = {'\r', '\n'};
+    private static final byte[] SOFT_BREAK = {'=', '\r', '\n'};
+    private static final byte[] HEX = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+    private static final int QP_LINE_MAX = 76;
+    private static final String MESSAGE_ID_DOMAIN = "mail.rsup.io";
+    private static final String UNDISCLOSED_RECIPIENTS = "undisclosed-recipients:;";
+    private static final String ONE_CLICK = "List-Unsubscribe=One-Click";
+    // 승자 본발송 토큰의 v 클레임 (테스트 셀 A/B 와 다른 모집단이라 참여 버킷을 섞지 않는다)
+    public static final String WINNER_TRACKING_VARIANT = "W";
+
+    private final InternetAddress from;
+    private final Long campaignId;
+    private final Long groupId;
+    private final String variant;
+    private final byte[] staticHeaders;
+    private final byte[] bodyPrefix;
+    private final List<byte[]> htmlSegments;
+    private final byte[] bodySuffix;
+    private final String metricPhase;
+    private final String trackingVariant;
+    private final String unsubscribeUrl;
+
+    private CampaignMessageWriter(InternetAddress from, Long campaignId, Long groupId, String variant, byte[] staticHeaders,
+                                  byte[] bodyPrefix, List<byte[]> htmlSegments, byte[] bodySuffix,
+                                  String metricPhase, String trackingVariant, String unsubscribeUrl) {
+        this.from = from;
+        this.campaignId = campaignId;
+        this.groupId = groupId;
+        this.variant = variant;
+        this.staticHeaders = staticHeaders;
+        this.bodyPrefix = bodyPrefix;
+        this.htmlSegments = htmlSegments;
+        this.bodySuffix = bodySuffix;
+        this.metricPhase = metricPhase;
+        this.trackingVariant = trackingVariant;
+        this.unsubscribeUrl = unsubscribeUrl;
+    }
+
+    /**
+     * @param variant A/B 변형 ("A"/"B"), 일반 발송이면 null
+     * @param phase   X-AB-Phase 값 (예: "WINNER"), 없으면 null
+     * @param unsubscribeUrl List-Unsubscribe URL. 수신자별 메일(message)은 뒤에 토큰을 붙이는 접두어로 쓰고
+     *                       원클릭(RFC 8058) 헤더도 단다. 대량 메일(bulkMessage)은 그대로 쓴다 (수신자를 특정할 수 없어 원클릭 없음)
+     */
+    public static CampaignMessageWriter create(String senderEmail, String senderName, String subject, String previewText,
+                                               HtmlTrackingProcessor.CompiledHtml html,
+                                               Long campaignId, Long groupId, String variant, String phase,
+                                               String unsubscribeUrl) {
+        try {
+            InternetAddress from = new InternetAddress(senderEmail, senderName, "UTF-8");
+            String boundary = "----=_MailStorm_" + campaignId + "_" + Long.toHexString(ThreadLocalRandom.current().nextLong());
+
+            StringBuilder h = new StringBuilder(512);
+            header(h, "From", from.toString());
+            header(h, "Subject", MimeUtility.encodeText(subject, "UTF-8", "B"));
+            header(h, "MIME-Version", "1.0");
+            header(h, "Content-Type", "multipart/alternative; boundary=\"" + boundary + "\"");
+            header(h, "X-Campaign-ID", String.valueOf(campaignId));
+            header(h, "X-Group-ID", String.valueOf(groupId));
+            if (variant != null) header(h, "X-AB-Variant", variant);
+            if (phase != null) header(h, "X-AB-Phase", phase);
+
+            ByteArrayOutputStream prefix = new ByteArrayOutputStream(previewText.length() * 3 + 256);
+            ascii(prefix, "\r\n--" + boundary + "\r\n"
+                    + "Content-Type: text/plain; charset=UTF-8\r\n"
+                    + "Content-Transfer-Encoding: quoted-printable\r\n\r\n");
+            prefix.writeBytes(quotedPrintable(previewText, false));
+            ascii(prefix, "\r\n--" + boundary + "\r\n"
+                    + "Content-Type: text/html; charset=UTF-8\r\n"
+                    + "Content-Transfer-Encoding: quoted-printable\r\n\r\n");
+
+            List<String> segments = html.segments();
+            List<byte[]> encoded = new ArrayList<>(segments.size());
+            for (int i = 0; i < segments.size(); i++) {
+                encoded.add(quotedPrintable(segments.get(i), i < segments.size() - 1));
+            }
+
+            return new CampaignMessageWriter(
+                    from,
+                    campaignId,
+                    groupId,
+                    variant,
+                    h.toString().getBytes(StandardCharsets.US_ASCII),
+                    prefix.toByteArray(),
+                    List.copyOf(encoded),
+                    ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII),
+                    SendMetrics.phaseOf(variant, phase),
+                    "WINNER".equals(phase) ? WINNER_TRACKING_VARIANT : variant,
+                    unsubscribeUrl);
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException("UTF-8 not supported", e); // 발생하지 않음
+        }
+    }
+
+    // 메트릭 phase 태그 (normal/a/b/winner)
+    public String metricPhase() {
+        return metricPhase;
+    }
+
+    Long campaignId() {
+        return campaignId;
+    }
+
+    // 트래킹 토큰 v 클레임: 테스트 셀 "A"/"B", 승자 본발송 "W", 일반 발송이면 null
+    public String trackingVariant() {
+        return trackingVariant;
+    }
+
+    /**
+     * Transport 가 요구하는 최소한의 MimeMessage 껍데기. writeTo 에서 미리 인코딩된 바이트를 그대로 흘려보낸다.
+     */
+    public MimeMessage message(Session session, Long recipientId, String email, String token) throws MessagingException {
+        InternetAddress to = new InternetAddress(email);
+        return new PreEncodedMessage(session, new InternetAddress[]{to}, to.toString(), recipientId, token);
+    }
+
+    /**
+     * 트래킹 없는 대량 발송: 봉투(RCPT)만 여러 명, 본문은 1개.
+     * 수신자 주소가 서로 노출되지 않도록 To 는 undisclosed-recipients 로 쓴다.
+     */
+    public MimeMessage bulkMessage(Session session, InternetAddress[] recipients) {
+        return new PreEncodedMessage(session, recipients, UNDISCLOSED_RECIPIENTS, null, null);
+    }
+
+    // 쓴 바이트 수를 돌려준다 (JFR 이벤트용)
+    long writeTo(OutputStream out, String toHeader, Long recipientId, String token) throws IOException {
+        out.write(staticHeaders);
+
+        StringBuilder h = new StringBuilder(192);
+        header(h, "Date", ZonedDateTime.now().format(DateTimeFormatter.RFC_1123_DATE_TIME));
+        header(h, "To", toHeader);
+        header(h, "Message-ID", "<" + Long.toHexString(ThreadLocalRandom.current().nextLong())
+                + "." + campaignId + (recipientId != null ? "." + recipientId : "") + "@" + MESSAGE_ID_DOMAIN + ">");
+        if (recipientId != null) header(h, "X-Recipient-ID", String.valueOf(recipientId));
+        if (unsubscribeUrl != null) {
+            header(h, "List-Unsubscribe", "<" + unsubscribeUrl + (token != null ? token : "") + ">");
+            if (token != null) header(h, "List-Unsubscribe-Post", ONE_CLICK);
+        }
+        byte[] headers = h.toString().getBytes(StandardCharsets.US_ASCII);
+        out.write(headers);
+
+        out.write(bodyPrefix);
+        long written = staticHeaders.length + headers.length + bodyPrefix.length + bodySuffix.length;
+        byte[] tokenBytes = token != null ? token.getBytes(StandardCharsets.US_ASCII) : new byte[0];
+        for (int i = 0; i < htmlSegments.size(); i++) {
+            if (i > 0) written += writeToken(out, tokenBytes);
+            out.write(htmlSegments.get(i));
+            written += htmlSegments.get(i).length;
+        }
+        out.write(bodySuffix);
+        return written;
+    }
+
+    // 이 작성기로 만든 메시지면 마지막 writeTo 에서 쓴 바이트 수, 아직 안 썼거나 다른 메시지면 0
+    static long bytesWritten(MimeMessage message) {
+        return message instanceof CampaignMessageWriter.PreEncodedMessage m ? m.written : 0;
+    }
+
+    // 이 작성기로 만든 메시지면 캠페인/그룹/변형 (발송 후 최종 실패를 mail_logs 에 남길 때), 다른 메시지면 null
+    static Origin origin(MimeMessage message) {
+        return message instanceof CampaignMessageWriter.PreEncodedMessage m ? m.origin() : null;
+    }
+
+    record Origin(Long campaignId, Long groupId, String variant) {
+    }
+
+    // JWT 는 base64url + '.' 이라 QP 이스케이프가 필요 없다. 줄 길이만 맞춰 soft break 로 이어 붙인다
+    private static int writeToken(OutputStream out, byte[] token) throws IOException {
+        int written = 0;
+        for (int off = 0; off < token.length; off += QP_LINE_MAX - 1) {
+            int len = Math.min(QP_LINE_MAX - 1, token.length - off);
+            out.write(token, off, len);
+            out.write(SOFT_BREAK);
+            written += len + SOFT_BREAK.length;
+        }
+        return written;
+    }
+
+    private static void header(StringBuilder sb, String name, String value) {
+        sb.append(name).append(": ").append(MimeUtility.fold(name.length() + 2, value)).append("\r\n");
+    }
+
+    private static void ascii(ByteArrayOutputStream out, String s) {
+        out.writeBytes(s.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * RFC 2045 quoted-printable. 줄은 항상 0열에서 시작한다고 보고 인코딩하므로
+     * softBreakAtEnd 로 끝낸 세그먼트 뒤에는 무엇을 이어 붙여도 76자 제한이 유지된다.
+     */
+    static byte[] quotedPrintable(String text, boolean softBreakAtEnd) {
+        byte[] src = text.getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(src.length + src.length / 8 + 16);
+        int col = 0;
+
+        for (int i = 0; i < src.length; i++) {
+            int b = src[i] & 0xFF;
+
+            // 줄바꿈은 CRLF 하드 브레이크로 정규화
+            if (b == '\r' || b == '\n') {
+                if (b == '\r' && i + 1 < src.length && src[i + 1] == '\n') i++;
+                out.writeBytes(CRLF);
+                col = 0;
+                continue;
+            }
+
+            boolean nextIsBreak = i + 1 >= src.length
+                    ? !softBreakAtEnd
+                    : src[i + 1] == '\r' || src[i + 1] == '\n';
+            boolean literal = (b >= 33 && b <= 126 && b != '=')
+                    || ((b == ' ' || b == '\t') && !nextIsBreak);
+            int width = literal ? 1 : 3;
+
+            if (col + width > QP_LINE_MAX - 1) {
+                out.writeBytes(SOFT_BREAK);
+                col = 0;
+            }
+            if (literal) {
+                out.write(b);
+            } else {
+                out.write('=');
+                out.write(HEX[b >> 4]);
+                out.write(HEX[b & 0x0F]);
+            }
+            col += width;
+        }
+
+        if (softBreakAtEnd && col > 0) {
+            out.writeBytes(SOFT_BREAK);
+        }
+        return out.toByteArray();
+    }
+
+    private final class PreEncodedMessage extends MimeMessage {
+        private final InternetAddress[] recipients;
+        private final String toHeader;
+        private final Long recipientId;
+        private final String token;
+        private volatile long written;
+
+        private PreEncodedMessage(Session session, InternetAddress[] recipients, String toHeader, Long recipientId, String token) {
+            super(session);
+            this.recipients = recipients;
+            this.toHeader = toHeader;
+            this.recipientId = recipientId;
+            this.token = token;
+        }
+
+        private Origin origin() {
+            return new Origin(campaignId, groupId, variant);
+        }
+
+        @Override
+        public void writeTo(OutputStream os) throws IOException {
+            written = CampaignMessageWriter.this.writeTo(os, toHeader, recipientId, token);
+        }
+
+        @Override
+        public void writeTo(OutputStream os, String[] ignoreList) throws IOException {
+            writeTo(os);
+        }
+
+        // 헤더/본문은 이미 인코딩 완료 → JavaMail 의 헤더 재계산/본문 재인코딩 생략
+        @Override
+        public void saveChanges() {
+        }
+
+        @Override
+        public Address[] getAllRecipients() {
+            return recipients.clone();
+        }
+
+        // SMTP MAIL FROM 결정에 사용
+        @Override
+        public Address[] getFrom() {
+            return new Address[]{from};
+        }
+    }
+}
@@ -0,0 +1,304 @@
+package com.mailstorm.be.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+
+/**
+ * 캠페인 진행 상황 실시간 스트림 (SSE, GET /mail-campaigns/status/{id}/stream)
+ * - 발송 워커(성공/실패)와 트래커(open/click/unsubscribe 첫 기록)가 인-프로세스 카운터만 올리고,
+ *   push-interval-ms 마다 바뀐 캠페인만 모아서 구독자에게 증분을 보낸다 (이벤트 1건마다 보내지 않음)
+ * - 구독 직후 snapshot(누적) 1회, 이후 delta(직전 push 이후 증가분). 변화가 없으면 heartbeat 주석만 보낸다
+ * - 구독자가 있는 캠페인만 집계한다. 첫 구독 때 DB 누적값을 한 번 읽고, resync-seconds 마다 다시 읽어
+ *   다른 인스턴스에서 처리된 몫(트래커 분산, 다른 노드 발송)을 반영한다 (값은 늘어나는 방향으로만 맞춤)
+ * - push 는 전용 스레드에서 돈다 (느린 구독자/resync 쿼리가 공용 @Scheduled 스레드의 다른 배치를 막지 않게)
+ * 발송 성공/실패 누적은 mail_send_jobs 체크포인트(sent/failed) 기준이라 메일서버 로그(mail_logs) 집계와는 다를 수 있다.
+ * 스트림도 다른 API 처럼 Authorization 헤더로 인증하므로 브라우저에서는 EventSource 대신 fetch 스트림으로 읽는다.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CampaignProgressHub {
+
+    // 구독자가 모두 떠난 뒤 집계를 유지하는 시간 (EventSource 재연결 때 DB 재조회 방지)
+    private static final long IDLE_GRACE_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SendPacer sendPacer;
+
+    @Value("${app.progress.resync-seconds:15}")
+    private long resyncSeconds;
+
+    @Value("${app.progress.heartbeat-seconds:15}")
+    private long heartbeatSeconds;
+
+    @Value("${app.progress.timeout-minutes:30}")
+    private long timeoutMinutes;
+
+    @Value("${app.progress.push-interval-ms:250}")
+    private long pushIntervalMs;
+
+    private final Map<Long, Progress> live = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService pusher = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("campaign-progress-push").daemon().factory());
+
+    @PostConstruct
+    public void startPush() {
+        pusher.scheduleWithFixedDelay(this::flush, pushIntervalMs, pushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    // 종료 시 열린 스트림을 닫아 클라이언트가 바로 재연결하게 한다
+    @PreDestroy
+    public void shutdown() {
+        pusher.shutdownNow();
+        for (Progress progress : live.values()) {
+            progress.emitters.forEach(SseEmitter::complete);
+        }
+    }
+
+    public SseEmitter subscribe(Long campaignId) {
+        SseEmitter emitter = new SseEmitter(TimeUnit.MINUTES.toMillis(timeoutMinutes));
+        while (true) {
+            Progress progress = live.get(campaignId);
+            if (progress == null) {
+                // DB 를 먼저 읽고 등록한다: 그 사이 이벤트는 빠질 수 있어도(다음 resync 에서 보정) 두 번 세지는 않는다
+                Totals base = load(campaignId);
+                if (base == null) {
+                    throw new ResponseStatusException(NOT_FOUND, "존재하지 않는 캠페인입니다.");
+                }
+                progress = live.computeIfAbsent(campaignId, id -> new Progress(id, base));
+            }
+            if (progress.attach(emitter)) {
+                Progress attached = progress;
+                emitter.onCompletion(() -> attached.emitters.remove(emitter));
+                emitter.onTimeout(emitter::complete);
+                emitter.onError(e -> attached.emitters.remove(emitter));
+                return emitter;
+            }
+            // 정리 중인 집계를 잡은 경우 새로 만든다
+        }
+    }
+
+    // 발송 워커: 메시지(봉투) 결과마다 호출
+    public void sent(Long campaignId, int ok, int failed) {
+        Progress progress = live.get(campaignId);
+        if (progress == null) return;
+        if (ok > 0) progress.sent.add(ok);
+        if (failed > 0) progress.failed.add(failed);
+    }
+
+    // 트래커: 수신자별 첫 기록(insert)만 호출 — 상태 화면의 open/click/unsubscribe 수와 같은 기준
+    public void tracked(Long campaignId, String type) {
+        Progress progress = campaignId != null ? live.get(campaignId) : null;
+        if (progress == null) return;
+        switch (type) {
+            case "open" -> progress.opens.increment();
+            case "click" -> progress.clicks.increment();
+            case "unsubscribe" -> progress.unsubscribes.increment();
+            default -> { }
+        }
+    }
+
+    // 예외가 새면 이후 push 가 모두 취소되므로 캠페인별로 잡는다
+    public void flush() {
+        if (live.isEmpty()) return;
+        long now = System.nanoTime();
+        for (Progress progress : live.values()) {
+            try {
+                progress.flush(now);
+            } catch (RuntimeException e) {
+                log.warn("Progress push failed. campaignId={}", progress.campaignId, e);
+            }
+        }
+    }
+
+    private Totals load(Long campaignId) {
+        List<Totals> rows = jdbcTemplate.query("""
+                    SELECT COALESCE((SELECT SUM(sent) FROM mail_send_jobs WHERE campaign_id = c.id), 0) AS sent,
+                           COALESCE((SELECT SUM(failed) FROM mail_send_jobs WHERE campaign_id = c.id), 0) AS failed,
+                           COUNT(t.id) FILTER (WHERE t.type = 'open') AS opens,
+                           COUNT(t.id) FILTER (WHERE t.type = 'click') AS clicks,
+                           COUNT(t.id) FILTER (WHERE t.type = 'unsubscribe') AS unsubscribes
+                      FROM mail_campaigns c
+                 LEFT JOIN mail_tracker t ON t.campaign_id = c.id
+                     WHERE c.id = ?
+                  GROUP BY c.id
+                """, (rs, i) -> new Totals(rs.getLong("sent"), rs.getLong("failed"),
+                        rs.getLong("opens"), rs.getLong("clicks"), rs.getLong("unsubscribes")),
+                campaignId);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    private final class Progress {
+        private final Long campaignId;
+        private final LongAdder sent = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder opens = new LongAdder();
+        private final LongAdder clicks = new LongAdder();
+        private final LongAdder unsubscribes = new LongAdder();
+        private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+
+        // 아래는 this 로 보호 (flush 스레드 + 구독 요청 스레드)
+        private Totals pushed;
+        private double ratePerMinute;
+        private long rateCount;
+        private long rateAt;
+        private long resyncedAt;
+        private long lastEventAt;
+        private long idleSince;
+        private boolean closed;
+
+        private Progress(Long campaignId, Totals base) {
+            this.campaignId = campaignId;
+            sent.add(base.sent());
+            failed.add(base.failed());
+            opens.add(base.opens());
+            clicks.add(base.clicks());
+            unsubscribes.add(base.unsubscribes());
+            long now = System.nanoTime();
+            this.pushed = base;
+            this.rateCount = base.sent() + base.failed();
+            this.rateAt = now;
+            this.resyncedAt = now;
+            this.lastEventAt = now;
+            this.idleSince = now;
+        }
+
+        // 직전 push 시점 누적을 보내야 다음 delta 와 어긋나지 않는다
+        private synchronized boolean attach(SseEmitter emitter) {
+            if (closed) return false;
+            emitters.add(emitter);
+            if (!send(emitter, "snapshot", update(pushed))) {
+                emitters.remove(emitter);
+            }
+            return true;
+        }
+
+        private synchronized void flush(long now) {
+            if (emitters.isEmpty()) {
+                if (now - idleSince >= IDLE_GRACE_NANOS) {
+                    closed = true;
+                    live.remove(campaignId, this);
+                }
+                return;
+            }
+            idleSince = now;
+
+            if (now - resyncedAt >= TimeUnit.SECONDS.toNanos(resyncSeconds)) {
+                resyncedAt = now;
+                resync();
+            }
+
+            Totals current = totals();
+            double previousRate = Math.round(ratePerMinute);
+            sampleRate(now, current);
+            Totals delta = current.minus(pushed);
+            if (delta.isZero() && Math.round(ratePerMinute) == previousRate) {
+                if (now - lastEventAt >= TimeUnit.SECONDS.toNanos(heartbeatSeconds)) {
+                    lastEventAt = now;
+                    broadcast(null, null);
+                }
+                return;
+            }
+            pushed = current;
+            lastEventAt = now;
+            broadcast("delta", update(delta));
+        }
+
+        // 다른 인스턴스 몫 반영: DB 쪽이 더 크면 차이만큼 올린다
+        private void resync() {
+            Totals db = load(campaignId);
+            if (db == null) return;
+            catchUp(sent, db.sent());
+            catchUp(failed, db.failed());
+            catchUp(opens, db.opens());
+            catchUp(clicks, db.clicks());
+            catchUp(unsubscribes, db.unsubscribes());
+        }
+
+        // 1초 이상 간격으로 처리량(성공+실패)을 재고 지수 평활 — 발송이 끝나면 0 으로 수렴
+        private void sampleRate(long now, Totals current) {
+            long elapsed = now - rateAt;
+            if (elapsed < TimeUnit.SECONDS.toNanos(1)) return;
+            long count = current.sent() + current.failed();
+            double instant = (count - rateCount) * (double) TimeUnit.MINUTES.toNanos(1) / elapsed;
+            ratePerMinute = ratePerMinute == 0 ? instant : (ratePerMinute + instant) / 2;
+            if (ratePerMinute < 0.5) ratePerMinute = 0;
+            rateCount = count;
+            rateAt = now;
+        }
+
+        private Totals totals() {
+            return new Totals(sent.sum(), failed.sum(), opens.sum(), clicks.sum(), unsubscribes.sum());
+        }
+
+        private ProgressUpdate update(Totals counts) {
+            Double target = sendPacer.status(campaignId).map(SendPacer.RateStatus::ratePerMinute).orElse(null);
+            return new ProgressUpdate(campaignId, counts.sent(), counts.failed(), counts.opens(), counts.clicks(),
+                    counts.unsubscribes(), Math.round(ratePerMinute), target);
+        }
+
+        // name 이 null 이면 heartbeat 주석
+        private void broadcast(String name, ProgressUpdate data) {
+            for (SseEmitter emitter : emitters) {
+                if (!send(emitter, name, data)) {
+                    emitters.remove(emitter);
+                }
+            }
+        }
+    }
+
+    private static boolean send(SseEmitter emitter, String name, ProgressUpdate data) {
+        try {
+            emitter.send(name == null
+                    ? SseEmitter.event().comment("ping")
+                    : SseEmitter.event().name(name).data(data));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // 끊긴 연결: 컨테이너가 완료 콜백을 호출하므로 목록에서만 뺀다
+            return false;
+        }
+    }
+
+    private static void catchUp(LongAdder counter, long atLeast) {
+        long missing = atLeast - counter.sum();
+        if (missing > 0) counter.add(missing);
+    }
+
+    private record Totals(long sent, long failed, long opens, long clicks, long unsubscribes) {
+        private Totals minus(Totals o) {
+            return new Totals(sent - o.sent, failed - o.failed, opens - o.opens,
+                    clicks - o.clicks, unsubscribes - o.unsubscribes);
+        }
+
+        private boolean isZero() {
+            return sent == 0 && failed == 0 && opens == 0 && clicks == 0 && unsubscribes == 0;
+        }
+    }
+
+    /**
+     * snapshot 이벤트면 누적값, delta 이벤트면 직전 push 이후 증가분.
+     * ratePerMinute 은 최근 처리량(분당), targetPerMinute 은 분산 발송 중일 때 목표 속도 (아니면 null)
+     */
+    public record ProgressUpdate(Long campaignId, long sent, long failed, long opens, long clicks,
+                                 long unsubscribes, long ratePerMinute, Double targetPerMinute) {
+    }
+}
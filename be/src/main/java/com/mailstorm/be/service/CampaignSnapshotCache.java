@@ -0,0 +1,227 @@
+package com.mailstorm.be.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 캠페인 발송 스냅샷 캐시 (발송정보 + 콘텐츠 HTML A/B + 푸터)
+ * - 키: campaignId, 값은 버전(콘텐츠/발송정보/주소록 updated_at + group_id)이 같을 때만 재사용
+ * - 버전 확인은 작은 1행 조회라 대용량 HTML 을 다시 읽지 않는다
+ * - 같은 노드의 수정은 각 서비스가 invalidate, 다른 노드의 수정은 revalidate-ms 주기 버전 확인으로 반영
+ * 발송 워커/상태 조회가 같은 불변 스냅샷 인스턴스를 공유한다.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CampaignSnapshotCache {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.campaign-cache.max-entries:256}")
+    private int maxEntries;
+
+    @Value("${app.campaign-cache.revalidate-ms:1000}")
+    private long revalidateMs;
+
+    private final Map<Long, Entry> cache = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    public Optional<CampaignSnapshot> get(Long campaignId) {
+        if (campaignId == null) return Optional.empty();
+
+        Entry entry;
+        synchronized (cache) {
+            entry = cache.get(campaignId);
+        }
+        long now = System.currentTimeMillis();
+        if (entry != null && now - entry.validatedAt < revalidateMs) {
+            return Optional.of(entry.snapshot);
+        }
+
+        Optional<ContentVersion> version = fetchVersion(campaignId);
+        if (version.isEmpty()) {
+            invalidate(campaignId);
+            return Optional.empty();
+        }
+        if (entry != null && entry.snapshot.version().equals(version.get())) {
+            entry.validatedAt = now;
+            return Optional.of(entry.snapshot);
+        }
+
+        Optional<CampaignSnapshot> loaded = load(campaignId, version.get());
+        loaded.ifPresent(s -> {
+            synchronized (cache) {
+                cache.put(campaignId, new Entry(s, now));
+            }
+        });
+        return loaded;
+    }
+
+    // 호출 트랜잭션이 있으면 커밋 뒤에 제거 (AfterCommit)
+    public void invalidate(Long campaignId) {
+        if (campaignId == null) return;
+        AfterCommit.run(() -> {
+            synchronized (cache) {
+                cache.remove(campaignId);
+            }
+        });
+    }
+
+    // 주소록(푸터) 변경 → 해당 주소록을 쓰는 캠페인 스냅샷 모두 제거
+    public void invalidateGroup(Long groupId) {
+        if (groupId == null) return;
+        AfterCommit.run(() -> {
+            synchronized (cache) {
+                cache.values().removeIf(e -> groupId.equals(e.snapshot.campaign().groupId()));
+            }
+        });
+    }
+
+    private Optional<ContentVersion> fetchVersion(Long campaignId) {
+        List<ContentVersion> rows = jdbcTemplate.query("""
+                SELECT a.group_id,
+                       c.updated_at AS content_at,
+                       b.updated_at AS sendinfo_at,
+                       g.updated_at AS group_at
+                  FROM mail_campaigns a
+                  LEFT JOIN mail_sendinfo b ON a.id = b.campaign_id
+                  LEFT JOIN mail_contents c ON a.id = c.campaign_id
+                  LEFT JOIN mail_groups   g ON a.group_id = g.id
+                 WHERE a.id = ?
+                 LIMIT 1
+                """, (rs, i) -> new ContentVersion(
+                        rs.getObject("group_id", Long.class),
+                        toLdt(rs.getTimestamp("content_at")),
+                        toLdt(rs.getTimestamp("sendinfo_at")),
+                        toLdt(rs.getTimestamp("group_at"))
+                ), campaignId);
+        return rows.stream().findFirst();
+    }
+
+    private Optional<CampaignSnapshot> load(Long campaignId, ContentVersion version) {
+        try {
+            List<CampaignSnapshot> list = jdbcTemplate.query(SQL_FETCH_CAMPAIGN,
+                    (rs, i) -> new CampaignSnapshot(version, CAMPAIGN_MAPPER.mapRow(rs, i), mapFooter(rs)),
+                    campaignId);
+            log.debug("Campaign snapshot loaded. campaignId={}, version={}", campaignId, version);
+            return list.stream().findFirst();
+        } catch (Exception e) {
+            log.error("fetchCampaignData({}) - error", campaignId, e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * 불변 스냅샷. version 이 같으면 내용도 같다.
+     */
+    public record CampaignSnapshot(
+            ContentVersion version,
+            MailerService.CampaignData campaign,
+            MailerService.MailGroup footer
+    ) {}
+
+    public record ContentVersion(
+            Long groupId,
+            LocalDateTime contentUpdatedAt,
+            LocalDateTime sendInfoUpdatedAt,
+            LocalDateTime groupUpdatedAt
+    ) {}
+
+    private static final class Entry {
+        private final CampaignSnapshot snapshot;
+        private volatile long validatedAt;
+
+        private Entry(CampaignSnapshot snapshot, long validatedAt) {
+            this.snapshot = snapshot;
+            this.validatedAt = validatedAt;
+        }
+    }
+
+    private static LocalDateTime toLdt(Timestamp ts) {
+        return ts == null ? null : ts.toLocalDateTime();
+    }
+
+    private static MailerService.MailGroup mapFooter(ResultSet rs) throws SQLException {
+        return new MailerService.MailGroup(
+                nvl(rs.getString("footer_company")),
+                nvl(rs.getString("footer_from_mail")),
+                nvl(rs.getString("footer_address")),
+                nvl(rs.getString("footer_tel"))
+        );
+    }
+
+    private static String nvl(String s) {
+        return s != null ? s : "";
+    }
+
+    private static final String SQL_FETCH_CAMPAIGN = """
+        SELECT
+          a.id                             AS campaign_id,
+          a.group_id                       AS group_id,
+          b.ab_test                        AS ab_test,
+          b.ab_type                        AS ab_type,
+          b.test_ratio                     AS test_ratio,
+          b.daily_unit     AS daily_unit_a,
+          b.daily_value    AS daily_value_a,
+          b.daily_unitB    AS daily_unit_b,
+          b.daily_valueB   AS daily_value_b,
+          b.subject        AS subject,
+          b.subjectB       AS subject_b,
+          b.sender_name    AS sender_name,
+          b.sender_nameB   AS sender_name_b,
+          b.preview_text   AS preview_text,
+          b.sender_email   AS sender_email,
+          b.untracked      AS untracked,
+          b.send_window_minutes AS send_window_minutes,
+          c.html           AS html,
+          c.htmlB          AS html_b,
+          g.footer_company,
+          g.footer_from_mail,
+          g.footer_address,
+          g.footer_tel
+        FROM mail_campaigns a
+        LEFT JOIN mail_sendinfo  b ON a.id = b.campaign_id
+        LEFT JOIN mail_contents  c ON a.id = c.campaign_id
+        LEFT JOIN mail_groups    g ON a.group_id = g.id
+        WHERE a.id = ?
+    """;
+
+    private static final RowMapper<MailerService.CampaignData> CAMPAIGN_MAPPER = (rs, rowNum) -> new MailerService.CampaignData(
+            rs.getObject("campaign_id", Long.class),
+            rs.getObject("group_id", Long.class),
+            rs.getObject("ab_test", Boolean.class),
+            rs.getObject("ab_type", Long.class),
+            rs.getObject("test_ratio", Long.class),
+            rs.getString("daily_unit_a"),
+            rs.getObject("daily_value_a", Long.class),
+            rs.getString("daily_unit_b"),
+            rs.getObject("daily_value_b", Long.class),
+            rs.getString("subject"),
+            rs.getString("subject_b"),
+            rs.getString("sender_name"),
+            rs.getString("sender_name_b"),
+            rs.getString("preview_text"),
+            rs.getString("sender_email"),
+            rs.getObject("untracked", Boolean.class),
+            rs.getObject("send_window_minutes", Integer.class),
+            rs.getString("html"),
+            rs.getString("html_b")
+    );
+}
@@ -0,0 +1,169 @@
+package com.mailstorm.be.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 캠페인 상태 화면 집계 캐시 (기본 정보 + 발송/오픈/클릭/수신거부 수)
+ * - 키: campaignId, ttl-ms 동안은 DB 를 다시 읽지 않는다 (폴링하는 화면 수와 무관하게 캠페인당 ttl 마다 1회)
+ * - 목록 화면은 getAll 로 한 페이지 분량을 쿼리 한 번에 읽는다
+ * - version 은 값 전체의 해시라 값이 그대로면 다시 읽어도 같다 → 상태 API 의 ETag
+ * 콘텐츠 HTML 은 여기 담지 않는다 (CampaignSnapshotCache, 별도 리소스).
+ */
+@Component
+@RequiredArgsConstructor
+public class CampaignStatsCache {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.status.stats-ttl-ms:5000}")
+    private long ttlMs;
+
+    @Value("${app.status.max-entries:512}")
+    private int maxEntries;
+
+    private final Map<Long, CampaignStats> cache = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, CampaignStats> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    public Optional<CampaignStats> get(Long campaignId) {
+        if (campaignId == null) return Optional.empty();
+        return Optional.ofNullable(getAll(List.of(campaignId)).get(campaignId));
+    }
+
+    /**
+     * 여러 캠페인을 한 번에: ttl 안의 항목은 캐시에서, 나머지는 쿼리 한 번으로 모아서 읽는다.
+     * 없는 캠페인은 결과에 들어가지 않는다.
+     */
+    public Map<Long, CampaignStats> getAll(Collection<Long> campaignIds) {
+        long now = System.currentTimeMillis();
+        Map<Long, CampaignStats> result = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        synchronized (cache) {
+            for (Long id : campaignIds) {
+                CampaignStats cached = cache.get(id);
+                if (cached != null && now - cached.loadedAt() < ttlMs) {
+                    result.put(id, cached);
+                } else {
+                    missing.add(id);
+                }
+            }
+        }
+        if (missing.isEmpty()) return result;
+
+        Map<Long, CampaignStats> loaded = load(missing, now);
+        synchronized (cache) {
+            for (Long id : missing) {
+                CampaignStats s = loaded.get(id);
+                if (s != null) {
+                    cache.put(id, s);
+                } else {
+                    cache.remove(id);
+                }
+            }
+        }
+        result.putAll(loaded);
+        return result;
+    }
+
+    // 이름/주소록 변경 등 같은 노드의 수정은 ttl 을 기다리지 않고 반영 (호출 트랜잭션이 있으면 커밋 뒤에 제거)
+    public void invalidate(Long campaignId) {
+        if (campaignId == null) return;
+        AfterCommit.run(() -> {
+            synchronized (cache) {
+                cache.remove(campaignId);
+            }
+        });
+    }
+
+    // 캠페인별 로그/트래커 집계를 GROUP BY 로 한 번에 (캠페인마다 COUNT 서브쿼리를 돌리지 않음)
+    private Map<Long, CampaignStats> load(List<Long> campaignIds, long now) {
+        Long[] ids = campaignIds.toArray(Long[]::new);
+        Map<Long, CampaignStats> loaded = new HashMap<>();
+        jdbcTemplate.query("""
+                WITH l AS (
+                    SELECT campaign_id,
+                           COUNT(recipient_id) AS total_count,
+                           COUNT(*) FILTER (WHERE status = 'SENT') AS success_count
+                      FROM mail_logs
+                     WHERE campaign_id = ANY(?)
+                     GROUP BY campaign_id
+                ), t AS (
+                    SELECT campaign_id,
+                           COUNT(*) FILTER (WHERE type = 'open') AS open_count,
+                           COUNT(*) FILTER (WHERE type = 'click') AS click_count,
+                           COUNT(*) FILTER (WHERE type = 'unsubscribe') AS reject_count
+                      FROM mail_tracker
+                     WHERE campaign_id = ANY(?)
+                     GROUP BY campaign_id
+                )
+                SELECT DISTINCT ON (a.id)
+                       a.id AS campaign_id,
+                       a.user_id,
+                       a.name AS campaign_name,
+                       a.send_date,
+                       a.end_date,
+                       b.name AS group_name,
+                       c.sender_name,
+                       c.sender_email,
+                       COALESCE(l.total_count, 0) AS total_count,
+                       COALESCE(l.success_count, 0) AS success_count,
+                       COALESCE(t.open_count, 0) AS open_count,
+                       COALESCE(t.click_count, 0) AS click_count,
+                       COALESCE(t.reject_count, 0) AS reject_count
+                  FROM mail_campaigns a
+                  LEFT JOIN mail_groups b ON a.group_id = b.id
+                  LEFT JOIN mail_sendinfo c ON a.id = c.campaign_id
+                  LEFT JOIN l ON l.campaign_id = a.id
+                  LEFT JOIN t ON t.campaign_id = a.id
+                 WHERE a.id = ANY(?)
+                 ORDER BY a.id
+                """, rs -> {
+                    Map<String, Object> values = new LinkedHashMap<>();
+                    values.put("campaignName", rs.getString("campaign_name"));
+                    values.put("sendDate", rs.getTimestamp("send_date"));
+                    values.put("endDate", rs.getTimestamp("end_date"));
+                    values.put("groupName", rs.getString("group_name"));
+                    values.put("senderName", rs.getString("sender_name"));
+                    values.put("senderEmail", rs.getString("sender_email"));
+                    values.put("totalCount", rs.getLong("total_count"));
+                    values.put("successCount", rs.getLong("success_count"));
+                    values.put("openCount", rs.getLong("open_count"));
+                    values.put("clickCount", rs.getLong("click_count"));
+                    values.put("rejectCount", rs.getLong("reject_count"));
+                    Long campaignId = rs.getLong("campaign_id");
+                    loaded.put(campaignId, new CampaignStats(campaignId, rs.getObject("user_id", Long.class),
+                            Collections.unmodifiableMap(values), version(values), now));
+                }, ids, ids, ids);
+        return loaded;
+    }
+
+    private static String version(Map<String, Object> values) {
+        StringBuilder sb = new StringBuilder();
+        values.forEach((k, v) -> sb.append(k).append('=').append(v instanceof Timestamp ts ? ts.getTime() : v).append(';'));
+        return DigestUtils.md5DigestAsHex(sb.toString().getBytes(StandardCharsets.UTF_8)).substring(0, 16);
+    }
+
+    /**
+     * 불변 집계. version 이 같으면 values 도 같다.
+     */
+    public record CampaignStats(Long campaignId, Long userId, Map<String, Object> values, String version, long loadedAt) {
+    }
+}
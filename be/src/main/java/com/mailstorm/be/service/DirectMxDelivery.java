@@ -0,0 +1,483 @@
+package com.mailstorm.be.service;
+
+import com.mailstorm.be.global.DirectMxProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.Address;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 수신 도메인 MX 로 직접 전달 (app.smtp.delivery-mode=direct-mx)
+ * - 도메인별 큐: 동시 전송 수(per-domain-concurrency), 4xx/연결 실패 시 도메인 단위 지수 백오프 후 재시도
+ *   유예된 메일(다중 RCPT 면 유예된 주소만)은 도메인 재시도 큐로 넘기고 send 는 바로 반환한다.
+ *   백오프 대기 중에 발송 청크/전체 연결 한도를 잡고 있지 않으므로 느린 도메인 하나가 다른 발송을 막지 않는다.
+ *   재시도 큐는 메모리에만 있다. 발송 작업은 유예된 주소를 접수된 것으로 세므로, 이후 최종 실패(재시도 소진/큐 초과)와
+ *   종료 시 큐에 남은 주소는 mail_logs 에 BOUNCED 로 남겨 재발송(resend-failed) 대상이 되게 한다.
+ * - MX 호스트별 연결 풀: 연결된 Transport 를 재사용 (idle-connections-per-host 개까지 보관)
+ * - MX 조회 결과는 cache-ttl-ms 동안 캐시, 우선순위 순으로 연결 실패 시 다음 MX 시도
+ *   (MX 가 없으면 도메인 A/AAAA 로 암묵적 MX, DNS 조회 실패는 캐시하지 않고 일시 실패로 재시도)
+ * 전체 동시 연결 수는 max-connections 로 제한.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DirectMxDelivery implements MailDelivery {
+
+    private static final Pattern PERMANENT = Pattern.compile("^\\s*5\\d\\d\\b");
+    private static final Pattern REPLY_CODE = Pattern.compile("\\b([45]\\d\\d)\\b");
+    // 재발송 대상 상태 (app.resend.statuses 기본값)
+    private static final String STATUS_BOUNCED = "BOUNCED";
+
+    private final DirectMxProperties props;
+    private final MxResolver mxResolver;
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Map<String, DomainQueue> domains = new ConcurrentHashMap<>();
+    private final Map<String, HostPool> hostPools = new ConcurrentHashMap<>();
+
+    // 재시도 시각이 되면 도메인 재시도 큐를 가상 스레드로 비운다
+    private final ScheduledExecutorService retryTimer = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("direct-mx-retry").daemon().factory());
+
+    private Session session;
+    private Semaphore connections;
+
+    @PostConstruct
+    public void init() {
+        Properties javaMail = new Properties();
+        javaMail.put("mail.smtp.auth", "false");
+        // 수신 MX 는 STARTTLS 를 지원하면 사용, 강제하지 않음
+        javaMail.put("mail.smtp.starttls.enable", "true");
+        javaMail.put("mail.smtp.starttls.required", "false");
+        javaMail.put("mail.smtp.ssl.trust", "*");
+        javaMail.put("mail.smtp.ssl.checkserveridentity", "false");
+        javaMail.put("mail.smtp.localhost", "mail.rsup.io");
+        javaMail.put("mail.smtp.connectiontimeout", "10000");
+        javaMail.put("mail.smtp.timeout", "30000");
+        javaMail.put("mail.smtp.writetimeout", "30000");
+        javaMail.put("mail.smtp.sendpartial", "true");
+        session = Session.getInstance(javaMail);
+        connections = new Semaphore(Math.max(1, props.getMaxConnections()));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        retryTimer.shutdownNow();
+        // 아직 보내지 못한 유예 메일은 재시작 후 resend-failed 로 다시 보낼 수 있게 실패로 기록
+        int dropped = 0;
+        for (DomainQueue queue : domains.values()) {
+            Delivery d;
+            while ((d = queue.retries.poll()) != null) {
+                dropped++;
+                recordBounced(queue, d, List.of(d.pending), "Direct MX shutdown with delivery to " + queue.domain + " still deferred");
+            }
+        }
+        if (dropped > 0) log.warn("Direct MX shutdown with {} deferred messages still queued, recorded as {}", dropped, STATUS_BOUNCED);
+        hostPools.values().forEach(HostPool::closeAll);
+    }
+
+    @Override
+    public Session session() {
+        return session;
+    }
+
+    @Override
+    public boolean perDomainQueues() {
+        return true;
+    }
+
+    @Override
+    public Slot acquire(String domain) throws InterruptedException {
+        DomainQueue queue = domains.computeIfAbsent(domain == null ? "" : domain.toLowerCase(),
+                d -> new DomainQueue(d, Math.max(1, props.getPerDomainConcurrency())));
+        queue.permits.acquire();
+        try {
+            connections.acquire();
+        } catch (InterruptedException e) {
+            queue.permits.release();
+            throw e;
+        }
+        return new DomainSlot(queue);
+    }
+
+    private final class DomainSlot implements Slot {
+        private final DomainQueue queue;
+        private boolean released;
+
+        private DomainSlot(DomainQueue queue) {
+            this.queue = queue;
+        }
+
+        @Override
+        public void send(MimeMessage message) throws MailException {
+            try {
+                Delivery delivery = new Delivery(message, message.getAllRecipients());
+                if (queue.waitMillis() > 0 || !queue.retries.isEmpty()) {
+                    // 도메인 백오프 중: 시도하지 않고 바로 재시도 큐로 (순서 유지)
+                    defer(queue, delivery, null);
+                    throwRejected(queue, delivery, null);
+                } else {
+                    attempt(queue, delivery);
+                }
+            } catch (MessagingException e) {
+                throw new MailSendException("Invalid message for " + queue.domain + ": " + e.getMessage(), e);
+            } finally {
+                close();
+            }
+        }
+
+        // 수신 도메인은 수가 많아 태그로 쓰지 않는다
+        @Override
+        public String route() {
+            return "direct-mx";
+        }
+
+        @Override
+        public void close() {
+            if (!released) {
+                released = true;
+                connections.release();
+                queue.permits.release();
+            }
+        }
+    }
+
+    /**
+     * 1회 전달 시도 (도메인/연결 슬롯은 호출자가 잡고 있다).
+     * 유예된 주소는 재시도 큐로 넘기고, 영구 거부(또는 재시도 소진)된 주소가 있으면 그 주소만 담아 던진다.
+     */
+    private void attempt(DomainQueue queue, Delivery d) throws MailSendException {
+        d.attempts++;
+        MessagingException failure = null;
+        try {
+            deliverOnce(queue, d.message, d.pending);
+            d.pending = new Address[0];
+        } catch (SendFailedException e) {
+            // sendpartial: 주소별 결과를 그대로 따른다. 이미 받은 주소(validSent)는 다시 보내지 않는다
+            failure = e;
+            d.sent.addAll(List.of(orEmpty(e.getValidSentAddresses())));
+            d.rejected.addAll(List.of(orEmpty(e.getInvalidAddresses())));
+            d.pending = orEmpty(e.getValidUnsentAddresses());
+            // DATA 단계 5xx (아무 주소도 받지 않음): 남은 주소 전체가 영구 거부
+            if (orEmpty(e.getValidSentAddresses()).length == 0 && e.getMessage() != null
+                    && PERMANENT.matcher(e.getMessage()).find()) {
+                d.reject();
+            }
+        } catch (MessagingException e) {
+            failure = e;
+            if (isPermanent(e)) d.reject();
+        }
+
+        if (d.pending.length == 0) {
+            if (failure == null || !d.sent.isEmpty()) queue.succeeded();
+        } else if (d.attempts >= props.getMaxAttempts()) {
+            log.info("Delivery to {} gave up after {} attempts: {}", queue.domain, d.attempts, failure.getMessage());
+            d.reject();
+        } else {
+            defer(queue, d, failure);
+        }
+        throwRejected(queue, d, failure);
+    }
+
+    private static void throwRejected(DomainQueue queue, Delivery d, MessagingException failure) throws MailSendException {
+        if (!d.rejected.isEmpty()) {
+            // 재시도 큐로 넘긴 주소는 접수된 것으로 본다: 실패 수(rejectedCount)에는 거부된 주소만 들어간다
+            // (나중에 최종 실패하면 drain 이 mail_logs 에 기록)
+            List<Address> accepted = new ArrayList<>(d.sent);
+            accepted.addAll(List.of(d.pending));
+            SendFailedException result = new SendFailedException(
+                    "Rejected by " + queue.domain + ": " + (failure != null ? failure.getMessage() : ""), failure,
+                    accepted.toArray(Address[]::new), new Address[0], d.rejected.toArray(Address[]::new));
+            d.rejected.clear();
+            throw new MailSendException(result.getMessage(), result, Map.<Object, Exception>of(d.message, result));
+        }
+    }
+
+    private void defer(DomainQueue queue, Delivery d, MessagingException cause) {
+        if (cause != null) {
+            long backoff = queue.deferred(props);
+            log.info("Delivery to {} deferred (attempt {}), retry in {}ms: {}", queue.domain, d.attempts, backoff, cause.getMessage());
+        }
+        if (queue.queued.incrementAndGet() > props.getMaxQueuedPerDomain()) {
+            // 재시도 큐가 가득 참: 메모리 보호를 위해 실패 처리
+            queue.queued.decrementAndGet();
+            log.warn("Retry queue for {} is full ({}), failing deferred message", queue.domain, props.getMaxQueuedPerDomain());
+            d.reject();
+            return;
+        }
+        queue.retries.add(d);
+        scheduleDrain(queue);
+    }
+
+    private void scheduleDrain(DomainQueue queue) {
+        if (!queue.draining.compareAndSet(false, true)) return;
+        try {
+            retryTimer.schedule(() -> Thread.ofVirtual().name("direct-mx-retry-" + queue.domain).start(() -> drain(queue)),
+                    Math.max(0, queue.waitMillis()), TimeUnit.MILLISECONDS);
+        } catch (RuntimeException e) {
+            // 종료 중
+            queue.draining.set(false);
+        }
+    }
+
+    // 재시도 큐는 발송 청크와 무관하게 도메인/연결 슬롯만 잡고 보낸다
+    private void drain(DomainQueue queue) {
+        try {
+            while (queue.waitMillis() <= 0 && !queue.retries.isEmpty()) {
+                // 슬롯을 먼저 잡고 꺼낸다 (대기 중 종료돼도 메일은 큐에 남아 shutdown 이 기록)
+                queue.permits.acquire();
+                try {
+                    connections.acquire();
+                    try {
+                        Delivery d = queue.retries.poll();
+                        if (d == null) break;
+                        queue.queued.decrementAndGet();
+                        try {
+                            attempt(queue, d);
+                        } catch (MailSendException e) {
+                            // 발송 작업은 이미 접수로 셌으므로 거부된 주소를 재발송 대상으로 남긴다
+                            log.warn("Deferred delivery to {} failed: {}", queue.domain, e.getMessage());
+                            if (e.getCause() instanceof SendFailedException f) {
+                                recordBounced(queue, d, List.of(orEmpty(f.getInvalidAddresses())), f.getMessage());
+                            }
+                        }
+                    } finally {
+                        connections.release();
+                    }
+                } finally {
+                    queue.permits.release();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (RuntimeException e) {
+            log.error("Retry drain failed for {}", queue.domain, e);
+        } finally {
+            queue.draining.set(false);
+        }
+        if (!queue.retries.isEmpty()) scheduleDrain(queue);
+    }
+
+    /**
+     * 발송 작업이 접수로 센 뒤 최종 실패한 주소를 mail_logs 에 BOUNCED 로 기록 (resend-failed 대상).
+     * 대량 봉투(수신자 id 헤더 없음)도 있으므로 수신자는 그룹 + 주소로 찾는다. 캠페인 메시지가 아니면 로그만 남긴다.
+     */
+    private void recordBounced(DomainQueue queue, Delivery d, List<Address> addresses, String reason) {
+        if (addresses.isEmpty()) return;
+        CampaignMessageWriter.Origin origin = CampaignMessageWriter.origin(d.message);
+        if (origin == null) {
+            log.warn("Deferred delivery to {} lost for {} recipients (not a campaign message): {}", queue.domain, addresses.size(), reason);
+            return;
+        }
+        String[] emails = addresses.stream().map(a -> a instanceof InternetAddress ia ? ia.getAddress() : a.toString())
+                .toArray(String[]::new);
+        Matcher code = REPLY_CODE.matcher(reason != null ? reason : "");
+        try {
+            jdbcTemplate.update("""
+                        INSERT INTO mail_logs (campaign_id, group_id, recipient_id, status, bounce_code, bounce_reason,
+                                               mail_to, ab_variant, attempt, created_at, updated_at)
+                        SELECT ?, r.group_id, r.id, ?, ?, ?, r.email, ?, ?, now(), now()
+                        FROM mail_recipients r
+                        WHERE r.group_id = ? AND r.email = ANY (?)
+                    """, origin.campaignId(), STATUS_BOUNCED, code.find() ? code.group(1) : null,
+                    reason, origin.variant(), d.attempts,
+                    origin.groupId(), emails);
+        } catch (RuntimeException e) {
+            log.error("Failed to record {} deferred failures for campaign {} ({})", emails.length, origin.campaignId(), queue.domain, e);
+        }
+    }
+
+    private static Address[] orEmpty(Address[] addresses) {
+        return addresses == null ? new Address[0] : addresses;
+    }
+
+    // MX 우선순위 순으로 시도. 서버가 응답한 거부(SendFailedException)는 다른 MX 로 넘기지 않는다
+    private void deliverOnce(DomainQueue queue, MimeMessage message, Address[] recipients) throws MessagingException {
+        List<String> hosts;
+        try {
+            hosts = queue.hosts(mxResolver, props.getCacheTtlMs());
+        } catch (MxResolver.LookupException e) {
+            // DNS 타임아웃/SERVFAIL: 캐시하지 않고 4xx 유예처럼 도메인 백오프 후 재시도
+            throw new MessagingException("451 " + e.getMessage(), e);
+        }
+        if (hosts.isEmpty()) {
+            throw new MessagingException("550 No MX for domain " + queue.domain);
+        }
+
+        MessagingException last = null;
+        for (String host : hosts) {
+            HostPool pool = hostPools.computeIfAbsent(host, HostPool::new);
+            Transport transport;
+            try {
+                transport = pool.borrow();
+            } catch (MessagingException e) {
+                last = e;
+                log.debug("MX {} for {} unreachable: {}", host, queue.domain, e.getMessage());
+                continue;
+            }
+
+            try {
+                transport.sendMessage(message, recipients);
+                pool.giveBack(transport);
+                return;
+            } catch (SendFailedException e) {
+                HostPool.closeQuietly(transport);
+                throw e;
+            } catch (MessagingException e) {
+                HostPool.closeQuietly(transport);
+                last = e;
+            }
+        }
+        throw last;
+    }
+
+    private static boolean isPermanent(MessagingException e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t.getMessage() != null && PERMANENT.matcher(t.getMessage()).find()) return true;
+        }
+        return false;
+    }
+
+    private static final class DomainQueue {
+        private final String domain;
+        private final Semaphore permits;
+        private final Queue<Delivery> retries = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private volatile List<String> hosts;
+        private volatile long resolvedAt;
+        private long retryAt;
+        private int consecutiveFailures;
+
+        private DomainQueue(String domain, int concurrency) {
+            this.domain = domain;
+            this.permits = new Semaphore(concurrency);
+        }
+
+        private List<String> hosts(MxResolver resolver, long ttlMs) {
+            long now = System.currentTimeMillis();
+            if (hosts == null || now - resolvedAt > ttlMs) {
+                hosts = resolver.resolve(domain);
+                resolvedAt = now;
+            }
+            return hosts;
+        }
+
+        private synchronized long waitMillis() {
+            return retryAt - System.currentTimeMillis();
+        }
+
+        private synchronized long deferred(DirectMxProperties props) {
+            consecutiveFailures++;
+            long backoff = Math.min(props.getBackoffMaxMs(),
+                    props.getBackoffInitialMs() << Math.min(20, consecutiveFailures - 1));
+            retryAt = Math.max(retryAt, System.currentTimeMillis() + backoff);
+            return backoff;
+        }
+
+        private synchronized void succeeded() {
+            consecutiveFailures = 0;
+            retryAt = 0;
+        }
+    }
+
+    // 메시지 1건의 전달 상태 (재시도 큐에서는 아직 받지 않은 주소만 다시 보낸다)
+    private static final class Delivery {
+        private final MimeMessage message;
+        private final List<Address> sent = new ArrayList<>();
+        private final List<Address> rejected = new ArrayList<>();
+        private Address[] pending;
+        private int attempts;
+
+        private Delivery(MimeMessage message, Address[] recipients) {
+            this.message = message;
+            this.pending = orEmpty(recipients);
+        }
+
+        private void reject() {
+            rejected.addAll(List.of(pending));
+            pending = new Address[0];
+        }
+    }
+
+    private final class HostPool {
+        private final String host;
+        private final int port;
+        private final Deque<Transport> idle = new ConcurrentLinkedDeque<>();
+
+        private HostPool(String target) {
+            int colon = target.lastIndexOf(':');
+            if (colon > 0) {
+                this.host = target.substring(0, colon);
+                this.port = Integer.parseInt(target.substring(colon + 1));
+            } else {
+                this.host = target;
+                this.port = props.getPort();
+            }
+        }
+
+        private Transport borrow() throws MessagingException {
+            Transport t;
+            while ((t = idle.pollFirst()) != null) {
+                if (t.isConnected()) return t;
+                closeQuietly(t);
+            }
+            t = session.getTransport("smtp");
+            t.connect(host, port, null, null);
+            return t;
+        }
+
+        private void giveBack(Transport t) {
+            if (idle.size() < props.getIdleConnectionsPerHost()) {
+                idle.offerFirst(t);
+            } else {
+                closeQuietly(t);
+            }
+        }
+
+        private void closeAll() {
+            Transport t;
+            while ((t = idle.pollFirst()) != null) {
+                closeQuietly(t);
+            }
+        }
+
+        private static void closeQuietly(Transport t) {
+            try {
+                t.close();
+            } catch (MessagingException ignore) {
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.mailstorm.be.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.naming.NameNotFoundException;
+import javax.naming.NamingEnumeration;
+import javax.naming.NamingException;
+import javax.naming.directory.Attribute;
+import javax.naming.directory.Attributes;
+import javax.naming.directory.DirContext;
+import javax.naming.directory.InitialDirContext;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Hashtable;
+import java.util.List;
+
+/**
+ * JNDI DNS 로 MX 레코드 조회. MX 가 없으면 RFC 5321 §5.1 암묵적 MX(도메인 자체의 A/AAAA)로 대체.
+ * 타임아웃/SERVFAIL 같은 조회 실패는 "MX 없음"과 구분해 LookupException 으로 던진다.
+ */
+@Component
+@ConditionalOnProperty(name = "app.smtp.mx.resolver", havingValue = "dns", matchIfMissing = true)
+@Slf4j
+public class DnsMxResolver implements MxResolver {
+
+    @Override
+    public List<String> resolve(String domain) {
+        Hashtable<String, String> env = new Hashtable<>();
+        env.put("java.naming.factory.initial", "com.sun.jndi.dns.DnsContextFactory");
+
+        DirContext ctx = null;
+        try {
+            ctx = new InitialDirContext(env);
+            Attributes attrs = lookup(ctx, domain, "MX");
+            if (attrs == null) {
+                log.warn("MX lookup: domain not found {}", domain);
+                return List.of();
+            }
+            Attribute mx = attrs.get("MX");
+            if (mx == null || mx.size() == 0) {
+                // 암묵적 MX: 주소 레코드가 있으면 도메인 자체로 전달
+                Attributes address = lookup(ctx, domain, "A", "AAAA");
+                boolean hasAddress = address != null && (address.get("A") != null || address.get("AAAA") != null);
+                if (!hasAddress) log.warn("MX lookup: no MX or address records for {}", domain);
+                return hasAddress ? List.of(domain) : List.of();
+            }
+
+            List<MxRecord> records = new ArrayList<>(mx.size());
+            NamingEnumeration<?> values = mx.getAll();
+            while (values.hasMore()) {
+                // "10 mx1.example.com."
+                String[] parts = values.next().toString().trim().split("\\s+");
+                if (parts.length < 2) continue;
+                String host = parts[1].endsWith(".") ? parts[1].substring(0, parts[1].length() - 1) : parts[1];
+                if (host.isEmpty()) continue; // null MX (RFC 7505): 메일 수신 안 함
+                records.add(new MxRecord(Integer.parseInt(parts[0]), host));
+            }
+            records.sort(Comparator.comparingInt(MxRecord::preference));
+            return records.stream().map(MxRecord::host).toList();
+        } catch (NamingException | NumberFormatException e) {
+            // 도메인 문제인지 DNS 문제인지 알 수 없다 → 일시 실패 (호출자가 재시도, 캐시 안 함)
+            throw new LookupException("MX lookup failed for " + domain + ": " + e.getMessage(), e);
+        } finally {
+            if (ctx != null) {
+                try {
+                    ctx.close();
+                } catch (NamingException ignore) {
+                }
+            }
+        }
+    }
+
+    // NXDOMAIN 이면 null
+    private static Attributes lookup(DirContext ctx, String domain, String... types) throws NamingException {
+        try {
+            return ctx.getAttributes(domain, types);
+        } catch (NameNotFoundException e) {
+            return null;
+        }
+    }
+
+    private record MxRecord(int preference, String host) {}
+}
@@ -0,0 +1,288 @@
+package com.mailstorm.be.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 캠페인 참여 시계열 카운터 (mail_engagement_buckets, V9)
+ * - 트래커 요청마다 (캠페인, 시각(시간 단위), 타입, 변형, 링크) 키로 메모리에서만 더하고, flush-ms 마다 버킷에 upsert
+ *   (인기 캠페인의 같은 시간대 요청이 DB 한 행을 두고 경합하지 않게 인스턴스별로 모아서 한 번에)
+ * - 발송 시작(send_date) 후 hourly-window-hours 까지는 1시간(H), 이후는 1일(D) 버킷
+ * - events 는 중복 포함 전체 요청 수, uniques 는 수신자별 첫 기록 수
+ * 정상 종료 때는 남은 증분을 한 번 더 flush 한다. 그 전에 프로세스가 죽으면 그 사이 카운트(최대 flush-ms 분량)는 유실된다.
+ * DB 장애로 쓰지 못한 버킷은 버킷 단위로 모아 두었다가 다음 flush 에 다시 더하고, retry-max-buckets 를 넘으면 버린다.
+ * 원본은 mail_tracker 에 남아 있다.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class EngagementCounters {
+
+    public static final String GRANULARITY_HOUR = "H";
+    public static final String GRANULARITY_DAY = "D";
+    private static final String NO_VARIANT = "";
+    private static final int NO_LINK = 0;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.engagement.hourly-window-hours:72}")
+    private long hourlyWindowHours;
+
+    @Value("${app.engagement.flush-batch-size:500}")
+    private int flushBatchSize;
+
+    @Value("${app.engagement.link-cache-size:10000}")
+    private int linkCacheSize;
+
+    @Value("${app.engagement.retry-max-buckets:50000}")
+    private int retryMaxBuckets;
+
+    private final Map<Key, Counts> pending = new ConcurrentHashMap<>();
+    // 쓰기에 실패한 버킷 증분 (다음 flush 때 다시 더한다). flush 안에서만 접근
+    private final Map<BucketKey, long[]> retry = new HashMap<>();
+    private final Map<LinkKey, Integer> linkIds = new ConcurrentHashMap<>();
+
+    /**
+     * 트래커 요청 1건 기록 (DB 접근 없음)
+     * @param unique 수신자별 첫 기록(mail_tracker 새 행)이면 true
+     */
+    public void record(Long campaignId, String type, String variant, String url, boolean unique) {
+        if (campaignId == null) return;
+        Key key = new Key(campaignId, LocalDateTime.now().truncatedTo(ChronoUnit.HOURS), type,
+                variant != null ? variant : NO_VARIANT, "click".equals(type) ? url : null);
+        // compute 는 키 단위로 원자적이라 flush 의 remove 와 겹쳐도 증분이 사라지지 않는다
+        pending.compute(key, (k, c) -> {
+            Counts counts = c != null ? c : new Counts();
+            counts.events++;
+            if (unique) counts.uniques++;
+            return counts;
+        });
+    }
+
+    // 종료 직전 남은 증분 기록 (스케줄 flush 와 겹치지 않게 flush 는 synchronized)
+    @PreDestroy
+    public synchronized void shutdown() {
+        flush();
+        if (!pending.isEmpty() || !retry.isEmpty()) {
+            log.warn("Engagement counts dropped on shutdown. pending={}, retry={}", pending.size(), retry.size());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.engagement.flush-ms:5000}")
+    public synchronized void flush() {
+        if (pending.isEmpty() && retry.isEmpty()) return;
+
+        Map<Key, Counts> drained = new HashMap<>();
+        for (Key key : pending.keySet()) {
+            Counts counts = pending.remove(key);
+            if (counts != null) drained.put(key, counts);
+        }
+
+        Map<BucketKey, long[]> buckets = new HashMap<>();
+        try {
+            Map<Long, LocalDateTime> sendStarts = sendStarts(drained.keySet().stream().map(Key::campaignId).distinct().toList());
+            for (Map.Entry<Key, Counts> e : drained.entrySet()) {
+                Key key = e.getKey();
+                add(buckets, bucketOf(key, sendStarts.get(key.campaignId())), e.getValue().events, e.getValue().uniques);
+            }
+        } catch (RuntimeException e) {
+            // 발송 시작 시각/링크 id 조회 실패: 메모리 증분을 되돌려 두고 다음 주기에
+            log.warn("Engagement flush deferred: {}", e.getMessage());
+            drained.forEach((key, counts) -> pending.merge(key, counts, Counts::plus));
+            return;
+        }
+        retry.forEach((key, v) -> add(buckets, key, v[0], v[1]));
+        retry.clear();
+        write(buckets);
+    }
+
+    /**
+     * 타임라인: 버킷 테이블만 읽는다 (mail_tracker 미사용). 아직 flush 되지 않은 최근 flush-ms 분량은 빠진다.
+     * @param type open/click/unsubscribe, null 이면 전체
+     * @param by   variant: 변형별, link: 링크별, 그 외(null): 합계
+     */
+    public Timeline timeline(Long campaignId, String type, String by) {
+        boolean byVariant = "variant".equals(by);
+        boolean byLink = "link".equals(by);
+        List<Object> args = new ArrayList<>();
+        args.add(campaignId);
+        String typeFilter = "";
+        if (type != null && List.of("open", "click", "unsubscribe").contains(type)) {
+            typeFilter = "AND type = ?";
+            args.add(type);
+        }
+        List<Bucket> buckets = jdbcTemplate.query("""
+                SELECT bucket_start, granularity, type, %s AS variant, %s AS link_id,
+                       SUM(events) AS events, SUM(uniques) AS uniques
+                  FROM mail_engagement_buckets
+                 WHERE campaign_id = ?
+                   %s
+                 GROUP BY bucket_start, granularity, type%s%s
+                 ORDER BY bucket_start, type%s%s
+                """.formatted(
+                        byVariant ? "variant" : "''",
+                        byLink ? "link_id" : "0",
+                        typeFilter,
+                        byVariant ? ", variant" : "", byLink ? ", link_id" : "",
+                        byVariant ? ", variant" : "", byLink ? ", link_id" : ""),
+                (rs, i) -> new Bucket(
+                        rs.getTimestamp("bucket_start").toLocalDateTime(),
+                        rs.getString("granularity"),
+                        rs.getString("type"),
+                        rs.getString("variant"),
+                        rs.getInt("link_id"),
+                        rs.getLong("events"),
+                        rs.getLong("uniques")),
+                args.toArray());
+
+        Map<Integer, String> links = new HashMap<>();
+        if (byLink) {
+            jdbcTemplate.query("SELECT id, url FROM mail_engagement_links WHERE campaign_id = ?",
+                    rs -> {
+                        links.put(rs.getInt("id"), rs.getString("url"));
+                    }, campaignId);
+        }
+        return new Timeline(campaignId, buckets, links);
+    }
+
+    // 교착을 피하려고 PK 순서로 정렬해서 batch 단위 multi-row upsert
+    private void write(Map<BucketKey, long[]> buckets) {
+        int dropped = 0;
+        List<BucketKey> keys = new ArrayList<>(buckets.keySet());
+        keys.sort(BucketKey.ORDER);
+        int size = Math.max(1, flushBatchSize);
+        for (int from = 0; from < keys.size(); from += size) {
+            List<BucketKey> chunk = keys.subList(from, Math.min(keys.size(), from + size));
+            try {
+                jdbcTemplate.update("""
+                        INSERT INTO mail_engagement_buckets AS b
+                               (campaign_id, granularity, bucket_start, type, variant, link_id, events, uniques)
+                        VALUES %s
+                        ON CONFLICT (campaign_id, granularity, bucket_start, type, variant, link_id)
+                        DO UPDATE SET events = b.events + EXCLUDED.events,
+                                      uniques = b.uniques + EXCLUDED.uniques
+                        """.formatted(String.join(", ", Collections.nCopies(chunk.size(), "(?, ?, ?, ?, ?, ?, ?, ?)"))),
+                        ps -> {
+                            int idx = 1;
+                            for (BucketKey k : chunk) {
+                                long[] v = buckets.get(k);
+                                ps.setLong(idx++, k.campaignId());
+                                ps.setString(idx++, k.granularity());
+                                ps.setTimestamp(idx++, Timestamp.valueOf(k.start()));
+                                ps.setString(idx++, k.type());
+                                ps.setString(idx++, k.variant());
+                                ps.setInt(idx++, k.linkId());
+                                ps.setLong(idx++, v[0]);
+                                ps.setLong(idx++, v[1]);
+                            }
+                        });
+            } catch (RuntimeException e) {
+                log.warn("Engagement bucket write failed, retrying next flush. rows={}", chunk.size(), e);
+                // 재시도분은 이미 buckets 에 합쳐져 있어 버킷당 한 항목. DB 장애가 길어지면 retry-max-buckets 까지만 보관
+                for (BucketKey k : chunk) {
+                    if (retry.size() < retryMaxBuckets) {
+                        retry.put(k, buckets.get(k));
+                    } else {
+                        dropped++;
+                    }
+                }
+            }
+        }
+        if (dropped > 0) {
+            log.warn("Engagement retry backlog full, dropped buckets={} (max={})", dropped, retryMaxBuckets);
+        }
+    }
+
+    private BucketKey bucketOf(Key key, LocalDateTime sendStart) {
+        boolean hourly = sendStart == null || key.hour().isBefore(sendStart.plusHours(hourlyWindowHours));
+        return new BucketKey(key.campaignId(),
+                hourly ? GRANULARITY_HOUR : GRANULARITY_DAY,
+                hourly ? key.hour() : key.hour().truncatedTo(ChronoUnit.DAYS),
+                key.type(), key.variant(),
+                key.url() != null ? linkId(key.campaignId(), key.url()) : NO_LINK);
+    }
+
+    private Map<Long, LocalDateTime> sendStarts(List<Long> campaignIds) {
+        Map<Long, LocalDateTime> starts = new HashMap<>();
+        if (campaignIds.isEmpty()) return starts;
+        jdbcTemplate.query("SELECT id, send_date FROM mail_campaigns WHERE id = ANY(?)", rs -> {
+            Timestamp sendDate = rs.getTimestamp("send_date");
+            if (sendDate != null) starts.put(rs.getLong("id"), sendDate.toLocalDateTime());
+        }, (Object) campaignIds.toArray(Long[]::new));
+        return starts;
+    }
+
+    // 캠페인 링크 → 사전 id (없으면 등록). 다른 인스턴스와 동시에 등록해도 같은 id 를 받는다
+    private int linkId(Long campaignId, String url) {
+        LinkKey key = new LinkKey(campaignId, url);
+        Integer cached = linkIds.get(key);
+        if (cached != null) return cached;
+        Integer id = jdbcTemplate.queryForObject("""
+                INSERT INTO mail_engagement_links (campaign_id, url) VALUES (?, ?)
+                ON CONFLICT (campaign_id, md5(url)) DO UPDATE SET url = EXCLUDED.url
+                RETURNING id
+                """, Integer.class, campaignId, url);
+        if (linkIds.size() >= linkCacheSize) linkIds.clear();
+        linkIds.put(key, id);
+        return id;
+    }
+
+    private static void add(Map<BucketKey, long[]> buckets, BucketKey key, long events, long uniques) {
+        long[] v = buckets.computeIfAbsent(key, k -> new long[2]);
+        v[0] += events;
+        v[1] += uniques;
+    }
+
+    /**
+     * granularity H 는 1시간, D 는 1일 버킷 (발송 후 hourly-window-hours 이후 또는 롤업된 구간).
+     * variant 는 by=variant 일 때만, linkId 는 by=link 일 때만 채워진다 (links: id → URL).
+     */
+    public record Timeline(Long campaignId, List<Bucket> buckets, Map<Integer, String> links) {
+    }
+
+    public record Bucket(LocalDateTime start, String granularity, String type, String variant, int linkId,
+                         long events, long uniques) {
+    }
+
+    private record Key(Long campaignId, LocalDateTime hour, String type, String variant, String url) {
+    }
+
+    private record LinkKey(Long campaignId, String url) {
+    }
+
+    private record BucketKey(Long campaignId, String granularity, LocalDateTime start, String type, String variant, int linkId) {
+        private static final Comparator<BucketKey> ORDER = Comparator.comparing(BucketKey::campaignId)
+                .thenComparing(BucketKey::granularity)
+                .thenComparing(BucketKey::start)
+                .thenComparing(BucketKey::type)
+                .thenComparing(BucketKey::variant)
+                .thenComparingInt(BucketKey::linkId);
+    }
+
+    private static final class Counts {
+        private long events;
+        private long uniques;
+
+        private Counts plus(Counts other) {
+            events += other.events;
+            uniques += other.uniques;
+            return this;
+        }
+    }
+}
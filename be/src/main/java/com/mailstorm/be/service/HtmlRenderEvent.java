@@ -0,0 +1,29 @@
+package com.mailstorm.be.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * 캠페인 HTML 트래킹 변환 1회 (processHtml 도 compile 을 거치므로 함께 잡힌다)
+ */
+@Name("mailstorm.HtmlRender")
+@Label("HTML Render")
+@Category({"MailStorm", "Send"})
+@Description("Tracking rewrite of a campaign HTML body")
+final class HtmlRenderEvent extends Event {
+
+    @Label("Tracked")
+    @Description("false for untracked bulk bodies")
+    boolean tracked;
+
+    @Label("Input Length")
+    @Description("HTML characters before rewriting")
+    int inputLength;
+
+    @Label("Segments")
+    @Description("Static segments split at tracking token slots")
+    int segments;
+}
@@ -6,57 +6,153 @@ import org.springframework.stereotype.Component;
 
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 @Component
 @RequiredArgsConstructor
 public class HtmlTrackingProcessor {
 
+    // 수신자별 토큰 자리 표시자 (compile 후 세그먼트 경계로만 쓰이고 메일에는 남지 않음)
+    private static final String TOKEN_SLOT = "\u0000MAILSTORM_TOKEN\u0000";
+
+    private static final Pattern LINK_PATTERN = Pattern.compile("<a\\s+[^>]*href=\"([^\"]+)\"");
+    private static final Pattern IMG_WITH_STYLE = Pattern.compile("<img([^>]*?)style=\"([^\"]*?)\"");
+    private static final Pattern IMG_NO_STYLE = Pattern.compile("<img((?!style=)[^>]*)>");
+
     private final TrackerJwtUtil jwtUtil;
 
     public String processHtml(String html, Long cid, Long gid, Long rid, MailerService.MailGroup footer, String receiveUrl) {
-        String token = jwtUtil.generateTrackingToken(cid, gid, rid);
+        return compile(html, footer, receiveUrl).render(trackingToken(cid, gid, rid));
+    }
+
+    public String trackingToken(Long cid, Long gid, Long rid) {
+        return jwtUtil.generateTrackingToken(cid, gid, rid);
+    }
+
+    // List-Unsubscribe 헤더용: 뒤에 수신자 토큰을 붙이면 원클릭 수신거부 URL (본문 링크와 같은 엔드포인트)
+    public String unsubscribeUrlPrefix(String receiveUrl) {
+        return receiveUrl + "/tracker/unsubscribe?token=";
+    }
+
+    // 수신자 토큰이 없는 대량 발송용 목록 수신거부 페이지 (수신자가 주소를 입력)
+    public String listUnsubscribeUrl(String receiveUrl, Long cid, Long gid) {
+        return receiveUrl + "/tracker/unsubscribe/list?token=" + jwtUtil.generateListToken(cid, gid);
+    }
+
+    // A/B 발송: 변형(승자 본발송은 "W")을 토큰에 담아 트래커가 변형별로 집계할 수 있게
+    public String trackingToken(Long cid, Long gid, Long rid, String variant) {
+        return jwtUtil.generateTrackingToken(cid, gid, rid, variant);
+    }
+
+    /**
+     * 캠페인 단위로 한 번만 변환해 두는 HTML 템플릿.
+     * 토큰을 제외한 나머지(링크 치환, img 스타일, 오픈 픽셀, 푸터)는 수신자와 무관하므로
+     * 토큰 위치에서 잘라 정적 세그먼트 목록으로 보관한다.
+     */
+    public CompiledHtml compile(String html, MailerService.MailGroup footer, String receiveUrl) {
+        HtmlRenderEvent event = new HtmlRenderEvent();
+        event.begin();
+        int inputLength = html.length();
+        String token = TOKEN_SLOT;
 
         // 1. 링크 클릭 추적
-        Pattern linkPattern = Pattern.compile("<a\\s+[^>]*href=\"([^\"]+)\"");
-        html = linkPattern.matcher(html).replaceAll(match -> {
+        html = LINK_PATTERN.matcher(html).replaceAll(match -> {
             String originalUrl = match.group(1);
             String trackingUrl = receiveUrl + "/tracker/click?token=" + token + "&url=" + URLEncoder.encode(originalUrl, StandardCharsets.UTF_8);
-            return match.group(0).replace(originalUrl, trackingUrl);
+            return Matcher.quoteReplacement(match.group(0).replace(originalUrl, trackingUrl));
         });
 
-        // 2-1. style 있는 img에 display:block 삽입
-        Pattern imgWithStyle = Pattern.compile("<img([^>]*?)style=\"([^\"]*?)\"");
-        html = imgWithStyle.matcher(html).replaceAll(match -> {
+        // 2. img display:block
+        html = imgDisplayBlock(html);
+
+        // 3. 오픈 트래킹 이미지
+        String trackingImg = "<img src=\"" + receiveUrl + "/tracker/open?token=" + token + "\" width=\"1\" height=\"1\" style=\"display:block;margin:0;padding:0;border:none;font-size:0;line-height:0;\" />";
+
+        // 4. 푸터 HTML
+        String footerHtml = footerHtml(footer, unsubscribeLink(unsubscribeUrlPrefix(receiveUrl) + token));
+
+        html = html.replace("</body>", trackingImg + footerHtml + "</body>");
+        return recorded(event, true, inputLength, new CompiledHtml(List.of(html.split(TOKEN_SLOT, -1))));
+    }
+
+    /**
+     * 트래킹 없는 대량 발송용: 링크 치환/오픈 픽셀 없이 수신자 공통 본문 1개.
+     * 수신거부는 수신자별 토큰 대신 목록 수신거부 페이지(listUnsubscribeUrl) 링크로 건다.
+     * 한 번 인코딩한 본문을 다중 RCPT 트랜잭션으로 그대로 보낸다.
+     */
+    public CompiledHtml compileUntracked(String html, MailerService.MailGroup footer, String listUnsubscribeUrl) {
+        HtmlRenderEvent event = new HtmlRenderEvent();
+        event.begin();
+        int inputLength = html.length();
+        html = imgDisplayBlock(html);
+        html = html.replace("</body>", footerHtml(footer, unsubscribeLink(listUnsubscribeUrl)) + "</body>");
+        return recorded(event, false, inputLength, new CompiledHtml(List.of(html)));
+    }
+
+    private static CompiledHtml recorded(HtmlRenderEvent event, boolean tracked, int inputLength, CompiledHtml compiled) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.tracked = tracked;
+            event.inputLength = inputLength;
+            event.segments = compiled.segments().size();
+            event.commit();
+        }
+        return compiled;
+    }
+
+    private static String imgDisplayBlock(String html) {
+        // style 있는 img에 display:block 삽입
+        html = IMG_WITH_STYLE.matcher(html).replaceAll(match -> {
             String before = match.group(1);
             String style = match.group(2).replaceAll("display\\s*:\\s*[^;]+;?", ""); // 기존 display 제거
-            return "<img" + before + "style=\"display:block;" + style + "\"";
+            return Matcher.quoteReplacement("<img" + before + "style=\"display:block;" + style + "\"");
         });
 
-        // 2-2. style 없는 img에 display:block 추가
-        Pattern imgNoStyle = Pattern.compile("<img((?!style=)[^>]*)>");
-        html = imgNoStyle.matcher(html).replaceAll("<img$1 style=\"display:block;\">");
+        // style 없는 img에 display:block 추가
+        return IMG_NO_STYLE.matcher(html).replaceAll("<img$1 style=\"display:block;\">");
+    }
 
-        // 3. 오픈 트래킹 이미지
-        String trackingImg = "<img src=\"" + receiveUrl + "/tracker/open?token=" + token + "\" width=\"1\" height=\"1\" style=\"display:block;margin:0;padding:0;border:none;font-size:0;line-height:0;\" />";
+    private static String unsubscribeLink(String url) {
+        return """
+          <a href="%s" style="color:#007aff;text-decoration:underline;" target="_blank">수신거부</a>
+        """.formatted(url);
+    }
 
-        // 4. 푸터 HTML
-        String unsubscribeUrl = receiveUrl + "/tracker/unsubscribe?token=" + token;
-        String footerHtml = """
+    private static String footerHtml(MailerService.MailGroup footer, String unsubscribeLink) {
+        return """
         <div style="margin-top:32px;padding:24px 0 0 0;font-size:12px;color:#888;border-top:1px solid #eee;text-align:center;">
           <strong>%s</strong><br/>
           %s<br/>%s<br/>%s<br/>
-          <a href="%s" style="color:#007aff;text-decoration:underline;" target="_blank">수신거부</a>
-        </div>
+        %s</div>
         """.formatted(
                 footer.footerCompany(),
                 footer.footerFromMail(),
                 footer.footerAddress(),
                 footer.footerTel(),
-                unsubscribeUrl
+                unsubscribeLink
         );
+    }
+
+    /**
+     * segments 사이사이에 수신자 토큰이 들어간다 (토큰 수 = segments.size() - 1).
+     */
+    public record CompiledHtml(List<String> segments) {
 
-        return html.replace("</body>", trackingImg + footerHtml + "</body>");
+        public String render(String token) {
+            StringBuilder sb = new StringBuilder(length() + token.length() * (segments.size() - 1));
+            for (int i = 0; i < segments.size(); i++) {
+                if (i > 0) sb.append(token);
+                sb.append(segments.get(i));
+            }
+            return sb.toString();
+        }
+
+        private int length() {
+            int len = 0;
+            for (String s : segments) len += s.length();
+            return len;
+        }
     }
 }
-
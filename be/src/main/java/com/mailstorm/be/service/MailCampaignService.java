@@ -8,18 +8,27 @@ import com.mailstorm.be.dto.CreateMailCampaignDto;
 import com.mailstorm.be.repository.MailCampaignRepository;
 import com.mailstorm.be.repository.MailContentRepository;
 import com.mailstorm.be.repository.MailSendInfoRepository;
-import jakarta.persistence.EntityManager;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.crossstore.ChangeSetPersister;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -28,7 +37,12 @@ public class MailCampaignService {
     private final MailCampaignRepository campaignRepo;
     private final MailContentRepository contentRepo;
     private final MailSendInfoRepository sendInfoRepo;
-    private final EntityManager entityManager;
+    private final CampaignSnapshotCache campaignSnapshotCache;
+    private final CampaignStatsCache campaignStatsCache;
+
+    // 목록 집계 1회 요청에 담을 수 있는 캠페인 수 (한 페이지 분량)
+    @Value("${app.status.batch-max-ids:100}")
+    private int statsBatchMaxIds;
 
     @Transactional
     public MailCampaign create(CreateMailCampaignDto dto) {
@@ -66,59 +80,70 @@ public class MailCampaignService {
         return campaign;
     }
 
-    public Map<String, Object> getStatusInfo(Long campaignId) {
-        List<Object[]> result = entityManager.createNativeQuery("""
-            SELECT 
-              a.name AS campaign_name,
-              a.send_date,
-              a.end_date,
-              b.name AS group_name,
-              c.sender_name,
-              c.sender_email,
-              d.html AS content_html
-            FROM mail_campaigns a
-              LEFT JOIN mail_groups b ON a.group_id = b.id
-              LEFT JOIN mail_sendinfo c ON a.id = c.campaign_id
-              LEFT JOIN mail_contents d ON a.id = d.campaign_id
-            WHERE a.id = ?1
-            LIMIT 1
-        """).setParameter(1, campaignId).getResultList();
-
-        if (result.isEmpty()) return null;
-
-        Object[] base = result.get(0);
-
-        List<Object[]> stats = entityManager.createNativeQuery("""
-            SELECT 
-              COUNT(a.recipient_id) AS total_count,
-              (SELECT COUNT(id) FROM mail_logs WHERE status = 'SENT' AND campaign_id = ?1) AS success_count,
-              (SELECT COUNT(id) FROM mail_tracker WHERE type = 'open' AND campaign_id = ?1) AS open_count,
-              (SELECT COUNT(id) FROM mail_tracker WHERE type = 'click' AND campaign_id = ?1) AS click_count,
-              (SELECT COUNT(id) FROM mail_tracker WHERE type = 'unsubscribe' AND campaign_id = ?1) AS reject_count
-            FROM mail_logs a
-            WHERE a.campaign_id = ?1
-            GROUP BY a.campaign_id
-        """).setParameter(1, campaignId).getResultList();
-
-        Object[] stat = stats.isEmpty() ? null : stats.get(0);
-
-        Map<String, Object> map = new java.util.HashMap<>();
-
-        map.put("campaignName", base[0]);
-        map.put("sendDate", base[1]);
-        map.put("endDate", base[2]);
-        map.put("groupName", base[3]);
-        map.put("senderName", base[4]);
-        map.put("senderEmail", base[5]);
-        map.put("contentHtml", base[6]);
-
-        map.put("totalCount", stat != null ? stat[0] : 0);
-        map.put("successCount", stat != null ? stat[1] : 0);
-        map.put("openCount", stat != null ? stat[2] : 0);
-        map.put("clickCount", stat != null ? stat[3] : 0);
-        map.put("rejectCount", stat != null ? stat[4] : 0);
-
-        return map;
+    /**
+     * 상태 화면용 가벼운 집계 (기본 정보 + 카운트). 콘텐츠 HTML 은 getStatusContent 로 따로 받는다.
+     * contentVersion 이 바뀌었을 때만 콘텐츠를 다시 받으면 된다. etag 는 집계 버전 + 콘텐츠 버전.
+     */
+    public StatusView getStatusInfo(Long campaignId) {
+        Optional<CampaignStatsCache.CampaignStats> stats = campaignStatsCache.get(campaignId);
+        if (stats.isEmpty()) return null;
+
+        String contentVersion = campaignSnapshotCache.get(campaignId)
+                .map(s -> contentVersion(s.version()))
+                .orElse("c0");
+
+        Map<String, Object> map = new LinkedHashMap<>(stats.get().values());
+        map.put("contentVersion", contentVersion);
+        return new StatusView(map, "s" + stats.get().version() + "-" + contentVersion);
+    }
+
+    /**
+     * 캠페인 목록 화면용: 한 페이지 분량 캠페인의 집계를 한 번에 (요청 순서대로, 없는/다른 사용자 캠페인은 제외)
+     * etag 는 포함된 캠페인 집계 버전 전체의 해시.
+     */
+    public StatsPage getStatsBatch(List<Long> campaignIds, Long userId) {
+        Set<Long> ids = new LinkedHashSet<>(campaignIds);
+        if (ids.size() > statsBatchMaxIds) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "ids 는 최대 " + statsBatchMaxIds + "개까지 조회할 수 있습니다.");
+        }
+        Map<Long, CampaignStatsCache.CampaignStats> stats = campaignStatsCache.getAll(ids);
+
+        List<Map<String, Object>> items = new ArrayList<>();
+        StringBuilder versions = new StringBuilder();
+        for (Long id : ids) {
+            CampaignStatsCache.CampaignStats s = stats.get(id);
+            if (s == null || !Objects.equals(s.userId(), userId)) continue;
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("campaignId", id);
+            item.putAll(s.values());
+            items.add(item);
+            versions.append(id).append(':').append(s.version()).append(';');
+        }
+        return new StatsPage(items, DigestUtils.md5DigestAsHex(versions.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    // 콘텐츠 HTML 은 발송과 같은 캠페인 스냅샷에서 (수정 시각이 곧 버전)
+    public ContentView getStatusContent(Long campaignId) {
+        return campaignSnapshotCache.get(campaignId)
+                .map(s -> new ContentView(s.campaign().html(), contentVersion(s.version()),
+                        s.version().contentUpdatedAt() != null
+                                ? s.version().contentUpdatedAt().atZone(ZoneId.systemDefault()).toInstant()
+                                : null))
+                .orElse(null);
+    }
+
+    private static String contentVersion(CampaignSnapshotCache.ContentVersion version) {
+        LocalDateTime at = version.contentUpdatedAt();
+        return at != null ? "c" + at.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : "c0";
+    }
+
+    public record StatusView(Map<String, Object> body, String etag) {
+    }
+
+    public record ContentView(String html, String etag, Instant lastModified) {
+    }
+
+    public record StatsPage(List<Map<String, Object>> items, String etag) {
     }
 
     @Transactional
@@ -127,6 +152,8 @@ public class MailCampaignService {
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,"Campaign not found"));
         campaign.setGroupId(groupId); // null 허용됨
         campaignRepo.save(campaign);
+        campaignSnapshotCache.invalidate(id);
+        campaignStatsCache.invalidate(id);
     }
 
     @Transactional
@@ -153,5 +180,7 @@ public class MailCampaignService {
         }
 
         campaignRepo.save(campaign);
+        campaignSnapshotCache.invalidate(id);
+        campaignStatsCache.invalidate(id);
     }
 }
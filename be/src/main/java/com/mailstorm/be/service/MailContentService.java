@@ -18,11 +18,14 @@ import static org.springframework.http.HttpStatus.NOT_FOUND;
 public class MailContentService {
 
     private final MailContentRepository mailContentRepository;
+    private final CampaignSnapshotCache campaignSnapshotCache;
 
     public MailContent create(MailContent dto) {
         dto.setHtml(minifyHtml(dto.getHtml()));
         dto.setHtmlB(minifyHtml(dto.getHtmlB()));
-        return mailContentRepository.save(dto);
+        MailContent saved = mailContentRepository.save(dto);
+        campaignSnapshotCache.invalidate(saved.getCampaignId());
+        return saved;
     }
 
     public List<MailContent> findAll() {
@@ -54,12 +57,15 @@ public class MailContentService {
         if (dto.getDesignB() != null) {
             content.setDesignB(dto.getDesignB());
         }
-        return mailContentRepository.save(content);
+        MailContent saved = mailContentRepository.save(content);
+        campaignSnapshotCache.invalidate(saved.getCampaignId());
+        return saved;
     }
 
     @Transactional
     public MailContent updateOrCreateByCampaignId(Long campaignId, MailContent dto) {
         Optional<MailContent> existing = mailContentRepository.findByCampaignId(campaignId);
+        campaignSnapshotCache.invalidate(campaignId);
         String minifiedHtml = dto.getHtml() != null ? minifyHtml(dto.getHtml()) : null;
         ObjectMapper mapper = new ObjectMapper();
 
@@ -93,10 +99,12 @@ public class MailContentService {
         if (!mailContentRepository.existsById(id)) {
             throw new ResponseStatusException(NOT_FOUND, "Content " + id + " not found");
         }
+        mailContentRepository.findById(id).ifPresent(c -> campaignSnapshotCache.invalidate(c.getCampaignId()));
         mailContentRepository.deleteById(id);
     }
 
-    private String minifyHtml(String html) {
+    // 벤치마크(src/jmh)에서 직접 호출하므로 package-private static
+    static String minifyHtml(String html) {
         if (html == null) return null;
         return html.replaceAll(">\\s+<", "><")
                 .replaceAll("\\s{2,}", " ")
@@ -0,0 +1,40 @@
+package com.mailstorm.be.service;
+
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import org.springframework.mail.MailException;
+
+/**
+ * 발송 경로 추상화 (app.smtp.delivery-mode)
+ * - relay: SmtpRelayPool (스마트 호스트 경유)
+ * - direct-mx: DirectMxDelivery (수신 도메인 MX 로 직접 전달)
+ */
+public interface MailDelivery {
+
+    /**
+     * 수신 도메인으로 보낼 전송 슬롯 1개를 예약한다. 동시 처리 한도에 걸리면 대기.
+     */
+    Slot acquire(String domain) throws InterruptedException;
+
+    // 메시지 생성용 세션
+    Session session();
+
+    /**
+     * true 면 발송 루프가 도메인별 큐(피더)를 따로 돌려, 한 도메인의 대기/백오프가 다른 도메인을 막지 않게 한다.
+     */
+    boolean perDomainQueues();
+
+    /**
+     * 예약된 슬롯. send 는 한 번만 호출하며, 보내지 않고 닫으면 슬롯만 반납한다.
+     */
+    interface Slot extends AutoCloseable {
+
+        void send(MimeMessage message) throws MailException;
+
+        // 메트릭 태그용 전송 경로 이름 (릴레이 이름 등). send 후에는 마지막으로 시도한 경로
+        String route();
+
+        @Override
+        void close();
+    }
+}
@@ -24,6 +24,7 @@ public class MailGroupService {
     private final MailCampaignRepository campaignRepo;
     private final MailRecipientRepository recipientRepo;
     private final DepartmentService departmentService;
+    private final CampaignSnapshotCache campaignSnapshotCache;
 
     public MailGroup create(MailGroup dto) {
         return repo.save(dto);
@@ -57,7 +58,9 @@ public class MailGroupService {
     public MailGroup update(Long id, MailGroup dto) {
         MailGroup existing = findOne(id);
         existing.updateFrom(dto);
-        return repo.save(existing);
+        MailGroup saved = repo.save(existing);
+        campaignSnapshotCache.invalidateGroup(id);
+        return saved;
     }
 
     public void remove(Long id) {
@@ -65,5 +68,6 @@ public class MailGroupService {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Group " + id + " not found");
         }
         repo.deleteById(id);
+        campaignSnapshotCache.invalidateGroup(id);
     }
 }
@@ -3,6 +3,7 @@ package com.mailstorm.be.service;
 
 import com.mailstorm.be.domain.MailLog;
 import com.mailstorm.be.dto.MailLogDetailDto;
+import com.mailstorm.be.repository.BulkInsertRepository;
 import com.mailstorm.be.repository.MailLogRepository;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
@@ -20,6 +21,7 @@ import java.util.Optional;
 public class MailLogService {
 
     private final MailLogRepository repo;
+    private final BulkInsertRepository bulkRepo;
 
     @PersistenceContext
     private EntityManager em;
@@ -28,6 +30,12 @@ public class MailLogService {
         return repo.save(log);
     }
 
+    // 밀터 등에서 수집한 로그를 배치 단위로 일괄 저장
+    @Transactional
+    public List<MailLog> createMany(List<MailLog> logs) {
+        return bulkRepo.insertLogs(logs);
+    }
+
     public List<MailLog> findAll() {
         return repo.findAll();
     }
@@ -2,7 +2,9 @@ package com.mailstorm.be.service;
 
 import com.mailstorm.be.domain.MailRecipient;
 import com.mailstorm.be.dto.RecipientDTO;
+import com.mailstorm.be.repository.BulkInsertRepository;
 import com.mailstorm.be.repository.MailRecipientRepository;
+import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
@@ -22,7 +24,9 @@ import java.util.List;
 public class MailRecipientService {
 
     private final MailRecipientRepository repo;
+    private final BulkInsertRepository bulkRepo;
 
+    @Transactional
     public List<MailRecipient> createMany(RecipientDTO.CreateRequest req) {
         List<MailRecipient> list = new ArrayList<>();
         for (RecipientDTO.RecipientData rec : req.getRecipients()) {
@@ -31,9 +35,9 @@ public class MailRecipientService {
             entity.setEmail(rec.getEmail());
             entity.setName(rec.getName());
             entity.setReceive(true);
-            list.add(repo.save(entity));
+            list.add(entity);
         }
-        return list;
+        return bulkRepo.insertRecipients(list);
     }
 
     public List<MailRecipient> findByGroupId(Long groupId) {
@@ -67,6 +71,7 @@ public class MailRecipientService {
         repo.delete(entity);
     }
 
+    @Transactional
     public List<MailRecipient> importFromCsv(MultipartFile file, Long groupId) throws IOException {
         String csvText = new String(file.getBytes(), StandardCharsets.UTF_8);
         CSVParser parser = CSVParser.parse(csvText, CSVFormat.DEFAULT.withFirstRecordAsHeader());
@@ -81,9 +86,9 @@ public class MailRecipientService {
             entity.setEmail(email);
             entity.setName(rec.get("name"));
             entity.setReceive(true);
-            result.add(repo.save(entity));
+            result.add(entity);
         }
 
-        return result;
+        return bulkRepo.insertRecipients(result);
     }
 }
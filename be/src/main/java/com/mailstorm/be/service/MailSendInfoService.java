@@ -3,6 +3,7 @@ package com.mailstorm.be.service;
 import com.mailstorm.be.domain.MailSendInfo;
 import com.mailstorm.be.repository.MailSendInfoRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.BeanUtils;
 import org.springframework.beans.BeanWrapper;
 import org.springframework.beans.BeanWrapperImpl;
 import org.springframework.stereotype.Service;
@@ -20,9 +21,12 @@ import static org.springframework.http.HttpStatus.NOT_FOUND;
 public class MailSendInfoService {
 
     private final MailSendInfoRepository repo;
+    private final CampaignSnapshotCache campaignSnapshotCache;
 
     public MailSendInfo create(MailSendInfo dto) {
-        return repo.save(dto);
+        MailSendInfo saved = repo.save(dto);
+        campaignSnapshotCache.invalidate(saved.getCampaignId());
+        return saved;
     }
 
     public List<MailSendInfo> findAll() {
@@ -42,10 +46,13 @@ public class MailSendInfoService {
     public MailSendInfo update(Long id, MailSendInfo dto) {
         MailSendInfo existing = findOne(id);
         existing.updateFrom(dto);
-        return repo.save(existing);
+        MailSendInfo saved = repo.save(existing);
+        campaignSnapshotCache.invalidate(saved.getCampaignId());
+        return saved;
     }
 
     public MailSendInfo updateOrCreateByCampaignId(Long campaignId, MailSendInfo dto) {
+        campaignSnapshotCache.invalidate(campaignId);
         return repo.findByCampaignId(campaignId)
                 .map(existing -> {
                     existing.updateFrom(dto);
@@ -61,9 +68,27 @@ public class MailSendInfoService {
         if (!repo.existsById(id)) {
             throw new ResponseStatusException(NOT_FOUND, "SendInfo " + id + " not found");
         }
+        repo.findById(id).ifPresent(s -> campaignSnapshotCache.invalidate(s.getCampaignId()));
         repo.deleteById(id);
     }
 
+    // null 이 아닌 필드만 덮어쓰는 부분 수정 (없으면 최초 생성)
+    public MailSendInfo patchByCampaignId(Long campaignId, MailSendInfo patch) {
+        campaignSnapshotCache.invalidate(campaignId);
+        return repo.findByCampaignId(campaignId)
+                .map(existing -> {
+                    patch.setCampaignId(campaignId);               // 경로 우선
+                    BeanUtils.copyProperties(patch, existing, nullProps(patch)); // null은 복사 제외
+                    existing.setUpdatedAt(LocalDateTime.now());
+                    return repo.save(existing);
+                })
+                .orElseGet(() -> {
+                    patch.setCampaignId(campaignId);
+                    patch.setUpdatedAt(LocalDateTime.now());
+                    return repo.save(patch); // 최초 생성
+                });
+    }
+
     public static String[] nullProps(Object src) {
         BeanWrapper bw = new BeanWrapperImpl(src);
         return Arrays.stream(bw.getPropertyDescriptors())
@@ -1,39 +1,94 @@
 package com.mailstorm.be.service;
 
-import com.mailstorm.be.domain.MailTracker;
-import com.mailstorm.be.repository.MailTrackerRepository;
+import io.micrometer.core.instrument.Timer;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class MailTrackerService {
 
-    private final MailTrackerRepository repo;
     private final JdbcTemplate jdbc;
+    private final TrackerMetrics trackerMetrics;
+    private final CampaignProgressHub campaignProgress;
+    private final EngagementCounters engagementCounters;
 
+    /**
+     * 트래킹 이벤트 기록: 기존 행이면 updated_at 갱신, 없으면 새 행.
+     * 동시에 들어온 첫 요청끼리는 INSERT ... ON CONFLICT DO NOTHING 으로 한쪽만 들어가고 나머지는 다시 갱신한다.
+     * 유니크 예외를 잡는 방식은 예외 시점에 트랜잭션이 이미 abort 돼 재시도/커밋이 실패하므로 쓰지 않는다.
+     * (mail_tracker 는 파티션 테이블이고 touch_uq 가 파티션별 로컬 인덱스라 ON CONFLICT 대상 지정/DO UPDATE 는 불가)
+     */
     @Transactional
-    public void logEvent(String type, Long campaignId, Long groupId, Long recipientId, String url) {
-        int updated = repo.touch(type, campaignId, groupId, recipientId, url);
-        if (updated > 0) return;
-
-        try {
-            // 없으면 새로 insert
-            MailTracker t = new MailTracker(type, campaignId, groupId, recipientId, url);
-            repo.save(t);
-        } catch (DataIntegrityViolationException e) {
-            // 레이스로 유니크 충돌 → 다시 업데이트 시도
-            repo.touch(type, campaignId, groupId, recipientId, url);
+    public void logEvent(String type, Long campaignId, Long groupId, Long recipientId, String variant, String url) {
+        TrackerWriteEvent event = new TrackerWriteEvent();
+        event.begin();
+        Timer.Sample sample = trackerMetrics.start();
+        if (touch(type, campaignId, groupId, recipientId, url) > 0) {
+            trackerMetrics.written(sample, type, TrackerMetrics.PATH_TOUCH);
+            recorded(event, type, campaignId, TrackerMetrics.PATH_TOUCH);
+            engagementCounters.record(campaignId, type, variant, url, false);
+            return;
+        }
+
+        List<Long> inserted = jdbc.queryForList("""
+                INSERT INTO mail_tracker (type, campaign_id, group_id, recipient_id, url, created_at, updated_at)
+                VALUES (?, ?, ?, ?, ?, now(), now())
+                ON CONFLICT DO NOTHING
+                RETURNING id
+                """, Long.class, type, campaignId, groupId, recipientId, url);
+        if (!inserted.isEmpty()) {
+            trackerMetrics.written(sample, type, TrackerMetrics.PATH_INSERT);
+            recorded(event, type, campaignId, TrackerMetrics.PATH_INSERT);
+            campaignProgress.tracked(campaignId, type);
+            engagementCounters.record(campaignId, type, variant, url, true);
+            return;
+        }
+
+        // 레이스: 다른 요청이 먼저 넣었음 → 그 행을 갱신
+        touch(type, campaignId, groupId, recipientId, url);
+        trackerMetrics.written(sample, type, TrackerMetrics.PATH_RETRY);
+        recorded(event, type, campaignId, TrackerMetrics.PATH_RETRY);
+        engagementCounters.record(campaignId, type, variant, url, false);
+    }
+
+    // touch_uq 와 같은 키 (url NULL 은 '' 로 동일 취급) → 파티션별 유니크 인덱스로 조회
+    private int touch(String type, Long campaignId, Long groupId, Long recipientId, String url) {
+        return jdbc.update("""
+                UPDATE mail_tracker SET updated_at = now()
+                 WHERE type = ? AND campaign_id = ? AND group_id = ? AND recipient_id = ?
+                   AND COALESCE(url, '') = COALESCE(?, '')
+                """, type, campaignId, groupId, recipientId, url);
+    }
+
+    /**
+     * 목록 수신거부 (대량 발송 링크): 주소록에서 입력한 주소의 수신자를 찾아 수신거부로 기록.
+     * 없는 주소여도 호출자는 같은 완료 페이지를 보여준다 (주소록 포함 여부를 노출하지 않음).
+     */
+    @Transactional
+    public int unsubscribeByEmail(Long campaignId, Long groupId, String email) {
+        if (email == null || email.isBlank()) return 0;
+        List<Long> recipientIds = jdbc.queryForList(
+                "SELECT id FROM mail_recipients WHERE group_id = ? AND lower(email) = lower(?)",
+                Long.class, groupId, email.trim());
+        recipientIds.forEach(rid -> logEvent("unsubscribe", campaignId, groupId, rid, null, null));
+        return recipientIds.size();
+    }
+
+    private static void recorded(TrackerWriteEvent event, String type, Long campaignId, String path) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.type = type;
+            event.campaignId = campaignId != null ? campaignId : 0;
+            event.path = path;
+            event.commit();
         }
     }
 
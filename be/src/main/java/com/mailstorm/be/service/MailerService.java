@@ -3,29 +3,37 @@ package com.mailstorm.be.service;
 import com.mailstorm.be.domain.MailAbFollowUp;
 import com.mailstorm.be.global.TrackerJwtUtil;
 import com.mailstorm.be.repository.MailAbFollowUpRepository;
-import io.micrometer.core.instrument.Counter;
-import jakarta.annotation.PostConstruct;
+import io.micrometer.core.instrument.Timer;
+import jakarta.mail.Address;
 import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Session;
+import jakarta.mail.internet.AddressException;
 import jakarta.mail.internet.InternetAddress;
 import jakarta.mail.internet.MimeMessage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.core.RowMapper;
-import org.springframework.mail.javamail.JavaMailSenderImpl;
-import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
 
-import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
-import java.nio.charset.StandardCharsets;
-import java.sql.ResultSet;
-import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
 import java.util.regex.Pattern;
 
+import static org.springframework.http.HttpStatus.CONFLICT;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
@@ -34,76 +42,61 @@ public class MailerService {
     private static final String CAMPAIGN_STATUS_SENT = "sent";
     private static final String CAMPAIGN_STATUS_PARTIAL = "partial";
     private static final String CAMPAIGN_STATUS_TEST = "test";
+    // mail_ab_follow.status
+    public static final String AB_FOLLOW_PARTIAL = "PARTIAL";
+    public static final String AB_FOLLOW_DONE = "DONE";
+    public static final String AB_FOLLOW_PAUSED = "PAUSED";
+    public static final String AB_FOLLOW_CANCELLED = "CANCELLED";
     private static final String SUCCESS_MESSAGE = "메시지 전송 완료";
     private static final String NO_CAMPAIGN_MESSAGE = "캠페인/콘텐츠 정보 없음";
     private static final String NO_RECIPIENTS_MESSAGE = "수신자 없음";
     private static final String SUCCESS_BATCH = "예약발송 등록 성공";
+    private static final String STOPPED_MESSAGE = "발송 중지됨 (재개 가능)";
+    private static final String RESEND_STARTED_MESSAGE = "재발송 시작";
 
     private final JdbcTemplate jdbcTemplate;
     private final HtmlTrackingProcessor htmlTrackingProcessor;
+    private final CampaignSnapshotCache campaignSnapshotCache;
 
-    private JavaMailSenderImpl mailSender;
+    private final SmtpRelayPool smtpRelayPool;
+    private final DirectMxDelivery directMxDelivery;
+    private final SendScheduler sendScheduler;
+    private final SendJobService sendJobService;
+    private final SendPacer sendPacer;
+    private final SendMetrics sendMetrics;
+    private final CampaignProgressHub campaignProgress;
 
     private final MailAbFollowUpRepository mailAbrepo;
 
-    @Value("${app.smtp.host}")
-    private String smtpHost;
-
-    @Value("${app.smtp.port}")
-    private int smtpPort;
-
     @Value("${app.receive-url}")
     private String receiveUrl;
 
-    @Value("${app.smtp.username}")
-    private String smtpUsername;
-
-    @Value("${app.smtp.password}")
-    private String smtpPassword;
-
-    @Value("${app.smtp.auth:false}")
-    private boolean smtpAuth;
+    // relay: 스마트 호스트(릴레이 풀) 경유, direct-mx: 수신 도메인 MX 로 직접 전달
+    @Value("${app.smtp.delivery-mode:relay}")
+    private String deliveryMode;
 
-    @PostConstruct
-    public void setupTransporter() {
-        mailSender = new JavaMailSenderImpl();
-        mailSender.setHost(smtpHost);
-        mailSender.setPort(smtpPort);
-        mailSender.setDefaultEncoding(StandardCharsets.UTF_8.name());
+    // 재발송 대상이 되는 mail_logs.status (이 상태 로그만 있는 수신자, 메일서버 로그는 SENT/BOUNCED)
+    @Value("${app.resend.statuses:BOUNCED}")
+    private String[] resendStatuses;
 
-        Properties props = mailSender.getJavaMailProperties();
-
-        props.put("mail.smtp.auth", smtpUsername != null && !smtpUsername.isBlank() ? "true" : "false");
-        props.put("mail.smtp.starttls.enable", smtpPort == 587 ? "true" : "false");
-        props.put("mail.smtp.starttls.required", smtpPort == 587 ? "true" : "false");
-
-        // nodemailer와 동일하게 인증서 무시
-        props.put("mail.smtp.ssl.trust", "*");
-        props.put("mail.smtp.ssl.checkserveridentity", "false");
-
-        // EHLO에 사용할 이름 지정 (nodemailer의 `name` 대응)
-        props.put("mail.smtp.localhost", "mail.rsup.io");
-
-        // 커넥션 풀 설정 (nodemailer와 비슷한 목적)
-        props.put("mail.smtp.connectiontimeout", "10000");
-        props.put("mail.smtp.timeout", "10000");
-        props.put("mail.smtp.writetimeout", "10000");
-    }
+    // 트래킹 없는 대량 발송 시 SMTP 트랜잭션 1건당 RCPT 수
+    @Value("${app.smtp.untracked-rcpt-per-tx:50}")
+    private int untrackedRcptPerTx;
 
-    // 예약발송 전용
-    public void sendBatchMail(Long campaignId) {
+    // 예약발송 전용. 발송 작업의 최종 상태를 돌려준다 (보낼 것이 없으면 DONE)
+    public SendJobService.State sendBatchMail(Long campaignId) {
         try {
             Optional<CampaignData> campaignData = fetchCampaignData(campaignId);
             if (campaignData.isEmpty()) {
-                return;
+                return SendJobService.State.DONE;
             }
             CampaignData c = campaignData.get();
 
-            MailGroup mailGroup = fetchMailGroup(c.groupId());
-            List<Recipient> recipients = fetchRecipients(c.groupId());
+            MailGroup mailGroup = fetchMailGroup(c);
+            RecipientSnapshot recipients = fetchRecipients(c.groupId());
 
             if (recipients.isEmpty()) {
-                return;
+                return SendJobService.State.DONE;
             }
 
             // 발송 시작 시간 기록
@@ -111,9 +104,13 @@ public class MailerService {
 
             MailSendResult result = sendMailsToRecipients(c, mailGroup, recipients);
 
-            if (result.success() > 0) {
+            if (result.success() > 0 && !result.stopped()) {
                 updateCampaignStatus(campaignId, CAMPAIGN_STATUS_SENT);
             }
+            return result.state();
+        } catch (SendJobService.SendInProgressException e) {
+            log.info("sendBatchMail({}) - already sending, skipped", campaignId);
+            return SendJobService.State.DONE;
         } catch (Exception e) {
             log.error("sendBatchMail({}) - error", campaignId, e);
             throw new RuntimeException(e);
@@ -156,14 +153,19 @@ public class MailerService {
     }
 
     public Map<String, Object> sendByCampaignId(Long campaignId) {
+        // 같은 캠페인이 이미 (다른 레플리카 포함) 발송 중이면 새로 시작하지 않고 진행 중 작업에 연결
+        if (sendJobService.isSending(campaignId)) {
+            return sendJobService.attachedResult(campaignId);
+        }
+
         Optional<CampaignData> campaignData = fetchCampaignData(campaignId);
         if (campaignData.isEmpty()) {
             return createResultMap(0, 0, NO_CAMPAIGN_MESSAGE);
         }
         CampaignData c = campaignData.get();
 
-        MailGroup mailGroup = fetchMailGroup(c.groupId());
-        List<Recipient> recipients = fetchRecipients(c.groupId());
+        MailGroup mailGroup = fetchMailGroup(c);
+        RecipientSnapshot recipients = fetchRecipients(c.groupId());
 
         if (recipients.isEmpty()) {
             return createResultMap(0, 0, NO_RECIPIENTS_MESSAGE);
@@ -172,7 +174,17 @@ public class MailerService {
         // 발송 시작 시간 기록
         updateSendStartTime(campaignId);
 
-        MailSendResult result = sendMailsToRecipients(c, mailGroup, recipients);
+        MailSendResult result;
+        try {
+            result = sendMailsToRecipients(c, mailGroup, recipients);
+        } catch (SendJobService.SendInProgressException e) {
+            // 위 확인 이후 다른 요청이 먼저 잠금을 잡은 경우
+            return sendJobService.attachedResult(campaignId);
+        }
+        if (result.stopped()) {
+            // 일시정지/취소: 캠페인 상태는 그대로 두고 mail_send_jobs 체크포인트에서 재개
+            return createResultMap(result.success(), result.failed(), STOPPED_MESSAGE);
+        }
 
 //        if (result.success() > 0) {
 //            updateCampaignStatus(campaignId);
@@ -198,61 +210,46 @@ public class MailerService {
         return createResultMap(result.success(), result.failed(), SUCCESS_MESSAGE);
     }
 
+    // 발송정보/콘텐츠/푸터는 버전 검증된 캠페인 스냅샷 캐시에서 (대용량 HTML 재조회 없음)
     private Optional<CampaignData> fetchCampaignData(Long campaignId) {
-        try {
-            List<CampaignData> list =
-                    jdbcTemplate.query(SQL_FETCH_CAMPAIGN, CAMPAIGN_MAPPER, campaignId);
-            return list.stream().findFirst();
-        } catch (Exception e) {
-            log.error("fetchCampaignData({}) - error", campaignId, e);
-            return Optional.empty();
-        }
+        return campaignSnapshotCache.get(campaignId).map(CampaignSnapshotCache.CampaignSnapshot::campaign);
     }
 
-    private MailGroup fetchMailGroup(Long groupId) {
-        Map<String, Object> footer = jdbcTemplate.queryForMap("""
-                    SELECT footer_company, footer_from_mail, footer_address, footer_tel
-                    FROM mail_groups WHERE id = ?
-                """, groupId);
-
-        return new MailGroup(
-                (String) footer.getOrDefault("footer_company", ""),
-                (String) footer.getOrDefault("footer_from_mail", ""),
-                (String) footer.getOrDefault("footer_address", ""),
-                (String) footer.getOrDefault("footer_tel", "")
-        );
+    private MailGroup fetchMailGroup(CampaignData c) {
+        return campaignSnapshotCache.get(c.campaignId())
+                .map(CampaignSnapshotCache.CampaignSnapshot::footer)
+                .orElseGet(() -> new MailGroup("", "", "", ""));
     }
 
-    private List<Recipient> fetchRecipients(Long groupId) {
-        List<Map<String, Object>> recipientRows = jdbcTemplate.queryForList("""
-                    SELECT id AS recipient_id, email
+    // 행 단위로 바로 컬럼 스냅샷에 적재 (중간 Map/Recipient 객체 없음). id 순 정렬로 A/B 분할이 매번 동일
+    private RecipientSnapshot fetchRecipients(Long groupId) {
+        return loadRecipients("group", """
+                    SELECT id, email
                     FROM mail_recipients WHERE group_id = ? AND receive = true
+                    ORDER BY id
                 """, groupId);
+    }
 
-        return recipientRows.stream()
-                .map(row -> new Recipient(
-                        ((Number) row.get("recipient_id")).longValue(),
-                        (String) row.get("email")
-                ))
-                .toList();
+    // id, email 두 컬럼을 id 순으로 돌려주는 쿼리 결과를 스냅샷으로 (query 는 메트릭 태그)
+    private RecipientSnapshot loadRecipients(String query, String sql, Object... args) {
+        Timer.Sample sample = sendMetrics.start();
+        RecipientSnapshot.Builder builder = RecipientSnapshot.builder();
+        jdbcTemplate.query(sql, (RowCallbackHandler) rs -> builder.add(rs.getLong("id"), rs.getString("email")), args);
+        sendMetrics.fetched(sample, query);
+        return builder.build();
     }
 
-    private MailSendResult sendMailsToRecipients(CampaignData campaignData, MailGroup mailGroup, List<Recipient> recipients) {
-        int success = 0;
-        int failed = 0;
+    private MailSendResult sendMailsToRecipients(CampaignData campaignData, MailGroup mailGroup, RecipientSnapshot recipients) {
+        // 트래킹 없는 대량 발송 (A/B 는 오픈 기준 승자 산정이 필요하므로 제외)
+        if (Boolean.TRUE.equals(campaignData.untracked()) && !Boolean.TRUE.equals(campaignData.abTest())) {
+            return sendUntracked(campaignData, mailGroup, recipients);
+        }
 
         // A/B 테스트가 아닌 경우: 기존 로직 유지
         if (!Boolean.TRUE.equals(campaignData.abTest())) {
-            for (Recipient recipient : recipients) {
-                try {
-                    sendSingleMail(campaignData, mailGroup, recipient);
-                    success++;
-                } catch (MessagingException | UnsupportedEncodingException e) {
-                    failed++;
-                    log.error("Send failed to {}", recipient.email(), e);
-                }
-            }
-            return new MailSendResult(success, failed);
+            CampaignMessageWriter writer = messageWriter(campaignData, mailGroup, null, null);
+            return dispatch(campaignData, SendJobService.PHASE_SEND,
+                    sendScheduler.classify(campaignData, recipients.size()), recipients, i -> writer);
         }
 
         // A/B 테스트 일 경우
@@ -263,35 +260,290 @@ public class MailerService {
         final int aCount = testCount / 2;
         final int bCount = testCount - aCount;
 
-        for (int i = 0; i < total; i++) {
-            Recipient r = recipients.get(i);
+        CampaignMessageWriter writerA = messageWriter(campaignData, mailGroup, "A", null);
+        CampaignMessageWriter writerB = messageWriter(campaignData, mailGroup, "B", null);
 
+        // abType 3(스케줄 AB)은 전체 발송이므로 일반 등급, 나머지는 테스트 샷
+        SendScheduler.Priority priority = campaignData.abType() == 3
+                ? sendScheduler.classify(campaignData, total) : SendScheduler.Priority.TEST;
+        MailSendResult result = dispatch(campaignData, SendJobService.PHASE_SEND, priority, recipients, i -> {
             // 테스트 그룹 외: 지금은 발송하지 않음(스킵)
-            if (campaignData.abType() != 3){
-                if (i >= testCount) {
-                    log.debug("Skip(non-test) recipient: {}", r.email());
-                    continue;
-                }
+            if (campaignData.abType() != 3 && i >= testCount) {
+                return null;
             }
-
-            boolean useB = (i >= aCount); // 앞쪽 aCount는 A, 이어서 bCount는 B
-            try {
-                sendSingleMailAB(campaignData, mailGroup, r, useB);
-                success++;
-            } catch (MessagingException | UnsupportedEncodingException e) {
-                failed++;
-                log.error("AB send failed to {} (variant={})", r.email(), useB ? "B" : "A", e);
-            }
-        }
+            return i >= aCount ? writerB : writerA; // 앞쪽 aCount는 A, 이어서 bCount는 B
+        });
 
         // 루프 끝나고, 실제 테스트 발송이 1건 이상이면 예약 1회만 생성
-        if (testCount > 0 && success > 0) {
+        if (testCount > 0 && result.success() > 0 && !result.stopped()) {
             // 이미 스케쥴 발송일 경우 수행하지않음
             if (campaignData.abType() != 3) {
                 scheduleAbFollowup(campaignData);
             }
         }
-        return new MailSendResult(success, failed);
+        return result;
+    }
+
+    private MailDelivery delivery() {
+        return "direct-mx".equals(deliveryMode) ? directMxDelivery : smtpRelayPool;
+    }
+
+    /**
+     * 수신자별 발송을 가상 스레드로 병렬 처리.
+     * 대상은 id 순 청크로 나눠 청크마다 SendScheduler 의 차례를 받아 진행하므로 동시에 도는 다른 캠페인과 번갈아 발송된다.
+     * 동시 전송 수는 발송 경로의 한도(릴레이별 AIMD / 도메인 큐별 동시성)로 제한되고, 한도에 걸리면 acquire 에서
+     * 피더가 멈추므로 대기 작업이 쌓이지 않는다. 도메인 큐 모드에서는 청크 안에서 도메인마다 피더를 따로 돌린다.
+     * 청크가 끝날 때마다 mail_send_jobs 체크포인트를 갱신하고, pause/cancel 요청은 다음 청크 경계에서 반영한다.
+     * 분산 시간(send_window_minutes)이 있으면 SendPacer 속도에 맞춰 메일마다 간격을 둔다.
+     * writerFor 가 null 을 돌려주면 해당 수신자는 건너뛴다.
+     */
+    private MailSendResult dispatch(CampaignData c, String phase, SendScheduler.Priority priority,
+                                    RecipientSnapshot recipients, IntFunction<CampaignMessageWriter> writerFor) {
+        MailDelivery delivery = delivery();
+        SendTally tally = new SendTally();
+        SendJobService.Run run = sendJobService.start(c.campaignId(), phase);
+        boolean completed = false;
+        try {
+            // 건너뛸 수신자와 이전 실행에서 이미 보낸 수신자는 미리 빼서 청크 비용에 포함되지 않게 한다
+            long resumeAfter = run.resumeAfterId();
+            int[] targets = IntStream.range(0, recipients.size())
+                    .filter(i -> recipients.id(i) > resumeAfter && writerFor.apply(i) != null)
+                    .toArray();
+            int chunkSize = sendScheduler.chunkSize();
+
+            // 닫는 순서: feeders(제출 완료 대기) → workers(전송 완료 대기) → job → pace → backlog
+            try (SendMetrics.Backlog backlog = sendMetrics.backlog(targets.length);
+                 SendPacer.Pace pace = sendPacer.start(c.campaignId(), targets.length, c.sendWindowMinutes());
+                 SendScheduler.Job job = sendScheduler.register(c.campaignId(), priority);
+                 ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+                 ExecutorService feeders = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int from = 0; from < targets.length && !run.stopRequested(); ) {
+                    // 속도 조절 중이면 청크를 현재 속도에 맞게 줄인다 (속도 변경 즉시 반영)
+                    int size = pace != null ? pace.chunkSize(chunkSize) : chunkSize;
+                    int[] chunk = Arrays.copyOfRange(targets, from, Math.min(targets.length, from + size));
+                    from += chunk.length;
+                    Timer.Sample wait = sendMetrics.start();
+                    try (SendScheduler.Grant grant = job.awaitTurn(chunk.length)) {
+                        sendMetrics.schedulerWaited(wait, priority);
+                        if (run.stopRequested()) break; // 대기 중에 중지 요청
+
+                        int seq = run.nextChunk();
+                        long lastId = recipients.id(chunk[chunk.length - 1]);
+                        SendTally chunkTally = new SendTally(campaignProgress, c.campaignId());
+                        grant.whenDone(() -> {
+                            tally.add(chunkTally);
+                            sendMetrics.db("checkpoint", () ->
+                                    run.chunkDone(seq, lastId, chunkTally.success.get(), chunkTally.failed.get()));
+                        });
+
+                        List<int[]> groups = delivery.perDomainQueues() ? byDomain(recipients, chunk) : List.of(chunk);
+                        for (int[] group : groups) {
+                            feeders.execute(grant.track(() ->
+                                    feed(delivery, pace, backlog, workers, grant, c, recipients, group, writerFor, chunkTally)));
+                        }
+                    }
+                }
+            }
+            completed = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Send dispatch interrupted. campaignId={}", c.campaignId());
+        } finally {
+            tally.state = run.finish(completed);
+        }
+        return tally.result();
+    }
+
+    private void feed(MailDelivery delivery, SendPacer.Pace pace, SendMetrics.Backlog backlog,
+                      ExecutorService workers, SendScheduler.Grant grant,
+                      CampaignData c, RecipientSnapshot recipients, int[] indexes,
+                      IntFunction<CampaignMessageWriter> writerFor, SendTally tally) {
+        try {
+            for (int i : indexes) {
+                if (pace != null) pace.acquire(1);
+                CampaignMessageWriter writer = writerFor.apply(i);
+                Recipient r = recipient(recipients, i);
+                MailDelivery.Slot slot = delivery.acquire(recipients.domain(i));
+                backlog.take(1);
+                workers.execute(grant.track(sendMetrics.inflight(() -> {
+                    try (slot) {
+                        sendSingleMail(delivery.session(), slot, writer, c, r);
+                        tally.ok(1);
+                    } catch (MessagingException | MailException e) {
+                        tally.fail(1);
+                        log.error("Send failed to {} (campaignId={})", r.email(), c.campaignId(), e);
+                    }
+                })));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Send feeder interrupted. campaignId={}", c.campaignId());
+        }
+    }
+
+    // 청크 안에서 도메인별로 묶는다 (느린 도메인 큐가 다른 도메인 제출을 막지 않게)
+    private static List<int[]> byDomain(RecipientSnapshot recipients, int[] chunk) {
+        Map<Integer, IntStream.Builder> groups = new LinkedHashMap<>();
+        for (int i : chunk) {
+            groups.computeIfAbsent(recipients.domainCode(i), k -> IntStream.builder()).add(i);
+        }
+        return groups.values().stream().map(b -> b.build().toArray()).toList();
+    }
+
+    private static final class SendTally {
+        private final AtomicInteger success = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private SendJobService.State state = SendJobService.State.DONE;
+        // 청크 집계만 진행 스트림에 흘린다 (전체 집계는 청크 집계를 add 로 합치므로 중복 없음)
+        private final CampaignProgressHub progress;
+        private final Long campaignId;
+
+        private SendTally() {
+            this(null, null);
+        }
+
+        private SendTally(CampaignProgressHub progress, Long campaignId) {
+            this.progress = progress;
+            this.campaignId = campaignId;
+        }
+
+        private void ok(int n) {
+            success.addAndGet(n);
+            if (progress != null) progress.sent(campaignId, n, 0);
+        }
+
+        private void fail(int n) {
+            failed.addAndGet(n);
+            if (progress != null) progress.sent(campaignId, 0, n);
+        }
+
+        private void add(SendTally other) {
+            success.addAndGet(other.success.get());
+            failed.addAndGet(other.failed.get());
+        }
+
+        private MailSendResult result() {
+            return new MailSendResult(success.get(), failed.get(), state);
+        }
+    }
+
+    /**
+     * 트래킹 없는 대량 발송: 청크 안에서 도메인별로 최대 untrackedRcptPerTx 명씩 한 봉투에 담아 본문 1개만 전송.
+     * 수신자 토큰이 없으므로(수신거부는 목록 수신거부 페이지) 본문은 캠페인 전체에서 한 번만 렌더링/인코딩된다.
+     */
+    private MailSendResult sendUntracked(CampaignData c, MailGroup mailGroup, RecipientSnapshot recipients) {
+        String html = c.html() != null ? c.html() : "";
+        Timer.Sample render = sendMetrics.start();
+        String listUnsubscribeUrl = htmlTrackingProcessor.listUnsubscribeUrl(receiveUrl, c.campaignId(), c.groupId());
+        CampaignMessageWriter writer = CampaignMessageWriter.create(
+                c.senderEmail() != null ? c.senderEmail() : "",
+                c.senderName() != null ? c.senderName() : "",
+                c.subject() != null ? c.subject() : "",
+                c.previewText() != null ? c.previewText() : "",
+                htmlTrackingProcessor.compileUntracked(html, mailGroup, listUnsubscribeUrl),
+                c.campaignId(), c.groupId(), null, null, listUnsubscribeUrl);
+        sendMetrics.rendered(render, writer.metricPhase());
+
+        MailDelivery delivery = delivery();
+        SendTally tally = new SendTally();
+        SendJobService.Run run = sendJobService.start(c.campaignId(), SendJobService.PHASE_SEND);
+        boolean completed = false;
+        try {
+            // 수신자는 id 순이므로 이전 실행에서 보낸 부분은 앞쪽 구간
+            int resumeFrom = 0;
+            while (resumeFrom < recipients.size() && recipients.id(resumeFrom) <= run.resumeAfterId()) resumeFrom++;
+            RecipientSnapshot remaining = recipients.slice(resumeFrom, recipients.size());
+
+            // 스케줄러 청크(id 순 chunkSize 명) 안에서 도메인별 봉투로 나눈다
+            try (SendMetrics.Backlog backlog = sendMetrics.backlog(remaining.size());
+                 SendPacer.Pace pace = sendPacer.start(c.campaignId(), remaining.size(), c.sendWindowMinutes());
+                 SendScheduler.Job job = sendScheduler.register(c.campaignId(), SendScheduler.Priority.BULK);
+                 ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int from = 0; from < remaining.size() && !run.stopRequested(); ) {
+                    int size = pace != null ? pace.chunkSize(sendScheduler.chunkSize()) : sendScheduler.chunkSize();
+                    RecipientSnapshot chunk = remaining.slice(from, Math.min(remaining.size(), from + size));
+                    from += chunk.size();
+                    Timer.Sample wait = sendMetrics.start();
+                    try (SendScheduler.Grant grant = job.awaitTurn(chunk.size())) {
+                        sendMetrics.schedulerWaited(wait, SendScheduler.Priority.BULK);
+                        if (run.stopRequested()) break;
+
+                        int seq = run.nextChunk();
+                        long lastId = chunk.id(chunk.size() - 1);
+                        SendTally chunkTally = new SendTally(campaignProgress, c.campaignId());
+                        grant.whenDone(() -> {
+                            tally.add(chunkTally);
+                            sendMetrics.db("checkpoint", () ->
+                                    run.chunkDone(seq, lastId, chunkTally.success.get(), chunkTally.failed.get()));
+                        });
+
+                        for (int[] batch : chunk.domainBatches(untrackedRcptPerTx)) {
+                            sendUntrackedBatch(delivery, pace, backlog, workers, grant, writer, c, chunk, batch, chunkTally);
+                        }
+                    }
+                }
+            }
+            completed = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Untracked send interrupted. campaignId={}", c.campaignId());
+        } finally {
+            tally.state = run.finish(completed);
+        }
+        log.info("Untracked send finished. campaignId={}, success={}, failed={}, state={}",
+                c.campaignId(), tally.success, tally.failed, tally.state);
+        return tally.result();
+    }
+
+    private void sendUntrackedBatch(MailDelivery delivery, SendPacer.Pace pace, SendMetrics.Backlog backlog, ExecutorService workers,
+                                    SendScheduler.Grant grant, CampaignMessageWriter writer, CampaignData c,
+                                    RecipientSnapshot chunk, int[] batch, SendTally tally) throws InterruptedException {
+        List<InternetAddress> rcpts = new ArrayList<>(batch.length);
+        for (int i : batch) {
+            try {
+                rcpts.add(new InternetAddress(chunk.email(i)));
+            } catch (AddressException e) {
+                tally.fail(1);
+                log.warn("Untracked send skipped invalid address {}", chunk.email(i));
+            }
+        }
+        backlog.take(batch.length);
+        if (rcpts.isEmpty()) return;
+        if (pace != null) pace.acquire(rcpts.size());
+
+        String domain = chunk.domain(batch[0]);
+        MailDelivery.Slot slot = delivery.acquire(domain);
+        workers.execute(grant.track(sendMetrics.inflight(() -> {
+            try (slot) {
+                sendMetrics.send(slot, writer.bulkMessage(delivery.session(), rcpts.toArray(InternetAddress[]::new)),
+                        writer, rcpts.size());
+                tally.ok(rcpts.size());
+            } catch (MailSendException e) {
+                // sendpartial: 거부된 RCPT 만 실패로 집계
+                int rejected = rejectedCount(e, rcpts.size());
+                tally.fail(rejected);
+                tally.ok(rcpts.size() - rejected);
+                log.error("Untracked batch partially failed. campaignId={}, domain={}, rejected={}/{}",
+                        c.campaignId(), domain, rejected, rcpts.size(), e);
+            } catch (MailException e) {
+                tally.fail(rcpts.size());
+                log.error("Untracked batch failed. campaignId={}, domain={}, size={}",
+                        c.campaignId(), domain, rcpts.size(), e);
+            }
+        })));
+    }
+
+    private static int rejectedCount(MailSendException e, int batchSize) {
+        int rejected = 0;
+        for (Exception cause : e.getFailedMessages().values()) {
+            if (!(cause instanceof SendFailedException sfe)) return batchSize;
+            rejected += length(sfe.getInvalidAddresses()) + length(sfe.getValidUnsentAddresses());
+        }
+        return e.getFailedMessages().isEmpty() ? batchSize : Math.min(batchSize, rejected);
+    }
+
+    private static int length(Address[] addresses) {
+        return addresses == null ? 0 : addresses.length;
     }
 
     private void scheduleAbFollowup(CampaignData c) {
@@ -320,27 +572,26 @@ public class MailerService {
     }
 
 
-    private void sendSingleMailAB(CampaignData campaignData, MailGroup mailGroup, Recipient recipient, boolean useB)
-            throws MessagingException, UnsupportedEncodingException {
-
-        long abType = campaignData.abType() == null ? 0 : campaignData.abType();
+    /**
+     * 캠페인/변형 단위 메시지 작성기 (헤더·본문 사전 인코딩). 수신자 루프 밖에서 한 번만 만든다.
+     * @param variant "A"/"B" (일반 발송이면 null) - B 일 때 abType 에 해당하는 항목만 B안으로 교체
+     * @param phase   X-AB-Phase 헤더 값 (없으면 null)
+     */
+    private CampaignMessageWriter messageWriter(CampaignData c, MailGroup mailGroup, String variant, String phase) {
+        long abType = c.abType() == null ? 0 : c.abType();
 
         // 기본값(항상 기준으로 사용)
-        String subject     = campaignData.subject();
-        String senderName  = campaignData.senderName();
-        String htmlRaw     = campaignData.html();
-        String senderEmail = campaignData.senderEmail() != null ? campaignData.senderEmail() : "";
-        String previewText = campaignData.previewText() != null ? campaignData.previewText() : "";
-
-        // 테스트 차원만 B로 스왑
-        if (useB) {
-            if (abType == 1) subject    = campaignData.subjectB();
-            if (abType == 2) senderName = campaignData.senderNameB();
-            if (abType == 3) {
-                // 스케줄 테스트: 콘텐츠/제목/발신자명은 그대로. 발송 타이밍은 별도 로직에서 처리.
-                // 여기서는 아무 것도 바꾸지 않습니다.
-            }
-            if (abType == 4) htmlRaw    = campaignData.htmlB();
+        String subject     = c.subject();
+        String senderName  = c.senderName();
+        String htmlRaw     = c.html();
+        String senderEmail = c.senderEmail() != null ? c.senderEmail() : "";
+        String previewText = c.previewText() != null ? c.previewText() : "";
+
+        // 테스트 차원만 B로 스왑 (abType 3 스케줄 테스트는 발송 타이밍만 다르므로 그대로)
+        if ("B".equals(variant)) {
+            if (abType == 1) subject    = c.subjectB();
+            if (abType == 2) senderName = c.senderNameB();
+            if (abType == 4) htmlRaw    = c.htmlB();
         }
 
         // 안전 폴백 (정말 null이면 빈 문자열로)
@@ -348,79 +599,148 @@ public class MailerService {
         if (senderName == null) senderName = "";
         if (htmlRaw == null)    htmlRaw    = "";
 
-        // 트래킹 처리
-        String processedHtml = htmlTrackingProcessor.processHtml(
-                htmlRaw,
-                campaignData.campaignId(),
-                campaignData.groupId(),
-                recipient.id(),
-                mailGroup,
-                receiveUrl
-        );
-
-        // 메일 구성/발송
-        MimeMessage message = mailSender.createMimeMessage();
-        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+        // 트래킹 처리 (토큰 자리만 비워 둔 템플릿)
+        Timer.Sample render = sendMetrics.start();
+        HtmlTrackingProcessor.CompiledHtml html = htmlTrackingProcessor.compile(htmlRaw, mailGroup, receiveUrl);
 
-        helper.setFrom(new InternetAddress(senderEmail, senderName, "UTF-8"));
-        helper.setTo(recipient.email());
-        helper.setSubject(subject);
-        helper.setText(previewText, processedHtml);
+        CampaignMessageWriter writer = CampaignMessageWriter.create(senderEmail, senderName, subject, previewText, html,
+                c.campaignId(), c.groupId(), variant, phase, htmlTrackingProcessor.unsubscribeUrlPrefix(receiveUrl));
+        sendMetrics.rendered(render, writer.metricPhase());
+        return writer;
+    }
 
-        setCustomHeaders(message, campaignData.campaignId(), campaignData.groupId(), recipient.id());
-        message.setHeader("X-AB-Variant", useB ? "B" : "A");
+    // 수신자별로는 토큰 생성 + 미리 인코딩된 바이트 스트리밍만 수행
+    private void sendSingleMail(Session session, MailDelivery.Slot slot, CampaignMessageWriter writer, CampaignData campaignData, Recipient recipient) throws MessagingException {
+        Timer.Sample build = sendMetrics.start();
+        String token = htmlTrackingProcessor.trackingToken(campaignData.campaignId(), campaignData.groupId(), recipient.id(), writer.trackingVariant());
+        MimeMessage message = writer.message(session, recipient.id(), recipient.email(), token);
+        sendMetrics.mimeBuilt(build, writer.metricPhase());
+        sendMetrics.send(slot, message, writer, 1);
+    }
 
-        mailSender.send(message); // 운영에서 주석 해제
+    /**
+     * 일시정지된(또는 프로세스 종료로 중단된) 발송 단계를 체크포인트 다음부터 백그라운드로 재개.
+     * 배치가 돌리던 A/B 단계면 끝난 뒤 PAUSED 로 남아 있던 mail_ab_follow 행도 이어서 갱신한다.
+     */
+    public SendJobService.SendJob resumeSend(Long campaignId) {
+        SendJobService.SendJob job = sendJobService.resumable(campaignId);
+        Thread.ofVirtual().name("send-resume-" + campaignId).start(() -> {
+            try {
+                switch (job.phase()) {
+                    case SendJobService.PHASE_SEND -> {
+                        // 예약발송(ab_type=0)이 멈춘 거면 PAUSED 로 남은 mail_ab_follow 행도 이어서 갱신
+                        if (abFollowPaused(campaignId)) {
+                            resumeAbFollow(campaignId, sendBatchMail(campaignId), AB_FOLLOW_DONE);
+                        } else {
+                            sendByCampaignId(campaignId);
+                        }
+                    }
+                    case SendJobService.PHASE_AB_TEST -> resumeAbFollow(campaignId, runAbInitialTest(campaignId), AB_FOLLOW_PARTIAL);
+                    case SendJobService.PHASE_AB_A -> resumeAbFollow(campaignId, runAbBatch(campaignId, false), AB_FOLLOW_PARTIAL);
+                    case SendJobService.PHASE_AB_B -> resumeAbFollow(campaignId, runAbBatch(campaignId, true), AB_FOLLOW_DONE);
+                    case SendJobService.PHASE_WINNER -> resumeAbFollow(campaignId, runAbFollowup(campaignId), AB_FOLLOW_DONE);
+                    case SendJobService.PHASE_RESEND -> resendFailed(campaignId);
+                    default -> log.warn("Unknown send phase {} (campaignId={})", job.phase(), campaignId);
+                }
+            } catch (Exception e) {
+                log.error("Resume failed. campaignId={}, phase={}", campaignId, job.phase(), e);
+            }
+        });
+        return job;
     }
 
-    private void sendSingleMail(CampaignData campaignData, MailGroup mailGroup, Recipient recipient) throws MessagingException, UnsupportedEncodingException {
-        String processedHtml = htmlTrackingProcessor.processHtml(
-                campaignData.html(),
-                campaignData.campaignId(),
-                campaignData.groupId(),
-                recipient.id(),
-                mailGroup,
-                receiveUrl
-        );
+    /**
+     * 장애 복구용 재발송: 실패 상태 로그(app.resend.statuses)만 있는 수신자를 일반 청크 발송 작업(RESEND 단계)으로 백그라운드 발송.
+     * 대상은 DB 조인으로 계산하므로 전체 재스캔/전체 재발송이 필요 없다.
+     * A/B 후속 발송(승자 본발송)이 아직 남아 있으면 거부한다 (홀드아웃 수신자에게 먼저 보내게 되므로).
+     */
+    public Map<String, Object> resendFailed(Long campaignId) {
+        if (sendJobService.isSending(campaignId)) {
+            return sendJobService.attachedResult(campaignId);
+        }
+        CampaignData c = fetchCampaignData(campaignId)
+                .orElseThrow(() -> new ResponseStatusException(NOT_FOUND, "Campaign " + campaignId + " not found"));
+        if (abFollowupPending(campaignId)) {
+            throw new ResponseStatusException(CONFLICT, "Campaign " + campaignId + " has a pending A/B follow-up send");
+        }
 
-        MimeMessage message = mailSender.createMimeMessage();
-        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+        ResendTargets targets = fetchResendTargets(campaignId, c.groupId());
+        if (targets.recipients().isEmpty()) {
+            return Map.of("targets", 0, "message", NO_RECIPIENTS_MESSAGE);
+        }
 
-        //helper.setFrom(campaignData.senderEmail());
-        helper.setFrom(
-                new InternetAddress(
-                        campaignData.senderEmail(),
-                        campaignData.senderName(),  // 예: "홍길동"
-                        "UTF-8"
-                )
-        );
-        helper.setTo(recipient.email());
-        helper.setSubject(campaignData.subject());
-        helper.setText(campaignData.previewText(), processedHtml);
+        MailGroup mailGroup = fetchMailGroup(c);
+        boolean ab = Boolean.TRUE.equals(c.abTest());
+        CampaignMessageWriter writerA = messageWriter(c, mailGroup, ab ? "A" : null, null);
+        CampaignMessageWriter writerB = ab ? messageWriter(c, mailGroup, "B", null) : writerA;
+        RecipientSnapshot recipients = targets.recipients();
 
-        setCustomHeaders(message, campaignData.campaignId(), campaignData.groupId(), recipient.id());
+        Thread.ofVirtual().name("send-resend-" + campaignId).start(() -> {
+            try {
+                MailSendResult result = dispatch(c, SendJobService.PHASE_RESEND,
+                        sendScheduler.classify(c, recipients.size()), recipients,
+                        i -> targets.variantB().get(i) ? writerB : writerA);
+                log.info("Resend finished. campaignId={}, success={}, failed={}, stopped={}",
+                        campaignId, result.success(), result.failed(), result.stopped());
+            } catch (Exception e) {
+                log.error("Resend failed. campaignId={}", campaignId, e);
+            }
+        });
+        log.info("Resend started. campaignId={}, targets={}", campaignId, recipients.size());
+        return Map.of("targets", recipients.size(), "message", RESEND_STARTED_MESSAGE);
+    }
 
-        mailSender.send(message);
+    /**
+     * 발송 취소. 일시정지 중이던 A/B 예약 단계면 mail_ab_follow 도 CANCELLED 로 (다시 폴링되지 않음)
+     */
+    public SendJobService.SendJob cancelSend(Long campaignId) {
+        SendJobService.SendJob job = sendJobService.cancel(campaignId);
+        jdbcTemplate.update("""
+                    UPDATE mail_ab_follow SET status = 'CANCELLED', updated_at = now()
+                    WHERE campaign_id = ? AND status = 'PAUSED'
+                """, campaignId);
+        return job;
     }
 
-    private void setCustomHeaders(MimeMessage message, Long campaignId, Long groupId, Long recipientId) throws MessagingException {
-        message.setHeader("X-Campaign-ID", String.valueOf(campaignId));
-        message.setHeader("X-Group-ID", String.valueOf(groupId));
-        message.setHeader("X-Recipient-ID", String.valueOf(recipientId));
+    /**
+     * A/B 단계 발송 작업의 최종 상태 → mail_ab_follow 상태.
+     * 끝까지 보냈으면 next, 일시정지/중단이면 PAUSED (resumeSend 가 재개 후 이어서 갱신), 취소면 CANCELLED
+     */
+    public static String abFollowStatus(SendJobService.State state, String next) {
+        return switch (state) {
+            case DONE -> next;
+            case CANCELLED -> AB_FOLLOW_CANCELLED;
+            case PAUSED, RUNNING -> AB_FOLLOW_PAUSED;
+        };
     }
 
-    public void runAbInitialTest (Long campaignId) {
+    private boolean abFollowPaused(Long campaignId) {
+        Integer count = jdbcTemplate.queryForObject("""
+                    SELECT COUNT(*) FROM mail_ab_follow
+                    WHERE campaign_id = ? AND status = 'PAUSED'
+                """, Integer.class, campaignId);
+        return count != null && count > 0;
+    }
+
+    private void resumeAbFollow(Long campaignId, SendJobService.State state, String next) {
+        jdbcTemplate.update("""
+                    UPDATE mail_ab_follow SET status = ?, updated_at = now()
+                    WHERE campaign_id = ? AND status = 'PAUSED'
+                """, abFollowStatus(state, next), campaignId);
+    }
+
+    public SendJobService.State runAbInitialTest (Long campaignId) {
         Optional<CampaignData> campaignData = fetchCampaignData(campaignId);
         if (campaignData.isEmpty()) {
-            return;
+            return SendJobService.State.DONE;
         }
         CampaignData c = campaignData.get();
 
-        MailGroup mailGroup = fetchMailGroup(c.groupId());
-        List<Recipient> recipients = fetchRecipients(c.groupId());
+        MailGroup mailGroup = fetchMailGroup(c);
+        RecipientSnapshot recipients = fetchRecipients(c.groupId());
 
         if (recipients.isEmpty()) {
-            return;
+            return SendJobService.State.DONE;
         }
 
         // 발송 시작 시간 기록
@@ -433,80 +753,68 @@ public class MailerService {
         int aCount = testCount / 2;
         int bCount = testCount - aCount;
 
-        for (int i = 0; i < total; i++) {
-            Recipient r = recipients.get(i);
+        CampaignMessageWriter writerA = messageWriter(c, mailGroup, "A", null);
+        CampaignMessageWriter writerB = messageWriter(c, mailGroup, "B", null);
 
+        SendScheduler.Priority priority = c.abType() == 3 ? sendScheduler.classify(c, total) : SendScheduler.Priority.TEST;
+        return dispatch(c, SendJobService.PHASE_AB_TEST, priority, recipients, i -> {
             // 테스트 그룹 외: 지금은 발송하지 않음(스킵)
-            if (c.abType() != 3) {
-                if (i >= testCount) {
-                    log.debug("Skip(non-test) recipient: {}", r.email());
-                    continue;
-                }
+            if (c.abType() != 3 && i >= testCount) {
+                return null;
             }
-
-            boolean useB = (i >= aCount); // 앞쪽 aCount는 A, 이어서 bCount는 B
-            try {
-                sendSingleMailAB(c, mailGroup, r, useB);
-            } catch (MessagingException | UnsupportedEncodingException e) {
-                log.error("AB send failed to {} (variant={})", r.email(), useB ? "B" : "A", e);
-            }
-        }
+            return i >= aCount ? writerB : writerA; // 앞쪽 aCount는 A, 이어서 bCount는 B
+        }).state();
     }
     // abtype:3 예약발송 전용
-    public void runAbBatch(Long campaignId, boolean useB) throws Exception {
+    public SendJobService.State runAbBatch(Long campaignId, boolean useB) throws Exception {
         // 1) 캠페인 로드
         CampaignData c = fetchCampaignData(campaignId)
                 .orElseThrow(() -> new IllegalStateException("Campaign not found: " + campaignId));
 
-        MailGroup mailGroup = fetchMailGroup(c.groupId());
-        List<Recipient> recipients = fetchRecipients(c.groupId());
+        MailGroup mailGroup = fetchMailGroup(c);
+        RecipientSnapshot recipients = fetchRecipients(c.groupId());
 
         if (recipients.isEmpty()) {
             log.info("No remaining recipients for campaign. {}", c.groupId());
-            return;
+            return SendJobService.State.DONE;
         }
 
         // 발송 시작 시간 기록
         updateSendStartTime(campaignId);
 
         // 메일발송
-        List<Recipient> targets;
+        RecipientSnapshot targets;
         if (!useB) {
             // A그룹: 단순 50% 분할
             int half = recipients.size() / 2;
-            targets = recipients.subList(0, half);
+            targets = recipients.slice(0, half);
             log.info("Sending AB Variant A. campaignId={}, targetCount={}", campaignId, targets.size());
         } else {
-            // B그룹: mail_logs 기준 A로 발송된 이메일 제외
-            Set<Long> alreadySentEmails = fetchAbVariantAEmails(campaignId);
-            targets = recipients.stream()
-                    .filter(r -> !alreadySentEmails.contains(r.id()))
-                    .toList();
+            // B그룹: mail_logs 기준 A로 발송된 수신자 제외 (DB 안티조인)
+            targets = fetchRecipientsWithoutVariantA(campaignId, c.groupId());
             log.info("Sending AB Variant B. campaignId={}, filteredTargetCount={}", campaignId, targets.size());
         }
 
-        int success = 0, failed = 0;
-        for (Recipient r : targets) {
-            try {
-                sendSingleMailAB(c, mailGroup, r, useB); // Variant에 따라 mail 내용 스왑
-                success++;
-            } catch (Exception e) {
-                failed++;
-                log.warn("AB Variant {} mail failed to {}: {}", (useB ? "B" : "A"), r.email(), e.getMessage());
-            }
-        }
+        CampaignMessageWriter writer = messageWriter(c, mailGroup, useB ? "B" : "A", null); // Variant에 따라 mail 내용 스왑
+        MailSendResult result = dispatch(c, useB ? SendJobService.PHASE_AB_B : SendJobService.PHASE_AB_A,
+                sendScheduler.classify(c, targets.size()), targets, i -> writer);
 
-        if (!useB && success > 0) {
+        if (result.stopped()) {
+            log.info("AB Variant {} stopped. success={}, failed={}", (useB ? "B" : "A"), result.success(), result.failed());
+            return result.state();
+        }
+        if (!useB && result.success() > 0) {
             updateCampaignStatus(campaignId, CAMPAIGN_STATUS_PARTIAL);
-        } else if (useB && success > 0) {
+        } else if (useB && result.success() > 0) {
             updateCampaignStatus(campaignId, CAMPAIGN_STATUS_SENT);
         }
 
-        log.info("AB Variant {} finished. success={}, failed={}", (useB ? "B" : "A"), success, failed);
+        log.info("AB Variant {} finished. success={}, failed={}", (useB ? "B" : "A"), result.success(), result.failed());
+        return result.state();
     }
 
     // abtype: 1,2,4 승자선정 발송 전용
-    public void runAbFollowup(Long campaignId) throws Exception {
+    public SendJobService.State runAbFollowup(Long campaignId) throws Exception {
         // 1) 캠페인 로드
         CampaignData c = fetchCampaignData(campaignId)
                 .orElseThrow(() -> new IllegalStateException("Campaign not found: " + campaignId));
@@ -514,7 +822,7 @@ public class MailerService {
         // A/B 미사용이면 패스(아무 작업 안 함)
         if (!Boolean.TRUE.equals(c.abTest())) {
             log.info("Campaign {} is not in A/B test. Skip follow-up.", campaignId);
-            return;
+            return SendJobService.State.DONE;
         }
 
         // 2) 승자 산정 (open 기준: 필요시 클릭으로 변경)
@@ -522,44 +830,39 @@ public class MailerService {
         boolean useB = "B".equals(winner);
 
         // 3) 잔여 대상 추출 (이미 보낸 사람 제외)
-        List<Recipient> remain = fetchRemainingRecipients(campaignId, c.groupId());
+        RecipientSnapshot remain = fetchRemainingRecipients(campaignId, c.groupId());
         if (remain.isEmpty()) {
             log.info("No remaining recipients for campaign {}", campaignId);
-            return;
+            return SendJobService.State.DONE;
         }
 
         // 4) 승자 변형으로 발송
-        MailGroup g = fetchMailGroup(c.groupId());
-        int success = 0, failed = 0;
+        MailGroup g = fetchMailGroup(c);
+        // WINNER 단계 헤더로 발송 (밀터가 mail_logs에 단계 저장)
+        CampaignMessageWriter writer = messageWriter(c, g, useB ? "B" : "A", "WINNER");
+        MailSendResult result = dispatch(c, SendJobService.PHASE_WINNER,
+                sendScheduler.classify(c, remain.size()), remain, i -> writer);
 
-        for (Recipient r : remain) {
-            try {
-                // WINNER 단계 헤더로 발송
-                sendSingleMailWinner(c, g, r, useB);
-                success++;
-            } catch (MessagingException | UnsupportedEncodingException e) {
-                failed++;
-                log.error("Winner resend failed to {}", r.email(), e);
-            }
-        }
-
-        if (success > 0) {
+        if (result.success() > 0 && !result.stopped()) {
             updateCampaignStatus(campaignId, CAMPAIGN_STATUS_SENT);
         }
 
-        log.info("Follow-up done. campaign={}, winner={}, success={}, failed={}",
-                campaignId, winner, success, failed);
+        log.info("Follow-up done. campaign={}, winner={}, success={}, failed={}, state={}",
+                campaignId, winner, result.success(), result.failed(), result.state());
+        return result.state();
     }
 
-    // mai_logs 에서 A 발송내역 조회
-    private Set<Long> fetchAbVariantAEmails(Long campaignId) {
-        String sql = """
-        SELECT DISTINCT recipient_id
-        FROM mail_logs
-        WHERE campaign_id = ? AND ab_variant = 'A'
-    """;
-
-        return new HashSet<>(jdbcTemplate.queryForList(sql, Long.class, campaignId));
+    // A 변형으로 발송 기록이 없는 수신자 (mail_logs_campaign_variant_idx 로 안티조인)
+    private RecipientSnapshot fetchRecipientsWithoutVariantA(Long campaignId, Long groupId) {
+        return loadRecipients("without_variant_a", """
+                    SELECT r.id, r.email
+                    FROM mail_recipients r
+                    WHERE r.group_id = ? AND r.receive = true
+                      AND NOT EXISTS (
+                          SELECT 1 FROM mail_logs l
+                          WHERE l.campaign_id = ? AND l.recipient_id = r.id AND l.ab_variant = 'A')
+                    ORDER BY r.id
+                """, groupId, campaignId);
     }
 
     // 승자 산정 (open 기준)
@@ -592,65 +895,74 @@ public class MailerService {
         return (b > a) ? "B" : "A";
     }
 
-    // 잔여 대상(아직 mail_logs에 없는)
-    List<Recipient> fetchRemainingRecipients(Long campaignId, Long groupId) {
-        List<Long> sent = jdbcTemplate.queryForList(
-                "SELECT DISTINCT recipient_id FROM mail_logs WHERE campaign_id=?",
-                Long.class, campaignId
-        );
-        var sentSet = new java.util.HashSet<>(sent);
-        List<Recipient> all = fetchRecipients(groupId);
-        return all.stream().filter(r -> !sentSet.contains(r.id())).toList();
+    // 잔여 대상(아직 mail_logs에 없는) - 발송 id 를 앱으로 가져오지 않고 DB 안티조인
+    RecipientSnapshot fetchRemainingRecipients(Long campaignId, Long groupId) {
+        return loadRecipients("remaining", """
+                    SELECT r.id, r.email
+                    FROM mail_recipients r
+                    WHERE r.group_id = ? AND r.receive = true
+                      AND NOT EXISTS (
+                          SELECT 1 FROM mail_logs l
+                          WHERE l.campaign_id = ? AND l.recipient_id = r.id)
+                    ORDER BY r.id
+                """, groupId, campaignId);
     }
 
-    // 승자(WINNER) 발송(헤더 구분)
-    void sendSingleMailWinner(CampaignData c, MailGroup g, Recipient r, boolean useB)
-            throws MessagingException, UnsupportedEncodingException {
-
-        long abType = c.abType() == null ? 0 : c.abType();
-        String subject    = c.subject();
-        String senderName = c.senderName();
-        String htmlRaw    = c.html();
-
-        if (useB) {
-            if (abType == 1) subject    = c.subjectB();
-            if (abType == 2) senderName = c.senderNameB();
-            if (abType == 4) htmlRaw    = c.htmlB();
-        }
-
-        if (subject == null) subject = "";
-        if (senderName == null) senderName = "";
-        if (htmlRaw == null) htmlRaw = "";
-
-        String senderEmail = c.senderEmail() != null ? c.senderEmail() : "";
-        String previewText = c.previewText() != null ? c.previewText() : "";
-
-        String processedHtml = htmlTrackingProcessor.processHtml(
-                htmlRaw, c.campaignId(), c.groupId(), r.id(), g, receiveUrl
-        );
-
-        MimeMessage message = mailSender.createMimeMessage();
-        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-
-        helper.setFrom(new InternetAddress(senderEmail, senderName, "UTF-8"));
-        helper.setTo(r.email());
-        helper.setSubject(subject);
-        helper.setText(previewText, processedHtml);
+    /**
+     * 재발송 대상: 재발송 상태(app.resend.statuses) 로그가 있고, 그 밖의 상태 로그는 없는 수신자.
+     * 로그가 아직 없는 수신자(메일서버 로그 수집 전, A/B 홀드아웃)는 대상이 아니다. A/B 캠페인은 마지막으로 받은 변형을 B 비트셋으로 함께 돌려준다.
+     */
+    private ResendTargets fetchResendTargets(Long campaignId, Long groupId) {
+        Timer.Sample sample = sendMetrics.start();
+        RecipientSnapshot.Builder builder = RecipientSnapshot.builder();
+        BitSet variantB = new BitSet();
+        int[] index = {0};
+        jdbcTemplate.query("""
+                    SELECT r.id, r.email,
+                           (SELECT l.ab_variant FROM mail_logs l
+                             WHERE l.campaign_id = ? AND l.recipient_id = r.id AND l.ab_variant IS NOT NULL
+                             ORDER BY l.id DESC LIMIT 1) AS ab_variant
+                    FROM mail_recipients r
+                    WHERE r.group_id = ? AND r.receive = true
+                      AND EXISTS (
+                          SELECT 1 FROM mail_logs l
+                          WHERE l.campaign_id = ? AND l.recipient_id = r.id
+                            AND l.status = ANY (?))
+                      AND NOT EXISTS (
+                          SELECT 1 FROM mail_logs l
+                          WHERE l.campaign_id = ? AND l.recipient_id = r.id
+                            AND COALESCE(l.status, '') <> ALL (?))
+                    ORDER BY r.id
+                """, (RowCallbackHandler) rs -> {
+            builder.add(rs.getLong("id"), rs.getString("email"));
+            if ("B".equals(rs.getString("ab_variant"))) variantB.set(index[0]);
+            index[0]++;
+        }, campaignId, groupId, campaignId, resendStatuses, campaignId, resendStatuses);
+        sendMetrics.fetched(sample, "resend");
+        return new ResendTargets(builder.build(), variantB);
+    }
 
-        setCustomHeaders(message, c.campaignId(), c.groupId(), r.id());
-        message.setHeader("X-AB-Variant", useB ? "B" : "A");
-        message.setHeader("X-AB-Phase",   "WINNER");  // ← 밀터가 mail_logs에 단계 저장
+    // 아직 끝나지 않은 A/B 후속 작업 (PENDING/PARTIAL/PAUSED, 배치가 돌리는 중인 RUNNING*)
+    private boolean abFollowupPending(Long campaignId) {
+        Integer count = jdbcTemplate.queryForObject("""
+                    SELECT COUNT(*) FROM mail_ab_follow
+                    WHERE campaign_id = ? AND status NOT IN ('DONE', 'CANCELLED', 'FAILED')
+                """, Integer.class, campaignId);
+        return count != null && count > 0;
+    }
 
-        mailSender.send(message);
+    private record ResendTargets(RecipientSnapshot recipients, BitSet variantB) {
     }
 
     private void updateSendStartTime(Long campaignId) {
-        jdbcTemplate.update("UPDATE mail_campaigns SET send_date = NOW() WHERE id = ?", campaignId);
+        sendMetrics.db("send_start", () ->
+                jdbcTemplate.update("UPDATE mail_campaigns SET send_date = NOW() WHERE id = ?", campaignId));
     }
 
     private void updateCampaignStatus(Long campaignId, String status) {
-        jdbcTemplate.update("UPDATE mail_campaigns SET status = ?, end_date = NOW() WHERE id = ?",
-                status, campaignId);
+        sendMetrics.db("campaign_status", () ->
+                jdbcTemplate.update("UPDATE mail_campaigns SET status = ?, end_date = NOW() WHERE id = ?",
+                        status, campaignId));
     }
 
     private Map<String, Object> createResultMap(int success, int failed, String message) {
@@ -668,33 +980,16 @@ public class MailerService {
     private record Recipient(Long id, String email) {
     }
 
-    private record MailSendResult(int success, int failed) {
-    }
-
-    private static final String SQL_FETCH_CAMPAIGN = """
-        SELECT
-          a.id                             AS campaign_id,
-          a.group_id                       AS group_id,
-          b.ab_test                        AS ab_test,
-          b.ab_type                        AS ab_type,
-          b.test_ratio                     AS test_ratio,
-          b.daily_unit     AS daily_unit_a,
-          b.daily_value    AS daily_value_a,
-          b.daily_unitB    AS daily_unit_b,
-          b.daily_valueB   AS daily_value_b,
-          b.subject        AS subject,
-          b.subjectB       AS subject_b,
-          b.sender_name    AS sender_name,
-          b.sender_nameB   AS sender_name_b,
-          b.preview_text   AS preview_text,
-          b.sender_email   AS sender_email,
-          c.html           AS html,
-          c.htmlB          AS html_b
-        FROM mail_campaigns a
-        LEFT JOIN mail_sendinfo  b ON a.id = b.campaign_id
-        LEFT JOIN mail_contents  c ON a.id = c.campaign_id
-        WHERE a.id = ?
-    """;
+    private static Recipient recipient(RecipientSnapshot snapshot, int i) {
+        return new Recipient(snapshot.id(i), snapshot.email(i));
+    }
+
+    // state: 발송 작업의 최종 상태 (DONE 이 아니면 일시정지/취소로 끝까지 보내지 못함)
+    private record MailSendResult(int success, int failed, SendJobService.State state) {
+        private boolean stopped() {
+            return state != SendJobService.State.DONE;
+        }
+    }
 
     public record CampaignData(
             Long campaignId,
@@ -712,24 +1007,12 @@ public class MailerService {
             String senderNameB,
             String previewText,
             String senderEmail,
+            Boolean untracked,
+            Integer sendWindowMinutes,
             String html,
             String htmlB
     ) {}
 
-    private static Long nlLong(ResultSet rs, String col) throws SQLException {
-        Long v = rs.getObject(col, Long.class);
-        return v;
-    }
-    private static Integer nlInt(ResultSet rs, String col) throws SQLException {
-        return rs.getObject(col, Integer.class);
-    }
-    private static Boolean nlBool(ResultSet rs, String col) throws SQLException {
-        return rs.getObject(col, Boolean.class);
-    }
-    private static String nlStr(ResultSet rs, String col) throws SQLException {
-        String s = rs.getString(col);
-        return (s != null) ? s : null;
-    }
     // 단위/값을 LocalDateTime에 더해주는 헬퍼
     private LocalDateTime plusByUnit(LocalDateTime base,
                                      String unit, Long value) {
@@ -742,24 +1025,4 @@ public class MailerService {
             default  -> base; // 정의되지 않은 단위는 무시 (또는 예외)
         };
     }
-
-    private static final RowMapper<CampaignData> CAMPAIGN_MAPPER = (rs, rowNum) -> new CampaignData(
-            nlLong(rs, "campaign_id"),
-            nlLong(rs, "group_id"),
-            nlBool(rs, "ab_test"),
-            nlLong(rs, "ab_type"),
-            nlLong(rs, "test_ratio"),
-            nlStr(rs, "daily_unit_a"),
-            nlLong(rs, "daily_value_a"),
-            nlStr(rs, "daily_unit_b"),
-            nlLong(rs, "daily_value_b"),
-            nlStr(rs, "subject"),
-            nlStr(rs, "subject_b"),
-            nlStr(rs, "sender_name"),
-            nlStr(rs, "sender_name_b"),
-            nlStr(rs, "preview_text"),
-            nlStr(rs, "sender_email"),
-            nlStr(rs, "html"),
-            nlStr(rs, "html_b")
-    );
 }
@@ -0,0 +1,20 @@
+package com.mailstorm.be.service;
+
+import java.util.List;
+
+/**
+ * 수신 도메인의 MX 호스트 조회 (우선순위 순). "host" 또는 "host:port" 형식.
+ * 구현체는 app.smtp.mx.resolver 로 선택 (dns | static)
+ * - 빈 목록: 메일을 받지 않는 도메인 (도메인 없음, null MX, MX/주소 레코드 모두 없음) → 영구 실패
+ * - 조회 자체가 실패하면(타임아웃/SERVFAIL) LookupException → 일시 실패로 재시도하고 결과를 캐시하지 않는다
+ */
+public interface MxResolver {
+
+    List<String> resolve(String domain);
+
+    class LookupException extends RuntimeException {
+        public LookupException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+}
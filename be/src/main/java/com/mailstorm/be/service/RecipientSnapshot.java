@@ -0,0 +1,177 @@
+package com.mailstorm.be.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 발송 1건(job) 단위의 불변 수신자 스냅샷 (컬럼 저장)
+ * - ids: long[] (박싱 없음)
+ * - 이메일 로컬파트: UTF-8 바이트 버퍼 1개 + offsets
+ * - 도메인: 사전(dictionary) 인코딩 → 수신자당 int 코드 1개
+ * 수신자당 약 30바이트 수준. 한 번 만들어 여러 발송 워커가 읽기 전용으로 공유하고, slice 로 나눠 쓴다.
+ */
+public final class RecipientSnapshot {
+
+    private final long[] ids;
+    private final byte[] localParts;
+    private final int[] offsets;      // i번째 로컬파트 = localParts[offsets[i], offsets[i+1])
+    private final int[] domainCodes;  // -1: '@' 없는 주소
+    private final String[] domains;
+    private final int from;
+    private final int to;
+
+    private RecipientSnapshot(long[] ids, byte[] localParts, int[] offsets, int[] domainCodes, String[] domains, int from, int to) {
+        this.ids = ids;
+        this.localParts = localParts;
+        this.offsets = offsets;
+        this.domainCodes = domainCodes;
+        this.domains = domains;
+        this.from = from;
+        this.to = to;
+    }
+
+    public static Builder builder() {
+        return new Builder(1024);
+    }
+
+    public int size() {
+        return to - from;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public long id(int i) {
+        return ids[index(i)];
+    }
+
+    public String email(int i) {
+        int idx = index(i);
+        String local = new String(localParts, offsets[idx], offsets[idx + 1] - offsets[idx], StandardCharsets.UTF_8);
+        int code = domainCodes[idx];
+        return code < 0 ? local : local + "@" + domains[code];
+    }
+
+    public String domain(int i) {
+        int code = domainCodes[index(i)];
+        return code < 0 ? "" : domains[code];
+    }
+
+    // 같은 도메인끼리 묶을 때 문자열 비교 없이 사용
+    public int domainCode(int i) {
+        return domainCodes[index(i)];
+    }
+
+    /** 복사 없는 부분 뷰 [fromIndex, toIndex) */
+    public RecipientSnapshot slice(int fromIndex, int toIndex) {
+        if (fromIndex < 0 || toIndex > size() || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException("slice [" + fromIndex + ", " + toIndex + ") of " + size());
+        }
+        return new RecipientSnapshot(ids, localParts, offsets, domainCodes, domains, from + fromIndex, from + toIndex);
+    }
+
+    /**
+     * 같은 도메인끼리 묶은 인덱스 배치 (배치당 최대 maxPerBatch 명).
+     * 도메인 코드 기준 계수 정렬이라 문자열 비교/정렬 없이 O(n). '@' 없는 주소는 별도 배치로 모인다.
+     */
+    public List<int[]> domainBatches(int maxPerBatch) {
+        int max = Math.max(1, maxPerBatch);
+        int n = size();
+
+        // 코드 -1 은 버킷 0, 나머지는 code + 1
+        int[] start = new int[domains.length + 2];
+        for (int idx = from; idx < to; idx++) {
+            start[domainCodes[idx] + 2]++;
+        }
+        for (int b = 1; b < start.length; b++) {
+            start[b] += start[b - 1];
+        }
+        int[] order = new int[n];
+        int[] next = Arrays.copyOf(start, start.length);
+        for (int i = 0; i < n; i++) {
+            order[next[domainCodes[from + i] + 1]++] = i;
+        }
+
+        List<int[]> batches = new ArrayList<>();
+        for (int b = 0; b + 1 < start.length; b++) {
+            for (int p = start[b]; p < start[b + 1]; ) {
+                int end = (int) Math.min(start[b + 1], (long) p + max);
+                batches.add(Arrays.copyOfRange(order, p, end));
+                p = end;
+            }
+        }
+        return batches;
+    }
+
+    private int index(int i) {
+        if (i < 0 || i >= size()) {
+            throw new IndexOutOfBoundsException("index " + i + " of " + size());
+        }
+        return from + i;
+    }
+
+    public static final class Builder {
+        private long[] ids;
+        private int[] offsets;
+        private int[] domainCodes;
+        private byte[] localParts;
+        private int count;
+        private int bytes;
+        private final Map<String, Integer> domainIndex = new HashMap<>();
+        private final List<String> domains = new ArrayList<>();
+
+        private Builder(int expected) {
+            int cap = Math.max(16, expected);
+            this.ids = new long[cap];
+            this.offsets = new int[cap + 1];
+            this.domainCodes = new int[cap];
+            this.localParts = new byte[cap * 16];
+        }
+
+        public void add(long id, String email) {
+            if (count == ids.length) {
+                int cap = ids.length * 2;
+                ids = Arrays.copyOf(ids, cap);
+                offsets = Arrays.copyOf(offsets, cap + 1);
+                domainCodes = Arrays.copyOf(domainCodes, cap);
+            }
+
+            String value = email == null ? "" : email.trim();
+            int at = value.lastIndexOf('@');
+            String local = at < 0 ? value : value.substring(0, at);
+            // 도메인은 대소문자 구분이 없으므로 소문자로 정규화해 사전 크기를 줄인다
+            int code = at < 0 ? -1 : domainIndex.computeIfAbsent(value.substring(at + 1).toLowerCase(), d -> {
+                domains.add(d);
+                return domains.size() - 1;
+            });
+
+            byte[] encoded = local.getBytes(StandardCharsets.UTF_8);
+            if (bytes + encoded.length > localParts.length) {
+                localParts = Arrays.copyOf(localParts, Math.max(localParts.length * 2, bytes + encoded.length));
+            }
+            System.arraycopy(encoded, 0, localParts, bytes, encoded.length);
+
+            ids[count] = id;
+            domainCodes[count] = code;
+            offsets[count] = bytes;
+            bytes += encoded.length;
+            count++;
+            offsets[count] = bytes;
+        }
+
+        public RecipientSnapshot build() {
+            return new RecipientSnapshot(
+                    Arrays.copyOf(ids, count),
+                    Arrays.copyOf(localParts, bytes),
+                    Arrays.copyOf(offsets, count + 1),
+                    Arrays.copyOf(domainCodes, count),
+                    domains.toArray(String[]::new),
+                    0, count);
+        }
+    }
+}
@@ -0,0 +1,426 @@
+package com.mailstorm.be.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.http.HttpStatus.CONFLICT;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.HttpStatus.UNPROCESSABLE_ENTITY;
+
+/**
+ * 캠페인 발송 작업(mail_send_jobs) 상태/체크포인트 관리
+ * - 발송은 수신자 id 순 청크 단위. 앞에서부터 연속으로 완료된 청크의 마지막 id 를 체크포인트로 저장
+ * - pause/cancel 은 진행 중인 발송에 중지 요청만 걸고, 워커는 다음 청크 경계에서 멈춘다 (진행 중 청크는 끝까지 전송)
+ * - 같은 단계(phase)를 다시 시작하면 PAUSED/RUNNING 상태의 체크포인트 다음부터 이어서 보낸다 (DONE/CANCELLED 는 처음부터)
+ * - 캠페인당 발송은 mail_send_locks 잠금으로 레플리카 전체에서 하나만 돈다.
+ *   잠금은 heartbeat 로 임대를 연장하고, 프로세스가 죽어 임대가 끝나면 다른 인스턴스가 가져간다.
+ * - 발송 요청 Idempotency-Key 는 mail_send_requests 에 기록해 재시도/더블클릭을 기존 작업에 연결한다
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SendJobService {
+
+    public static final String PHASE_SEND = "SEND";
+    public static final String PHASE_AB_TEST = "AB_TEST";
+    public static final String PHASE_AB_A = "AB_A";
+    public static final String PHASE_AB_B = "AB_B";
+    public static final String PHASE_WINNER = "WINNER";
+    public static final String PHASE_RESEND = "RESEND";
+
+    public enum State { RUNNING, PAUSED, CANCELLED, DONE }
+
+    private static final RowMapper<SendJob> JOB_MAPPER = (rs, i) -> new SendJob(
+            rs.getLong("campaign_id"),
+            rs.getString("phase"),
+            State.valueOf(rs.getString("state")),
+            rs.getLong("last_recipient_id"),
+            rs.getInt("sent"),
+            rs.getInt("failed"),
+            rs.getTimestamp("updated_at") == null ? null : rs.getTimestamp("updated_at").toLocalDateTime()
+    );
+
+    private static final String ATTACHED_MESSAGE = "이미 진행 중인 발송에 연결됨";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // 이 인스턴스에서 실제로 돌고 있는 발송 (캠페인당 한 단계)
+    private final Map<Long, Run> live = new ConcurrentHashMap<>();
+
+    // 잠금 소유자 식별자 (pid@host/랜덤) - 같은 호스트에서 재시작해도 이전 프로세스와 구분
+    private final String instanceId = ManagementFactory.getRuntimeMXBean().getName()
+            + "/" + UUID.randomUUID().toString().substring(0, 8);
+
+    // 마지막 heartbeat 후 이 시간이 지난 잠금은 주인이 죽은 것으로 본다
+    @Value("${app.send-lock.lease-ms:60000}")
+    private long leaseMs;
+
+    @Value("${app.send-lock.heartbeat-ms:10000}")
+    private long heartbeatMs;
+
+    @Value("${app.send-lock.idempotency-ttl-hours:24}")
+    private int idempotencyTtlHours;
+
+    // 임대 연장은 전용 스레드에서 한다. 공용 @Scheduled 스레드는 파티션 정리(청크 사이 대기)나
+    // SSE push 에 붙잡힐 수 있어, 늦어지면 lease-ms 가 지나 발송 중에 다른 레플리카가 잠금을 가져간다
+    private final ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("send-lock-heartbeat").daemon().factory());
+
+    @PostConstruct
+    public void startHeartbeat() {
+        heartbeats.scheduleWithFixedDelay(() -> {
+            try {
+                heartbeat();
+            } catch (RuntimeException e) {
+                // 예외가 새면 이후 실행이 모두 취소되므로 다음 주기에 다시 시도
+                log.warn("Send lock heartbeat failed: {}", e.getMessage());
+            }
+        }, heartbeatMs, heartbeatMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeats.shutdownNow();
+    }
+
+    /**
+     * 발송 단계 시작. 이전에 멈춘 같은 단계가 있으면 체크포인트를 이어받는다.
+     */
+    public Run start(Long campaignId, String phase) {
+        Run run = new Run(campaignId, phase);
+        if (live.putIfAbsent(campaignId, run) != null) {
+            throw new SendInProgressException(campaignId);
+        }
+        try {
+            // 잠금 행이 없거나 임대가 끝났을 때만 차지 (다른 레플리카가 발송 중이면 0건)
+            int locked = jdbcTemplate.update("""
+                        INSERT INTO mail_send_locks (campaign_id, owner, phase, acquired_at, heartbeat_at)
+                        VALUES (?, ?, ?, now(), now())
+                        ON CONFLICT (campaign_id) DO UPDATE
+                           SET owner = EXCLUDED.owner, phase = EXCLUDED.phase,
+                               acquired_at = now(), heartbeat_at = now()
+                         WHERE mail_send_locks.heartbeat_at < now() - make_interval(secs => ?)
+                    """, campaignId, instanceId, phase, leaseMs / 1000.0);
+            if (locked == 0) {
+                live.remove(campaignId, run);
+                throw new SendInProgressException(campaignId);
+            }
+
+            Optional<SendJob> previous = find(campaignId, phase);
+            boolean resume = previous.isPresent()
+                    && (previous.get().state() == State.PAUSED || previous.get().state() == State.RUNNING);
+            run.resumeAfterId = resume ? previous.get().lastRecipientId() : 0L;
+
+            jdbcTemplate.update("""
+                        INSERT INTO mail_send_jobs (campaign_id, phase, state, last_recipient_id, sent, failed, created_at, updated_at)
+                        VALUES (?, ?, 'RUNNING', 0, 0, 0, now(), now())
+                        ON CONFLICT (campaign_id, phase) DO UPDATE
+                           SET state = 'RUNNING',
+                               last_recipient_id = CASE WHEN ? THEN mail_send_jobs.last_recipient_id ELSE 0 END,
+                               sent              = CASE WHEN ? THEN mail_send_jobs.sent ELSE 0 END,
+                               failed            = CASE WHEN ? THEN mail_send_jobs.failed ELSE 0 END,
+                               updated_at = now()
+                    """, campaignId, phase, resume, resume, resume);
+
+            // 상태를 RUNNING 으로 바꾼 뒤부터 heartbeat 대상 (이전 PAUSED 를 중지 요청으로 오인하지 않게)
+            run.locked = true;
+
+            if (resume) {
+                log.info("Resuming send. campaignId={}, phase={}, afterRecipientId={}", campaignId, phase, run.resumeAfterId);
+            }
+            return run;
+        } catch (SendInProgressException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            jdbcTemplate.update("DELETE FROM mail_send_locks WHERE campaign_id = ? AND owner = ?", campaignId, instanceId);
+            live.remove(campaignId, run);
+            throw e;
+        }
+    }
+
+    public SendJob pause(Long campaignId) {
+        return requestStop(campaignId, State.PAUSED);
+    }
+
+    public SendJob cancel(Long campaignId) {
+        return requestStop(campaignId, State.CANCELLED);
+    }
+
+    // 이 인스턴스 또는 다른 레플리카에서 발송 중인지 (임대가 살아 있는 잠금 기준)
+    public boolean isSending(Long campaignId) {
+        if (live.containsKey(campaignId)) return true;
+        Integer held = jdbcTemplate.queryForObject("""
+                    SELECT COUNT(*) FROM mail_send_locks
+                    WHERE campaign_id = ? AND heartbeat_at >= now() - make_interval(secs => ?)
+                """, Integer.class, campaignId, leaseMs / 1000.0);
+        return held != null && held > 0;
+    }
+
+    // 두 번째 발송 요청에 돌려줄 응답: 진행 중인 작업의 현재 집계
+    public Map<String, Object> attachedResult(Long campaignId) {
+        return latest(campaignId)
+                .map(j -> Map.<String, Object>of("success", j.sent(), "failed", j.failed(),
+                        "message", ATTACHED_MESSAGE, "state", j.state().name()))
+                .orElseGet(() -> Map.of("success", 0, "failed", 0, "message", ATTACHED_MESSAGE));
+    }
+
+    /**
+     * Idempotency-Key 선점. 처음 보는 키면 empty (호출자가 발송 진행),
+     * 이미 끝난 요청이면 저장된 결과, 처리 중이면 진행 중 작업 집계를 돌려준다.
+     */
+    public Optional<Map<String, Object>> claimRequest(String key, Long campaignId) {
+        if (key == null || key.isBlank()) return Optional.empty();
+
+        int claimed = jdbcTemplate.update("""
+                    INSERT INTO mail_send_requests (idempotency_key, campaign_id, created_at)
+                    VALUES (?, ?, now())
+                    ON CONFLICT (idempotency_key) DO NOTHING
+                """, key, campaignId);
+        if (claimed == 1) return Optional.empty();
+
+        Map<String, Object> row = jdbcTemplate.queryForMap("""
+                    SELECT campaign_id, success, failed, message, completed_at
+                    FROM mail_send_requests WHERE idempotency_key = ?
+                """, key);
+        if (!campaignId.equals(((Number) row.get("campaign_id")).longValue())) {
+            throw new ResponseStatusException(UNPROCESSABLE_ENTITY, "Idempotency-Key 가 다른 캠페인 요청에 이미 사용되었습니다.");
+        }
+        if (row.get("completed_at") == null) {
+            log.info("Duplicate send request attached. campaignId={}, key={}", campaignId, key);
+            return Optional.of(attachedResult(campaignId));
+        }
+        return Optional.of(Map.of(
+                "success", row.get("success") == null ? 0 : row.get("success"),
+                "failed", row.get("failed") == null ? 0 : row.get("failed"),
+                "message", row.get("message") == null ? "" : row.get("message")));
+    }
+
+    public void completeRequest(String key, Map<String, Object> result) {
+        if (key == null || key.isBlank()) return;
+        jdbcTemplate.update("""
+                    UPDATE mail_send_requests
+                       SET success = ?, failed = ?, message = ?, completed_at = now()
+                    WHERE idempotency_key = ?
+                """, result.get("success"), result.get("failed"), String.valueOf(result.get("message")), key);
+    }
+
+    // 처리 중 오류가 나면 키를 풀어 같은 키로 재시도할 수 있게 한다
+    public void releaseRequest(String key) {
+        if (key == null || key.isBlank()) return;
+        jdbcTemplate.update("DELETE FROM mail_send_requests WHERE idempotency_key = ? AND completed_at IS NULL", key);
+    }
+
+    /**
+     * 잠금 임대 연장 + 다른 인스턴스에서 걸어 둔 중지 요청 반영.
+     * 잠금을 잃은 발송(임대 만료로 다른 레플리카가 가져감)은 중복 발송을 막기 위해 즉시 멈춘다.
+     * heartbeat-ms 마다 전용 스레드(send-lock-heartbeat)에서 호출된다.
+     */
+    public void heartbeat() {
+        if (live.isEmpty()) return;
+
+        Set<Long> held = new HashSet<>(jdbcTemplate.queryForList(
+                "UPDATE mail_send_locks SET heartbeat_at = now() WHERE owner = ? RETURNING campaign_id",
+                Long.class, instanceId));
+
+        for (Run run : live.values()) {
+            if (!run.locked) continue;
+            if (!held.contains(run.campaignId)) {
+                log.warn("Send lock lost, stopping. campaignId={}, phase={}", run.campaignId, run.phase);
+                run.stopRequest = State.PAUSED;
+                continue;
+            }
+            find(run.campaignId, run.phase)
+                    .filter(j -> j.state() == State.PAUSED || j.state() == State.CANCELLED)
+                    .ifPresent(j -> {
+                        if (run.stopRequest == null) {
+                            log.info("Remote stop request. campaignId={}, target={}", run.campaignId, j.state());
+                            run.stopRequest = j.state();
+                        }
+                    });
+        }
+    }
+
+    @Scheduled(fixedDelay = 3_600_000)
+    public void purgeIdempotencyKeys() {
+        int purged = jdbcTemplate.update(
+                "DELETE FROM mail_send_requests WHERE created_at < now() - make_interval(hours => ?)",
+                idempotencyTtlHours);
+        if (purged > 0) log.info("Purged {} idempotency keys", purged);
+    }
+
+    // 장애 대응용: 이 인스턴스에서 진행 중인 발송 전체 일시정지
+    public List<SendJob> pauseAll() {
+        return live.keySet().stream().map(this::pause).toList();
+    }
+
+    private SendJob requestStop(Long campaignId, State target) {
+        Run run = live.get(campaignId);
+        if (run != null) {
+            // 실제 상태 전이는 워커가 청크 경계에서 멈춘 뒤 finish 에서 기록
+            run.stopRequest = target;
+            log.info("Stop requested. campaignId={}, phase={}, target={}", campaignId, run.phase, target);
+            return find(campaignId, run.phase).orElseThrow();
+        }
+
+        // 이 인스턴스에 워커가 없으면 상태만 바꾼다.
+        // 다른 레플리카에서 돌고 있으면 그쪽 heartbeat 가 상태를 보고 청크 경계에서 멈춘다
+        int updated = jdbcTemplate.update("""
+                    UPDATE mail_send_jobs SET state = ?, updated_at = now()
+                    WHERE campaign_id = ? AND state IN ('RUNNING', 'PAUSED')
+                """, target.name(), campaignId);
+        if (updated == 0) {
+            throw new ResponseStatusException(NOT_FOUND, "No active send for campaign " + campaignId);
+        }
+        return latest(campaignId).orElseThrow();
+    }
+
+    /**
+     * 재개할 단계 조회 (PAUSED 이거나 워커 없이 RUNNING 으로 남은 작업)
+     */
+    public SendJob resumable(Long campaignId) {
+        if (isSending(campaignId)) {
+            throw new SendInProgressException(campaignId);
+        }
+        return latest(campaignId)
+                .filter(j -> j.state() == State.PAUSED || j.state() == State.RUNNING)
+                .orElseThrow(() -> new ResponseStatusException(NOT_FOUND, "No paused send for campaign " + campaignId));
+    }
+
+    public List<SendJob> findByCampaign(Long campaignId) {
+        return jdbcTemplate.query("""
+                    SELECT campaign_id, phase, state, last_recipient_id, sent, failed, updated_at
+                    FROM mail_send_jobs WHERE campaign_id = ?
+                    ORDER BY updated_at DESC
+                """, JOB_MAPPER, campaignId);
+    }
+
+    public List<SendJob> findActive() {
+        return jdbcTemplate.query("""
+                    SELECT campaign_id, phase, state, last_recipient_id, sent, failed, updated_at
+                    FROM mail_send_jobs WHERE state IN ('RUNNING', 'PAUSED')
+                    ORDER BY updated_at DESC
+                """, JOB_MAPPER);
+    }
+
+    private Optional<SendJob> latest(Long campaignId) {
+        return findByCampaign(campaignId).stream().findFirst();
+    }
+
+    private Optional<SendJob> find(Long campaignId, String phase) {
+        return jdbcTemplate.query("""
+                    SELECT campaign_id, phase, state, last_recipient_id, sent, failed, updated_at
+                    FROM mail_send_jobs WHERE campaign_id = ? AND phase = ?
+                """, JOB_MAPPER, campaignId, phase).stream().findFirst();
+    }
+
+    /**
+     * 진행 중인 발송 1건. 청크 번호는 id 순으로 0부터 매기고, 완료는 순서와 무관하게 보고된다.
+     */
+    public final class Run {
+        private final Long campaignId;
+        private final String phase;
+        private long resumeAfterId;
+        private volatile State stopRequest;
+        private volatile boolean locked;
+
+        // 완료됐지만 앞 청크가 아직이라 체크포인트에 반영 못 한 청크: seq → lastRecipientId
+        private final TreeMap<Integer, Long> pending = new TreeMap<>();
+        private int nextSeq;
+        private int committedSeq;
+
+        private Run(Long campaignId, String phase) {
+            this.campaignId = campaignId;
+            this.phase = phase;
+        }
+
+        // 이 id 이하는 이전 실행에서 전송 완료
+        public long resumeAfterId() {
+            return resumeAfterId;
+        }
+
+        // 청크 경계에서 확인
+        public boolean stopRequested() {
+            return stopRequest != null;
+        }
+
+        public synchronized int nextChunk() {
+            return nextSeq++;
+        }
+
+        public synchronized void chunkDone(int seq, long lastRecipientId, int sent, int failed) {
+            pending.put(seq, lastRecipientId);
+            Long checkpoint = null;
+            while (!pending.isEmpty() && pending.firstKey() == committedSeq) {
+                checkpoint = pending.pollFirstEntry().getValue();
+                committedSeq++;
+            }
+            jdbcTemplate.update("""
+                        UPDATE mail_send_jobs
+                           SET last_recipient_id = COALESCE(?, last_recipient_id),
+                               sent = sent + ?, failed = failed + ?, updated_at = now()
+                        WHERE campaign_id = ? AND phase = ?
+                    """, checkpoint, sent, failed, campaignId, phase);
+        }
+
+        /**
+         * 발송 종료. 중지 요청이 있었으면 PAUSED/CANCELLED, 끝까지 못 간 경우(오류/인터럽트)는 재개할 수 있게 PAUSED,
+         * 나머지는 DONE 으로 기록하고 최종 상태를 돌려준다.
+         */
+        public State finish(boolean completed) {
+            State state = stopRequest != null ? stopRequest : completed ? State.DONE : State.PAUSED;
+            try {
+                jdbcTemplate.update("""
+                            UPDATE mail_send_jobs SET state = ?, updated_at = now()
+                            WHERE campaign_id = ? AND phase = ?
+                        """, state.name(), campaignId, phase);
+                log.info("Send {}. campaignId={}, phase={}", state, campaignId, phase);
+            } finally {
+                try {
+                    jdbcTemplate.update("DELETE FROM mail_send_locks WHERE campaign_id = ? AND owner = ?", campaignId, instanceId);
+                } finally {
+                    live.remove(campaignId, this);
+                }
+            }
+            return state;
+        }
+    }
+
+    // 같은 캠페인이 이미 (이 인스턴스 또는 다른 레플리카에서) 발송 중
+    public static class SendInProgressException extends ResponseStatusException {
+        public SendInProgressException(Long campaignId) {
+            super(CONFLICT, "Campaign " + campaignId + " is already sending");
+        }
+    }
+
+    public record SendJob(
+            Long campaignId,
+            String phase,
+            State state,
+            Long lastRecipientId,
+            int sent,
+            int failed,
+            LocalDateTime updatedAt
+    ) {}
+}
@@ -0,0 +1,181 @@
+package com.mailstorm.be.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.internet.MimeMessage;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 발송 파이프라인 단계별 계측 (/actuator/prometheus)
+ * - mailstorm.send.recipients.fetch: 수신자 조회 (query)
+ * - mailstorm.send.render: 변형별 HTML 트래킹 처리 + 헤더/본문 사전 인코딩 (phase)
+ * - mailstorm.send.mime.build: 수신자별 토큰 생성 + 메시지 조립 (phase)
+ * - mailstorm.send.smtp: SMTP 트랜잭션 (phase, relay, outcome) / mailstorm.send.recipients: 결과별 수신자 수
+ * - mailstorm.send.db.update: 캠페인 상태/시작 시각/체크포인트 갱신 (op)
+ * - mailstorm.send.scheduler.wait: 청크가 스케줄러 차례를 기다린 시간 (priority)
+ * phase 는 normal/a/b/winner 로 고정되어 있어 캠페인 수와 무관하게 시계열 수가 일정하다.
+ */
+@Component
+public class SendMetrics {
+
+    private final MeterRegistry meterRegistry;
+
+    // 워커에 넘겨져 SMTP 전송이 끝나지 않은 메시지(봉투) 수
+    private final AtomicInteger inflight = new AtomicInteger();
+    // 진행 중인 발송에서 아직 워커에 넘기지 않은 수신자 수
+    private final AtomicLong queued = new AtomicLong();
+
+    public SendMetrics(MeterRegistry meterRegistry, SendScheduler sendScheduler) {
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("mailstorm.send.inflight", inflight, AtomicInteger::get)
+                .description("Messages handed to send workers and not yet finished")
+                .register(meterRegistry);
+        Gauge.builder("mailstorm.send.queue.depth", queued, AtomicLong::get)
+                .description("Recipients of running sends not yet handed to workers")
+                .register(meterRegistry);
+        Gauge.builder("mailstorm.send.scheduler.waiting", sendScheduler, SendScheduler::waitingChunks)
+                .description("Chunks waiting for a scheduler turn")
+                .register(meterRegistry);
+        Gauge.builder("mailstorm.send.scheduler.inflight", sendScheduler, SendScheduler::inflightChunks)
+                .description("Chunks granted by the scheduler and still sending")
+                .register(meterRegistry);
+    }
+
+    public Timer.Sample start() {
+        return Timer.start(meterRegistry);
+    }
+
+    public void fetched(Timer.Sample sample, String query) {
+        sample.stop(timer("mailstorm.send.recipients.fetch", "query", query));
+    }
+
+    public void rendered(Timer.Sample sample, String phase) {
+        sample.stop(timer("mailstorm.send.render", "phase", phase));
+    }
+
+    public void mimeBuilt(Timer.Sample sample, String phase) {
+        sample.stop(timer("mailstorm.send.mime.build", "phase", phase));
+    }
+
+    public void db(String op, Runnable update) {
+        timer("mailstorm.send.db.update", "op", op).record(update);
+    }
+
+    public void schedulerWaited(Timer.Sample sample, SendScheduler.Priority priority) {
+        sample.stop(timer("mailstorm.send.scheduler.wait", "priority", priority.name().toLowerCase()));
+    }
+
+    /**
+     * 슬롯으로 메시지를 보내고 SMTP 트랜잭션 시간을 기록한다. 본문 바이트는 전송 중에 쓰이므로 스트리밍 시간도 여기 포함.
+     * JFR 기록 중이면 같은 구간을 SmtpSendEvent 로도 남긴다.
+     * @param recipients 봉투의 RCPT 수 (트래킹 없는 대량 발송은 여러 명)
+     */
+    public void send(MailDelivery.Slot slot, MimeMessage message, CampaignMessageWriter writer, int recipients) throws MailException {
+        String phase = writer.metricPhase();
+        SmtpSendEvent event = new SmtpSendEvent();
+        event.begin();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "ok";
+        try {
+            slot.send(message);
+        } catch (MailException e) {
+            outcome = outcomeOf(e);
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("mailstorm.send.smtp")
+                    .description("SMTP transaction time per message")
+                    .tags("phase", phase, "relay", slot.route(), "outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+            Counter.builder("mailstorm.send.recipients")
+                    .description("Recipients by SMTP outcome")
+                    .tags("phase", phase, "outcome", outcome)
+                    .register(meterRegistry)
+                    .increment(recipients);
+
+            event.end();
+            if (event.shouldCommit()) {
+                event.campaignId = writer.campaignId() != null ? writer.campaignId() : 0;
+                event.phase = phase;
+                event.route = slot.route();
+                event.recipients = recipients;
+                event.bytes = CampaignMessageWriter.bytesWritten(message);
+                event.outcome = outcome;
+                event.commit();
+            }
+        }
+    }
+
+    // 전송을 워커에 넘길 때 감싼다. 작업이 끝나면 in-flight 에서 빠진다
+    public Runnable inflight(Runnable task) {
+        inflight.incrementAndGet();
+        return () -> {
+            try {
+                task.run();
+            } finally {
+                inflight.decrementAndGet();
+            }
+        };
+    }
+
+    /**
+     * 발송 1건의 대기 수신자 수를 queue.depth 에 올려 두고, 워커에 넘길 때마다 take 로 줄인다.
+     * 중지/중단으로 남은 수는 close 때 한 번에 뺀다.
+     */
+    public Backlog backlog(int recipients) {
+        return new Backlog(recipients);
+    }
+
+    public final class Backlog implements AutoCloseable {
+        private final AtomicLong remaining;
+
+        private Backlog(int recipients) {
+            this.remaining = new AtomicLong(recipients);
+            queued.addAndGet(recipients);
+        }
+
+        public void take(int n) {
+            remaining.addAndGet(-n);
+            queued.addAndGet(-n);
+        }
+
+        @Override
+        public void close() {
+            queued.addAndGet(-remaining.getAndSet(0));
+        }
+    }
+
+    // 일반 발송이면 normal, A/B 변형이면 a/b, 승자 발송이면 winner
+    public static String phaseOf(String variant, String abPhase) {
+        if ("WINNER".equals(abPhase)) return "winner";
+        if ("A".equals(variant)) return "a";
+        if ("B".equals(variant)) return "b";
+        return "normal";
+    }
+
+    // 수신 서버 거부(5xx/RCPT 거부)와 연결/릴레이 장애를 구분
+    private static String outcomeOf(MailException e) {
+        if (e.contains(SendFailedException.class)) return "rejected";
+        if (e instanceof MailSendException mse) {
+            for (Exception cause : mse.getFailedMessages().values()) {
+                if (cause instanceof SendFailedException) return "rejected";
+            }
+        }
+        return "failed";
+    }
+
+    private Timer timer(String name, String tagKey, String tagValue) {
+        return Timer.builder(name)
+                .tag(tagKey, tagValue)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,127 @@
+package com.mailstorm.be.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+
+/**
+ * 발송 분산(send window) 속도 조절
+ * - 캠페인 발송 시작 시 대상 수 / 분산 시간으로 목표 속도를 정하고, 피더가 메일마다 permit 을 받아 간격을 맞춘다
+ * - 간격은 "다음 허용 시각"을 예약하는 방식이라 피더가 여러 개여도 전체 속도가 유지된다 (버스트 없음)
+ * - 속도는 발송 중에도 API 로 조정 가능
+ * 오픈/클릭이 발송 속도를 따라 퍼지므로 릴레이뿐 아니라 트래커/DB 피크도 함께 낮아진다.
+ */
+@Component
+@Slf4j
+public class SendPacer {
+
+    private final Map<Long, Pace> live = new ConcurrentHashMap<>();
+
+    // 속도 조절 중인 캠페인의 청크는 이 시간 안에 보낼 수 있는 만큼만 (스케줄러 슬롯을 오래 붙잡지 않도록)
+    @Value("${app.send-pacing.max-chunk-seconds:5}")
+    private int maxChunkSeconds;
+
+    @Value("${app.send-pacing.min-rate-per-minute:1}")
+    private double minRatePerMinute;
+
+    /**
+     * 분산 시간이 설정된 캠페인이면 Pace 를 등록해 돌려주고, 아니면 null (최대 속도).
+     */
+    public Pace start(Long campaignId, int recipients, Integer windowMinutes) {
+        if (windowMinutes == null || windowMinutes <= 0 || recipients <= 0) {
+            return null;
+        }
+        double perMinute = Math.max(minRatePerMinute, (double) recipients / windowMinutes);
+        Pace pace = new Pace(campaignId, recipients, perMinute);
+        live.put(campaignId, pace);
+        log.info("Send pacing started. campaignId={}, recipients={}, window={}m, rate={}/m",
+                campaignId, recipients, windowMinutes, Math.round(perMinute));
+        return pace;
+    }
+
+    public Optional<RateStatus> status(Long campaignId) {
+        return Optional.ofNullable(live.get(campaignId)).map(Pace::status);
+    }
+
+    public List<RateStatus> statusAll() {
+        return live.values().stream().map(Pace::status).toList();
+    }
+
+    // 발송 중 속도 변경 (분당 건수)
+    public RateStatus adjust(Long campaignId, double perMinute) {
+        Pace pace = live.get(campaignId);
+        if (pace == null) {
+            throw new ResponseStatusException(NOT_FOUND, "No paced send for campaign " + campaignId);
+        }
+        pace.setRate(Math.max(minRatePerMinute, perMinute));
+        log.info("Send pacing adjusted. campaignId={}, rate={}/m", campaignId, Math.round(pace.perMinute));
+        return pace.status();
+    }
+
+    public final class Pace implements AutoCloseable {
+        private final Long campaignId;
+        private final int total;
+        private final AtomicLong sent = new AtomicLong();
+        private volatile double perMinute;
+        private long intervalNanos;
+        private long nextFreeNanos = System.nanoTime();
+
+        private Pace(Long campaignId, int total, double perMinute) {
+            this.campaignId = campaignId;
+            this.total = total;
+            setRate(perMinute);
+        }
+
+        private synchronized void setRate(double perMinute) {
+            this.perMinute = perMinute;
+            this.intervalNanos = (long) (TimeUnit.MINUTES.toNanos(1) / perMinute);
+            // 느린 속도에서 빠른 속도로 바꾼 경우 이미 예약된 먼 허용 시각을 당겨 온다
+            nextFreeNanos = Math.min(nextFreeNanos, System.nanoTime() + intervalNanos);
+        }
+
+        // permits 건을 보낼 차례까지 대기
+        public void acquire(int permits) throws InterruptedException {
+            long wait;
+            synchronized (this) {
+                long now = System.nanoTime();
+                if (nextFreeNanos < now) nextFreeNanos = now;
+                wait = nextFreeNanos - now;
+                nextFreeNanos += intervalNanos * permits;
+            }
+            if (wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+            sent.addAndGet(permits);
+        }
+
+        // 현재 속도로 maxChunkSeconds 안에 보낼 수 있는 수 (최소 1, 최대 defaultSize)
+        public int chunkSize(int defaultSize) {
+            long bySpeed = (long) (perMinute / 60.0 * Math.max(1, maxChunkSeconds));
+            return (int) Math.max(1, Math.min(defaultSize, bySpeed));
+        }
+
+        private RateStatus status() {
+            long done = sent.get();
+            long remainingSeconds = Math.round(Math.max(0, total - done) * 60.0 / perMinute);
+            return new RateStatus(campaignId, Math.round(perMinute * 100) / 100.0, total, done, remainingSeconds);
+        }
+
+        @Override
+        public void close() {
+            live.remove(campaignId, this);
+        }
+    }
+
+    public record RateStatus(Long campaignId, double ratePerMinute, int total, long sent, long etaSeconds) {
+    }
+}
@@ -0,0 +1,341 @@
+package com.mailstorm.be.service;
+
+import com.mailstorm.be.global.SendSchedulerProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 동시에 진행 중인 캠페인 발송을 청크 단위로 번갈아 내보내는 스케줄러 (계층형 가중 공정 큐잉)
+ * - 1단계: 우선순위 등급(TEST/TRANSACTIONAL/BULK) 가중치 비율로 청크 승인 몫 보장
+ * - 2단계: 같은 등급 안에서는 테넌트(발송자 부서, 부서가 없으면 사용자) 가중치 비율로 분배
+ * 동시에 진행되는 청크는 max-inflight-chunks 개까지이고, 청크는 소속 메일이 모두 전송을 마쳐야 반납된다.
+ * 대형 캠페인도 청크 하나씩만 승인받으므로 뒤에 들어온 소규모 발송이 끝까지 기다리지 않는다.
+ *
+ * start-time fair queuing: 대기가 시작되면 S = max(V, F), 승인 시 V = S, F = S + 수신자 수 / 가중치.
+ * 대기 중인 것 중 S 가 가장 작은 쪽부터 승인한다 (등급 → 테넌트 순).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SendScheduler {
+
+    public enum Priority { TEST, TRANSACTIONAL, BULK }
+
+    private final SendSchedulerProperties props;
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition turn = lock.newCondition();
+    private final Map<Priority, ClassQueue> classes = new EnumMap<>(Priority.class);
+    private double classClock;
+    private int inflight;
+
+    public int chunkSize() {
+        return Math.max(1, props.getChunkSize());
+    }
+
+    // 대량/트래킹 없는 발송은 BULK, 나머지 일반 발송은 TRANSACTIONAL (A/B 테스트 샷은 호출 측에서 TEST 지정)
+    public Priority classify(MailerService.CampaignData c, int recipients) {
+        if (Boolean.TRUE.equals(c.untracked()) || recipients >= props.getBulkThreshold()) {
+            return Priority.BULK;
+        }
+        return Priority.TRANSACTIONAL;
+    }
+
+    /**
+     * 캠페인 발송 1건을 스케줄러에 등록. 발송이 끝나면 close 한다.
+     */
+    public Job register(Long campaignId, Priority priority) {
+        String tenant = tenantOf(campaignId);
+        lock.lock();
+        try {
+            ClassQueue cq = classes.computeIfAbsent(priority, ClassQueue::new);
+            TenantQueue tq = cq.tenants.computeIfAbsent(tenant, TenantQueue::new);
+            tq.jobs++;
+            log.debug("Send job registered. campaignId={}, priority={}, tenant={}", campaignId, priority, tenant);
+            return new Job(campaignId, cq, tq);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private String tenantOf(Long campaignId) {
+        List<String> keys = jdbcTemplate.query("""
+                    SELECT c.user_id, u.department_id
+                    FROM mail_campaigns c
+                    LEFT JOIN users u ON u.id = c.user_id
+                    WHERE c.id = ?
+                """, (rs, i) -> {
+            long dept = rs.getLong("department_id");
+            if (!rs.wasNull()) return "dept-" + dept;
+            long user = rs.getLong("user_id");
+            return rs.wasNull() ? "none" : "user-" + user;
+        }, campaignId);
+        return keys.isEmpty() ? "none" : keys.get(0);
+    }
+
+    public final class Job implements AutoCloseable {
+        private final Long campaignId;
+        private final ClassQueue cq;
+        private final TenantQueue tq;
+        private boolean closed;
+
+        private Job(Long campaignId, ClassQueue cq, TenantQueue tq) {
+            this.campaignId = campaignId;
+            this.cq = cq;
+            this.tq = tq;
+        }
+
+        /**
+         * 수신자 cost 명짜리 청크 1개의 차례가 올 때까지 대기.
+         * 반환된 Grant 는 청크를 다 제출한 뒤 close 하고, 청크 안의 전송 작업은 track 으로 감싼다.
+         */
+        public Grant awaitTurn(int cost) throws InterruptedException {
+            Waiter w = new Waiter(this, Math.max(1, cost));
+            lock.lock();
+            try {
+                enqueue(w);
+                grantLocked();
+                try {
+                    while (!w.granted) {
+                        turn.await();
+                    }
+                } catch (InterruptedException e) {
+                    if (w.granted) {
+                        releaseLocked();
+                    } else {
+                        dequeue(w);
+                    }
+                    throw e;
+                }
+                return new Grant();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void close() {
+            lock.lock();
+            try {
+                if (closed) return;
+                closed = true;
+                tq.jobs--;
+                if (tq.jobs == 0 && tq.waiters.isEmpty()) {
+                    cq.tenants.remove(tq.key);
+                }
+                log.debug("Send job closed. campaignId={}, priority={}, tenant={}", campaignId, cq.priority, tq.key);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 승인된 청크. 피더의 close 1회 + track 으로 감싼 작업이 모두 끝나면 슬롯을 반납한다.
+     */
+    public final class Grant implements AutoCloseable {
+        private final AtomicInteger holds = new AtomicInteger(1);
+        private volatile Runnable onDone;
+
+        // 청크의 전송이 모두 끝났을 때 1회 실행 (close 전에 등록)
+        public void whenDone(Runnable callback) {
+            this.onDone = callback;
+        }
+
+        public Runnable track(Runnable task) {
+            holds.incrementAndGet();
+            return () -> {
+                try {
+                    task.run();
+                } finally {
+                    release();
+                }
+            };
+        }
+
+        @Override
+        public void close() {
+            release();
+        }
+
+        private void release() {
+            if (holds.decrementAndGet() == 0) {
+                try {
+                    if (onDone != null) onDone.run();
+                } catch (RuntimeException e) {
+                    log.error("Chunk completion callback failed", e);
+                }
+                lock.lock();
+                try {
+                    releaseLocked();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+    private void enqueue(Waiter w) {
+        ClassQueue cq = w.job.cq;
+        TenantQueue tq = w.job.tq;
+        if (cq.waiting == 0) {
+            cq.start = Math.max(classClock, cq.finish);
+        }
+        if (tq.waiters.isEmpty()) {
+            tq.start = Math.max(cq.clock, tq.finish);
+        }
+        tq.waiters.addLast(w);
+        cq.waiting++;
+    }
+
+    private void dequeue(Waiter w) {
+        if (w.job.tq.waiters.remove(w)) {
+            w.job.cq.waiting--;
+        }
+    }
+
+    private void releaseLocked() {
+        inflight--;
+        grantLocked();
+    }
+
+    private void grantLocked() {
+        boolean granted = false;
+        while (inflight < Math.max(1, props.getMaxInflightChunks())) {
+            ClassQueue cq = null;
+            for (ClassQueue c : classes.values()) {
+                if (c.waiting > 0 && (cq == null || c.start < cq.start)) cq = c;
+            }
+            if (cq == null) break;
+
+            TenantQueue tq = null;
+            for (TenantQueue t : cq.tenants.values()) {
+                if (!t.waiters.isEmpty() && (tq == null || t.start < tq.start)) tq = t;
+            }
+            Waiter w = tq.waiters.pollFirst();
+            cq.waiting--;
+
+            // 태그 갱신: 승인 시점에 가상 시간 전진, 계속 대기 중이면 다음 시작 태그 = 이번 종료 태그
+            classClock = cq.start;
+            cq.finish = cq.start + (double) w.cost / classWeight(cq.priority);
+            if (cq.waiting > 0) cq.start = cq.finish;
+
+            cq.clock = tq.start;
+            tq.finish = tq.start + (double) w.cost / tenantWeight(tq.key);
+            if (!tq.waiters.isEmpty()) tq.start = tq.finish;
+
+            w.granted = true;
+            inflight++;
+            granted = true;
+        }
+        if (granted) {
+            turn.signalAll();
+        }
+    }
+
+    private int classWeight(Priority priority) {
+        int weight = switch (priority) {
+            case TEST -> props.getTestWeight();
+            case TRANSACTIONAL -> props.getTransactionalWeight();
+            case BULK -> props.getBulkWeight();
+        };
+        return Math.max(1, weight);
+    }
+
+    private int tenantWeight(String tenant) {
+        return Math.max(1, props.getTenantWeights().getOrDefault(tenant, 1));
+    }
+
+    // 등급/테넌트별 진행 중 발송 수와 대기 청크 수
+    public Status status() {
+        lock.lock();
+        try {
+            List<QueueStatus> queues = new ArrayList<>();
+            for (ClassQueue cq : classes.values()) {
+                for (TenantQueue tq : cq.tenants.values()) {
+                    queues.add(new QueueStatus(cq.priority, tq.key, tq.jobs, tq.waiters.size()));
+                }
+            }
+            return new Status(inflight, Math.max(1, props.getMaxInflightChunks()), queues);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // 메트릭 게이지용 (스크레이프마다 잠깐 lock)
+    public int waitingChunks() {
+        lock.lock();
+        try {
+            int waiting = 0;
+            for (ClassQueue cq : classes.values()) waiting += cq.waiting;
+            return waiting;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int inflightChunks() {
+        lock.lock();
+        try {
+            return inflight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public record Status(int inflightChunks, int maxInflightChunks, List<QueueStatus> queues) {
+    }
+
+    public record QueueStatus(Priority priority, String tenant, int jobs, int waitingChunks) {
+    }
+
+    private static final class ClassQueue {
+        private final Priority priority;
+        private final Map<String, TenantQueue> tenants = new LinkedHashMap<>();
+        private double start;
+        private double finish;
+        private double clock; // 등급 내부(테넌트 단계) 가상 시간
+        private int waiting;
+
+        private ClassQueue(Priority priority) {
+            this.priority = priority;
+        }
+    }
+
+    private static final class TenantQueue {
+        private final String key;
+        private final Deque<Waiter> waiters = new ArrayDeque<>();
+        private double start;
+        private double finish;
+        private int jobs;
+
+        private TenantQueue(String key) {
+            this.key = key;
+        }
+    }
+
+    private static final class Waiter {
+        private final Job job;
+        private final int cost;
+        private boolean granted;
+
+        private Waiter(Job job, int cost) {
+            this.job = job;
+            this.cost = cost;
+        }
+    }
+}
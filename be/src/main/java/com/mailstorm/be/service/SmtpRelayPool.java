@@ -0,0 +1,434 @@
+package com.mailstorm.be.service;
+
+import com.mailstorm.be.global.SmtpRelayProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+/**
+ * SMTP 릴레이 풀
+ * - 가중치 기반 smooth weighted round-robin 으로 릴레이 선택
+ * - 릴레이별 최근 오류율/지연시간(EWMA)으로 유효 가중치를 낮추고, 오류율이 임계치를 넘으면 일정 시간 제외
+ * - 연결/인증/전송 오류는 다른 릴레이로 재시도 (수신자 거부는 메시지 문제이므로 재시도하지 않음)
+ *   일부 RCPT 가 이미 전달됐거나 전송 후 연결 종료에서만 실패한 경우도 중복 발송이 되므로 재시도하지 않는다
+ * - 릴레이별 동시 전송 한도는 AIMD 로 자동 조정: 빠른 성공이면 +1/limit, 지연 초과/4xx 유예/오류면 x backoff-ratio
+ *   (한도는 mailstorm.smtp.concurrency.limit 게이지로 노출)
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SmtpRelayPool implements MailDelivery {
+
+    // 4xx: 일시적 거부(유예) → 릴레이가 속도를 줄이라는 신호
+    private static final Pattern DEFERRAL = Pattern.compile("^\\s*4\\d\\d\\b");
+
+    private final SmtpRelayProperties props;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.smtp.host}")
+    private String smtpHost;
+
+    @Value("${app.smtp.port}")
+    private int smtpPort;
+
+    @Value("${app.smtp.username}")
+    private String smtpUsername;
+
+    @Value("${app.smtp.password}")
+    private String smtpPassword;
+
+    @Value("${app.smtp.concurrency.initial:4}")
+    private int initialLimit;
+
+    @Value("${app.smtp.concurrency.min:1}")
+    private int minLimit;
+
+    @Value("${app.smtp.concurrency.max:64}")
+    private int maxLimit;
+
+    @Value("${app.smtp.concurrency.backoff-ratio:0.9}")
+    private double backoffRatio;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition capacity = lock.newCondition();
+
+    private List<Relay> relays = List.of();
+
+    @PostConstruct
+    public void setupTransporters() {
+        List<SmtpRelayProperties.Relay> configured = props.getRelays();
+        if (configured == null || configured.isEmpty()) {
+            SmtpRelayProperties.Relay single = new SmtpRelayProperties.Relay();
+            single.setHost(smtpHost);
+            single.setPort(smtpPort);
+            single.setUsername(smtpUsername);
+            single.setPassword(smtpPassword);
+            configured = List.of(single);
+        }
+
+        List<Relay> list = new ArrayList<>(configured.size());
+        for (SmtpRelayProperties.Relay cfg : configured) {
+            String name = cfg.getName() != null ? cfg.getName() : cfg.getHost() + ":" + cfg.getPort();
+            Relay relay = new Relay(name, Math.max(1, cfg.getWeight()), createSender(cfg), Math.max(minLimit, initialLimit));
+            Gauge.builder("mailstorm.smtp.concurrency.limit", relay, r -> r.limit)
+                    .description("AIMD in-flight message limit per SMTP relay")
+                    .tag("relay", name)
+                    .register(meterRegistry);
+            Gauge.builder("mailstorm.smtp.inflight", relay, r -> r.inflight)
+                    .description("Messages currently in SMTP transaction per relay")
+                    .tag("relay", name)
+                    .register(meterRegistry);
+            list.add(relay);
+        }
+        relays = List.copyOf(list);
+        log.info("SMTP relay pool ready: {}", relays.stream().map(r -> r.name + "(w=" + r.weight + ")").toList());
+    }
+
+    // 테스트에서 전송 결과를 흉내 내는 sender 로 바꿔 끼울 수 있게 package-private
+    JavaMailSenderImpl createSender(SmtpRelayProperties.Relay cfg) {
+        JavaMailSenderImpl sender = new JavaMailSenderImpl();
+        sender.setHost(cfg.getHost());
+        sender.setPort(cfg.getPort());
+        sender.setDefaultEncoding(StandardCharsets.UTF_8.name());
+
+        boolean auth = cfg.getUsername() != null && !cfg.getUsername().isBlank();
+        if (auth) {
+            sender.setUsername(cfg.getUsername());
+            sender.setPassword(cfg.getPassword());
+        }
+
+        Properties javaMail = sender.getJavaMailProperties();
+
+        javaMail.put("mail.smtp.auth", auth ? "true" : "false");
+        javaMail.put("mail.smtp.starttls.enable", cfg.getPort() == 587 ? "true" : "false");
+        javaMail.put("mail.smtp.starttls.required", cfg.getPort() == 587 ? "true" : "false");
+
+        // nodemailer와 동일하게 인증서 무시
+        javaMail.put("mail.smtp.ssl.trust", "*");
+        javaMail.put("mail.smtp.ssl.checkserveridentity", "false");
+
+        // EHLO에 사용할 이름 지정 (nodemailer의 `name` 대응)
+        javaMail.put("mail.smtp.localhost", "mail.rsup.io");
+
+        javaMail.put("mail.smtp.connectiontimeout", "10000");
+        javaMail.put("mail.smtp.timeout", "10000");
+        javaMail.put("mail.smtp.writetimeout", "10000");
+
+        // 다중 RCPT 트랜잭션에서 일부 주소가 거부돼도 나머지는 전달
+        javaMail.put("mail.smtp.sendpartial", "true");
+        return sender;
+    }
+
+    // 메시지 생성용 세션 (미리 인코딩된 메시지는 세션 설정을 쓰지 않으므로 어느 릴레이 것이든 무방)
+    @Override
+    public Session session() {
+        return relays.get(0).sender.getSession();
+    }
+
+    /**
+     * 동시 전송 한도 안에서 릴레이 슬롯 1개를 예약한다. 모든 릴레이가 한도에 도달하면 대기.
+     * 발송 루프는 acquire 로 속도가 조절되고, 실제 전송은 Lease 를 받은 작업 스레드에서 수행한다.
+     */
+    public Lease acquire() throws InterruptedException {
+        return new Lease(reserve(Set.of()));
+    }
+
+    // 릴레이는 수신 도메인과 무관
+    @Override
+    public Lease acquire(String domain) throws InterruptedException {
+        return acquire();
+    }
+
+    @Override
+    public boolean perDomainQueues() {
+        return false;
+    }
+
+    // 동기 전송 (슬롯 예약 → 전송 → 반납)
+    public void send(MimeMessage message) throws MailException {
+        Lease lease;
+        try {
+            lease = acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MailSendException("Interrupted while waiting for SMTP relay capacity", e);
+        }
+        try (lease) {
+            lease.send(message);
+        }
+    }
+
+    private Relay reserve(Set<Relay> exclude) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (true) {
+                boolean anyCandidate = false;
+                for (Relay r : relays) {
+                    if (!exclude.contains(r)) {
+                        anyCandidate = true;
+                        break;
+                    }
+                }
+                if (!anyCandidate) return null;
+
+                Relay relay = select(exclude);
+                if (relay != null) {
+                    relay.inflight++;
+                    return relay;
+                }
+                capacity.await();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release(Relay relay, Outcome outcome, long elapsedNanos) {
+        lock.lock();
+        try {
+            relay.inflight--;
+            if (outcome != Outcome.CANCELLED) {
+                relay.record(outcome != Outcome.RELAY_FAULT, elapsedNanos, props);
+                adjustLimit(relay, outcome, elapsedNanos);
+            }
+            capacity.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // AIMD: 지연 목표 이내 성공이면 가산 증가, 유예/오류/지연 초과면 승산 감소
+    private void adjustLimit(Relay relay, Outcome outcome, long elapsedNanos) {
+        boolean slow = elapsedNanos / 1_000_000 > props.getSlowLatencyMs();
+        if (outcome == Outcome.OK && !slow) {
+            relay.limit = Math.min(maxLimit, relay.limit + 1.0 / relay.limit);
+        } else if (outcome != Outcome.REJECTED || slow) {
+            relay.limit = Math.max(minLimit, relay.limit * backoffRatio);
+        }
+    }
+
+    // smooth weighted round-robin (nginx 방식): 한도 여유가 있는 릴레이 중 유효 가중치만큼 current 를 올리고 최대값 선택
+    private Relay select(Set<Relay> exclude) {
+        long now = System.currentTimeMillis();
+        Relay best = null;
+        double total = 0;
+        boolean anyHealthy = false;
+
+        for (Relay r : relays) {
+            if (exclude.contains(r)) continue;
+            double w = r.effectiveWeight(now, props);
+            if (w <= 0) continue;
+            anyHealthy = true;
+            if (r.inflight >= (int) r.limit) continue;
+            r.current += w;
+            total += w;
+            if (best == null || r.current > best.current) best = r;
+        }
+
+        if (best == null) {
+            // 정상 릴레이가 한도에 찼을 뿐이면 null → reserve 가 반납을 기다린다 (부하 급증을 제외된 릴레이로 흘리지 않음)
+            if (anyHealthy) return null;
+            // 후보가 모두 제외 상태일 때만 가장 먼저 복귀 예정인 릴레이로 시도 (전체 중단보다 낫다)
+            for (Relay r : relays) {
+                if (exclude.contains(r) || r.inflight >= (int) r.limit) continue;
+                if (best == null || r.ejectedUntil < best.ejectedUntil) best = r;
+            }
+            return best;
+        }
+        best.current -= total;
+        return best;
+    }
+
+    private static boolean isRelayFault(MailException e) {
+        if (e instanceof MailAuthenticationException) return true;
+        if (e instanceof MailSendException mse && !mse.getFailedMessages().isEmpty()) {
+            for (Exception cause : mse.getFailedMessages().values()) {
+                if (cause instanceof SendFailedException sfe
+                        && sfe.getInvalidAddresses() != null && sfe.getInvalidAddresses().length > 0) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    // JavaMailSenderImpl 은 전송 후 연결 종료에서만 실패하면 failedMessages 없이 던진다 (연결/전송 실패는 메시지별로 담음)
+    private static boolean isClosedAfterSend(MailException e) {
+        return e instanceof MailSendException mse && mse.getFailedMessages().isEmpty();
+    }
+
+    // sendpartial: DATA 가 접수된 뒤 일부 RCPT 만 거부/유예된 경우 validSent 가 채워진다
+    private static boolean isPartiallySent(MailException e) {
+        if (e instanceof MailSendException mse) {
+            for (Exception cause : mse.getFailedMessages().values()) {
+                if (cause instanceof SendFailedException sfe
+                        && sfe.getValidSentAddresses() != null && sfe.getValidSentAddresses().length > 0) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean isDeferral(MailException e) {
+        if (e instanceof MailSendException mse) {
+            for (Exception cause : mse.getFailedMessages().values()) {
+                for (Throwable t = cause; t != null; t = t.getCause()) {
+                    if (t.getMessage() != null && DEFERRAL.matcher(t.getMessage()).find()) return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    public List<RelayHealth> health() {
+        long now = System.currentTimeMillis();
+        lock.lock();
+        try {
+            return relays.stream().map(r -> r.snapshot(now, props)).toList();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public record RelayHealth(String name, int weight, double errorRate, double latencyMs, double effectiveWeight,
+                              boolean ejected, double concurrencyLimit, int inflight) {}
+
+    private enum Outcome { OK, REJECTED, DEFERRED, RELAY_FAULT, CANCELLED }
+
+    /**
+     * 예약된 릴레이 슬롯. send 는 한 번만 호출하며, 보내지 않고 닫으면 슬롯만 반납한다.
+     */
+    public final class Lease implements MailDelivery.Slot {
+        private Relay relay;
+        private String route;
+
+        private Lease(Relay relay) {
+            this.relay = relay;
+            this.route = relay.name;
+        }
+
+        @Override
+        public void send(MimeMessage message) throws MailException {
+            Set<Relay> tried = new HashSet<>();
+            while (true) {
+                Relay current = relay;
+                relay = null;
+                route = current.name;
+                tried.add(current);
+
+                long start = System.nanoTime();
+                try {
+                    current.sender.send(message);
+                    release(current, Outcome.OK, System.nanoTime() - start);
+                    return;
+                } catch (MailException e) {
+                    long elapsed = System.nanoTime() - start;
+                    if (isClosedAfterSend(e)) {
+                        // 메시지는 이미 접수됨: 다시 보내면 중복 발송
+                        release(current, Outcome.OK, elapsed);
+                        log.warn("SMTP relay {} accepted the message but failed on close: {}", current.name, e.getMessage());
+                        return;
+                    }
+                    if (isPartiallySent(e)) {
+                        // 일부 RCPT 는 이미 전달됨 → 다른 릴레이로 넘기지 않고 부분 결과로 돌려준다 (실패 수는 호출자가 집계)
+                        release(current, isDeferral(e) ? Outcome.DEFERRED : Outcome.REJECTED, elapsed);
+                        throw e;
+                    }
+                    boolean relayFault = isRelayFault(e);
+                    release(current, relayFault ? (isDeferral(e) ? Outcome.DEFERRED : Outcome.RELAY_FAULT) : Outcome.REJECTED, elapsed);
+                    if (!relayFault) throw e;
+
+                    log.warn("SMTP relay {} failed, trying next relay: {}", current.name, e.getMessage());
+                    try {
+                        relay = reserve(tried);
+                    } catch (InterruptedException ie) {
+                        Thread.currentThread().interrupt();
+                        throw e;
+                    }
+                    if (relay == null) throw e;
+                }
+            }
+        }
+
+        @Override
+        public String route() {
+            return route;
+        }
+
+        @Override
+        public void close() {
+            if (relay != null) {
+                release(relay, Outcome.CANCELLED, 0);
+                relay = null;
+            }
+        }
+    }
+
+    // 상태 필드는 모두 풀 lock 안에서만 읽고 쓴다
+    private static final class Relay {
+        private final String name;
+        private final int weight;
+        private final JavaMailSenderImpl sender;
+
+        private double errorRate;
+        private double latencyMs;
+        private long ejectedUntil;
+        private double current;
+        private volatile double limit;
+        private volatile int inflight;
+
+        private Relay(String name, int weight, JavaMailSenderImpl sender, int initialLimit) {
+            this.name = name;
+            this.weight = weight;
+            this.sender = sender;
+            this.limit = initialLimit;
+        }
+
+        private void record(boolean ok, long elapsedNanos, SmtpRelayProperties props) {
+            double alpha = props.getHealthAlpha();
+            double ms = elapsedNanos / 1_000_000.0;
+            errorRate = alpha * (ok ? 0 : 1) + (1 - alpha) * errorRate;
+            latencyMs = latencyMs == 0 ? ms : alpha * ms + (1 - alpha) * latencyMs;
+
+            if (!ok && errorRate >= props.getEjectErrorRate() && ejectedUntil <= System.currentTimeMillis()) {
+                ejectedUntil = System.currentTimeMillis() + props.getEjectMs();
+                // 복귀 후 바로 재차단되지 않도록 절반에서 다시 시작 (half-open)
+                errorRate = props.getEjectErrorRate() / 2;
+                log.warn("SMTP relay {} ejected for {}ms (error rate over {})", name, props.getEjectMs(), props.getEjectErrorRate());
+            }
+        }
+
+        private double effectiveWeight(long now, SmtpRelayProperties props) {
+            if (ejectedUntil > now) return 0;
+            double latencyFactor = latencyMs <= props.getSlowLatencyMs() ? 1 : props.getSlowLatencyMs() / latencyMs;
+            return Math.max(0.01, weight * (1 - errorRate) * latencyFactor);
+        }
+
+        private RelayHealth snapshot(long now, SmtpRelayProperties props) {
+            return new RelayHealth(name, weight, errorRate, latencyMs, effectiveWeight(now, props),
+                    ejectedUntil > now, limit, inflight);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.mailstorm.be.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * SMTP 트랜잭션 1건 (duration = MAIL FROM ~ DATA 종료, 본문 스트리밍 포함)
+ */
+@Name("mailstorm.SmtpSend")
+@Label("SMTP Send")
+@Category({"MailStorm", "Send"})
+@Description("One SMTP transaction of a campaign message")
+final class SmtpSendEvent extends Event {
+
+    @Label("Campaign ID")
+    long campaignId;
+
+    @Label("Phase")
+    @Description("normal, a, b or winner")
+    String phase;
+
+    @Label("Route")
+    @Description("Relay name or direct-mx")
+    String route;
+
+    @Label("Recipients")
+    int recipients;
+
+    @Label("Message Size")
+    @DataAmount
+    long bytes;
+
+    @Label("Outcome")
+    String outcome;
+}
@@ -0,0 +1,25 @@
+package com.mailstorm.be.service;
+
+import com.mailstorm.be.global.DirectMxProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 고정 MX (로컬 SMTP 싱크/테스트용): app.smtp.mx.static-hosts[domain] → 없으면 app.smtp.mx.default-host
+ */
+@Component
+@ConditionalOnProperty(name = "app.smtp.mx.resolver", havingValue = "static")
+@RequiredArgsConstructor
+public class StaticMxResolver implements MxResolver {
+
+    private final DirectMxProperties props;
+
+    @Override
+    public List<String> resolve(String domain) {
+        String host = props.getStaticHosts().getOrDefault(domain.toLowerCase(), props.getDefaultHost());
+        return host == null || host.isBlank() ? List.of() : List.of(host);
+    }
+}
@@ -0,0 +1,72 @@
+package com.mailstorm.be.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+/**
+ * 트래커(/tracker/open|click|unsubscribe) 계측 (/actuator/prometheus)
+ * - mailstorm.tracker.requests: 요청 수 (type, result: ok/invalid_token/bad_url/error)
+ * - mailstorm.tracker.token.verify: 토큰 검증 시간 (result: ok/invalid)
+ * - mailstorm.tracker.db.write: logEvent 경로별 시간 (type, path: touch/insert/retry)
+ * - mailstorm.tracker.events: 기록된 이벤트 (type, duplicate: 이미 있던 행을 갱신했는지)
+ * - mailstorm.tracker.ingest.lag: 요청 수신 → 커밋 완료까지 (type)
+ * ingest.lag 는 높은데 db.write 가 평소와 같으면 트래커(요청 처리) 포화, db.write 가 같이 오르면 DB 포화.
+ */
+@Component
+public class TrackerMetrics {
+
+    public static final String PATH_TOUCH = "touch";
+    public static final String PATH_INSERT = "insert";
+    public static final String PATH_RETRY = "retry";
+
+    private final MeterRegistry meterRegistry;
+
+    public TrackerMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public Timer.Sample start() {
+        return Timer.start(meterRegistry);
+    }
+
+    public void verified(Timer.Sample sample, boolean ok) {
+        sample.stop(timer("mailstorm.tracker.token.verify", "result", ok ? "ok" : "invalid"));
+    }
+
+    // logEvent 한 건: 갱신만으로 끝났으면 touch(중복), 새 행이면 insert, insert 가 충돌로 건너뛰어져 재갱신이면 retry(중복)
+    public void written(Timer.Sample sample, String type, String path) {
+        sample.stop(Timer.builder("mailstorm.tracker.db.write")
+                .description("Tracker event write time by path")
+                .tags("type", type, "path", path)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+        Counter.builder("mailstorm.tracker.events")
+                .description("Tracker events recorded, duplicate=true when an existing row was touched")
+                .tags("type", type, "duplicate", String.valueOf(!PATH_INSERT.equals(path)))
+                .register(meterRegistry)
+                .increment();
+    }
+
+    // 정상 처리된 요청: 수신 시각부터 트랜잭션 커밋까지
+    public void ingested(Timer.Sample received, String type) {
+        received.stop(timer("mailstorm.tracker.ingest.lag", "type", type));
+        request(type, "ok");
+    }
+
+    public void request(String type, String result) {
+        Counter.builder("mailstorm.tracker.requests")
+                .description("Tracker requests by result")
+                .tags("type", type, "result", result)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private Timer timer(String name, String tagKey, String tagValue) {
+        return Timer.builder(name)
+                .tag(tagKey, tagValue)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,27 @@
+package com.mailstorm.be.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * 트래커 이벤트 DB 기록 1건 (logEvent, 커밋 제외)
+ */
+@Name("mailstorm.TrackerWrite")
+@Label("Tracker Write")
+@Category({"MailStorm", "Tracker"})
+@Description("One open/click/unsubscribe write to mail_tracker")
+final class TrackerWriteEvent extends Event {
+
+    @Label("Type")
+    String type;
+
+    @Label("Campaign ID")
+    long campaignId;
+
+    @Label("Path")
+    @Description("touch, insert or retry")
+    String path;
+}
@@ -0,0 +1,25 @@
+-- mail_tracker / mail_logs DEFAULT 파티션
+-- PartitionMaintenanceJob 의 미리 만들기(premake-months)가 계속 실패해 월 파티션이 없는 시각의 행이 들어와도
+-- insert 가 실패하지 않고 <table>_p_default 에 쌓인다. 이후 월 파티션을 만들 때 잡이 해당 구간 행을 옮기고 WARN 을 남긴다.
+-- DEFAULT 파티션에도 로컬 PK / 트래킹 중복 방지 키(touch_uq)를 둔다 (V4 참고).
+
+CREATE FUNCTION pg_temp.create_default_partition(tbl text) RETURNS void AS $$
+DECLARE
+    part text := tbl || '_p_default';
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = to_regclass(tbl))
+       OR to_regclass(part) IS NOT NULL THEN
+        RETURN;
+    END IF;
+
+    EXECUTE format('CREATE TABLE %I PARTITION OF %I DEFAULT', part, tbl);
+    EXECUTE format('ALTER TABLE %I ADD PRIMARY KEY (id)', part);
+    IF tbl = 'mail_tracker' THEN
+        EXECUTE format('CREATE UNIQUE INDEX %I ON %I (type, campaign_id, group_id, recipient_id, (COALESCE(url, %L)))',
+                       part || '_touch_uq', part, '');
+    END IF;
+END;
+$$ LANGUAGE plpgsql;
+
+SELECT pg_temp.create_default_partition('mail_tracker');
+SELECT pg_temp.create_default_partition('mail_logs');
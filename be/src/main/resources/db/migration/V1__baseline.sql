@@ -0,0 +1,134 @@
+-- 기존 엔티티 매핑 기준 스키마 (신규 환경 전용)
+-- 이미 테이블이 있는 운영 DB는 baseline-on-migrate 로 이 버전을 건너뛴다.
+
+CREATE TABLE IF NOT EXISTS users (
+    id            bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    email         varchar(255) NOT NULL UNIQUE,
+    name          varchar(255) NOT NULL,
+    img_path      varchar(255),
+    provider      varchar(255) NOT NULL,
+    role          varchar(255),
+    department_id bigint,
+    created_at    timestamp(6),
+    updated_at    timestamp(6)
+);
+
+CREATE TABLE IF NOT EXISTS departments (
+    id         bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name       varchar(255),
+    code       varchar(255),
+    parent_id  bigint,
+    created_at timestamp(6),
+    updated_at timestamp(6)
+);
+
+CREATE TABLE IF NOT EXISTS mail_groups (
+    id               bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id          bigint,
+    name             varchar(255) NOT NULL,
+    footer_company   varchar(255),
+    footer_from_mail varchar(255),
+    footer_address   varchar(255),
+    footer_tel       varchar(255),
+    created_at       timestamp(6),
+    updated_at       timestamp(6)
+);
+
+CREATE TABLE IF NOT EXISTS mail_recipients (
+    id         bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    group_id   bigint       NOT NULL,
+    email      varchar(255) NOT NULL,
+    name       varchar(255),
+    metadata   jsonb,
+    receive    boolean,
+    created_at timestamp(6) with time zone,
+    updated_at timestamp(6) with time zone
+);
+
+CREATE TABLE IF NOT EXISTS mail_campaigns (
+    id          bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name        text         NOT NULL,
+    group_id    bigint,
+    description text,
+    user_id     bigint,
+    created_at  timestamp(6) NOT NULL,
+    send_date   timestamp(6),
+    end_date    timestamp(6),
+    status      varchar(20)
+);
+
+CREATE TABLE IF NOT EXISTS mail_contents (
+    id          bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    campaign_id bigint NOT NULL,
+    design      jsonb,
+    designb     jsonb,
+    html        text   NOT NULL,
+    htmlb       text,
+    created_at  timestamp(6),
+    updated_at  timestamp(6)
+);
+
+CREATE TABLE IF NOT EXISTS mail_sendinfo (
+    id            bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    campaign_id   bigint NOT NULL,
+    ab_test       boolean,
+    ab_type       bigint,
+    daily_unit    varchar(255),
+    daily_unitb   varchar(255),
+    daily_value   bigint,
+    daily_valueb  bigint,
+    test_ratio    bigint,
+    subject       varchar(255),
+    subjectb      varchar(255),
+    sender_name   varchar(100),
+    sender_nameb  varchar(100),
+    sender_email  varchar(100),
+    preview_text  varchar(255),
+    created_at    timestamp(6),
+    updated_at    timestamp(6)
+);
+
+COMMENT ON COLUMN mail_sendinfo.ab_type IS '1:이메일제목, 2:발신자이름, 3:발송스케쥴, 4:콘텐츠';
+COMMENT ON COLUMN mail_sendinfo.daily_unit IS '시간/일';
+
+CREATE TABLE IF NOT EXISTS mail_ab_follow (
+    id          bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    campaign_id bigint,
+    status      varchar(20),
+    ab_type     bigint,
+    type        varchar(2),
+    execute_at  timestamp(6),
+    execute2_at timestamp(6),
+    created_at  timestamp(6),
+    updated_at  timestamp(6),
+    CONSTRAINT uq_mail_ab_follow_campaign UNIQUE (campaign_id)
+);
+
+CREATE TABLE IF NOT EXISTS mail_logs (
+    id            bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    campaign_id   bigint,
+    group_id      bigint,
+    recipient_id  bigint,
+    queue_id      varchar(255),
+    message_id    varchar(255),
+    status        varchar(255),
+    bounce_code   varchar(255),
+    bounce_reason text,
+    mail_from     varchar(255),
+    mail_to       varchar(255),
+    ab_variant    varchar(255),
+    attempt       integer NOT NULL DEFAULT 1,
+    created_at    timestamp(6),
+    updated_at    timestamp(6)
+);
+
+CREATE TABLE IF NOT EXISTS mail_tracker (
+    id           bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    type         varchar(255),
+    campaign_id  bigint,
+    group_id     bigint,
+    recipient_id bigint,
+    url          varchar(255),
+    created_at   timestamp(6),
+    updated_at   timestamp(6)
+);
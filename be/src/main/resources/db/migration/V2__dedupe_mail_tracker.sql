@@ -0,0 +1,18 @@
+-- logEvent 레이스로 생긴 중복 트래킹 행 정리 (V3 유니크 인덱스 선행 조건)
+-- 가장 먼저 생성된 행을 남기고 마지막 활동 시각은 그 행으로 모은다.
+
+UPDATE mail_tracker k
+   SET updated_at = g.last_at
+  FROM (SELECT MIN(id) AS keep_id, MAX(updated_at) AS last_at
+          FROM mail_tracker
+         GROUP BY type, campaign_id, group_id, recipient_id, COALESCE(url, '')
+        HAVING COUNT(*) > 1) g
+ WHERE k.id = g.keep_id;
+
+DELETE FROM mail_tracker
+ WHERE id IN (SELECT id
+                FROM (SELECT id,
+                             ROW_NUMBER() OVER (PARTITION BY type, campaign_id, group_id, recipient_id, COALESCE(url, '')
+                                                ORDER BY id) AS rn
+                        FROM mail_tracker) ranked
+               WHERE ranked.rn > 1);
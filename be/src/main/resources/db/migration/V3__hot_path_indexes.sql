@@ -0,0 +1,50 @@
+-- 발송/통계/트래킹 핫패스용 인덱스
+-- CONCURRENTLY 로 생성하므로 트랜잭션 밖에서 실행된다 (V3__hot_path_indexes.sql.conf)
+-- 이름은 SchemaIndexVerifier 의 점검 목록과 맞춰야 한다.
+
+-- 상태별 통계/상세 조회, 잔여 대상 추출 (campaign_id, status) → recipient_id index-only scan
+CREATE INDEX CONCURRENTLY IF NOT EXISTS mail_logs_campaign_status_idx
+    ON mail_logs (campaign_id, status) INCLUDE (recipient_id);
+
+-- A/B 변형별 발송 대상/승자 산정
+CREATE INDEX CONCURRENTLY IF NOT EXISTS mail_logs_campaign_variant_idx
+    ON mail_logs (campaign_id, ab_variant) INCLUDE (recipient_id)
+    WHERE ab_variant IS NOT NULL;
+
+-- logEvent 갱신 조회 + 중복 방지 키 (url NULL 은 '' 로 동일 취급)
+-- 유니크 인덱스 직전에 중복을 다시 정리한다: V2 이후에도 이전 버전 인스턴스가 레이스로 중복 행을 넣을 수 있고,
+-- 중복이 남아 있으면 CONCURRENTLY 생성이 실패해 INVALID 인덱스만 남는다.
+-- 앞선 실행이 실패해 남은 INVALID 인덱스는 IF NOT EXISTS 가 건너뛰므로 먼저 지운다.
+DROP INDEX CONCURRENTLY IF EXISTS mail_tracker_touch_uq;
+
+UPDATE mail_tracker k
+   SET updated_at = g.last_at
+  FROM (SELECT MIN(id) AS keep_id, MAX(updated_at) AS last_at
+          FROM mail_tracker
+         GROUP BY type, campaign_id, group_id, recipient_id, COALESCE(url, '')
+        HAVING COUNT(*) > 1) g
+ WHERE k.id = g.keep_id;
+
+DELETE FROM mail_tracker
+ WHERE id IN (SELECT id
+                FROM (SELECT id,
+                             ROW_NUMBER() OVER (PARTITION BY type, campaign_id, group_id, recipient_id, COALESCE(url, '')
+                                                ORDER BY id) AS rn
+                        FROM mail_tracker) ranked
+               WHERE ranked.rn > 1);
+
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS mail_tracker_touch_uq
+    ON mail_tracker (type, campaign_id, group_id, recipient_id, (COALESCE(url, '')));
+
+-- 캠페인 단위 오픈/클릭/수신거부 집계, 승자 산정 조인
+CREATE INDEX CONCURRENTLY IF NOT EXISTS mail_tracker_campaign_type_idx
+    ON mail_tracker (campaign_id, type) INCLUDE (recipient_id);
+
+-- 발송 대상 조회 (receive = true 만 부분 인덱스)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS mail_recipients_group_receive_idx
+    ON mail_recipients (group_id) INCLUDE (id, email)
+    WHERE receive = true;
+
+-- 주소록 목록 (findByGroupIdOrderByCreatedAtDesc)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS mail_recipients_group_created_idx
+    ON mail_recipients (group_id, created_at DESC);
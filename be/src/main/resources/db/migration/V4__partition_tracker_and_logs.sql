@@ -0,0 +1,134 @@
+-- mail_tracker / mail_logs 를 created_at 월 단위 RANGE 파티션 테이블로 전환
+-- 기존 테이블은 rename 후 (MINVALUE ~ 다다음달 1일) 구간의 legacy 파티션으로 그대로 attach 한다 (데이터 복사 없음).
+-- 이후 월 파티션 생성/보관기간 정리는 PartitionMaintenanceJob 이 담당.
+--
+-- 주의
+--  * 파티션 테이블의 유니크 인덱스는 파티션 키를 포함해야 하므로 트래킹 중복 방지 키(touch_uq)는
+--    파티션별 로컬 유니크 인덱스로 관리한다 (<partition>_touch_uq).
+--    서로 다른 파티션에 걸친 중복은 막지 못한다 (월 경계에서 같은 키의 첫 기록이 동시에 들어오는 경우).
+--  * PK 도 파티션별 (id) 로컬 PK. id 유일성은 공용 시퀀스가 보장한다.
+--  * executeInTransaction=false (V4__partition_tracker_and_logs.sql.conf): 아래 SELECT 마다 따로 커밋된다.
+--    SET NOT NULL / ATTACH 는 그냥 실행하면 ACCESS EXCLUSIVE 잠금을 쥔 채 테이블 전체를 훑는다.
+--    같은 구간의 CHECK 를 NOT VALID 로 먼저 걸고 VALIDATE(SHARE UPDATE EXCLUSIVE, 읽기/쓰기 허용) 해 두면 둘 다 검사를 건너뛴다.
+--    CHECK 상한은 다다음달 1일: 검증 중에 달이 바뀌어도 새 행이 CHECK 에 걸려 실패하지 않도록.
+--  * rename ~ attach 는 함수 한 번 호출(한 트랜잭션)이라 파티션 없는 부모가 보이는 순간은 없다.
+
+CREATE FUNCTION pg_temp.legacy_upper_bound() RETURNS timestamp AS $$
+    SELECT date_trunc('month', now()) + interval '2 months'
+$$ LANGUAGE sql;
+
+-- 원본 테이블에 legacy 구간 CHECK 를 NOT VALID 로 추가 (메타데이터만 변경)
+CREATE FUNCTION pg_temp.add_legacy_check(tbl text) RETURNS void AS $$
+BEGIN
+    IF to_regclass(tbl) IS NULL
+       OR EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = to_regclass(tbl))
+       OR EXISTS (SELECT 1 FROM pg_constraint WHERE conrelid = to_regclass(tbl) AND conname = tbl || '_legacy_bound') THEN
+        RETURN;
+    END IF;
+
+    -- 파티션 키는 NULL 불가
+    EXECUTE format('UPDATE %I SET created_at = LEAST(COALESCE(updated_at, now()), now()) WHERE created_at IS NULL', tbl);
+    EXECUTE format('ALTER TABLE %I ADD CONSTRAINT %I CHECK (created_at IS NOT NULL AND created_at < %L) NOT VALID',
+                   tbl, tbl || '_legacy_bound', pg_temp.legacy_upper_bound());
+END;
+$$ LANGUAGE plpgsql;
+
+-- 전체 검사는 여기서 (쓰기를 막지 않는 잠금)
+CREATE FUNCTION pg_temp.validate_legacy_check(tbl text) RETURNS void AS $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_constraint
+                WHERE conrelid = to_regclass(tbl) AND conname = tbl || '_legacy_bound' AND NOT convalidated) THEN
+        EXECUTE format('ALTER TABLE %I VALIDATE CONSTRAINT %I', tbl, tbl || '_legacy_bound');
+    END IF;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE FUNCTION pg_temp.detach_into_legacy(tbl text) RETURNS void AS $$
+DECLARE
+    legacy  text := tbl || '_p_legacy';
+    next_id bigint;
+    idx     record;
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = to_regclass(tbl)) THEN
+        RETURN;
+    END IF;
+
+    EXECUTE format('ALTER TABLE %I RENAME TO %I', tbl, legacy);
+
+    -- 부모 테이블에서 같은 인덱스명을 재사용하기 위해 기존 인덱스(tbl_*)를 legacy_* 로 이동
+    FOR idx IN
+        SELECT c.relname
+          FROM pg_index i
+          JOIN pg_class c ON c.oid = i.indexrelid
+         WHERE i.indrelid = to_regclass(legacy)
+           AND c.relname LIKE tbl || '\_%'
+    LOOP
+        EXECUTE format('ALTER INDEX %I RENAME TO %I', idx.relname, legacy || substr(idx.relname, length(tbl) + 1));
+    END LOOP;
+
+    -- 검증된 CHECK (created_at IS NOT NULL ...) 가 있어 전체 검사 없이 적용된다
+    EXECUTE format('ALTER TABLE %I ALTER COLUMN created_at SET NOT NULL', legacy);
+
+    -- identity/serial → 부모 소유의 공용 시퀀스
+    EXECUTE format('SELECT COALESCE(MAX(id), 0) + 1 FROM %I', legacy) INTO next_id;
+    EXECUTE format('ALTER TABLE %I ALTER COLUMN id DROP IDENTITY IF EXISTS', legacy);
+    EXECUTE format('ALTER TABLE %I ALTER COLUMN id DROP DEFAULT', legacy);
+    EXECUTE format('DROP SEQUENCE IF EXISTS %I', tbl || '_id_seq');
+    EXECUTE format('CREATE SEQUENCE %I START WITH %s', tbl || '_id_seq', next_id);
+
+    -- 컬럼 타입은 운영 DB 실제 정의를 그대로 따른다
+    EXECUTE format('CREATE TABLE %I (LIKE %I INCLUDING DEFAULTS) PARTITION BY RANGE (created_at)', tbl, legacy);
+    EXECUTE format('ALTER TABLE %I ALTER COLUMN id SET DEFAULT nextval(%L)', tbl, tbl || '_id_seq');
+    EXECUTE format('ALTER TABLE %I ALTER COLUMN created_at SET DEFAULT now()', tbl);
+    EXECUTE format('ALTER SEQUENCE %I OWNED BY %I.id', tbl || '_id_seq', tbl);
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE FUNCTION pg_temp.attach_legacy(tbl text) RETURNS void AS $$
+DECLARE
+    legacy      text      := tbl || '_p_legacy';
+    upper_bound timestamp := pg_temp.legacy_upper_bound();
+BEGIN
+    IF to_regclass(legacy) IS NULL
+       OR EXISTS (SELECT 1 FROM pg_inherits WHERE inhrelid = to_regclass(legacy)) THEN
+        RETURN;
+    END IF;
+
+    -- CHECK 가 파티션 구간을 함의하므로 검사 없이 attach (달이 바뀌어 상한이 커져도 함의는 유지)
+    EXECUTE format('ALTER TABLE %I ATTACH PARTITION %I FOR VALUES FROM (MINVALUE) TO (%L)', tbl, legacy, upper_bound);
+    EXECUTE format('ALTER TABLE %I DROP CONSTRAINT IF EXISTS %I', legacy, tbl || '_legacy_bound');
+END;
+$$ LANGUAGE plpgsql;
+
+-- 부모(파티션드) 인덱스: attach 시 legacy 의 동일 정의 인덱스를 재사용하므로 재빌드 없음
+CREATE FUNCTION pg_temp.create_parent_indexes(tbl text) RETURNS void AS $$
+BEGIN
+    IF tbl = 'mail_tracker' THEN
+        CREATE INDEX IF NOT EXISTS mail_tracker_campaign_type_idx
+            ON mail_tracker (campaign_id, type) INCLUDE (recipient_id);
+    ELSE
+        CREATE INDEX IF NOT EXISTS mail_logs_campaign_status_idx
+            ON mail_logs (campaign_id, status) INCLUDE (recipient_id);
+        CREATE INDEX IF NOT EXISTS mail_logs_campaign_variant_idx
+            ON mail_logs (campaign_id, ab_variant) INCLUDE (recipient_id)
+            WHERE ab_variant IS NOT NULL;
+    END IF;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE FUNCTION pg_temp.convert(tbl text) RETURNS void AS $$
+BEGIN
+    PERFORM pg_temp.detach_into_legacy(tbl);
+    PERFORM pg_temp.create_parent_indexes(tbl);
+    PERFORM pg_temp.attach_legacy(tbl);
+END;
+$$ LANGUAGE plpgsql;
+
+SELECT pg_temp.add_legacy_check('mail_tracker');
+SELECT pg_temp.add_legacy_check('mail_logs');
+
+SELECT pg_temp.validate_legacy_check('mail_tracker');
+SELECT pg_temp.validate_legacy_check('mail_logs');
+
+SELECT pg_temp.convert('mail_tracker');
+SELECT pg_temp.convert('mail_logs');
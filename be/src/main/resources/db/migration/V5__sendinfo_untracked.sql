@@ -0,0 +1,4 @@
+-- 트래킹 없는 대량 발송 모드 (운영 공지 등 오픈/클릭 추적이 필요 없는 캠페인)
+ALTER TABLE mail_sendinfo ADD COLUMN IF NOT EXISTS untracked boolean DEFAULT false;
+
+COMMENT ON COLUMN mail_sendinfo.untracked IS 'true: 트래킹 없는 대량 발송 (도메인별 다중 RCPT)';
@@ -0,0 +1,18 @@
+-- 캠페인 발송 작업(단계별) 상태와 체크포인트
+-- 수신자는 id 순으로 청크 단위 발송 → last_recipient_id 이하는 전송 완료, 재개 시 그 다음부터
+CREATE TABLE IF NOT EXISTS mail_send_jobs (
+    id                bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    campaign_id       bigint      NOT NULL,
+    phase             varchar(20) NOT NULL,
+    state             varchar(20) NOT NULL,
+    last_recipient_id bigint      NOT NULL DEFAULT 0,
+    sent              integer     NOT NULL DEFAULT 0,
+    failed            integer     NOT NULL DEFAULT 0,
+    created_at        timestamp(6) NOT NULL DEFAULT now(),
+    updated_at        timestamp(6) NOT NULL DEFAULT now(),
+    CONSTRAINT uq_mail_send_jobs_campaign_phase UNIQUE (campaign_id, phase)
+);
+
+COMMENT ON COLUMN mail_send_jobs.phase IS 'SEND: 일반/즉시 발송, AB_TEST: 예약 AB 테스트, AB_A/AB_B: 스케줄 AB, WINNER: 승자 본발송';
+COMMENT ON COLUMN mail_send_jobs.state IS 'RUNNING, PAUSED, CANCELLED, DONE';
+COMMENT ON COLUMN mail_send_jobs.last_recipient_id IS '여기까지(포함) 전송 완료된 수신자 id 체크포인트';
@@ -0,0 +1,4 @@
+-- 발송 분산: 지정한 시간(분)에 걸쳐 일정 속도로 발송해 트래커/릴레이 부하 피크를 낮춘다
+ALTER TABLE mail_sendinfo ADD COLUMN IF NOT EXISTS send_window_minutes integer;
+
+COMMENT ON COLUMN mail_sendinfo.send_window_minutes IS '발송 분산 시간(분). NULL/0 이면 최대 속도';
@@ -0,0 +1,22 @@
+-- 캠페인 발송 잠금 (레플리카 간 중복 발송 방지)
+-- owner 가 heartbeat_at 을 주기적으로 갱신, 임대 시간이 지나면 다른 인스턴스가 가져갈 수 있다
+CREATE TABLE IF NOT EXISTS mail_send_locks (
+    campaign_id  bigint PRIMARY KEY,
+    owner        varchar(200) NOT NULL,
+    phase        varchar(20)  NOT NULL,
+    acquired_at  timestamp(6) NOT NULL DEFAULT now(),
+    heartbeat_at timestamp(6) NOT NULL DEFAULT now()
+);
+
+-- 발송 요청 Idempotency-Key: 같은 키로 다시 들어오면 진행 중 작업에 연결하거나 저장된 결과를 돌려준다
+CREATE TABLE IF NOT EXISTS mail_send_requests (
+    idempotency_key varchar(100) PRIMARY KEY,
+    campaign_id     bigint       NOT NULL,
+    success         integer,
+    failed          integer,
+    message         varchar(255),
+    created_at      timestamp(6) NOT NULL DEFAULT now(),
+    completed_at    timestamp(6)
+);
+
+CREATE INDEX IF NOT EXISTS mail_send_requests_created_idx ON mail_send_requests (created_at);
@@ -0,0 +1,30 @@
+-- 캠페인 참여(open/click/unsubscribe) 시계열 카운터
+-- 트래커 요청은 인스턴스 메모리에서 모았다가 flush 주기마다 버킷에 더한다 (타임라인 조회 시 mail_tracker 원본을 훑지 않음)
+-- 발송 시작 후 72시간까지는 1시간(H) 버킷, 이후는 1일(D) 버킷. 보관 기간이 지난 H 버킷은 롤업 잡이 D 로 합친다
+CREATE TABLE IF NOT EXISTS mail_engagement_buckets (
+    campaign_id  bigint       NOT NULL,
+    granularity  char(1)      NOT NULL,
+    bucket_start timestamp(0) NOT NULL,
+    type         varchar(12)  NOT NULL,
+    variant      varchar(1)   NOT NULL DEFAULT '',
+    link_id      integer      NOT NULL DEFAULT 0,
+    events       integer      NOT NULL DEFAULT 0,
+    uniques      integer      NOT NULL DEFAULT 0,
+    CONSTRAINT pk_mail_engagement_buckets PRIMARY KEY (campaign_id, granularity, bucket_start, type, variant, link_id)
+);
+
+COMMENT ON COLUMN mail_engagement_buckets.granularity IS 'H: 1시간 버킷, D: 1일 버킷';
+COMMENT ON COLUMN mail_engagement_buckets.variant IS 'A/B 변형, 일반 발송은 빈 문자열';
+COMMENT ON COLUMN mail_engagement_buckets.link_id IS 'mail_engagement_links.id (클릭), 그 외는 0';
+COMMENT ON COLUMN mail_engagement_buckets.events IS '중복 포함 전체 요청 수';
+COMMENT ON COLUMN mail_engagement_buckets.uniques IS '수신자별 첫 기록 수 (mail_tracker 에 새 행이 생긴 요청)';
+
+-- 클릭 링크 사전: 버킷에는 URL 대신 작은 정수 id 만 둔다
+CREATE TABLE IF NOT EXISTS mail_engagement_links (
+    id          integer GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    campaign_id bigint NOT NULL,
+    url         text   NOT NULL
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS mail_engagement_links_campaign_url_idx
+    ON mail_engagement_links (campaign_id, md5(url));
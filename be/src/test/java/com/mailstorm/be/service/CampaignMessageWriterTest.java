@@ -0,0 +1,137 @@
+package com.mailstorm.be.service;
+
+import jakarta.mail.Session;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import jakarta.mail.internet.MimeMultipart;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CampaignMessageWriterTest {
+
+    private static final Session SESSION = Session.getInstance(new Properties());
+    private static final String UNSUBSCRIBE = "https://t.example.com/tracker/unsubscribe?token=";
+
+    // base64url + '.' 로 된 JWT 모양, QP 한 줄(76자)보다 길게
+    private static final String TOKEN = "eyJhbGciOiJIUzI1NiJ9." + "eyJjaWQiOjEsImdpZCI6Miwicmlk".repeat(6) + ".c2lnbmF0dXJlX3NpZ25hdHVyZQ";
+
+    private static final HtmlTrackingProcessor.CompiledHtml HTML = new HtmlTrackingProcessor.CompiledHtml(List.of(
+            "<html><body><p>안녕하세요 = 테스트 " + "긴 줄 ".repeat(40) + "</p><a href=\"https://t.example.com/tracker/click?token=",
+            "&url=https%3A%2F%2Fexample.com\">링크</a> \r\n<img src=\"https://t.example.com/tracker/open?token=",
+            "\" style=\"display:none\"></body></html>"));
+
+    private static CampaignMessageWriter writer(String variant, String phase) {
+        return CampaignMessageWriter.create("sender@example.com", "보내는 사람", "제목 테스트 " + "가".repeat(30),
+                "미리보기 텍스트 \t\r\n둘째 줄", HTML, 10L, 20L, variant, phase, UNSUBSCRIBE);
+    }
+
+    private static byte[] write(MimeMessage message) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        message.writeTo(out);
+        return out.toByteArray();
+    }
+
+    private static MimeMessage parse(byte[] raw) throws Exception {
+        return new MimeMessage(SESSION, new ByteArrayInputStream(raw));
+    }
+
+    @Test
+    void recipientMessageRoundTripsThroughMimeParsing() throws Exception {
+        byte[] raw = write(writer("B", null).message(SESSION, 30L, "kim@example.com", TOKEN));
+        MimeMessage parsed = parse(raw);
+
+        assertThat(parsed.getSubject()).isEqualTo("제목 테스트 " + "가".repeat(30));
+        assertThat(((InternetAddress) parsed.getFrom()[0]).getPersonal()).isEqualTo("보내는 사람");
+        assertThat(parsed.getHeader("To", null)).isEqualTo("kim@example.com");
+        assertThat(parsed.getHeader("X-Campaign-ID", null)).isEqualTo("10");
+        assertThat(parsed.getHeader("X-Group-ID", null)).isEqualTo("20");
+        assertThat(parsed.getHeader("X-AB-Variant", null)).isEqualTo("B");
+        assertThat(parsed.getHeader("X-AB-Phase")).isNull();
+        assertThat(parsed.getHeader("X-Recipient-ID", null)).isEqualTo("30");
+        assertThat(parsed.getMessageID()).endsWith(".10.30@mail.rsup.io>");
+
+        MimeMultipart multipart = (MimeMultipart) parsed.getContent();
+        assertThat(multipart.getCount()).isEqualTo(2);
+        assertThat(multipart.getBodyPart(0).getContent()).isEqualTo("미리보기 텍스트 \t\r\n둘째 줄");
+        // 토큰 위치마다 수신자 토큰이 끊김 없이 이어 붙는다
+        assertThat(multipart.getBodyPart(1).getContent()).isEqualTo(HTML.render(TOKEN));
+    }
+
+    @Test
+    void encodedLinesStayWithinQuotedPrintableLimit() throws Exception {
+        String raw = new String(write(writer(null, null).message(SESSION, 30L, "kim@example.com", TOKEN)), StandardCharsets.US_ASCII);
+        String body = raw.substring(raw.indexOf("\r\n\r\n"));
+
+        for (String line : body.split("\r\n")) {
+            assertThat(line.length()).as(line).isLessThanOrEqualTo(76);
+        }
+        assertThat(raw).doesNotContain("\n\n").doesNotContain("\r\r");
+    }
+
+    @Test
+    void writesOneClickUnsubscribeForRecipientMessages() throws Exception {
+        MimeMessage parsed = parse(write(writer(null, null).message(SESSION, 30L, "kim@example.com", TOKEN)));
+
+        assertThat(parsed.getHeader("List-Unsubscribe", null).replaceAll("\\s", ""))
+                .isEqualTo("<" + UNSUBSCRIBE + TOKEN + ">");
+        assertThat(parsed.getHeader("List-Unsubscribe-Post", null)).isEqualTo("List-Unsubscribe=One-Click");
+    }
+
+    @Test
+    void bulkMessageHidesRecipientsAndSkipsOneClick() throws Exception {
+        CampaignMessageWriter bulk = CampaignMessageWriter.create("sender@example.com", "보내는 사람", "제목", "미리보기",
+                new HtmlTrackingProcessor.CompiledHtml(List.of("<p>본문</p>")), 10L, 20L, null, null,
+                "https://t.example.com/tracker/unsubscribe/list?token=abc");
+        InternetAddress[] rcpts = {new InternetAddress("a@example.com"), new InternetAddress("b@example.com")};
+        MimeMessage message = bulk.bulkMessage(SESSION, rcpts);
+
+        assertThat(message.getAllRecipients()).containsExactly(rcpts);
+        MimeMessage parsed = parse(write(message));
+        assertThat(parsed.getHeader("To", null)).isEqualTo("undisclosed-recipients:;");
+        assertThat(parsed.getHeader("X-Recipient-ID")).isNull();
+        assertThat(parsed.getHeader("List-Unsubscribe", null)).isEqualTo("<https://t.example.com/tracker/unsubscribe/list?token=abc>");
+        assertThat(parsed.getHeader("List-Unsubscribe-Post")).isNull();
+        assertThat(((MimeMultipart) parsed.getContent()).getBodyPart(1).getContent()).isEqualTo("<p>본문</p>");
+    }
+
+    @Test
+    void bytesWrittenMatchesOutput() throws Exception {
+        MimeMessage message = writer("A", null).message(SESSION, 30L, "kim@example.com", TOKEN);
+        byte[] raw = write(message);
+
+        assertThat(CampaignMessageWriter.bytesWritten(message)).isEqualTo(raw.length);
+    }
+
+    @Test
+    void winnerPhaseUsesSeparateTrackingVariant() {
+        assertThat(writer("B", "WINNER").trackingVariant()).isEqualTo(CampaignMessageWriter.WINNER_TRACKING_VARIANT);
+        assertThat(writer("B", "WINNER").metricPhase()).isEqualTo("winner");
+        assertThat(writer("A", null).trackingVariant()).isEqualTo("A");
+        assertThat(writer(null, null).trackingVariant()).isNull();
+    }
+
+    @Test
+    void quotedPrintableEscapesAndSoftBreaks() {
+        assertThat(ascii(CampaignMessageWriter.quotedPrintable("a=b", false))).isEqualTo("a=3Db");
+        // 줄 끝 공백/탭은 인코딩, 줄 중간 공백은 그대로
+        assertThat(ascii(CampaignMessageWriter.quotedPrintable("a b \r\nc\t", false))).isEqualTo("a b=20\r\nc=09");
+        // 뒤에 토큰이 이어지는 세그먼트는 공백을 그대로 두고 soft break 로 끝낸다
+        assertThat(ascii(CampaignMessageWriter.quotedPrintable("a ", true))).isEqualTo("a =\r\n");
+        assertThat(ascii(CampaignMessageWriter.quotedPrintable("", true))).isEmpty();
+        assertThat(ascii(CampaignMessageWriter.quotedPrintable("x\ny", false))).isEqualTo("x\r\ny");
+        assertThat(ascii(CampaignMessageWriter.quotedPrintable("한", false))).isEqualTo("=ED=95=9C");
+        assertThat(ascii(CampaignMessageWriter.quotedPrintable("x".repeat(80), false)))
+                .isEqualTo("x".repeat(75) + "=\r\n" + "x".repeat(5));
+    }
+
+    private static String ascii(byte[] bytes) {
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+}
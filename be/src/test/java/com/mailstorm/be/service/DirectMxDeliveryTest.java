@@ -0,0 +1,76 @@
+package com.mailstorm.be.service;
+
+import com.mailstorm.be.global.DirectMxProperties;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DirectMxDeliveryTest {
+
+    private static final HtmlTrackingProcessor.CompiledHtml HTML =
+            new HtmlTrackingProcessor.CompiledHtml(List.of("<html><body>본문</body></html>"));
+
+    private final DirectMxProperties props = new DirectMxProperties();
+    private final MxResolver mxResolver = mock(MxResolver.class);
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final DirectMxDelivery delivery = new DirectMxDelivery(props, mxResolver, jdbcTemplate);
+
+    @BeforeEach
+    void setUp() {
+        // DNS 조회 실패 → 451 처럼 도메인 백오프 후 재시도 (네트워크 없이 유예 경로를 탄다)
+        when(mxResolver.resolve(anyString())).thenThrow(new MxResolver.LookupException("SERVFAIL", null));
+        props.setMaxAttempts(2);
+        delivery.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        delivery.shutdown();
+    }
+
+    private void send(String variant) throws Exception {
+        CampaignMessageWriter writer = CampaignMessageWriter.create("sender@example.com", "보내는 사람", "제목", "",
+                HTML, 10L, 20L, variant, null, null);
+        MimeMessage message = writer.message(delivery.session(), 30L, "kim@example.com", null);
+        // 유예는 접수로 보고 예외 없이 반환
+        delivery.acquire("example.com").send(message);
+    }
+
+    @Test
+    void deferredDeliveryThatGivesUpIsRecordedAsBounced() throws Exception {
+        props.setBackoffInitialMs(1);
+
+        send("B");
+
+        verify(jdbcTemplate, timeout(2000)).update(contains("INSERT INTO mail_logs"), eq(10L), eq("BOUNCED"), eq("451"),
+                anyString(), eq("B"), eq(2), eq(20L), eq(new String[]{"kim@example.com"}));
+    }
+
+    @Test
+    void shutdownRecordsDeliveriesStillDeferred() throws Exception {
+        props.setBackoffInitialMs(60_000);
+
+        send("A");
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+
+        delivery.shutdown();
+
+        verify(jdbcTemplate).update(contains("INSERT INTO mail_logs"), eq(10L), eq("BOUNCED"), isNull(),
+                contains("shutdown"), eq("A"), eq(1), eq(20L), eq(new String[]{"kim@example.com"}));
+    }
+}
@@ -0,0 +1,188 @@
+package com.mailstorm.be.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EngagementCountersTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final EngagementCounters counters = new EngagementCounters(jdbcTemplate);
+
+    // 캠페인 id → send_date
+    private final Map<Long, LocalDateTime> sendDates = new HashMap<>();
+    // upsert 된 행: campaign_id, granularity, bucket_start, type, variant, link_id, events, uniques
+    private final List<List<Object>> rows = new ArrayList<>();
+    private boolean failWrites;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(counters, "hourlyWindowHours", 72L);
+        ReflectionTestUtils.setField(counters, "flushBatchSize", 500);
+        ReflectionTestUtils.setField(counters, "linkCacheSize", 10_000);
+        ReflectionTestUtils.setField(counters, "retryMaxBuckets", 50_000);
+
+        doAnswer(inv -> {
+            RowCallbackHandler handler = inv.getArgument(1);
+            for (Map.Entry<Long, LocalDateTime> e : sendDates.entrySet()) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getLong("id")).thenReturn(e.getKey());
+                when(rs.getTimestamp("send_date")).thenReturn(Timestamp.valueOf(e.getValue()));
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(contains("send_date"), any(RowCallbackHandler.class), any(Object[].class));
+
+        when(jdbcTemplate.queryForObject(contains("mail_engagement_links"), eq(Integer.class), any(Object[].class)))
+                .thenAnswer(inv -> inv.<String>getArgument(3).endsWith("/a") ? 7 : 8);
+
+        when(jdbcTemplate.update(anyString(), any(PreparedStatementSetter.class))).thenAnswer(inv -> {
+            if (failWrites) throw new DataAccessResourceFailureException("db down");
+            PreparedStatement ps = mock(PreparedStatement.class);
+            inv.<PreparedStatementSetter>getArgument(1).setValues(ps);
+            List<Object> values = mockingDetails(ps).getInvocations().stream().map(i -> i.getArgument(1)).toList();
+            for (int i = 0; i < values.size(); i += 8) {
+                rows.add(values.subList(i, i + 8));
+            }
+            return values.size() / 8;
+        });
+    }
+
+    @Test
+    void sumsRequestsIntoOneHourlyBucket() {
+        sendDates.put(1L, LocalDateTime.now().minusHours(1));
+        counters.record(1L, "open", null, null, true);
+        counters.record(1L, "open", null, null, false);
+        counters.record(1L, "open", null, null, true);
+
+        counters.flush();
+
+        assertThat(rows).hasSize(1);
+        List<Object> row = rows.get(0);
+        assertThat(row.subList(0, 2)).containsExactly(1L, EngagementCounters.GRANULARITY_HOUR);
+        assertThat(row.subList(3, 8)).containsExactly("open", "", 0, 3L, 2L);
+    }
+
+    @Test
+    void usesDailyBucketsAfterHourlyWindow() {
+        sendDates.put(1L, LocalDateTime.now().minusHours(100));
+        counters.record(1L, "open", "A", null, true);
+
+        counters.flush();
+
+        List<Object> row = rows.get(0);
+        assertThat(row.get(1)).isEqualTo(EngagementCounters.GRANULARITY_DAY);
+        assertThat(((Timestamp) row.get(2)).toLocalDateTime().toLocalTime()).isEqualTo(LocalTime.MIDNIGHT);
+    }
+
+    @Test
+    void unsentCampaignStaysHourly() {
+        counters.record(2L, "open", null, null, true);
+
+        counters.flush();
+
+        assertThat(rows.get(0).get(1)).isEqualTo(EngagementCounters.GRANULARITY_HOUR);
+    }
+
+    @Test
+    void keysByVariantAndClickedLink() {
+        counters.record(1L, "click", "A", "https://example.com/a", true);
+        counters.record(1L, "click", "A", "https://example.com/b", true);
+        counters.record(1L, "click", "B", "https://example.com/a", true);
+        // 오픈은 URL 이 와도 링크별로 나누지 않는다
+        counters.record(1L, "open", "A", "https://example.com/a", true);
+
+        counters.flush();
+
+        assertThat(rows.stream().map(r -> r.get(3) + "/" + r.get(4) + "/" + r.get(5)).toList())
+                .containsExactlyInAnyOrder("click/A/7", "click/A/8", "click/B/7", "open/A/0");
+        // PK 순서로 정렬해서 쓴다
+        assertThat(rows.stream().map(r -> (String) r.get(3)).toList()).isSorted();
+    }
+
+    @Test
+    void failedWriteIsMergedIntoNextFlush() {
+        counters.record(1L, "open", null, null, true);
+        failWrites = true;
+        counters.flush();
+        assertThat(rows).isEmpty();
+
+        failWrites = false;
+        counters.record(1L, "open", null, null, false);
+        counters.flush();
+
+        // 재시도분과 새 증분이 같은 버킷 한 행으로 합쳐진다
+        assertThat(rows).hasSize(1);
+        assertThat(rows.get(0).subList(6, 8)).containsExactly(2L, 1L);
+
+        rows.clear();
+        counters.flush();
+        assertThat(rows).isEmpty();
+    }
+
+    @Test
+    void retryBacklogIsBounded() {
+        ReflectionTestUtils.setField(counters, "retryMaxBuckets", 1);
+        counters.record(1L, "open", null, null, true);
+        counters.record(1L, "click", null, "https://example.com/a", true);
+        failWrites = true;
+        counters.flush();
+
+        failWrites = false;
+        counters.flush();
+
+        assertThat(rows).hasSize(1);
+    }
+
+    @Test
+    void shutdownFlushesPendingCounts() {
+        counters.record(1L, "unsubscribe", null, null, true);
+
+        counters.shutdown();
+
+        assertThat(rows).hasSize(1);
+    }
+
+    @Test
+    void failedSendDateLookupKeepsCountsPending() {
+        doAnswer(inv -> {
+            throw new DataAccessResourceFailureException("db down");
+        }).when(jdbcTemplate).query(contains("send_date"), any(RowCallbackHandler.class), any(Object[].class));
+        counters.record(1L, "open", null, null, true);
+
+        counters.flush();
+        verify(jdbcTemplate, never()).update(anyString(), any(PreparedStatementSetter.class));
+
+        sendDates.clear();
+        doAnswer(inv -> null).when(jdbcTemplate).query(contains("send_date"), any(RowCallbackHandler.class), any(Object[].class));
+        counters.flush();
+        assertThat(rows).hasSize(1);
+        assertThat(rows.get(0).subList(6, 8)).containsExactly(1L, 1L);
+    }
+}
@@ -0,0 +1,71 @@
+package com.mailstorm.be.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MailTrackerServiceTest {
+
+    private final JdbcTemplate jdbc = mock(JdbcTemplate.class);
+    private final TrackerMetrics trackerMetrics = mock(TrackerMetrics.class);
+    private final CampaignProgressHub campaignProgress = mock(CampaignProgressHub.class);
+    private final EngagementCounters engagementCounters = mock(EngagementCounters.class);
+    private final MailTrackerService service = new MailTrackerService(jdbc, trackerMetrics, campaignProgress, engagementCounters);
+
+    private void touchReturns(Integer first, Integer... next) {
+        when(jdbc.update(contains("UPDATE mail_tracker"), any(Object[].class))).thenReturn(first, next);
+    }
+
+    private void insertReturns(List<Long> ids) {
+        when(jdbc.queryForList(contains("INSERT INTO mail_tracker"), eq(Long.class), any(Object[].class))).thenReturn(ids);
+    }
+
+    @Test
+    void repeatedHitOnlyTouchesExistingRow() {
+        touchReturns(1);
+
+        service.logEvent("open", 1L, 2L, 3L, "A", null);
+
+        verify(jdbc, never()).queryForList(anyString(), eq(Long.class), any(Object[].class));
+        verify(trackerMetrics).written(any(), eq("open"), eq(TrackerMetrics.PATH_TOUCH));
+        verify(engagementCounters).record(1L, "open", "A", null, false);
+        verify(campaignProgress, never()).tracked(any(), anyString());
+    }
+
+    @Test
+    void firstHitInsertsNewRow() {
+        touchReturns(0);
+        insertReturns(List.of(10L));
+
+        service.logEvent("click", 1L, 2L, 3L, null, "https://example.com");
+
+        verify(trackerMetrics).written(any(), eq("click"), eq(TrackerMetrics.PATH_INSERT));
+        verify(campaignProgress).tracked(1L, "click");
+        verify(engagementCounters).record(1L, "click", null, "https://example.com", true);
+    }
+
+    @Test
+    void concurrentFirstHitFallsBackToTouchWithoutException() {
+        // 갱신할 행이 없었는데 insert 는 다른 요청에 밀림 (ON CONFLICT DO NOTHING → 0행) → 그 행을 갱신
+        touchReturns(0, 1);
+        insertReturns(List.of());
+
+        service.logEvent("open", 1L, 2L, 3L, null, null);
+
+        verify(jdbc, times(2)).update(contains("UPDATE mail_tracker"), any(Object[].class));
+        verify(trackerMetrics).written(any(), eq("open"), eq(TrackerMetrics.PATH_RETRY));
+        verify(engagementCounters).record(1L, "open", null, null, false);
+        verify(campaignProgress, never()).tracked(any(), anyString());
+    }
+}
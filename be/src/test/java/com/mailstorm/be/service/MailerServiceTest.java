@@ -0,0 +1,112 @@
+package com.mailstorm.be.service;
+
+import com.mailstorm.be.repository.MailAbFollowUpRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MailerServiceTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final CampaignSnapshotCache campaignSnapshotCache = mock(CampaignSnapshotCache.class);
+    private final SendJobService sendJobService = mock(SendJobService.class);
+    private final MailerService service = new MailerService(jdbcTemplate, mock(HtmlTrackingProcessor.class),
+            campaignSnapshotCache, mock(SmtpRelayPool.class), mock(DirectMxDelivery.class), mock(SendScheduler.class),
+            sendJobService, mock(SendPacer.class), mock(SendMetrics.class), mock(CampaignProgressHub.class),
+            mock(MailAbFollowUpRepository.class));
+
+    @BeforeEach
+    void setUp() {
+        // 일시정지된 일반 발송(SEND 단계) 작업. 캠페인 스냅샷은 비어 있어 재개하면 보낼 것 없이 바로 끝난다
+        when(sendJobService.resumable(1L)).thenReturn(
+                new SendJobService.SendJob(1L, SendJobService.PHASE_SEND, SendJobService.State.PAUSED, 300L, 300, 0, null));
+    }
+
+    private void campaign(Long campaignId, Long groupId) {
+        MailerService.CampaignData data = new MailerService.CampaignData(campaignId, groupId, false, 0L, null,
+                null, null, null, null, "제목", null, "보내는 사람", null, "", "sender@example.com", false, null, "<html></html>", null);
+        when(campaignSnapshotCache.get(campaignId)).thenReturn(
+                Optional.of(new CampaignSnapshotCache.CampaignSnapshot(null, data, null)));
+    }
+
+    private void unfinishedFollowRows(int count) {
+        when(jdbcTemplate.queryForObject(contains("NOT IN ('DONE', 'CANCELLED', 'FAILED')"), eq(Integer.class), any(Object[].class)))
+                .thenReturn(count);
+    }
+
+    private void pausedFollowRows(int count) {
+        when(jdbcTemplate.queryForObject(contains("status = 'PAUSED'"), eq(Integer.class), any(Object[].class))).thenReturn(count);
+    }
+
+    @Test
+    void resumedScheduledSendCompletesPausedFollowRow() {
+        // 예약발송(ab_type=0) 도중 일시정지 → AbFollowupScheduler 가 mail_ab_follow 를 PAUSED 로 남김
+        pausedFollowRows(1);
+
+        service.resumeSend(1L);
+
+        // 재개가 끝나면 PAUSED 행을 DONE 으로 (남아 있으면 재발송이 계속 409)
+        verify(jdbcTemplate, timeout(1000)).update(contains("UPDATE mail_ab_follow"), eq(MailerService.AB_FOLLOW_DONE), eq(1L));
+    }
+
+    @Test
+    void resumedManualSendLeavesFollowRowsAlone() {
+        pausedFollowRows(0);
+
+        service.resumeSend(1L);
+
+        verify(sendJobService, timeout(1000)).isSending(1L);
+        verify(jdbcTemplate, after(200).never()).update(contains("UPDATE mail_ab_follow"), anyString(), any());
+    }
+
+    @Test
+    void resendTargetsOnlyRecipientsWithFailedLogsOnly() {
+        ReflectionTestUtils.setField(service, "resendStatuses", new String[]{"BOUNCED"});
+        campaign(1L, 2L);
+        unfinishedFollowRows(0);
+
+        Map<String, Object> result = service.resendFailed(1L);
+
+        assertThat(result).containsEntry("targets", 0);
+        String[] statuses = {"BOUNCED"};
+        // 실패 상태 로그가 있고(ANY) 그 밖의 상태 로그는 없는(ALL) 수신자만. 로그가 없는 수신자는 EXISTS 에서 빠진다
+        verify(jdbcTemplate).query(argThat((String sql) -> sql.contains("AND EXISTS")
+                        && sql.contains("l.status = ANY (?)")
+                        && sql.contains("AND NOT EXISTS")
+                        && sql.contains("COALESCE(l.status, '') <> ALL (?)")),
+                any(RowCallbackHandler.class),
+                eq(1L), eq(2L), eq(1L), eq(statuses), eq(1L), eq(statuses));
+    }
+
+    @Test
+    void resendIsRejectedWhileAnyFollowupStepIsUnfinished() {
+        // RUNNING_B / RUNNING_TEST 처럼 배치가 돌리는 중인 단계도 포함 (끝난 상태만 제외)
+        campaign(1L, 2L);
+        unfinishedFollowRows(1);
+
+        assertThatThrownBy(() -> service.resendFailed(1L))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("pending A/B follow-up");
+        verify(jdbcTemplate, never()).query(contains("mail_recipients"), any(RowCallbackHandler.class), any(Object[].class));
+    }
+}
@@ -0,0 +1,98 @@
+package com.mailstorm.be.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RecipientSnapshotTest {
+
+    private static RecipientSnapshot snapshot(String... emails) {
+        RecipientSnapshot.Builder builder = RecipientSnapshot.builder();
+        for (int i = 0; i < emails.length; i++) {
+            builder.add(i + 1, emails[i]);
+        }
+        return builder.build();
+    }
+
+    @Test
+    void roundTripsIdsAndEmails() {
+        RecipientSnapshot s = snapshot("kim@a.com", " lee@B.com ", "홍길동@a.com", "no-at-sign", null);
+
+        assertThat(s.size()).isEqualTo(5);
+        assertThat(s.id(0)).isEqualTo(1);
+        assertThat(s.email(0)).isEqualTo("kim@a.com");
+        // 앞뒤 공백 제거, 도메인만 소문자로 정규화 (로컬파트는 그대로)
+        assertThat(s.email(1)).isEqualTo("lee@b.com");
+        assertThat(s.email(2)).isEqualTo("홍길동@a.com");
+        assertThat(s.email(3)).isEqualTo("no-at-sign");
+        assertThat(s.domain(3)).isEmpty();
+        assertThat(s.email(4)).isEmpty();
+        assertThat(s.id(4)).isEqualTo(5);
+    }
+
+    @Test
+    void sharesDomainCodes() {
+        RecipientSnapshot s = snapshot("a@x.com", "b@X.COM", "c@y.com");
+
+        assertThat(s.domainCode(0)).isEqualTo(s.domainCode(1));
+        assertThat(s.domainCode(2)).isNotEqualTo(s.domainCode(0));
+        assertThat(s.domain(1)).isEqualTo("x.com");
+    }
+
+    @Test
+    void growsPastInitialCapacity() {
+        RecipientSnapshot.Builder builder = RecipientSnapshot.builder();
+        String longLocal = "x".repeat(100);
+        for (int i = 0; i < 5000; i++) {
+            builder.add(i, longLocal + i + "@d" + (i % 7) + ".com");
+        }
+        RecipientSnapshot s = builder.build();
+
+        assertThat(s.size()).isEqualTo(5000);
+        assertThat(s.email(4999)).isEqualTo(longLocal + "4999@d1.com");
+        assertThat(s.id(4999)).isEqualTo(4999);
+    }
+
+    @Test
+    void sliceIsAViewWithLocalIndexes() {
+        RecipientSnapshot s = snapshot("a@x.com", "b@x.com", "c@y.com", "d@y.com");
+        RecipientSnapshot slice = s.slice(1, 3);
+
+        assertThat(slice.size()).isEqualTo(2);
+        assertThat(slice.id(0)).isEqualTo(2);
+        assertThat(slice.email(1)).isEqualTo("c@y.com");
+        assertThatThrownBy(() -> slice.id(2)).isInstanceOf(IndexOutOfBoundsException.class);
+        assertThatThrownBy(() -> s.slice(3, 5)).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @Test
+    void domainBatchesGroupByDomainAndRespectMax() {
+        RecipientSnapshot s = snapshot("a@x.com", "b@y.com", "c@x.com", "bad", "d@x.com", "e@y.com");
+        List<int[]> batches = s.domainBatches(2);
+
+        List<Integer> seen = new ArrayList<>();
+        for (int[] batch : batches) {
+            assertThat(batch.length).isBetween(1, 2);
+            for (int i : batch) {
+                assertThat(s.domainCode(i)).isEqualTo(s.domainCode(batch[0]));
+                seen.add(i);
+            }
+        }
+        assertThat(seen).containsExactlyInAnyOrder(0, 1, 2, 3, 4, 5);
+        // x.com 3명 → 2 + 1, y.com 2명 → 2, '@' 없는 주소 1명 → 1
+        assertThat(batches).hasSize(4);
+    }
+
+    @Test
+    void domainBatchesUseSliceIndexes() {
+        RecipientSnapshot s = snapshot("a@x.com", "b@y.com", "c@x.com", "d@y.com").slice(2, 4);
+        List<int[]> batches = s.domainBatches(10);
+
+        assertThat(batches).hasSize(2);
+        assertThat(batches.stream().map(batch -> batch[0]).toList()).containsExactlyInAnyOrder(0, 1);
+    }
+}
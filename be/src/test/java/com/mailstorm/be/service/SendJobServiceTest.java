@@ -0,0 +1,129 @@
+package com.mailstorm.be.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SendJobServiceTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final SendJobService service = new SendJobService(jdbcTemplate);
+
+    // chunkDone 이 저장한 체크포인트 (null 이면 기존 값 유지)
+    private final List<Object> checkpoints = new ArrayList<>();
+    private final List<String> states = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenReturn(1);
+        when(jdbcTemplate.update(contains("COALESCE(?, last_recipient_id)"), any(Object[].class))).thenAnswer(inv -> {
+            checkpoints.add(inv.getArgument(1));
+            return 1;
+        });
+        when(jdbcTemplate.update(contains("SET state = ?, updated_at"), any(Object[].class))).thenAnswer(inv -> {
+            states.add(inv.getArgument(1));
+            return 1;
+        });
+        previousJob(null);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    private void previousJob(SendJobService.SendJob job) {
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Object[].class)))
+                .thenReturn(job == null ? List.of() : List.of(job));
+    }
+
+    private static SendJobService.SendJob job(SendJobService.State state, long lastRecipientId) {
+        return new SendJobService.SendJob(1L, SendJobService.PHASE_SEND, state, lastRecipientId, 10, 0, null);
+    }
+
+    @Test
+    void checkpointAdvancesOnlyOverContiguousChunks() {
+        SendJobService.Run run = service.start(1L, SendJobService.PHASE_SEND);
+        int[] seq = new int[5];
+        Arrays.setAll(seq, i -> run.nextChunk());
+        assertThat(seq).containsExactly(0, 1, 2, 3, 4);
+
+        // 1, 2 가 먼저 끝나도 0 이 끝나기 전에는 체크포인트를 올리지 않는다
+        run.chunkDone(1, 200, 100, 0);
+        run.chunkDone(2, 300, 100, 0);
+        run.chunkDone(0, 100, 100, 0);
+        run.chunkDone(4, 500, 100, 0);
+        run.chunkDone(3, 400, 98, 2);
+
+        assertThat(checkpoints).containsExactly(null, null, 300L, null, 500L);
+    }
+
+    @Test
+    void pausedJobResumesAfterCheckpoint() {
+        previousJob(job(SendJobService.State.PAUSED, 300));
+
+        SendJobService.Run run = service.start(1L, SendJobService.PHASE_SEND);
+
+        assertThat(run.resumeAfterId()).isEqualTo(300);
+    }
+
+    @Test
+    void finishedJobRestartsFromTheBeginning() {
+        previousJob(job(SendJobService.State.DONE, 300));
+
+        SendJobService.Run run = service.start(1L, SendJobService.PHASE_SEND);
+
+        assertThat(run.resumeAfterId()).isZero();
+    }
+
+    @Test
+    void secondStartOfSameCampaignIsRejected() {
+        SendJobService.Run run = service.start(1L, SendJobService.PHASE_SEND);
+
+        assertThatThrownBy(() -> service.start(1L, SendJobService.PHASE_WINNER))
+                .isInstanceOf(SendJobService.SendInProgressException.class);
+
+        run.finish(true);
+        service.start(1L, SendJobService.PHASE_WINNER).finish(true);
+    }
+
+    @Test
+    void lockHeldByAnotherReplicaIsRejected() {
+        when(jdbcTemplate.update(contains("INSERT INTO mail_send_locks"), any(Object[].class))).thenReturn(0);
+
+        assertThatThrownBy(() -> service.start(1L, SendJobService.PHASE_SEND))
+                .isInstanceOf(SendJobService.SendInProgressException.class);
+    }
+
+    @Test
+    void finishRecordsStopRequestOrCompletion() {
+        SendJobService.Run done = service.start(1L, SendJobService.PHASE_SEND);
+        assertThat(done.finish(true)).isEqualTo(SendJobService.State.DONE);
+
+        // 끝까지 못 갔으면 재개할 수 있게 PAUSED
+        SendJobService.Run failed = service.start(1L, SendJobService.PHASE_SEND);
+        assertThat(failed.finish(false)).isEqualTo(SendJobService.State.PAUSED);
+
+        previousJob(job(SendJobService.State.RUNNING, 0));
+        SendJobService.Run cancelled = service.start(1L, SendJobService.PHASE_SEND);
+        service.cancel(1L);
+        assertThat(cancelled.stopRequested()).isTrue();
+        assertThat(cancelled.finish(true)).isEqualTo(SendJobService.State.CANCELLED);
+
+        assertThat(states).containsExactly("DONE", "PAUSED", "CANCELLED");
+    }
+}
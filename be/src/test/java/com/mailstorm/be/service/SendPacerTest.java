@@ -0,0 +1,123 @@
+package com.mailstorm.be.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SendPacerTest {
+
+    private final SendPacer pacer = new SendPacer();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(pacer, "maxChunkSeconds", 5);
+        ReflectionTestUtils.setField(pacer, "minRatePerMinute", 1.0);
+    }
+
+    @Test
+    void noWindowMeansNoPacing() {
+        assertThat(pacer.start(1L, 100, null)).isNull();
+        assertThat(pacer.start(1L, 100, 0)).isNull();
+        assertThat(pacer.start(1L, 0, 30)).isNull();
+        assertThat(pacer.status(1L)).isEmpty();
+    }
+
+    @Test
+    void rateSpreadsRecipientsOverWindow() {
+        SendPacer.Pace pace = pacer.start(1L, 600, 60);
+
+        SendPacer.RateStatus status = pacer.status(1L).orElseThrow();
+        assertThat(status.ratePerMinute()).isEqualTo(10.0);
+        assertThat(status.total()).isEqualTo(600);
+        assertThat(status.etaSeconds()).isEqualTo(3600);
+
+        pace.close();
+        assertThat(pacer.status(1L)).isEmpty();
+    }
+
+    @Test
+    void rateNeverDropsBelowMinimum() {
+        pacer.start(1L, 10, 600);
+        assertThat(pacer.status(1L).orElseThrow().ratePerMinute()).isEqualTo(1.0);
+
+        assertThat(pacer.adjust(1L, 0.1).ratePerMinute()).isEqualTo(1.0);
+    }
+
+    @Test
+    void chunkSizeFollowsRate() {
+        // 분당 120 → 초당 2 → 5초면 10건
+        SendPacer.Pace pace = pacer.start(1L, 1200, 10);
+        assertThat(pace.chunkSize(500)).isEqualTo(10);
+
+        // 아주 느리면 최소 1건
+        pacer.adjust(1L, 6);
+        assertThat(pace.chunkSize(500)).isEqualTo(1);
+
+        // 빠르면 기본 크기가 상한
+        pacer.adjust(1L, 600_000);
+        assertThat(pace.chunkSize(500)).isEqualTo(500);
+    }
+
+    @Test
+    void permitsAreSpacedAcrossFeeders() throws Exception {
+        // 분당 3000 → 20ms 간격, 피더 2개가 5건씩 = 10건 → 첫 건 즉시, 이후 9 간격
+        SendPacer.Pace pace = pacer.start(1L, 3000, 1);
+        long start = System.nanoTime();
+        List<Thread> feeders = new ArrayList<>();
+        for (int f = 0; f < 2; f++) {
+            feeders.add(Thread.ofPlatform().start(() -> {
+                try {
+                    for (int i = 0; i < 5; i++) pace.acquire(1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+        }
+        for (Thread t : feeders) t.join(5_000);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertThat(elapsedMs).isGreaterThanOrEqualTo(9 * 20 - 5);
+        assertThat(pacer.status(1L).orElseThrow().sent()).isEqualTo(10);
+    }
+
+    @Test
+    void speedingUpPullsInReservedSlot() throws Exception {
+        // 분당 1건으로 1건 예약 → 다음 허용 시각이 1분 뒤
+        SendPacer.Pace pace = pacer.start(1L, 10, 10);
+        pace.acquire(1);
+
+        pacer.adjust(1L, 60_000);
+        long start = System.nanoTime();
+        pace.acquire(1);
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(1_000);
+    }
+
+    @Test
+    void adjustUnknownCampaignIsNotFound() {
+        assertThatThrownBy(() -> pacer.adjust(9L, 100))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND));
+    }
+
+    @Test
+    void closingAStalePaceKeepsTheNewerOne() {
+        SendPacer.Pace first = pacer.start(1L, 100, 10);
+        SendPacer.Pace second = pacer.start(1L, 200, 10);
+
+        first.close();
+
+        assertThat(pacer.status(1L).orElseThrow().total()).isEqualTo(200);
+        second.close();
+        assertThat(pacer.statusAll()).isEmpty();
+    }
+}
@@ -0,0 +1,192 @@
+package com.mailstorm.be.service;
+
+import com.mailstorm.be.global.SendSchedulerProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SendSchedulerTest {
+
+    private final SendSchedulerProperties props = new SendSchedulerProperties();
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private SendScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        props.setMaxInflightChunks(1);
+        props.setTestWeight(3);
+        props.setTransactionalWeight(1);
+        props.setBulkWeight(1);
+        scheduler = new SendScheduler(props, jdbcTemplate);
+    }
+
+    private void tenant(long campaignId, String tenant) {
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(campaignId))).thenReturn(List.of(tenant));
+    }
+
+    @Test
+    void classWeightsSplitGrantsWhileBothClassesWait() throws Exception {
+        SendScheduler.Grant blocker = scheduler.register(1L, SendScheduler.Priority.TRANSACTIONAL).awaitTurn(1);
+        SendScheduler.Job test = scheduler.register(2L, SendScheduler.Priority.TEST);
+        SendScheduler.Job bulk = scheduler.register(3L, SendScheduler.Priority.BULK);
+
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 6; i++) threads.add(waitAndRecord(test, "T", order));
+        for (int i = 0; i < 2; i++) threads.add(waitAndRecord(bulk, "B", order));
+        awaitWaiting(8);
+
+        blocker.close();
+        joinAll(threads);
+
+        assertThat(order).hasSize(8);
+        // TEST:BULK = 3:1 → 처음 4개 중 BULK 1개, BULK 두 번째도 TEST 가 다 끝나기 전에 나간다
+        assertThat(order.subList(0, 4)).containsExactlyInAnyOrder("T", "T", "T", "B");
+        assertThat(order.lastIndexOf("B")).isLessThan(order.lastIndexOf("T"));
+        assertThat(scheduler.inflightChunks()).isZero();
+    }
+
+    @Test
+    void smallTenantIsNotQueuedBehindLargeCampaign() throws Exception {
+        tenant(2L, "dept-1");
+        tenant(3L, "dept-2");
+        SendScheduler.Grant blocker = scheduler.register(1L, SendScheduler.Priority.TRANSACTIONAL).awaitTurn(1);
+        SendScheduler.Job large = scheduler.register(2L, SendScheduler.Priority.BULK);
+        SendScheduler.Job small = scheduler.register(3L, SendScheduler.Priority.BULK);
+
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 6; i++) threads.add(waitAndRecord(large, "large", order));
+        awaitWaiting(6);
+        threads.add(waitAndRecord(small, "small", order));
+        awaitWaiting(7);
+
+        blocker.close();
+        joinAll(threads);
+
+        assertThat(order.indexOf("small")).isLessThanOrEqualTo(1);
+    }
+
+    @Test
+    void tenantWeightsSplitGrantsWithinAClass() throws Exception {
+        props.getTenantWeights().put("dept-1", 2);
+        tenant(2L, "dept-1");
+        tenant(3L, "dept-2");
+        SendScheduler.Grant blocker = scheduler.register(1L, SendScheduler.Priority.TRANSACTIONAL).awaitTurn(1);
+        SendScheduler.Job heavy = scheduler.register(2L, SendScheduler.Priority.BULK);
+        SendScheduler.Job light = scheduler.register(3L, SendScheduler.Priority.BULK);
+
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 4; i++) threads.add(waitAndRecord(heavy, "H", order));
+        for (int i = 0; i < 4; i++) threads.add(waitAndRecord(light, "L", order));
+        awaitWaiting(8);
+
+        blocker.close();
+        joinAll(threads);
+
+        assertThat(order.subList(0, 6)).filteredOn("H"::equals).hasSize(4);
+    }
+
+    @Test
+    void grantIsHeldUntilTrackedTasksFinish() throws Exception {
+        SendScheduler.Job job = scheduler.register(1L, SendScheduler.Priority.TRANSACTIONAL);
+        SendScheduler.Grant grant = job.awaitTurn(10);
+        AtomicInteger done = new AtomicInteger();
+        grant.whenDone(done::incrementAndGet);
+
+        Runnable first = grant.track(() -> { });
+        Runnable second = grant.track(() -> {
+            throw new IllegalStateException("send failed");
+        });
+        grant.close();
+        first.run();
+        assertThat(scheduler.inflightChunks()).isEqualTo(1);
+        assertThat(done).hasValue(0);
+
+        // 작업이 실패해도 슬롯은 반납된다
+        assertThatThrownBy(second::run).isInstanceOf(IllegalStateException.class);
+        assertThat(scheduler.inflightChunks()).isZero();
+        assertThat(done).hasValue(1);
+        job.close();
+    }
+
+    @Test
+    void interruptedWaiterLeavesTheQueue() throws Exception {
+        SendScheduler.Grant blocker = scheduler.register(1L, SendScheduler.Priority.TRANSACTIONAL).awaitTurn(1);
+        SendScheduler.Job job = scheduler.register(2L, SendScheduler.Priority.BULK);
+        AtomicInteger interrupted = new AtomicInteger();
+        Thread waiter = Thread.ofPlatform().start(() -> {
+            try {
+                job.awaitTurn(1).close();
+            } catch (InterruptedException e) {
+                interrupted.incrementAndGet();
+            }
+        });
+        awaitWaiting(1);
+
+        waiter.interrupt();
+        waiter.join(5_000);
+
+        assertThat(interrupted).hasValue(1);
+        assertThat(scheduler.waitingChunks()).isZero();
+        blocker.close();
+        assertThat(scheduler.inflightChunks()).isZero();
+    }
+
+    @Test
+    void closedJobsDropOutOfStatus() throws Exception {
+        tenant(1L, "dept-7");
+        SendScheduler.Job job = scheduler.register(1L, SendScheduler.Priority.BULK);
+        assertThat(scheduler.status().queues())
+                .containsExactly(new SendScheduler.QueueStatus(SendScheduler.Priority.BULK, "dept-7", 1, 0));
+
+        job.close();
+        job.close();
+        assertThat(scheduler.status().queues()).isEmpty();
+    }
+
+    // 차례가 오면 label 을 남기고 바로 반납 (다음 승인은 반납 시점에 대기 중인 것 중에서)
+    private static Thread waitAndRecord(SendScheduler.Job job, String label, List<String> order) {
+        return Thread.ofPlatform().start(() -> {
+            try {
+                SendScheduler.Grant grant = job.awaitTurn(100);
+                order.add(label);
+                grant.close();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+    }
+
+    private void awaitWaiting(int chunks) throws InterruptedException {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (scheduler.waitingChunks() < chunks) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("waiting chunks " + scheduler.waitingChunks() + " < " + chunks);
+            }
+            Thread.sleep(5);
+        }
+    }
+
+    private static void joinAll(List<Thread> threads) throws InterruptedException {
+        for (Thread t : threads) {
+            t.join(5_000);
+            assertThat(t.isAlive()).isFalse();
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package com.mailstorm.be.service;
+
+import com.mailstorm.be.global.SmtpRelayProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.Address;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Session;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class SmtpRelayPoolTest {
+
+    private static final MimeMessage MESSAGE = new MimeMessage(Session.getInstance(new Properties()));
+
+    private final SmtpRelayProperties props = new SmtpRelayProperties();
+    private final Map<String, StubSender> senders = new LinkedHashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        props.setEjectErrorRate(0.5);
+        props.setEjectMs(60_000);
+        props.setHealthAlpha(1.0); // 마지막 결과만 반영 → 오류 1번이면 제외
+        props.setSlowLatencyMs(2_000);
+    }
+
+    private SmtpRelayPool pool(int initialLimit, Object... nameAndWeight) {
+        for (int i = 0; i < nameAndWeight.length; i += 2) {
+            SmtpRelayProperties.Relay relay = new SmtpRelayProperties.Relay();
+            relay.setName((String) nameAndWeight[i]);
+            relay.setHost("localhost");
+            relay.setWeight((Integer) nameAndWeight[i + 1]);
+            props.getRelays().add(relay);
+            senders.put(relay.getName(), new StubSender());
+        }
+        SmtpRelayPool pool = new SmtpRelayPool(props, new SimpleMeterRegistry()) {
+            @Override
+            JavaMailSenderImpl createSender(SmtpRelayProperties.Relay cfg) {
+                return senders.get(cfg.getName());
+            }
+        };
+        ReflectionTestUtils.setField(pool, "initialLimit", initialLimit);
+        ReflectionTestUtils.setField(pool, "minLimit", 1);
+        ReflectionTestUtils.setField(pool, "maxLimit", 64);
+        ReflectionTestUtils.setField(pool, "backoffRatio", 0.9);
+        pool.setupTransporters();
+        return pool;
+    }
+
+    private static String send(SmtpRelayPool pool) throws InterruptedException {
+        try (SmtpRelayPool.Lease lease = pool.acquire()) {
+            lease.send(MESSAGE);
+            return lease.route();
+        }
+    }
+
+    private static SmtpRelayPool.RelayHealth health(SmtpRelayPool pool, String name) {
+        return pool.health().stream().filter(h -> h.name().equals(name)).findFirst().orElseThrow();
+    }
+
+    @Test
+    void splitsTrafficByWeight() throws Exception {
+        SmtpRelayPool pool = pool(8, "a", 3, "b", 1);
+
+        for (int i = 0; i < 8; i++) send(pool);
+
+        assertThat(senders.get("a").sent).hasValue(6);
+        assertThat(senders.get("b").sent).hasValue(2);
+    }
+
+    @Test
+    void failsOverOnRelayFault() throws Exception {
+        SmtpRelayPool pool = pool(8, "a", 1, "b", 1);
+        SmtpRelayPool.Lease lease = pool.acquire();
+        String first = lease.route();
+        String other = first.equals("a") ? "b" : "a";
+        senders.get(first).failure = () -> new MailSendException(Map.of(MESSAGE, new MessagingException("Could not connect")));
+
+        lease.send(MESSAGE);
+        lease.close();
+
+        assertThat(lease.route()).isEqualTo(other);
+        assertThat(senders.get(first).sent).hasValue(1);
+        assertThat(senders.get(other).sent).hasValue(1);
+        assertThat(health(pool, first).ejected()).isTrue();
+        assertThat(pool.health()).allSatisfy(h -> assertThat(h.inflight()).isZero());
+    }
+
+    @Test
+    void doesNotFailOverRecipientRejection() throws Exception {
+        SmtpRelayPool pool = pool(8, "a", 1, "b", 1);
+        Address rcpt = new InternetAddress("nobody@example.com");
+        Supplier<MailException> rejected = () -> new MailSendException(Map.of(MESSAGE,
+                new SendFailedException("550 no such user", null, null, null, new Address[]{rcpt})));
+        senders.values().forEach(s -> s.failure = rejected);
+
+        assertThatThrownBy(() -> send(pool)).isInstanceOf(MailSendException.class);
+
+        assertThat(senders.get("a").sent.get() + senders.get("b").sent.get()).isEqualTo(1);
+        assertThat(pool.health()).allSatisfy(h -> assertThat(h.ejected()).isFalse());
+    }
+
+    @Test
+    void doesNotFailOverPartiallyDeliveredMessage() throws Exception {
+        SmtpRelayPool pool = pool(8, "a", 1, "b", 1);
+        Address delivered = new InternetAddress("ok@example.com");
+        Address deferred = new InternetAddress("later@example.com");
+        Supplier<MailException> partial = () -> new MailSendException(Map.of(MESSAGE,
+                new SendFailedException("451 try later", null, new Address[]{delivered}, new Address[]{deferred}, null)));
+        senders.values().forEach(s -> s.failure = partial);
+
+        assertThatThrownBy(() -> send(pool)).isInstanceOf(MailSendException.class);
+
+        assertThat(senders.get("a").sent.get() + senders.get("b").sent.get()).isEqualTo(1);
+    }
+
+    @Test
+    void treatsCloseFailureAfterSendAsDelivered() throws Exception {
+        SmtpRelayPool pool = pool(8, "a", 1, "b", 1);
+        senders.values().forEach(s -> s.failure = () -> new MailSendException("Failed to close server connection after message sending"));
+
+        send(pool);
+
+        assertThat(senders.get("a").sent.get() + senders.get("b").sent.get()).isEqualTo(1);
+        assertThat(pool.health()).allSatisfy(h -> assertThat(h.ejected()).isFalse());
+    }
+
+    @Test
+    void ejectedRelayGetsNoTrafficWhileAHealthyOneRemains() throws Exception {
+        SmtpRelayPool pool = pool(8, "a", 1, "b", 1);
+        senders.get("a").failure = () -> new MailSendException(Map.of(MESSAGE, new MessagingException("Connection reset")));
+        // a 가 고장 나서 제외될 때까지 (b 로 넘어가므로 발송 자체는 성공)
+        while (!health(pool, "a").ejected()) send(pool);
+        int aAttempts = senders.get("a").sent.get();
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(send(pool)).isEqualTo("b");
+        }
+        assertThat(senders.get("a").sent).hasValue(aAttempts);
+    }
+
+    @Test
+    void healthyRelayAtLimitMakesCallersWaitInsteadOfUsingEjectedOne() throws Exception {
+        SmtpRelayPool pool = pool(1, "a", 1, "b", 1);
+        // b 의 한도가 성공으로 늘어나지 않게 1 로 고정
+        ReflectionTestUtils.setField(pool, "maxLimit", 1);
+        senders.get("a").failure = () -> new MailSendException(Map.of(MESSAGE, new MessagingException("Connection reset")));
+        while (!health(pool, "a").ejected()) send(pool);
+
+        SmtpRelayPool.Lease held = pool.acquire();
+        assertThat(held.route()).isEqualTo("b");
+        CompletableFuture<String> waiting = CompletableFuture.supplyAsync(() -> {
+            try (SmtpRelayPool.Lease lease = pool.acquire()) {
+                return lease.route();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        Thread.sleep(200);
+        assertThat(waiting).isNotDone();
+        held.close();
+        assertThat(waiting.get(5, TimeUnit.SECONDS)).isEqualTo("b");
+    }
+
+    @Test
+    void fallsBackToSoonestReturningRelayWhenAllAreEjected() throws Exception {
+        SmtpRelayPool pool = pool(8, "a", 1, "b", 1);
+        Supplier<MailException> down = () -> new MailSendException(Map.of(MESSAGE, new MessagingException("Connection refused")));
+        senders.get("a").failure = down;
+        senders.get("b").failure = down;
+        assertThatThrownBy(() -> send(pool)).isInstanceOf(MailSendException.class);
+        assertThat(pool.health()).allSatisfy(h -> assertThat(h.ejected()).isTrue());
+
+        senders.get("a").failure = null;
+        senders.get("b").failure = null;
+        String route = send(pool);
+
+        // a 가 먼저 제외됐으므로 복귀 예정도 a 가 먼저
+        assertThat(route).isEqualTo("a");
+    }
+
+    @Test
+    void concurrencyLimitGrowsOnFastSuccessAndShrinksOnDeferral() throws Exception {
+        SmtpRelayPool pool = pool(4, "a", 1);
+
+        send(pool);
+        assertThat(health(pool, "a").concurrencyLimit()).isCloseTo(4.25, within(1e-9));
+
+        senders.get("a").failure = () -> new MailSendException(Map.of(MESSAGE, new MessagingException("421 4.7.0 Try again later")));
+        assertThatThrownBy(() -> send(pool)).isInstanceOf(MailSendException.class);
+        assertThat(health(pool, "a").concurrencyLimit()).isCloseTo(4.25 * 0.9, within(1e-9));
+
+        // 수신자 거부는 릴레이 속도와 무관 → 한도 유지
+        Address rcpt = new InternetAddress("nobody@example.com");
+        senders.get("a").failure = () -> new MailSendException(Map.of(MESSAGE,
+                new SendFailedException("550 no such user", null, null, null, new Address[]{rcpt})));
+        assertThatThrownBy(() -> send(pool)).isInstanceOf(MailSendException.class);
+        assertThat(health(pool, "a").concurrencyLimit()).isCloseTo(4.25 * 0.9, within(1e-9));
+    }
+
+    @Test
+    void slowSuccessShrinksConcurrencyLimit() throws Exception {
+        props.setSlowLatencyMs(1);
+        SmtpRelayPool pool = pool(4, "a", 1);
+        senders.get("a").delayMs = 20;
+
+        send(pool);
+
+        assertThat(health(pool, "a").concurrencyLimit()).isCloseTo(3.6, within(1e-9));
+    }
+
+    @Test
+    void closingUnusedLeaseOnlyReturnsTheSlot() throws Exception {
+        SmtpRelayPool pool = pool(1, "a", 1);
+
+        pool.acquire().close();
+        List<SmtpRelayPool.RelayHealth> health = pool.health();
+
+        assertThat(health.get(0).inflight()).isZero();
+        assertThat(health.get(0).concurrencyLimit()).isEqualTo(1.0);
+        assertThat(senders.get("a").sent).hasValue(0);
+    }
+
+    // 실제 SMTP 연결 없이 결과만 흉내 낸다 (failure 가 null 이면 성공)
+    private static final class StubSender extends JavaMailSenderImpl {
+        private final AtomicInteger sent = new AtomicInteger();
+        private volatile Supplier<MailException> failure;
+        private volatile long delayMs;
+
+        @Override
+        protected void doSend(MimeMessage[] mimeMessages, Object[] originalMessages) {
+            sent.incrementAndGet();
+            if (delayMs > 0) {
+                try {
+                    Thread.sleep(delayMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            Supplier<MailException> f = failure;
+            if (f != null) throw f.get();
+        }
+    }
+}
@@ -3,6 +3,8 @@ import { useParams } from 'react-router-dom';
 import axiosInstance from "../Auth/axios.ts";
 import { QuestionMarkCircleIcon } from '@heroicons/react/24/outline';
 import toast from "react-hot-toast";
+import { subscribeProgress } from "./progressStream.ts";
+import type { ProgressUpdate } from "./progressStream.ts";
 
 interface CampaignStatsData {
     id: number;
@@ -18,7 +20,7 @@ interface CampaignStatsData {
     clickCount: number;
     rejectCount: number;
     totalCount: number;
-    contentHtml: string;
+    contentVersion: string;
 }
 
 const CampaignStats: React.FC = () => {
@@ -28,6 +30,18 @@ const CampaignStats: React.FC = () => {
 
     // 모달 상태
     const [showModal, setShowModal] = useState(false);
+    // 콘텐츠 HTML 은 별도 리소스: 모달을 열 때 받고 contentVersion 이 같으면 다시 받지 않는다
+    const [content, setContent] = useState<{ version: string; html: string } | null>(null);
+    // 실시간 진행 (snapshot 으로 시작해 delta 를 더한다)
+    const [live, setLive] = useState<ProgressUpdate | null>(null);
+
+    const openContent = () => {
+        setShowModal(true);
+        if (!stats || !id || content?.version === stats.contentVersion) return;
+        axiosInstance.get(`/mail-campaigns/status/${id}/content`, { responseType: 'text' })
+            .then((res) => setContent({ version: stats.contentVersion, html: res.data ?? '' }))
+            .catch(() => toast.error('콘텐츠를 불러올 수 없습니다.'));
+    };
 
     useEffect(() => {
         if (!id) return;
@@ -54,7 +68,7 @@ const CampaignStats: React.FC = () => {
                         clickCount: data.clickCount ?? 0,
                         rejectCount: data.rejectCount ?? 0,
                         totalCount: data.totalCount ?? 0,
-                        contentHtml: data.contentHtml ?? '',
+                        contentVersion: data.contentVersion ?? '',
                     });
                 }
             })
@@ -65,9 +79,30 @@ const CampaignStats: React.FC = () => {
             .finally(() => setLoading(false));
     }, [id]);
 
+    useEffect(() => {
+        if (!id) return;
+        setLive(null);
+        return subscribeProgress(id, ({ type, data }) => {
+            setLive((prev) => type === 'snapshot' || !prev ? data : {
+                ...data,
+                sent: prev.sent + data.sent,
+                failed: prev.failed + data.failed,
+                opens: prev.opens + data.opens,
+                clicks: prev.clicks + data.clicks,
+                unsubscribes: prev.unsubscribes + data.unsubscribes,
+            });
+        });
+    }, [id]);
+
     if (loading) return <div>로딩중...</div>;
     if (!stats) return <div>데이터 없음</div>;
 
+    // 오픈/클릭/수신거부는 스트림도 수신자별 첫 기록 기준이라 받는 동안은 스트림 값으로
+    const openCount = live?.opens ?? stats.openCount;
+    const clickCount = live?.clicks ?? stats.clickCount;
+    const rejectCount = live?.unsubscribes ?? stats.rejectCount;
+    const sending = live !== null && (live.ratePerMinute > 0 || live.targetPerMinute !== null);
+
     // 퍼센트 계산
     const percent = (value: number) => {
         if (!stats.totalCount) return '0%';
@@ -179,7 +214,7 @@ const CampaignStats: React.FC = () => {
                     <div className="flex-1 flex-row gap-4">
                         <div className="text-xs text-gray-500 mb-1">이메일 본문</div>
                         <div className="">
-                            <div className="text-xs text-blue-600 cursor-pointer" onClick={() => setShowModal(true)}>
+                            <div className="text-xs text-blue-600 cursor-pointer" onClick={openContent}>
                                 본문확인
                             </div>
                         </div>
@@ -190,6 +225,12 @@ const CampaignStats: React.FC = () => {
             {/* 성과 */}
             <div className="mb-6">
                 <div className="font-semibold mb-2">성과</div>
+                {sending && live && (
+                    <div className="text-xs text-gray-500 mb-2">
+                        발송 중 · 성공 {live.sent} / 실패 {live.failed} · 분당 {live.ratePerMinute}건
+                        {live.targetPerMinute !== null && ` (목표 ${Math.round(live.targetPerMinute)}건)`}
+                    </div>
+                )}
                 <div className="grid grid-cols-4 gap-4">
                     <KPI
                         label="발송 성공"
@@ -201,29 +242,29 @@ const CampaignStats: React.FC = () => {
                     <KPI
                         label="오픈"
                         help="이메일을 오픈한 구독자 수 입니다"
-                        percentText={percent(stats.openCount)}
-                        count={stats.openCount}
+                        percentText={percent(openCount)}
+                        count={openCount}
                         percentClass="text-yellow-400"
                     />
                     <KPI
                         label="클릭"
                         help="이메일 콘텐츠에 포함한 링크를 클릭한 구독자 수 입니다"
-                        percentText={percent(stats.clickCount)}
-                        count={stats.clickCount}
+                        percentText={percent(clickCount)}
+                        count={clickCount}
                         percentClass="text-blue-400"
                     />
                     <KPI
                         label="수신거부"
                         help="이메일 콘텐츠에 포함된 수신거부 링크를 클릭한 구독자 수 입니다"
-                        percentText={percent(stats.rejectCount)}
-                        count={stats.rejectCount}
+                        percentText={percent(rejectCount)}
+                        count={rejectCount}
                         percentClass="text-gray-400"
                     />
                 </div>
             </div>
 
             {/* 모달 렌더링 */}
-            <Modal open={showModal} onClose={() => setShowModal(false)} html={stats.contentHtml} />
+            <Modal open={showModal} onClose={() => setShowModal(false)} html={content?.html ?? ''} />
         </div>
     );
 };
@@ -0,0 +1,82 @@
+// 캠페인 진행 스트림 (GET /mail-campaigns/status/{id}/stream, SSE)
+// EventSource 는 Authorization 헤더를 보낼 수 없어서 fetch 스트림으로 읽고 SSE 형식을 직접 파싱한다.
+import axiosInstance from "../Auth/axios.ts";
+import { useAuthStore } from "../Auth/authStore.ts";
+
+// snapshot 이면 누적값, delta 면 직전 push 이후 증가분
+export interface ProgressUpdate {
+    campaignId: number;
+    sent: number;
+    failed: number;
+    opens: number;
+    clicks: number;
+    unsubscribes: number;
+    ratePerMinute: number;
+    targetPerMinute: number | null;
+}
+
+export type ProgressEvent = { type: "snapshot" | "delta"; data: ProgressUpdate };
+
+const RETRY_MS = 3000;
+
+// 연결이 끊기면 RETRY_MS 뒤 재연결 (재연결 때 snapshot 을 다시 받는다). 반환 함수로 구독 종료
+export function subscribeProgress(campaignId: number | string, onEvent: (e: ProgressEvent) => void): () => void {
+    const controller = new AbortController();
+    let retry: ReturnType<typeof setTimeout> | undefined;
+
+    const connect = async () => {
+        const { accessToken } = useAuthStore.getState();
+        try {
+            const res = await fetch(`${axiosInstance.defaults.baseURL}/mail-campaigns/status/${campaignId}/stream`, {
+                headers: {
+                    Accept: "text/event-stream",
+                    ...(accessToken ? { Authorization: `Bearer ${accessToken}` } : {}),
+                },
+                credentials: "include",
+                signal: controller.signal,
+            });
+            // 인증 만료/없는 캠페인은 재시도하지 않는다 (일반 조회 쪽에서 로그인 이동/오류 표시)
+            if (res.status === 401 || res.status === 404) return;
+            if (!res.ok || !res.body) throw new Error(`stream ${res.status}`);
+
+            const reader = res.body.pipeThrough(new TextDecoderStream()).getReader();
+            let buffer = "";
+            for (;;) {
+                const { value, done } = await reader.read();
+                if (done) break;
+                buffer += value;
+                // 이벤트는 빈 줄로 구분
+                let end: number;
+                while ((end = buffer.search(/\r?\n\r?\n/)) >= 0) {
+                    const block = buffer.slice(0, end);
+                    buffer = buffer.slice(end).replace(/^\r?\n\r?\n/, "");
+                    dispatch(block, onEvent);
+                }
+            }
+        } catch {
+            if (controller.signal.aborted) return;
+        }
+        if (!controller.signal.aborted) {
+            retry = setTimeout(connect, RETRY_MS);
+        }
+    };
+
+    connect();
+    return () => {
+        controller.abort();
+        clearTimeout(retry);
+    };
+}
+
+// ":ping" 같은 주석 줄은 무시
+function dispatch(block: string, onEvent: (e: ProgressEvent) => void) {
+    let name = "";
+    const data: string[] = [];
+    for (const line of block.split(/\r?\n/)) {
+        if (line.startsWith("event:")) name = line.slice(6).trim();
+        else if (line.startsWith("data:")) data.push(line.slice(5).trimStart());
+    }
+    if ((name === "snapshot" || name === "delta") && data.length > 0) {
+        onEvent({ type: name, data: JSON.parse(data.join("\n")) });
+    }
+}